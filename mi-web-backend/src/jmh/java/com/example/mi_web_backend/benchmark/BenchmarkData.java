@@ -0,0 +1,58 @@
+package com.example.mi_web_backend.benchmark;
+// src/jmh/java/com/example/mi_web_backend/benchmark/BenchmarkData.java
+
+import com.example.mi_web_backend.dto.ProductDto;
+import com.example.mi_web_backend.model.Company;
+import com.example.mi_web_backend.model.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Datos sintéticos compartidos por los benchmarks: entidades y DTOs con valores parecidos a los reales
+ * (nombres cortos, stock y precio variables, 100 productos por compañía).
+ */
+final class BenchmarkData {
+
+    static final int PRODUCTS_PER_COMPANY = 100;
+
+    private BenchmarkData() {
+    }
+
+    static List<Company> companies(int count) {
+        List<Company> companies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Company company = new Company((long) i + 1, "B" + (10000000 + i), "Company " + i, null, null,
+                    "Calle " + i, "login" + i, "secret");
+            company.setVersion(0L);
+            companies.add(company);
+        }
+        return companies;
+    }
+
+    static List<Product> products(int count) {
+        List<Company> companies = companies(Math.max(1, count / PRODUCTS_PER_COMPANY));
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setId((long) i + 1);
+            product.setName("Product " + i);
+            product.setStock(i % 500);
+            product.setPrize(0.99 + (i % 1000));
+            product.setCompany(companies.get(i / PRODUCTS_PER_COMPANY % companies.size()));
+            product.setVersion(0L);
+            products.add(product);
+        }
+        return products;
+    }
+
+    static List<ProductDto> productDtos(int count) {
+        List<ProductDto> dtos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long companyId = i / PRODUCTS_PER_COMPANY + 1;
+            dtos.add(new ProductDto((long) i + 1, "Product " + i, i % 500, 0.99 + (i % 1000), companyId,
+                    "Company " + (companyId - 1), 0L));
+        }
+        return dtos;
+    }
+}
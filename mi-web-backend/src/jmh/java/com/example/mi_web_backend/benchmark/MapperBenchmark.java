@@ -0,0 +1,102 @@
+package com.example.mi_web_backend.benchmark;
+// src/jmh/java/com/example/mi_web_backend/benchmark/MapperBenchmark.java
+
+import com.example.mi_web_backend.dto.CompanyDto;
+import com.example.mi_web_backend.dto.ProductDto;
+import com.example.mi_web_backend.mapper.CompanyMapper;
+import com.example.mi_web_backend.mapper.ProductMapper;
+import com.example.mi_web_backend.model.Company;
+import com.example.mi_web_backend.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de ProductMapper y CompanyMapper: conversión de un elemento, de listas de 10, 10k y 1M
+ * elementos y actualización de una entidad desde un DTO. Ejecutar con el perfil jmh (incluye -prof gc
+ * para ver bytes asignados por operación).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    private final ProductMapper productMapper = new ProductMapper();
+    private final CompanyMapper companyMapper = new CompanyMapper();
+
+    private Product product;
+    private Company company;
+    private ProductDto productUpdate;
+    private CompanyDto companyUpdate;
+
+    @Setup
+    public void setUp() {
+        product = BenchmarkData.products(1).get(0);
+        company = product.getCompany();
+        productUpdate = new ProductDto(null, "Renamed", 42, 9.99, null, null, null);
+        companyUpdate = new CompanyDto(null, "Renamed Co", "Otra calle", null);
+    }
+
+    /** Listas de entrada; el tamaño solo afecta a los benchmarks que reciben este estado. */
+    @State(Scope.Benchmark)
+    public static class Lists {
+
+        @Param({"10", "10000", "1000000"})
+        public int size;
+
+        List<Product> products;
+        List<Company> companies;
+
+        @Setup
+        public void setUp() {
+            products = BenchmarkData.products(size);
+            companies = BenchmarkData.companies(size);
+        }
+    }
+
+    @Benchmark
+    public ProductDto productToDto() {
+        return productMapper.toDto(product);
+    }
+
+    @Benchmark
+    public CompanyDto companyToDto() {
+        return companyMapper.toDto(company);
+    }
+
+    @Benchmark
+    public Product productUpdateEntityFromDto() {
+        productMapper.updateEntityFromDto(productUpdate, product);
+        return product;
+    }
+
+    @Benchmark
+    public Company companyUpdateEntityFromDto() {
+        companyMapper.updateEntityFromDto(companyUpdate, company);
+        return company;
+    }
+
+    @Benchmark
+    public List<ProductDto> productToDtoList(Lists lists) {
+        return productMapper.toDtoList(lists.products);
+    }
+
+    @Benchmark
+    public List<CompanyDto> companyToDtoList(Lists lists) {
+        return companyMapper.toDtoList(lists.companies);
+    }
+}
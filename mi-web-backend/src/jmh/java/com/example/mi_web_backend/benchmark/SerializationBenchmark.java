@@ -0,0 +1,84 @@
+package com.example.mi_web_backend.benchmark;
+// src/jmh/java/com/example/mi_web_backend/benchmark/SerializationBenchmark.java
+
+import com.example.mi_web_backend.dto.ProductDto;
+import com.example.mi_web_backend.mapper.ProductMapper;
+import com.example.mi_web_backend.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización JSON de List&lt;ProductDto&gt; con un ObjectMapper configurado como el de Spring Boot,
+ * escribiendo en un stream que solo cuenta bytes (sin coste de red ni de buffer). "mapAndSerialize" mide
+ * el camino completo de un listado: entidades -> DTOs -> JSON.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    @Param({"10", "10000", "1000000"})
+    public int size;
+
+    private final ProductMapper productMapper = new ProductMapper();
+    private ObjectWriter writer;
+    private List<ProductDto> dtos;
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, ProductDto.class));
+        dtos = BenchmarkData.productDtos(size);
+        products = BenchmarkData.products(size);
+    }
+
+    @Benchmark
+    public long serialize() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        writer.writeValue(out, dtos);
+        return out.count;
+    }
+
+    @Benchmark
+    public long mapAndSerialize() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        writer.writeValue(out, productMapper.toDtoList(products));
+        return out.count;
+    }
+
+    // Devuelve el número de bytes escritos para que JMH no pueda descartar la serialización
+    private static final class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
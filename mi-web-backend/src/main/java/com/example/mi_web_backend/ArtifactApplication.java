@@ -2,8 +2,15 @@ package com.example.mi_web_backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// R2DBC solo se usa para lecturas: sin su gestor de transacciones, @Transactional sigue siendo el de JPA.
+// Su ConnectionFactory lo crea ReactiveConfig solo si la API reactiva está activada (con la autoconfiguración,
+// su mera presencia retiraría el DataSource JDBC).
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
+@EnableScheduling // Tareas periódicas (p. ej. volcado del stock en memoria de los productos calientes)
 public class ArtifactApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,294 @@
+package com.example.mi_web_backend.arrow;
+// src/main/java/com/example/mi_web_backend/arrow/ProductArrowExporter.java
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exporta el catálogo como un flujo Arrow IPC (formato stream) para clientes analíticos, columna a columna
+ * y sin pasar por ProductDto: cada fila del ResultSet se copia directamente a los vectores (long, int y double
+ * primitivos) y cada batchSize filas se escribe un record batch y se reutilizan los vectores.
+ *
+ * companyName va codificado con diccionario: cada lote lleva índices int32 a un diccionario con los nombres de
+ * las compañías que aparecen en él. El diccionario es del lote, así que la memoria depende solo del tamaño del
+ * lote; ArrowStreamWriter solo lo reenvía (como reemplazo) cuando cambia respecto al anterior.
+ */
+@Component
+public class ProductArrowExporter {
+
+    public static final String ARROW_STREAM = "application/vnd.apache.arrow.stream";
+    public static final int MAX_BATCH_SIZE = 65_536;
+    static final long COMPANY_NAME_DICTIONARY_ID = 1L;
+
+    // Mismo orden que el catálogo de GET /api/products/export: por ID, con la compañía en el mismo SELECT
+    private static final String EXPORT_SQL = "select p.id, p.name, p.stock, p.prize, c.id, c.name "
+            + "from product p join company c on c.id = p.company order by p.id";
+
+    private static final DictionaryEncoding COMPANY_NAME_ENCODING =
+            new DictionaryEncoding(COMPANY_NAME_DICTIONARY_ID, false, new ArrowType.Int(32, true));
+    private static final Schema SCHEMA = new Schema(List.of(
+            Field.notNullable("id", new ArrowType.Int(64, true)),
+            Field.nullable("name", ArrowType.Utf8.INSTANCE),
+            Field.nullable("stock", new ArrowType.Int(32, true)),
+            Field.nullable("prize", new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE)),
+            Field.notNullable("companyId", new ArrowType.Int(64, true)),
+            new Field("companyName", new FieldType(true, new ArrowType.Int(32, true), COMPANY_NAME_ENCODING), null)));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction; // El cursor de PostgreSQL necesita transacción; readOnly va a réplica
+    private final BufferAllocator rootAllocator; // Memoria fuera del heap de todos los vectores de exportación
+    private final int defaultBatchSize;
+
+    @Autowired
+    public ProductArrowExporter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                @Value("${app.export.arrow.batch-size:8192}") int defaultBatchSize,
+                                @Value("${app.export.arrow.max-memory-bytes:268435456}") long maxMemoryBytes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.rootAllocator = new RootAllocator(maxMemoryBytes);
+        this.defaultBatchSize = clampBatchSize(defaultBatchSize);
+    }
+
+    public int getDefaultBatchSize() {
+        return defaultBatchSize;
+    }
+
+    /**
+     * Ajusta el tamaño de lote pedido al rango [1, MAX_BATCH_SIZE].
+     * @param batchSize Filas por record batch pedidas por el cliente.
+     * @return Tamaño de lote efectivo.
+     */
+    public static int clampBatchSize(int batchSize) {
+        return Math.max(1, Math.min(batchSize, MAX_BATCH_SIZE));
+    }
+
+    /**
+     * Escribe todo el catálogo en formato Arrow IPC stream.
+     * @param out Destino (por ejemplo, la respuesta HTTP); no se cierra.
+     * @param batchSize Filas por record batch (se ajusta con clampBatchSize).
+     * @return Número de productos exportados.
+     * @throws UncheckedIOException si falla la escritura (p. ej. el cliente se desconecta); aborta la consulta.
+     */
+    public long export(OutputStream out, int batchSize) {
+        int rowsPerBatch = clampBatchSize(batchSize);
+        Long exported = readOnlyTransaction.execute(status -> {
+            // Cada exportación tiene su propio allocator hijo: lo que no se libere salta al cerrarlo
+            try (BufferAllocator allocator = rootAllocator.newChildAllocator("product-export", 0, rootAllocator.getLimit());
+                 BatchWriter writer = new BatchWriter(allocator, out, rowsPerBatch)) {
+                writer.start();
+                JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+                streaming.setFetchSize(rowsPerBatch); // El driver trae un lote de filas por viaje, no la tabla entera
+                streaming.query(EXPORT_SQL, writer::append);
+                writer.finish();
+                return writer.exported;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return exported == null ? 0 : exported;
+    }
+
+    @PreDestroy
+    public void close() {
+        rootAllocator.close();
+    }
+
+    // Vectores de un lote y escritor del flujo; los vectores se reutilizan de un lote a otro.
+    private static final class BatchWriter implements AutoCloseable {
+
+        private final int batchSize;
+        private final VectorSchemaRoot root;
+        private final VarCharVector companyNames; // Valores del diccionario del lote actual
+        private final ArrowStreamWriter writer;
+        private final BigIntVector id;
+        private final VarCharVector name;
+        private final IntVector stock;
+        private final Float8Vector prize;
+        private final BigIntVector companyId;
+        private final IntVector companyNameIndex;
+        private final Map<Long, Integer> dictionaryIndexByCompany = new HashMap<>(); // companyId -> posición en el diccionario
+        private int rows;
+        private long exported;
+
+        private BatchWriter(BufferAllocator allocator, OutputStream out, int batchSize) {
+            this.batchSize = batchSize;
+            this.companyNames = new VarCharVector("companyName", allocator);
+            this.root = VectorSchemaRoot.create(SCHEMA, allocator);
+            this.id = (BigIntVector) root.getVector("id");
+            this.name = (VarCharVector) root.getVector("name");
+            this.stock = (IntVector) root.getVector("stock");
+            this.prize = (Float8Vector) root.getVector("prize");
+            this.companyId = (BigIntVector) root.getVector("companyId");
+            this.companyNameIndex = (IntVector) root.getVector("companyName");
+            DictionaryProvider dictionaries = new DictionaryProvider.MapDictionaryProvider(
+                    new Dictionary(companyNames, COMPANY_NAME_ENCODING));
+            this.writer = new ArrowStreamWriter(root, dictionaries, new ResponseChannel(out));
+            allocate();
+        }
+
+        private void start() throws IOException {
+            writer.start(); // Esquema del flujo
+        }
+
+        // Copia una fila a las columnas; con el lote lleno lo escribe.
+        private void append(ResultSet rs) throws SQLException {
+            id.set(rows, rs.getLong(1));
+            String productName = rs.getString(2);
+            if (productName == null) {
+                name.setNull(rows);
+            } else {
+                name.setSafe(rows, productName.getBytes(StandardCharsets.UTF_8));
+            }
+            int units = rs.getInt(3);
+            if (rs.wasNull()) {
+                stock.setNull(rows);
+            } else {
+                stock.set(rows, units);
+            }
+            double price = rs.getDouble(4);
+            if (rs.wasNull()) {
+                prize.setNull(rows);
+            } else {
+                prize.set(rows, price);
+            }
+            long company = rs.getLong(5);
+            companyId.set(rows, company);
+            Integer index = dictionaryIndexByCompany.get(company);
+            if (index == null) {
+                index = dictionaryIndexByCompany.size();
+                dictionaryIndexByCompany.put(company, index);
+                String companyName = rs.getString(6);
+                if (companyName == null) {
+                    companyNames.setNull(index);
+                } else {
+                    companyNames.setSafe(index, companyName.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            companyNameIndex.set(rows, index);
+            rows++;
+            exported++;
+            if (rows == batchSize) {
+                flush();
+            }
+        }
+
+        private void finish() throws IOException {
+            if (rows > 0) {
+                writeBatch();
+            }
+            writer.end();
+        }
+
+        private void flush() {
+            try {
+                writeBatch();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // Cliente desconectado: aborta el recorrido del ResultSet
+            }
+            allocate();
+        }
+
+        private void writeBatch() throws IOException {
+            companyNames.setValueCount(dictionaryIndexByCompany.size());
+            root.setRowCount(rows);
+            writer.writeBatch();
+        }
+
+        // Vacía los vectores para el siguiente lote, reservando ya batchSize filas
+        private void allocate() {
+            for (FieldVector vector : root.getFieldVectors()) {
+                vector.setInitialCapacity(batchSize);
+                vector.allocateNew();
+            }
+            companyNames.setInitialCapacity(batchSize);
+            companyNames.allocateNew();
+            dictionaryIndexByCompany.clear();
+            rows = 0;
+        }
+
+        // Cierra el escritor también tras un error de escritura (ResponseChannel ya no escribe nada), para que
+        // libere sus copias de los diccionarios y el allocator de la exportación quede vacío.
+        @Override
+        public void close() {
+            try {
+                writer.close();
+            } finally {
+                root.close();
+                companyNames.close();
+            }
+        }
+    }
+
+    // Canal sobre la respuesta que no la cierra (lo hace el contenedor) y que, tras el primer fallo de escritura
+    // (cliente desconectado), descarta lo que quede en lugar de volver a fallar al cerrar el flujo.
+    private static final class ResponseChannel implements WritableByteChannel {
+
+        private final WritableByteChannel out;
+        private boolean failed;
+
+        private ResponseChannel(OutputStream out) {
+            this.out = Channels.newChannel(out);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (failed) {
+                int discarded = src.remaining();
+                src.position(src.limit());
+                return discarded;
+            }
+            try {
+                return out.write(src);
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+            // La respuesta la cierra el contenedor
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.mi_web_backend.bulkhead;
+// src/main/java/com/example/mi_web_backend/bulkhead/AdaptiveBulkhead.java
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Límite de concurrencia con cola acotada y límite adaptativo AIMD:
+ * <ul>
+ *     <li>Si hay hueco (enCurso &lt; límite) la petición entra; si no, espera en cola como mucho maxWait.
+ *     Con la cola llena, o si vence la espera, se rechaza.</li>
+ *     <li>Cada petición que termina por encima de la latencia objetivo reduce el límite un 10 %
+ *     (como mucho una vez por ventana de latencia objetivo, para no hundirlo con una sola ráfaga).</li>
+ *     <li>Cada "límite" peticiones rápidas seguidas lo suben en 1, si entretanto el límite se ha llegado a llenar.</li>
+ * </ul>
+ */
+public class AdaptiveBulkhead {
+
+    private static final double DECREASE_FACTOR = 0.9;
+
+    private final String name;
+    private final BulkheadSettings settings;
+    private final long targetLatencyNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private int limit;
+    private int inFlight;
+    private int queued;
+    private int fastCompletions;
+    private boolean limitReached; // El límite se ha llenado desde el último ajuste (solo entonces tiene sentido subirlo)
+    private long lastDecreaseNanos;
+    private long rejected;
+
+    public AdaptiveBulkhead(String name, BulkheadSettings settings) {
+        this.name = name;
+        this.settings = settings;
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(settings.getTargetLatencyMillis());
+        this.limit = Math.max(settings.getMinLimit(), Math.min(settings.getInitialLimit(), settings.getMaxLimit()));
+        this.lastDecreaseNanos = System.nanoTime() - targetLatencyNanos;
+    }
+
+    /**
+     * Intenta ocupar un hueco, esperando en cola si hace falta.
+     * @return true si se ha concedido; false si la petición debe rechazarse.
+     */
+    public boolean tryAcquire() throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight < limit) {
+                inFlight++;
+                limitReached |= inFlight == limit;
+                return true;
+            }
+            limitReached = true;
+            if (queued >= settings.getQueueSize()) {
+                rejected++;
+                return false;
+            }
+            queued++;
+            try {
+                long remaining = TimeUnit.MILLISECONDS.toNanos(settings.getMaxWaitMillis());
+                while (inFlight >= limit) {
+                    if (remaining <= 0) {
+                        rejected++;
+                        return false;
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                inFlight++;
+                return true;
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Libera el hueco y ajusta el límite con la latencia observada.
+     * @param latencyNanos Tiempo que ha ocupado el hueco.
+     */
+    public void release(long latencyNanos) {
+        lock.lock();
+        try {
+            inFlight--;
+            long now = System.nanoTime();
+            if (latencyNanos > targetLatencyNanos) {
+                fastCompletions = 0;
+                if (now - lastDecreaseNanos >= targetLatencyNanos && limit > settings.getMinLimit()) {
+                    limit = Math.max(settings.getMinLimit(), (int) (limit * DECREASE_FACTOR));
+                    lastDecreaseNanos = now;
+                }
+            } else if (++fastCompletions >= limit && limitReached && limit < settings.getMaxLimit()) {
+                limit++;
+                fastCompletions = 0;
+                limitReached = false;
+            }
+            if (inFlight < limit) {
+                released.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejected() {
+        lock.lock();
+        try {
+            return rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
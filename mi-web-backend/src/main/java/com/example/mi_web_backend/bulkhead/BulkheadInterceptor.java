@@ -0,0 +1,102 @@
+package com.example.mi_web_backend.bulkhead;
+// src/main/java/com/example/mi_web_backend/bulkhead/BulkheadInterceptor.java
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Control de admisión por tipo de endpoint: cada petición ocupa un hueco de su bulkhead (point, heavy o
+ * write) antes de llegar al controlador y por tanto a ProductService/CompanyService y al pool de conexiones.
+ * Si el bulkhead está lleno se responde 503 (Service Unavailable) con Retry-After sin tocar la BD.
+ * El hueco se libera al terminar la petición, también en las asíncronas (exportación en streaming).
+ * Métricas: app.bulkhead.limit, .in.flight, .queued (gauges), .rejected (contador) y .queue.time (timer),
+ * con la etiqueta bulkhead.
+ */
+public class BulkheadInterceptor implements AsyncHandlerInterceptor {
+
+    public enum Kind {
+        POINT, HEAVY, WRITE
+    }
+
+    private static final String PERMIT_ATTRIBUTE = BulkheadInterceptor.class.getName() + ".permit";
+    private static final String START_ATTRIBUTE = BulkheadInterceptor.class.getName() + ".start";
+
+    private final Map<Kind, AdaptiveBulkhead> bulkheads = new EnumMap<>(Kind.class);
+    private final Map<Kind, Counter> rejections = new EnumMap<>(Kind.class);
+    private final Map<Kind, Timer> queueTimes = new EnumMap<>(Kind.class);
+    private final String retryAfterSeconds;
+
+    public BulkheadInterceptor(Map<Kind, BulkheadSettings> settings, long retryAfterSeconds, MeterRegistry meterRegistry) {
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+        settings.forEach((kind, kindSettings) -> {
+            String name = kind.name().toLowerCase(Locale.ROOT);
+            AdaptiveBulkhead bulkhead = new AdaptiveBulkhead(name, kindSettings);
+            bulkheads.put(kind, bulkhead);
+            Gauge.builder("app.bulkhead.limit", bulkhead, AdaptiveBulkhead::getLimit).tag("bulkhead", name).register(meterRegistry);
+            Gauge.builder("app.bulkhead.in.flight", bulkhead, AdaptiveBulkhead::getInFlight).tag("bulkhead", name).register(meterRegistry);
+            Gauge.builder("app.bulkhead.queued", bulkhead, AdaptiveBulkhead::getQueued).tag("bulkhead", name).register(meterRegistry);
+            rejections.put(kind, Counter.builder("app.bulkhead.rejected").tag("bulkhead", name).register(meterRegistry));
+            queueTimes.put(kind, Timer.builder("app.bulkhead.queue.time").tag("bulkhead", name).register(meterRegistry));
+        });
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod) || request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            return true; // Recursos estáticos, o redespacho asíncrono de una petición que ya tiene hueco
+        }
+        Kind kind = kindOf(request, (HandlerMethod) handler);
+        AdaptiveBulkhead bulkhead = bulkheads.get(kind);
+        long start = System.nanoTime();
+        boolean acquired = bulkhead.tryAcquire();
+        long now = System.nanoTime();
+        queueTimes.get(kind).record(now - start, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            rejections.get(kind).increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return false;
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, kind);
+        request.setAttribute(START_ATTRIBUTE, now);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.isAsyncStarted()) {
+            return; // Se liberará al final del redespacho asíncrono
+        }
+        Object kind = request.getAttribute(PERMIT_ATTRIBUTE);
+        if (kind != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            long start = (Long) request.getAttribute(START_ATTRIBUTE);
+            bulkheads.get((Kind) kind).release(System.nanoTime() - start);
+        }
+    }
+
+    AdaptiveBulkhead bulkhead(Kind kind) {
+        return bulkheads.get(kind);
+    }
+
+    private static Kind kindOf(HttpServletRequest request, HandlerMethod handler) {
+        if (handler.hasMethodAnnotation(HeavyOperation.class)) {
+            return Kind.HEAVY;
+        }
+        return HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod()) ? Kind.POINT : Kind.WRITE;
+    }
+}
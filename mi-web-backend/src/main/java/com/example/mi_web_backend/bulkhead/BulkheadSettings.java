@@ -0,0 +1,21 @@
+package com.example.mi_web_backend.bulkhead;
+// src/main/java/com/example/mi_web_backend/bulkhead/BulkheadSettings.java
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Configuración de un bulkhead (propiedades app.bulkhead.&lt;nombre&gt;.*).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkheadSettings {
+    private int initialLimit; // Peticiones simultáneas permitidas al arrancar
+    private int minLimit; // El límite adaptativo nunca baja de aquí
+    private int maxLimit; // ... ni sube de aquí
+    private int queueSize; // Peticiones que pueden esperar un hueco; con la cola llena se rechaza al momento
+    private long maxWaitMillis; // Espera máxima en cola antes de rechazar
+    private long targetLatencyMillis; // Por encima de esta latencia el límite se reduce (AIMD)
+}
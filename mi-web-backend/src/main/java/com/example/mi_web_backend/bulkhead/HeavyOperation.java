@@ -0,0 +1,19 @@
+package com.example.mi_web_backend.bulkhead;
+// src/main/java/com/example/mi_web_backend/bulkhead/HeavyOperation.java
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca un endpoint caro (listados, exportación, lotes, importación) para que se ejecute en el bulkhead
+ * "heavy" y no compita por conexiones con las consultas puntuales.
+ * Sin esta anotación, los GET van al bulkhead "point" y el resto de métodos al de "write".
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface HeavyOperation {
+}
@@ -0,0 +1,68 @@
+package com.example.mi_web_backend.config;
+// src/main/java/com/example/mi_web_backend/config/BulkheadConfig.java
+
+import com.example.mi_web_backend.bulkhead.BulkheadInterceptor;
+import com.example.mi_web_backend.bulkhead.BulkheadSettings;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bulkheads por tipo de endpoint (point, heavy, write) delante de los controladores de /api.
+ * Cada uno se configura con app.bulkhead.&lt;tipo&gt;.* (ver BulkheadSettings); los valores por defecto
+ * reparten el pool de conexiones (10 en HikariCP) para que los listados no dejen sin conexión a las
+ * consultas puntuales. Se desactiva con app.bulkhead.enabled=false.
+ * Las lecturas reactivas (/api/reactive) no ocupan hilos ni conexiones JDBC y quedan fuera.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.bulkhead.enabled", havingValue = "true", matchIfMissing = true)
+public class BulkheadConfig implements WebMvcConfigurer {
+
+    private static final Map<BulkheadInterceptor.Kind, BulkheadSettings> DEFAULTS = new EnumMap<>(BulkheadInterceptor.Kind.class);
+
+    static {
+        DEFAULTS.put(BulkheadInterceptor.Kind.POINT, new BulkheadSettings(8, 2, 32, 64, 50, 50));
+        DEFAULTS.put(BulkheadInterceptor.Kind.HEAVY, new BulkheadSettings(2, 1, 4, 8, 200, 2000));
+        DEFAULTS.put(BulkheadInterceptor.Kind.WRITE, new BulkheadSettings(4, 1, 16, 32, 100, 200));
+    }
+
+    private final BulkheadInterceptor bulkheadInterceptor;
+
+    public BulkheadConfig(Environment environment, MeterRegistry meterRegistry,
+                          @Value("${app.bulkhead.retry-after-seconds:1}") long retryAfterSeconds) {
+        Binder binder = Binder.get(environment);
+        Map<BulkheadInterceptor.Kind, BulkheadSettings> settings = new EnumMap<>(BulkheadInterceptor.Kind.class);
+        DEFAULTS.forEach((kind, defaults) -> {
+            BulkheadSettings kindSettings = new BulkheadSettings(defaults.getInitialLimit(), defaults.getMinLimit(),
+                    defaults.getMaxLimit(), defaults.getQueueSize(), defaults.getMaxWaitMillis(), defaults.getTargetLatencyMillis());
+            // Las propiedades presentes sobrescriben los valores por defecto
+            binder.bind("app.bulkhead." + kind.name().toLowerCase(Locale.ROOT), Bindable.ofInstance(kindSettings));
+            settings.put(kind, kindSettings);
+        });
+        this.bulkheadInterceptor = new BulkheadInterceptor(settings, retryAfterSeconds, meterRegistry);
+    }
+
+    @Bean
+    public BulkheadInterceptor bulkheadInterceptor() {
+        return bulkheadInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(bulkheadInterceptor)
+                .addPathPatterns("/api/**")
+                // Las suscripciones SSE duran minutos: ocuparían un permiso del bulkhead durante toda la conexión
+                .excludePathPatterns("/api/reactive/**", "/api/products/stream");
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.mi_web_backend.config;
+// src/main/java/com/example/mi_web_backend/config/CacheConfig.java
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Cachés en memoria (Caffeine) para lecturas por ID de Companies y Products.
+ * Cada caché tiene su propio límite de tamaño y TTL, y registra estadísticas (recordStats)
+ * que Actuator publica como métricas cache.gets/cache.evictions en /actuator/metrics.
+ * Los servicios invalidan las entradas en cada create/update/delete.
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String COMPANY_EXISTS = "companyExists"; // companyId -> existe (validación de FK)
+    public static final String COMPANIES = "companies"; // companyId -> CompanyDto
+    public static final String PRODUCTS = "products"; // productId -> ProductDto
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${app.cache.company-exists.spec:maximumSize=100000,expireAfterWrite=30m,recordStats}") String companyExistsSpec,
+            @Value("${app.cache.companies.spec:maximumSize=10000,expireAfterWrite=30m,recordStats}") String companiesSpec,
+            @Value("${app.cache.products.spec:maximumSize=50000,expireAfterWrite=5m,recordStats}") String productsSpec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCacheNames(Collections.emptyList()); // Solo las cachés registradas aquí
+        cacheManager.registerCustomCache(COMPANY_EXISTS, Caffeine.from(companyExistsSpec).build());
+        cacheManager.registerCustomCache(COMPANIES, Caffeine.from(companiesSpec).build());
+        cacheManager.registerCustomCache(PRODUCTS, Caffeine.from(productsSpec).build());
+        return cacheManager;
+    }
+
+    /**
+     * Invalida varias claves de una caché de una vez (borrados en bloque).
+     * Con Caffeine usa invalidateAll sobre la caché nativa; con otra implementación, evict por clave.
+     * @param cache Caché de la que se quitan las entradas.
+     * @param keys Claves a invalidar.
+     */
+    @SuppressWarnings("unchecked")
+    public static void evictAll(Cache cache, Collection<?> keys) {
+        if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache) {
+            ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache()).invalidateAll(keys);
+        } else {
+            keys.forEach(cache::evict);
+        }
+    }
+}
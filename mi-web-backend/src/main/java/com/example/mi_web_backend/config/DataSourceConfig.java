@@ -0,0 +1,117 @@
+package com.example.mi_web_backend.config;
+// src/main/java/com/example/mi_web_backend/config/DataSourceConfig.java
+
+import com.example.mi_web_backend.jdbc.ReadWriteRoutingDataSource;
+import com.example.mi_web_backend.jdbc.ReadYourWritesFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * DataSource con separación de lecturas y escrituras:
+ * <ul>
+ *     <li>Primario: spring.datasource.* y spring.datasource.hikari.*, como antes.</li>
+ *     <li>Réplicas: app.datasource.replicas[n].url (usuario y contraseña opcionales; por defecto los del
+ *     primario), con su propio pool de app.datasource.replica-pool-size conexiones.</li>
+ *     <li>Las transacciones readOnly van a una réplica sana (por turnos) y el resto al primario
+ *     (ReadWriteRoutingDataSource); la salud se comprueba cada app.datasource.replica-health-check-ms.</li>
+ *     <li>app.datasource.read-your-writes-ms: tras una escritura, las lecturas del mismo cliente siguen en el
+ *     primario durante ese tiempo (cookie primary-until); 0 lo desactiva.</li>
+ * </ul>
+ * Sin réplicas configuradas todo va al primario.
+ *
+ * Métricas hikaricp.*: las del primario las registra Spring Boot (llega a él desenvolviendo el DataSource);
+ * las réplicas no son beans, así que se enganchan aquí una vez creados los singletons. El MeterRegistry no
+ * se inyecta en el constructor: sus binders necesitan el DataSource y sería una referencia circular.
+ */
+@Configuration
+public class DataSourceConfig implements SmartInitializingSingleton {
+
+    private final ReadWriteRoutingDataSource routingDataSource;
+    private final DataSource dataSource;
+    private final List<HikariDataSource> replicaPools = new ArrayList<>();
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public DataSourceConfig(DataSourceProperties properties, Environment environment, ObjectProvider<MeterRegistry> meterRegistry,
+                            @Value("${app.datasource.replica-pool-size:10}") int replicaPoolSize,
+                            @Value("${app.datasource.replica-connection-timeout-ms:2000}") long replicaConnectionTimeout,
+                            @Value("${app.datasource.read-your-writes-ms:2000}") long readYourWritesMillis) {
+        Binder binder = Binder.get(environment);
+        this.meterRegistry = meterRegistry;
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+
+        List<DataSourceProperties> replicaProperties = binder.bind("app.datasource.replicas", Bindable.listOf(DataSourceProperties.class))
+                .orElse(Collections.emptyList());
+        List<DataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaProperties.size(); i++) {
+            DataSourceProperties replicaConfig = replicaProperties.get(i);
+            HikariDataSource replica = new HikariDataSource();
+            replica.setJdbcUrl(replicaConfig.getUrl());
+            replica.setUsername(replicaConfig.getUsername() != null ? replicaConfig.getUsername() : primary.getUsername());
+            replica.setPassword(replicaConfig.getPassword() != null ? replicaConfig.getPassword() : primary.getPassword());
+            if (primary.getDriverClassName() != null && replicaConfig.getDriverClassName() == null) {
+                replica.setDriverClassName(primary.getDriverClassName());
+            }
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setConnectionTimeout(replicaConnectionTimeout); // Una réplica caída no debe bloquear la comprobación de salud
+            replica.setReadOnly(true);
+            replica.setPoolName("replica-" + (i + 1));
+            replicaPools.add(replica);
+            replicas.add(replica);
+        }
+
+        this.routingDataSource = new ReadWriteRoutingDataSource(primary, replicas, readYourWritesMillis);
+        this.dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    // Único bean DataSource (JPA, Flyway, JdbcTemplate); el enrutador se obtiene con unwrap(ReadWriteRoutingDataSource.class)
+    @Bean
+    public DataSource dataSource() {
+        return dataSource;
+    }
+
+    // Antes de que arranquen las tareas programadas, y con ellas la primera conexión a las réplicas:
+    // Hikari solo admite el tracker mientras el pool no ha arrancado.
+    @Override
+    public void afterSingletonsInstantiated() {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null && !replicaPools.isEmpty()) {
+            MicrometerMetricsTrackerFactory metrics = new MicrometerMetricsTrackerFactory(registry); // hikaricp.* por pool
+            replicaPools.forEach(replica -> replica.setMetricsTrackerFactory(metrics));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica-health-check-ms:5000}")
+    public void checkReplicas() {
+        routingDataSource.checkReplicas();
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter() {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(new ReadYourWritesFilter());
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.mi_web_backend.config;
+// src/main/java/com/example/mi_web_backend/config/LayerMetricsAspect.java
+
+import com.example.mi_web_backend.repository.ProductDao;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers por método para la capa de servicio (ProductService, CompanyService) y la de repositorio
+ * (ProductDao, CompanyDao): app.service.calls y app.repository.calls, con las etiquetas class, method,
+ * outcome (success/error) y exception. El recuento de cada timer sirve como contador de llamadas y errores.
+ * Los endpoints ya se miden con http.server.requests de Spring Boot, y HikariCP, las cachés y las
+ * estadísticas de Hibernate con sus binders de Actuator.
+ * Se desactiva con app.metrics.detailed.enabled=false.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "app.metrics.detailed.enabled", havingValue = "true", matchIfMissing = true)
+public class LayerMetricsAspect {
+
+    static final String SERVICE_METRIC = "app.service.calls";
+    static final String REPOSITORY_METRIC = "app.repository.calls";
+
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public LayerMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.example.mi_web_backend.service.ProductService.*(..))"
+            + " || execution(public * com.example.mi_web_backend.service.CompanyService.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(SERVICE_METRIC, joinPoint.getSignature().getDeclaringType().getSimpleName(), joinPoint);
+    }
+
+    // Los DAO son proxies de Spring Data: "this" es el proxy, que implementa la interfaz (y sus métodos heredados)
+    @Around("(this(com.example.mi_web_backend.repository.ProductDao) || this(com.example.mi_web_backend.repository.CompanyDao))"
+            + " && !execution(* java.lang.Object.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        String dao = joinPoint.getThis() instanceof ProductDao ? "ProductDao" : "CompanyDao";
+        return time(REPOSITORY_METRIC, dao, joinPoint);
+    }
+
+    private Object time(String metric, String className, ProceedingJoinPoint joinPoint) throws Throwable {
+        long start = System.nanoTime();
+        // Para métodos que devuelven un Stream solo se mide su apertura, no el recorrido
+        String outcome = "success";
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = "error";
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            Timer.builder(metric)
+                    .tag("class", className)
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("outcome", outcome)
+                    .tag("exception", exception)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
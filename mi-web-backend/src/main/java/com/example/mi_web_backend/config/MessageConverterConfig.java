@@ -0,0 +1,109 @@
+package com.example.mi_web_backend.config;
+// src/main/java/com/example/mi_web_backend/config/MessageConverterConfig.java
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import javax.servlet.Filter;
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+
+/**
+ * Codificaciones binarias de Jackson, además de JSON: application/x-jackson-smile y application/cbor.
+ * El cliente las elige con Accept (respuestas) o Content-Type (cuerpos de escritura); sin ellas se sigue
+ * respondiendo JSON, que va primero en la lista de convertidores.
+ * Se construyen con el Jackson2ObjectMapperBuilder de Spring Boot para que compartan la configuración
+ * (módulos, fechas, spring.jackson.*) con el convertidor JSON.
+ */
+@Configuration
+public class MessageConverterConfig {
+
+    public static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    // Formatos de respuesta en el orden de sus convertidores: ante un Accept ambiguo gana el primero
+    private static final List<MediaType> RESPONSE_FORMATS = List.of(MediaType.APPLICATION_JSON, SMILE, MediaType.APPLICATION_CBOR);
+
+    /**
+     * Formato en que se serializará la respuesta, elegido como lo hace Spring MVC: el primer tipo de Accept
+     * (por especificidad y calidad) compatible con algún convertidor, y de ellos el primero registrado.
+     * Los controladores lo necesitan antes de serializar, para calcular el ETag.
+     * @param accept Cabecera Accept (puede ser null).
+     * @return JSON, Smile o CBOR; JSON si Accept falta, no es válida o no admite ninguno (la respuesta será 406).
+     */
+    public static MediaType responseFormat(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MediaType.sortBySpecificityAndQuality(accepted);
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType format : RESPONSE_FORMATS) {
+                if (type.isCompatibleWith(format)) {
+                    return format;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    /**
+     * Sufijo que distingue el ETag de cada formato: los bytes de la respuesta cambian con él y un ETag
+     * fuerte no puede repetirse entre representaciones distintas. JSON no lleva sufijo, así que sus ETags
+     * no cambian. Va al final, de modo que la versión sigue siendo el primer número (IfMatchHeader).
+     * @param format Formato de la respuesta (el de responseFormat).
+     * @return "", "-smile" o "-cbor".
+     */
+    public static String eTagSuffix(MediaType format) {
+        if (SMILE.equalsTypeAndSubtype(format)) {
+            return "-smile";
+        }
+        if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(format)) {
+            return "-cbor";
+        }
+        return "";
+    }
+
+    // Spring Boot sustituye por estos beans los convertidores por defecto del mismo tipo
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        // Valores de texto compartidos: un companyName repetido en una lista se escribe una vez y luego como referencia
+        SmileFactory factory = SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(factory).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    // La misma URL responde con varios formatos: las cachés HTTP deben distinguir por Accept
+    @Bean
+    public FilterRegistrationBean<Filter> varyAcceptFilter() {
+        FilterRegistrationBean<Filter> registration = new FilterRegistrationBean<>((request, response, chain) -> {
+            ((HttpServletResponse) response).addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            chain.doFilter(request, response);
+        });
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
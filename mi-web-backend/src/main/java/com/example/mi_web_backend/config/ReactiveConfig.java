@@ -0,0 +1,35 @@
+package com.example.mi_web_backend.config;
+// src/main/java/com/example/mi_web_backend/config/ReactiveConfig.java
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Pool R2DBC de la API reactiva, solo con app.reactive.enabled=true.
+ * R2dbcAutoConfiguration está excluida: si crease siempre un ConnectionFactory, DataSourceAutoConfiguration
+ * (condicionada a que no exista uno) se retiraría y la aplicación se quedaría sin DataSource JDBC ni JPA.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true")
+public class ReactiveConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool connectionFactory(@Value("${spring.r2dbc.url}") String url,
+                                            @Value("${spring.r2dbc.username:}") String username,
+                                            @Value("${spring.r2dbc.password:}") String password,
+                                            @Value("${spring.r2dbc.pool.max-size:10}") int maxSize) {
+        ConnectionFactory connectionFactory = ConnectionFactoryBuilder.withUrl(url)
+                .username(username)
+                .password(password)
+                .build();
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .maxSize(maxSize)
+                .build());
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.mi_web_backend.config;
+// src/main/java/com/example/mi_web_backend/config/SqlStatsConfig.java
+
+import com.example.mi_web_backend.jdbc.SqlStatsFilter;
+import com.example.mi_web_backend.jdbc.SqlStatsListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Recuento de SQL por petición: envuelve el DataSource con datasource-proxy (SqlStatsListener) y
+ * registra SqlStatsFilter delante de los controladores.
+ */
+@Configuration
+public class SqlStatsConfig {
+
+    // static: el post-procesador se crea antes que el resto de beans de la configuración
+    @Bean
+    public static BeanPostProcessor sqlStatsDataSourceProxy() {
+        SqlStatsListener listener = new SqlStatsListener();
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create((DataSource) bean)
+                            .name(beanName)
+                            .listener(listener)
+                            .methodListener(listener)
+                            .proxyResultSet() // Para contar filas leídas con ResultSet.next()
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlStatsFilter> sqlStatsFilter(
+            MeterRegistry meterRegistry,
+            @Value("${app.sql-stats.repeated-statement-threshold:10}") int repeatedStatementThreshold,
+            @Value("${app.sql-stats.response-headers:false}") boolean responseHeaders) {
+        FilterRegistrationBean<SqlStatsFilter> registration =
+                new FilterRegistrationBean<>(new SqlStatsFilter(meterRegistry, repeatedStatementThreshold, responseHeaders));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
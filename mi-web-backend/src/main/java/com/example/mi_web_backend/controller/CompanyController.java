@@ -2,24 +2,38 @@ package com.example.mi_web_backend.controller;
 
 // src/main/java/com/example/mi_web_backend/controller/CompanyController.java
 
+import com.example.mi_web_backend.bulkhead.HeavyOperation;
+import com.example.mi_web_backend.config.MessageConverterConfig;
+import com.example.mi_web_backend.dto.BatchResultDto;
 import com.example.mi_web_backend.dto.CompanyDto;
+import com.example.mi_web_backend.dto.CompanyInventoryDto;
+import com.example.mi_web_backend.dto.CursorPageDto;
+import com.example.mi_web_backend.pagination.PageCursor;
+import com.example.mi_web_backend.service.CompanyInventoryService;
 import com.example.mi_web_backend.service.CompanyService;
+import com.example.mi_web_backend.service.VersionConflictException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController // Indica que esta clase es un controlador REST
 @RequestMapping("/api/companies") // Define el path base para todos los endpoints de este controlador
 public class CompanyController {
 
     private final CompanyService companyService; // Inyección de dependencia del servicio de Company
+    private final CompanyInventoryService companyInventoryService; // Resúmenes de inventario por compañía
 
     @Autowired
-    public CompanyController(CompanyService companyService) {
+    public CompanyController(CompanyService companyService, CompanyInventoryService companyInventoryService) {
         this.companyService = companyService;
+        this.companyInventoryService = companyInventoryService;
     }
 
     /**
@@ -35,30 +49,88 @@ public class CompanyController {
     }
 
     /**
-     * Obtiene todas las compañías.
-     * GET /api/companies
-     * @return ResponseEntity con una lista de CompanyDto y HttpStatus 200 (OK).
+     * Crea o actualiza compañías en bloque.
+     * POST /api/companies/batch
+     * Los elementos sin ID se crean y los que traen ID se actualizan.
+     * @param companyDtos Lista de DTOs a guardar.
+     * @return ResponseEntity con el resultado de cada elemento y HttpStatus 200 (OK).
      */
+    @HeavyOperation
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResultDto> saveCompaniesBatch(@RequestBody List<CompanyDto> companyDtos) {
+        BatchResultDto result = companyService.saveCompaniesBatch(companyDtos);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    /**
+     * Obtiene las compañías paginadas por cursor.
+     * GET /api/companies?limit=50&cursor=...
+     * @param cursor Token "next" de la página anterior (opcional).
+     * @param limit Tamaño de página, como máximo PageCursor.MAX_LIMIT.
+     * @return ResponseEntity con una página de CompanyDto y HttpStatus 200 (OK),
+     * o HttpStatus 400 (Bad Request) si el cursor no es válido.
+     */
+    @HeavyOperation
     @GetMapping
-    public ResponseEntity<List<CompanyDto>> getAllCompanies() {
-        List<CompanyDto> companies = companyService.getAllCompanies();
-        return new ResponseEntity<>(companies, HttpStatus.OK);
+    public ResponseEntity<CursorPageDto<CompanyDto>> getCompanies(@RequestParam(required = false) String cursor,
+                                                                  @RequestParam(defaultValue = "" + PageCursor.DEFAULT_LIMIT) int limit) {
+        try {
+            CursorPageDto<CompanyDto> page = companyService.getCompaniesPage(cursor, limit);
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
     }
 
     /**
      * Obtiene una compañía por su ID.
      * GET /api/companies/{id}
      * @param id ID de la compañía a buscar.
+     * @param request Petición, para el ETag y la cabecera If-None-Match.
      * @return ResponseEntity con el CompanyDto y HttpStatus 200 (OK) si se encuentra,
+     * HttpStatus 304 (Not Modified) si el ETag del cliente sigue siendo válido,
      * o HttpStatus 404 (Not Found) si no.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<CompanyDto> getCompanyById(@PathVariable Long id) {
+    public ResponseEntity<CompanyDto> getCompanyById(@PathVariable Long id, WebRequest request) {
         return companyService.getCompanyById(id)
-                .map(companyDto -> new ResponseEntity<>(companyDto, HttpStatus.OK))
+                .map(companyDto -> {
+                    // Con If-None-Match coincidente se responde 304 sin serializar la compañía.
+                    MediaType format = MessageConverterConfig.responseFormat(request.getHeader(HttpHeaders.ACCEPT));
+                    if (request.checkNotModified(companyService.getCompanyETag(companyDto, format))) {
+                        return new ResponseEntity<CompanyDto>(HttpStatus.NOT_MODIFIED);
+                    }
+                    return new ResponseEntity<>(companyDto, HttpStatus.OK);
+                })
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Obtiene el resumen de inventario de una compañía (número de productos, unidades y valor del stock).
+     * GET /api/companies/{id}/inventory-summary
+     * Se lee de la tabla de resúmenes mantenida en cada escritura, sin recorrer los productos.
+     * @param id ID de la compañía.
+     * @return ResponseEntity con el CompanyInventoryDto y HttpStatus 200 (OK),
+     * o HttpStatus 404 (Not Found) si no se encuentra la compañía.
+     */
+    @GetMapping("/{id}/inventory-summary")
+    public ResponseEntity<CompanyInventoryDto> getInventorySummary(@PathVariable Long id) {
+        return companyInventoryService.getInventorySummary(id)
+                .map(summary -> new ResponseEntity<>(summary, HttpStatus.OK))
                 .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    /**
+     * Obtiene las compañías con mayor valor de inventario.
+     * GET /api/companies/top-by-inventory-value?limit=10
+     * @param limit Número de compañías, como máximo PageCursor.MAX_LIMIT.
+     * @return ResponseEntity con los CompanyInventoryDto ordenados por valor descendente y HttpStatus 200 (OK).
+     */
+    @GetMapping("/top-by-inventory-value")
+    public ResponseEntity<List<CompanyInventoryDto>> getTopCompaniesByInventoryValue(@RequestParam(defaultValue = "10") int limit) {
+        return new ResponseEntity<>(companyInventoryService.getTopCompaniesByValue(limit), HttpStatus.OK);
+    }
+
     /**
      * Actualiza una compañía existente.
      * PUT /api/companies/{id}
@@ -78,6 +150,46 @@ public class CompanyController {
         }
     }
 
+    /**
+     * Modifica parcialmente una compañía (JSON Merge Patch) con un único UPDATE de las columnas enviadas.
+     * PATCH /api/companies/{id}
+     * @param id ID de la compañía a modificar.
+     * @param patch Campos a cambiar (name, address); null borra el valor.
+     * @param ifMatch ETag de la versión sobre la que se hizo el cambio (opcional; también vale el campo version).
+     * @param prefer "return=representation" para recibir la compañía modificada (cuesta una lectura más).
+     * @param accept Formato de la respuesta, del que depende su ETag.
+     * @return ResponseEntity con HttpStatus 204 (No Content), o 200 (OK) con el CompanyDto si se pidió,
+     * HttpStatus 412 (Precondition Failed) si la versión ya no es la actual, 404 (Not Found) si no existe
+     * o 400 (Bad Request) si el parche no es válido.
+     */
+    @PatchMapping(value = "/{id}", consumes = {ProductController.MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE,
+            ProductController.SMILE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<CompanyDto> patchCompany(@PathVariable Long id, @RequestBody Map<String, Object> patch,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                   @RequestHeader(value = ProductController.PREFER, required = false) String prefer,
+                                                   @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        try {
+            companyService.patchCompany(id, patch, IfMatchHeader.version(ifMatch));
+            if (prefer == null || !prefer.contains(ProductController.RETURN_REPRESENTATION)) {
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            }
+            return companyService.getCompanyById(id)
+                    .map(companyDto -> {
+                        HttpHeaders headers = new HttpHeaders();
+                        headers.setETag(companyService.getCompanyETag(companyDto, MessageConverterConfig.responseFormat(accept)));
+                        headers.set(ProductController.PREFERENCE_APPLIED, ProductController.RETURN_REPRESENTATION);
+                        return new ResponseEntity<>(companyDto, headers, HttpStatus.OK);
+                    })
+                    .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        } catch (VersionConflictException e) {
+            return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
     /**
      * Elimina una compañía por su ID.
      * DELETE /api/companies/{id}
@@ -0,0 +1,35 @@
+package com.example.mi_web_backend.controller;
+// src/main/java/com/example/mi_web_backend/controller/IfMatchHeader.java
+
+/**
+ * Lectura de la cabecera If-Match de los PATCH. Los ETags de productos y compañías empiezan por la
+ * versión de la fila ("7", "7-3-120" o "7-cbor" según el formato), así que basta con extraer ese primer número para usarlo
+ * como versión esperada en el UPDATE.
+ */
+final class IfMatchHeader {
+
+    private IfMatchHeader() {
+    }
+
+    /**
+     * @param ifMatch Valor de la cabecera If-Match (puede ser null).
+     * @return La versión esperada, o null si no hay cabecera o es "*".
+     * @throws IllegalArgumentException si el ETag no tiene el formato de esta API.
+     */
+    static Long version(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String eTag = ifMatch.split(",")[0].trim(); // Si llegan varios, manda el primero
+        if (eTag.startsWith("W/")) {
+            throw new IllegalArgumentException("If-Match requires a strong ETag.");
+        }
+        eTag = eTag.replace("\"", "");
+        int dash = eTag.indexOf('-');
+        try {
+            return Long.valueOf(dash < 0 ? eTag : eTag.substring(0, dash));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid If-Match: " + ifMatch);
+        }
+    }
+}
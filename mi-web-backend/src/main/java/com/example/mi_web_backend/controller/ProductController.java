@@ -1,24 +1,82 @@
 package com.example.mi_web_backend.controller;
 // src/main/java/com/example/mi_web_backend/controller/ProductController.java
 
+import com.example.mi_web_backend.arrow.ProductArrowExporter;
+import com.example.mi_web_backend.bulkhead.HeavyOperation;
+import com.example.mi_web_backend.config.MessageConverterConfig;
+import com.example.mi_web_backend.dto.BatchResultDto;
+import com.example.mi_web_backend.dto.CursorPageDto;
+import com.example.mi_web_backend.dto.DeleteResultDto;
+import com.example.mi_web_backend.dto.ImportStatusDto;
+import com.example.mi_web_backend.dto.ProductChangesDto;
 import com.example.mi_web_backend.dto.ProductDto;
+import com.example.mi_web_backend.dto.StockRequestDto;
+import com.example.mi_web_backend.service.CompanyService;
+import com.example.mi_web_backend.service.OutOfStockException;
+import com.example.mi_web_backend.pagination.PageCursor;
+import com.example.mi_web_backend.search.ProductSearchIndex;
+import com.example.mi_web_backend.service.ProductImportService;
 import com.example.mi_web_backend.service.ProductService;
+import com.example.mi_web_backend.service.ProductSyncService;
+import com.example.mi_web_backend.service.StaleChangeTokenException;
+import com.example.mi_web_backend.service.VersionConflictException;
+import com.example.mi_web_backend.stream.ProductChangeHub;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 
 @RestController // Indica que esta clase es un controlador REST
 @RequestMapping("/api/products") // Define el path base para todos los endpoints de este controlador
 public class ProductController {
 
+    public static final String NDJSON = "application/x-ndjson";
+    public static final String MERGE_PATCH_JSON = "application/merge-patch+json"; // RFC 7396
+    public static final String SMILE = "application/x-jackson-smile"; // JSON binario de Jackson (MessageConverterConfig.SMILE)
+    static final String PREFER = "Prefer";
+    static final String PREFERENCE_APPLIED = "Preference-Applied";
+    static final String RETURN_REPRESENTATION = "return=representation";
+    private static final int SEARCH_DEFAULT_LIMIT = 20;
+
     private final ProductService productService; // Inyección de dependencia del servicio de Product
+    private final ProductImportService productImportService; // Importación CSV en streaming
+    private final ObjectMapper objectMapper; // ObjectMapper de Spring, para escribir la exportación NDJSON
+    private final ProductChangeHub productChangeHub; // Suscripciones SSE a los cambios de productos
+    private final CompanyService companyService; // Validación del filtro companyId de las suscripciones
+    private final ProductSyncService productSyncService; // Deltas para la sincronización incremental
+    private final ProductArrowExporter productArrowExporter; // Exportación columnar Arrow IPC
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductImportService productImportService, ObjectMapper objectMapper,
+                             ProductChangeHub productChangeHub, CompanyService companyService,
+                             ProductSyncService productSyncService, ProductArrowExporter productArrowExporter) {
         this.productService = productService;
+        this.productImportService = productImportService;
+        this.objectMapper = objectMapper;
+        this.productChangeHub = productChangeHub;
+        this.companyService = companyService;
+        this.productSyncService = productSyncService;
+        this.productArrowExporter = productArrowExporter;
     }
 
     /**
@@ -42,27 +100,224 @@ public class ProductController {
     }
 
     /**
-     * Obtiene todos los productos.
-     * GET /api/products
-     * @return ResponseEntity con una lista de ProductDto y HttpStatus 200 (OK).
+     * Crea o actualiza productos en bloque.
+     * POST /api/products/batch
+     * Los elementos sin ID se crean (deben incluir companyId) y los que traen ID se actualizan.
+     * @param productDtos Lista de DTOs a guardar.
+     * @return ResponseEntity con el resultado de cada elemento y HttpStatus 200 (OK).
+     */
+    @HeavyOperation
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResultDto> saveProductsBatch(@RequestBody List<ProductDto> productDtos) {
+        BatchResultDto result = productService.saveProductsBatch(productDtos);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    /**
+     * Importa productos desde un CSV (cabecera name,stock,prize,companyId; id opcional para actualizar).
+     * POST /api/products/import?importId=...
+     * El cuerpo se procesa a medida que llega y se confirma en bloques; el progreso puede
+     * consultarse en paralelo con GET /api/products/imports/{importId}.
+     * @param importId ID opcional con el que seguir la importación.
+     * @param body Cuerpo de la petición con el CSV.
+     * @return ResponseEntity con el ImportStatusDto final y HttpStatus 200 (OK),
+     * o HttpStatus 400 (Bad Request) si la cabecera no es válida o el importId ya existe.
+     */
+    @HeavyOperation
+    @PostMapping(value = "/import", consumes = {"text/csv", "text/plain"})
+    public ResponseEntity<ImportStatusDto> importProducts(@RequestParam(required = false) String importId, InputStream body) {
+        try {
+            ImportStatusDto status = productImportService.importCsv(importId, new InputStreamReader(body, StandardCharsets.UTF_8));
+            return new ResponseEntity<>(status, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Lista las importaciones en curso y las terminadas recientemente.
+     * GET /api/products/imports
+     * @return ResponseEntity con la lista de ImportStatusDto y HttpStatus 200 (OK).
+     */
+    @GetMapping("/imports")
+    public ResponseEntity<List<ImportStatusDto>> getImports() {
+        return new ResponseEntity<>(productImportService.getImports(), HttpStatus.OK);
+    }
+
+    /**
+     * Obtiene el progreso de una importación (filas/segundo, filas hechas y rechazadas).
+     * GET /api/products/imports/{importId}
+     * @param importId ID de la importación.
+     * @return ResponseEntity con el ImportStatusDto y HttpStatus 200 (OK),
+     * o HttpStatus 404 (Not Found) si no se conoce.
      */
+    @GetMapping("/imports/{importId}")
+    public ResponseEntity<ImportStatusDto> getImportStatus(@PathVariable String importId) {
+        return productImportService.getImportStatus(importId)
+                .map(status -> new ResponseEntity<>(status, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Obtiene los productos paginados por cursor.
+     * GET /api/products?limit=50&cursor=...
+     * @param cursor Token "next" de la página anterior (opcional).
+     * @param limit Tamaño de página, como máximo PageCursor.MAX_LIMIT.
+     * @return ResponseEntity con una página de ProductDto y HttpStatus 200 (OK),
+     * o HttpStatus 400 (Bad Request) si el cursor no es válido.
+     */
+    @HeavyOperation
     @GetMapping
-    public ResponseEntity<List<ProductDto>> getAllProducts() {
-        List<ProductDto> products = productService.getAllProducts();
-        return new ResponseEntity<>(products, HttpStatus.OK);
+    public ResponseEntity<CursorPageDto<ProductDto>> getProducts(@RequestParam(required = false) String cursor,
+                                                                 @RequestParam(defaultValue = "" + PageCursor.DEFAULT_LIMIT) int limit) {
+        try {
+            CursorPageDto<ProductDto> page = productService.getProductsPage(cursor, limit);
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Exporta todo el catálogo como JSON delimitado por saltos de línea (un ProductDto por línea).
+     * GET /api/products/export
+     * Las filas se leen de la BD con un cursor y se escriben directamente en la respuesta,
+     * de modo que el uso de memoria no depende del tamaño del catálogo.
+     * @return ResponseEntity con el cuerpo en streaming y HttpStatus 200 (OK).
+     */
+    @HeavyOperation
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        // Sin flush por objeto: el generador vacía su buffer a la respuesta cada pocos KB
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET); // El contenedor cierra la respuesta
+            generator.setRootValueSeparator(new SerializedString("\n")); // Separador entre objetos raíz
+            long exported = productService.exportProducts(product -> {
+                try {
+                    writer.writeValue(generator, product);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // Cliente desconectado: aborta el cursor
+                }
+            });
+            if (exported > 0) {
+                generator.writeRaw('\n'); // La última línea también termina en salto de línea
+            }
+            generator.close();
+        };
+        // El Content-Type de un StreamingResponseBody no sale de "produces": hay que fijarlo en la respuesta
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    /**
+     * Exporta todo el catálogo en formato columnar Apache Arrow (IPC stream) para dataframes y herramientas
+     * analíticas: columnas id, name, stock, prize, companyId y companyName (codificada con diccionario).
+     * GET /api/products/export.arrow?batchSize=8192
+     * Las filas se leen de la BD con un cursor y se escriben por lotes, así que la memoria depende del
+     * tamaño del lote y no del catálogo.
+     * @param batchSize Filas por record batch (opcional; por defecto app.export.arrow.batch-size, como máximo
+     * ProductArrowExporter.MAX_BATCH_SIZE).
+     * @return ResponseEntity con el cuerpo en streaming y HttpStatus 200 (OK).
+     */
+    @HeavyOperation
+    @GetMapping(value = "/export.arrow", produces = ProductArrowExporter.ARROW_STREAM)
+    public ResponseEntity<StreamingResponseBody> exportProductsArrow(@RequestParam(required = false) Integer batchSize) {
+        int rowsPerBatch = batchSize != null ? batchSize : productArrowExporter.getDefaultBatchSize();
+        StreamingResponseBody body = outputStream -> productArrowExporter.export(outputStream, rowsPerBatch);
+        // El Content-Type de un StreamingResponseBody no sale de "produces": hay que fijarlo en la respuesta
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(ProductArrowExporter.ARROW_STREAM)).body(body);
+    }
+
+    /**
+     * Suscribe al cliente a los cambios de productos por Server-Sent Events, en lugar de consultar
+     * GET /api/products/{id} periódicamente.
+     * GET /api/products/stream?companyId=...
+     * Cada cambio confirmado llega como evento "product" (ProductDto completo) o "product-deleted"
+     * (solo id y companyId). Si el cliente no consume a tiempo se cierra la conexión y debe volver a leer.
+     * @param companyId Solo los productos de esta compañía (opcional).
+     * @return ResponseEntity con el flujo de eventos y HttpStatus 200 (OK),
+     * o HttpStatus 404 (Not Found) si la compañía no existe.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamProductChanges(@RequestParam(required = false) Long companyId) {
+        if (companyId != null && !companyService.companyExists(companyId)) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(productChangeHub.subscribe(companyId), HttpStatus.OK);
+    }
+
+    /**
+     * Devuelve solo los productos creados o modificados y los IDs borrados desde un token, en lugar de
+     * volver a descargar la lista completa.
+     * GET /api/products/changes?since=...&companyId=...&limit=500
+     * Sin "since" devuelve solo el token actual: se pide antes de la carga completa y se usa en la
+     * siguiente llamada. Con companyId, "deleted" incluye también los productos movidos a otra compañía.
+     * Si hasMore es true hay que volver a llamar enseguida con el token devuelto.
+     * @param since Token de la sincronización anterior (opcional).
+     * @param companyId Solo los productos de esta compañía (opcional).
+     * @param limit Número máximo de cambios más borrados, como máximo PageCursor.MAX_LIMIT.
+     * @return ResponseEntity con el ProductChangesDto y HttpStatus 200 (OK),
+     * HttpStatus 410 (Gone) si el token ha caducado y hay que hacer una carga completa,
+     * 400 (Bad Request) si el token no es válido o 404 (Not Found) si la compañía no existe.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChangesDto> getProductChanges(@RequestParam(required = false) String since,
+                                                               @RequestParam(required = false) Long companyId,
+                                                               @RequestParam(defaultValue = "" + PageCursor.MAX_LIMIT) int limit) {
+        try {
+            return new ResponseEntity<>(productSyncService.getChanges(since, companyId, limit), HttpStatus.OK);
+        } catch (StaleChangeTokenException e) {
+            return new ResponseEntity<>(HttpStatus.GONE);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Busca productos por subcadena del nombre (o del nombre de la compañía) con el índice en memoria.
+     * GET /api/products/search?q=texto&field=name|company&limit=20
+     * @param q Texto a buscar (sin distinguir mayúsculas ni tildes).
+     * @param field "name" (por defecto) o "company".
+     * @param limit Número máximo de resultados.
+     * @return ResponseEntity con la lista de ProductDto ordenada por relevancia y HttpStatus 200 (OK),
+     * o HttpStatus 400 (Bad Request) si el campo no es válido.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductDto>> searchProducts(@RequestParam String q,
+                                                           @RequestParam(defaultValue = "name") String field,
+                                                           @RequestParam(defaultValue = "" + SEARCH_DEFAULT_LIMIT) int limit) {
+        ProductSearchIndex.Field searchField;
+        try {
+            searchField = ProductSearchIndex.Field.valueOf(field.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(productService.searchProducts(q, searchField, limit), HttpStatus.OK);
     }
 
     /**
      * Obtiene un producto por su ID.
      * GET /api/products/{id}
      * @param id ID del producto a buscar.
+     * @param request Petición, para el ETag y la cabecera If-None-Match.
      * @return ResponseEntity con el ProductDto y HttpStatus 200 (OK) si se encuentra,
+     * HttpStatus 304 (Not Modified) si el ETag del cliente sigue siendo válido,
      * o HttpStatus 404 (Not Found) si no.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDto> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductDto> getProductById(@PathVariable Long id, WebRequest request) {
         return productService.getProductById(id)
-                .map(productDto -> new ResponseEntity<>(productDto, HttpStatus.OK))
+                .map(productDto -> {
+                    // checkNotModified añade la cabecera ETag y compara con If-None-Match: si coincide no se serializa nada.
+                    MediaType format = MessageConverterConfig.responseFormat(request.getHeader(HttpHeaders.ACCEPT));
+                    if (request.checkNotModified(productService.getProductETag(productDto, format))) {
+                        return new ResponseEntity<ProductDto>(HttpStatus.NOT_MODIFIED);
+                    }
+                    return new ResponseEntity<>(productDto, HttpStatus.OK);
+                })
                 .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
@@ -70,12 +325,21 @@ public class ProductController {
      * Obtiene productos por el ID de la compañía a la que pertenecen.
      * GET /api/products/by-company/{companyId}
      * @param companyId ID de la compañía.
-     * @return ResponseEntity con una lista de ProductDto y HttpStatus 200 (OK).
+     * @param request Petición, para el ETag y la cabecera If-None-Match.
+     * @return ResponseEntity con una lista de ProductDto y HttpStatus 200 (OK),
+     * HttpStatus 304 (Not Modified) si el ETag del cliente sigue siendo válido,
      * o HttpStatus 404 (Not Found) si la compañía no existe.
      */
+    @HeavyOperation
     @GetMapping("/by-company/{companyId}")
-    public ResponseEntity<List<ProductDto>> getProductsByCompanyId(@PathVariable Long companyId) {
+    public ResponseEntity<List<ProductDto>> getProductsByCompanyId(@PathVariable Long companyId, WebRequest request) {
         try {
+            // El ETag sale de un SELECT de (id, versión): con If-None-Match coincidente no se cargan los productos.
+            MediaType format = MessageConverterConfig.responseFormat(request.getHeader(HttpHeaders.ACCEPT));
+            Optional<String> eTag = productService.getProductsByCompanyETag(companyId, format);
+            if (eTag.isPresent() && request.checkNotModified(eTag.get())) {
+                return new ResponseEntity<>(HttpStatus.NOT_MODIFIED);
+            }
             List<ProductDto> products = productService.getProductsByCompanyId(companyId);
             return new ResponseEntity<>(products, HttpStatus.OK);
         } catch (RuntimeException e) {
@@ -106,6 +370,143 @@ public class ProductController {
         }
     }
 
+    /**
+     * Modifica parcialmente un producto (JSON Merge Patch) con un único UPDATE de las columnas enviadas.
+     * PATCH /api/products/{id}
+     * @param id ID del producto a modificar.
+     * @param patch Campos a cambiar (name, stock, prize, companyId); null borra el valor.
+     * @param ifMatch ETag de la versión sobre la que se hizo el cambio (opcional; también vale el campo version).
+     * @param prefer "return=representation" para recibir el producto modificado (cuesta una lectura más).
+     * @param accept Formato de la respuesta, del que depende su ETag.
+     * @return ResponseEntity con HttpStatus 204 (No Content), o 200 (OK) con el ProductDto si se pidió,
+     * HttpStatus 412 (Precondition Failed) si la versión ya no es la actual, 404 (Not Found) si no existe
+     * el producto o la compañía, o 400 (Bad Request) si el parche no es válido.
+     */
+    @PatchMapping(value = "/{id}", consumes = {MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE, SMILE, MediaType.APPLICATION_CBOR_VALUE})
+    public ResponseEntity<ProductDto> patchProduct(@PathVariable Long id, @RequestBody Map<String, Object> patch,
+                                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                   @RequestHeader(value = PREFER, required = false) String prefer,
+                                                   @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        try {
+            productService.patchProduct(id, patch, IfMatchHeader.version(ifMatch));
+            if (prefer == null || !prefer.contains(RETURN_REPRESENTATION)) {
+                return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+            }
+            return productService.getProductById(id)
+                    .map(productDto -> {
+                        HttpHeaders headers = new HttpHeaders();
+                        headers.setETag(productService.getProductETag(productDto, MessageConverterConfig.responseFormat(accept)));
+                        headers.set(PREFERENCE_APPLIED, RETURN_REPRESENTATION);
+                        return new ResponseEntity<>(productDto, headers, HttpStatus.OK);
+                    })
+                    .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        } catch (VersionConflictException e) {
+            return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Reserva unidades de stock de un producto (sin lectura previa, con un UPDATE condicional).
+     * POST /api/products/{id}/stock/reserve
+     * @param id ID del producto.
+     * @param request Cantidad a reservar.
+     * @return ResponseEntity con HttpStatus 204 (No Content) si se reserva,
+     * HttpStatus 409 (Conflict) si no hay stock suficiente, 404 (Not Found) si el producto no existe
+     * o 400 (Bad Request) si la cantidad no es válida.
+     */
+    @PostMapping("/{id}/stock/reserve")
+    public ResponseEntity<Void> reserveStock(@PathVariable Long id, @RequestBody StockRequestDto request) {
+        try {
+            productService.reserveStock(id, request.getQuantity());
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        } catch (OutOfStockException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Libera (devuelve) unidades de stock de un producto.
+     * POST /api/products/{id}/stock/release
+     * @param id ID del producto.
+     * @param request Cantidad a liberar.
+     * @return ResponseEntity con HttpStatus 204 (No Content) si se libera,
+     * 404 (Not Found) si el producto no existe o 400 (Bad Request) si la cantidad no es válida.
+     */
+    @PostMapping("/{id}/stock/release")
+    public ResponseEntity<Void> releaseStock(@PathVariable Long id, @RequestBody StockRequestDto request) {
+        try {
+            productService.releaseStock(id, request.getQuantity());
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Activa el modo caliente de un producto: su stock se gestiona en memoria y se vuelca periódicamente a la BD.
+     * PUT /api/products/{id}/hot
+     * @param id ID del producto.
+     * @return ResponseEntity con HttpStatus 204 (No Content), o 404 (Not Found) si el producto no existe.
+     */
+    @PutMapping("/{id}/hot")
+    public ResponseEntity<Void> enableHotStock(@PathVariable Long id) {
+        try {
+            productService.enableHotStock(id);
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Desactiva el modo caliente de un producto, volcando antes su stock pendiente a la BD.
+     * DELETE /api/products/{id}/hot
+     * @param id ID del producto.
+     * @return ResponseEntity con HttpStatus 204 (No Content),
+     * o HttpStatus 503 (Service Unavailable) si no se pudo volcar el stock (el producto sigue en modo caliente).
+     */
+    @DeleteMapping("/{id}/hot")
+    public ResponseEntity<Void> disableHotStock(@PathVariable Long id) {
+        try {
+            productService.disableHotStock(id);
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    /**
+     * Reserva stock de varios productos en una sola transacción (todo o nada).
+     * POST /api/products/stock/reserve
+     * @param items Lista de productId y cantidad.
+     * @return ResponseEntity con HttpStatus 204 (No Content) si se reservan todos,
+     * HttpStatus 409 (Conflict) si alguno no tiene stock suficiente, 404 (Not Found) si alguno
+     * no existe o 400 (Bad Request) si la petición no es válida.
+     */
+    @PostMapping("/stock/reserve")
+    public ResponseEntity<Void> reserveStock(@RequestBody List<StockRequestDto> items) {
+        try {
+            productService.reserveStock(items);
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        } catch (OutOfStockException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
     /**
      * Elimina un producto por su ID.
      * DELETE /api/products/{id}
@@ -122,4 +523,37 @@ public class ProductController {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Elimina en bloque los productos indicados, con un único DELETE.
+     * DELETE /api/products?ids=1,2,3
+     * @param ids IDs de los productos a eliminar (como mucho 1000).
+     * @return ResponseEntity con el número de eliminados y los IDs no encontrados y HttpStatus 200 (OK),
+     * o HttpStatus 400 (Bad Request) si no hay IDs o son demasiados.
+     */
+    @DeleteMapping
+    public ResponseEntity<DeleteResultDto> deleteProducts(@RequestParam List<Long> ids) {
+        try {
+            return new ResponseEntity<>(productService.deleteProducts(ids), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Elimina todos los productos de una compañía (la compañía se conserva).
+     * DELETE /api/products/by-company/{companyId}
+     * @param companyId ID de la compañía.
+     * @return ResponseEntity con el número de productos eliminados y HttpStatus 200 (OK),
+     * o HttpStatus 404 (Not Found) si no se encuentra la compañía.
+     */
+    @HeavyOperation
+    @DeleteMapping("/by-company/{companyId}")
+    public ResponseEntity<DeleteResultDto> deleteProductsByCompanyId(@PathVariable Long companyId) {
+        try {
+            return new ResponseEntity<>(productService.deleteProductsByCompanyId(companyId), HttpStatus.OK);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.mi_web_backend.controller;
+// src/main/java/com/example/mi_web_backend/controller/ReactiveProductController.java
+
+import com.example.mi_web_backend.dto.ProductDto;
+import com.example.mi_web_backend.pagination.PageCursor;
+import com.example.mi_web_backend.repository.ReactiveProductDao;
+import com.example.mi_web_backend.service.HotStockCounters;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * API de solo lectura de productos sobre R2DBC (se activa con app.reactive.enabled=true).
+ * Los métodos devuelven Mono/Flux: Spring MVC procesa la petición de forma asíncrona y el hilo de Tomcat
+ * queda libre mientras se espera a la BD. Los listados se emiten como NDJSON elemento a elemento, con
+ * contrapresión: solo se piden más filas a la BD cuando se ha escrito la anterior.
+ * Las escrituras siguen en ProductController (/api/products).
+ */
+@RestController
+@RequestMapping("/api/reactive/products")
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true")
+public class ReactiveProductController {
+
+    private final ReactiveProductDao reactiveProductDao;
+    private final HotStockCounters hotStockCounters; // Stock en memoria de los productos calientes (no bloquea)
+
+    @Autowired
+    public ReactiveProductController(ReactiveProductDao reactiveProductDao, HotStockCounters hotStockCounters) {
+        this.reactiveProductDao = reactiveProductDao;
+        this.hotStockCounters = hotStockCounters;
+    }
+
+    /**
+     * Lista productos en orden de ID.
+     * GET /api/reactive/products?afterId=0&limit=50
+     * @param afterId Último ID ya recibido (0 para empezar).
+     * @param limit Máximo de productos; sin él se recorre el resto del catálogo en streaming.
+     * @return Flujo NDJSON de ProductDto, o HttpStatus 400 (Bad Request) si limit no es válido.
+     */
+    @GetMapping(produces = ProductController.NDJSON)
+    public ResponseEntity<Flux<ProductDto>> getProducts(@RequestParam(defaultValue = "0") Long afterId,
+                                                        @RequestParam(required = false) Integer limit) {
+        if (limit != null && (limit < 1 || limit > PageCursor.MAX_LIMIT)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(reactiveProductDao.findDtoPage(afterId, limit).map(this::applyHotStock), HttpStatus.OK);
+    }
+
+    /**
+     * Obtiene un producto por su ID.
+     * GET /api/reactive/products/{id}
+     * @return ProductDto con HttpStatus 200 (OK), o HttpStatus 404 (Not Found) si no existe.
+     */
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<ProductDto>> getProductById(@PathVariable Long id) {
+        return reactiveProductDao.findDtoById(id)
+                .map(productDto -> new ResponseEntity<>(applyHotStock(productDto), HttpStatus.OK))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Lista los productos de una compañía.
+     * GET /api/reactive/products/by-company/{companyId}
+     * @return Flujo NDJSON de ProductDto (vacío si la compañía no existe o no tiene productos).
+     */
+    @GetMapping(value = "/by-company/{companyId}", produces = ProductController.NDJSON)
+    public Flux<ProductDto> getProductsByCompanyId(@PathVariable Long companyId) {
+        return reactiveProductDao.findDtosByCompanyId(companyId).map(this::applyHotStock);
+    }
+
+    // Igual que ProductService: si el producto está en modo caliente, su stock real es el de memoria.
+    private ProductDto applyHotStock(ProductDto productDto) {
+        Long hotStock = hotStockCounters.available(productDto.getId());
+        if (hotStock != null) {
+            productDto.setStock(hotStock.intValue()); // DTO recién leído de la BD, no compartido
+        }
+        return productDto;
+    }
+}
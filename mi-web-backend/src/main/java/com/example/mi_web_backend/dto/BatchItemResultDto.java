@@ -0,0 +1,23 @@
+package com.example.mi_web_backend.dto;
+// src/main/java/com/example/mi_web_backend/dto/BatchItemResultDto.java
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResultDto {
+
+    public enum Status { CREATED, UPDATED, REJECTED }
+
+    private int index; // Posición del elemento en la petición
+    private Long id; // ID asignado (creados) o recibido (actualizados/rechazados)
+    private Status status;
+    private String error; // Motivo del rechazo, null si el elemento se guardó
+
+    public static BatchItemResultDto rejected(int index, Long id, String error) {
+        return new BatchItemResultDto(index, id, Status.REJECTED, error);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.mi_web_backend.dto;
+// src/main/java/com/example/mi_web_backend/dto/BatchResultDto.java
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResultDto {
+    private int created;
+    private int updated;
+    private int rejected;
+    private List<BatchItemResultDto> items; // Un resultado por elemento, en el mismo orden que la petición
+
+    /**
+     * Construye el resumen contando los resultados de cada estado.
+     * @param items Resultados individuales.
+     * @return El BatchResultDto con los totales.
+     */
+    public static BatchResultDto of(List<BatchItemResultDto> items) {
+        int created = 0;
+        int updated = 0;
+        int rejected = 0;
+        for (BatchItemResultDto item : items) {
+            switch (item.getStatus()) {
+                case CREATED:
+                    created++;
+                    break;
+                case UPDATED:
+                    updated++;
+                    break;
+                default:
+                    rejected++;
+            }
+        }
+        return new BatchResultDto(created, updated, rejected, items);
+    }
+}
@@ -16,6 +16,7 @@ public class CompanyDto {
     private Long id; // Puede ser null para creación, usado para actualización y respuesta
     private String name;
     private String address;
+    private Long version; // Versión de la fila (solo lectura): base del ETag
 
 
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.example.mi_web_backend.dto;
+// src/main/java/com/example/mi_web_backend/dto/CompanyInventoryDto.java
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompanyInventoryDto {
+    private Long companyId;
+    private String companyName;
+    private Long productCount; // Número de productos de la compañía
+    private Long totalUnits; // Suma de su stock
+    private Double totalValue; // Suma de stock * prize
+}
@@ -0,0 +1,16 @@
+package com.example.mi_web_backend.dto;
+// src/main/java/com/example/mi_web_backend/dto/CursorPageDto.java
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDto<T> {
+    private List<T> items; // Elementos de la página actual, ordenados por ID ascendente
+    private String next; // Token opaco para pedir la siguiente página, null si no hay más
+}
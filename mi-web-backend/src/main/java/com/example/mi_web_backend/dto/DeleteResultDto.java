@@ -0,0 +1,16 @@
+package com.example.mi_web_backend.dto;
+// src/main/java/com/example/mi_web_backend/dto/DeleteResultDto.java
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeleteResultDto {
+    private long deleted; // Número de productos eliminados
+    private List<Long> notFound; // IDs pedidos que no existían (vacío en los borrados por compañía)
+}
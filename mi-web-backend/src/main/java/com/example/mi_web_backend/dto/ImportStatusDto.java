@@ -0,0 +1,26 @@
+package com.example.mi_web_backend.dto;
+// src/main/java/com/example/mi_web_backend/dto/ImportStatusDto.java
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportStatusDto {
+
+    public enum State { RUNNING, COMPLETED, FAILED }
+
+    private String id;
+    private State state;
+    private long rowsDone; // Filas guardadas (creadas o actualizadas)
+    private long rowsRejected; // Filas descartadas por formato, validación o bloque fallido
+    private double rowsPerSecond; // Ritmo medio desde el inicio de la importación
+    private Instant startedAt;
+    private Instant finishedAt; // null mientras la importación sigue en curso
+    private List<String> rejections; // Primeros motivos de rechazo, con su número de línea
+}
@@ -0,0 +1,18 @@
+package com.example.mi_web_backend.dto;
+// src/main/java/com/example/mi_web_backend/dto/ProductChangesDto.java
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangesDto {
+    private List<ProductDto> changed; // Productos creados o modificados desde el token, en orden de cambio
+    private List<Long> deleted; // IDs de productos borrados (o que han salido de la compañía pedida) desde el token
+    private String token; // Token para la siguiente llamada
+    private boolean hasMore; // true si el delta no cabía en la respuesta: hay que volver a llamar enseguida con el token
+}
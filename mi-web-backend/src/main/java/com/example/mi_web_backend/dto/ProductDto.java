@@ -15,6 +15,7 @@ public class ProductDto {
     private Double prize; // ¡Nuevo campo añadido!
     private Long companyId;
     private String companyName;
+    private Long version; // Versión de la fila (solo lectura): base del ETag
 
 
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.example.mi_web_backend.dto;
+// src/main/java/com/example/mi_web_backend/dto/StockRequestDto.java
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockRequestDto {
+    private Long productId; // Solo se usa en las reservas de varios productos; en /{id}/stock/... manda el path
+    private int quantity; // Unidades a reservar o liberar (debe ser positiva)
+}
@@ -0,0 +1,67 @@
+package com.example.mi_web_backend.jdbc;
+// src/main/java/com/example/mi_web_backend/jdbc/BeforeCommitResponse.java
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Ejecuta una acción justo antes de que se empiece a enviar la respuesta (primer acceso al cuerpo,
+ * flush, error o redirección), cuando todavía se pueden añadir cabeceras y cookies.
+ * Los filtros deben llamar a beforeCommit() también al final, para las respuestas sin cuerpo.
+ */
+class BeforeCommitResponse extends HttpServletResponseWrapper {
+
+    private final Runnable action;
+    private boolean done;
+
+    BeforeCommitResponse(HttpServletResponse response, Runnable action) {
+        super(response);
+        this.action = action;
+    }
+
+    void beforeCommit() {
+        if (!done && !isCommitted()) {
+            done = true;
+            action.run();
+        }
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        beforeCommit();
+        return super.getOutputStream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        beforeCommit();
+        return super.getWriter();
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        beforeCommit();
+        super.flushBuffer();
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        beforeCommit();
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        beforeCommit();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        beforeCommit();
+        super.sendRedirect(location);
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.mi_web_backend.jdbc;
+// src/main/java/com/example/mi_web_backend/jdbc/ReadWriteRoutingDataSource.java
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource que envía las transacciones de solo lectura a las réplicas (por turnos, saltando las que
+ * no pasan la comprobación de salud) y todo lo demás al primario.
+ * <ul>
+ *     <li>Solo cuentan las transacciones readOnly declaradas por la aplicación: las que Spring Data abre por
+ *     defecto en findById/existsById se quedan en el primario, porque también se usan dentro de flujos de
+ *     leer-modificar-guardar donde una réplica con retraso devolvería versiones antiguas.</li>
+ *     <li>Tras confirmar una escritura se abre la ventana de ReadYourWrites y las lecturas de ese cliente
+ *     vuelven al primario mientras dure.</li>
+ *     <li>Sin réplicas sanas, todo va al primario.</li>
+ * </ul>
+ * Debe usarse detrás de un LazyConnectionDataSourceProxy: la conexión física se pide con la primera
+ * sentencia, cuando ya se sabe si la transacción es de solo lectura.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+    private static final String REPOSITORY_DEFAULT_TRANSACTION_PREFIX = "org.springframework.data.";
+    private static final Object WRITE_MARKER = new Object(); // Recurso de transacción: escritura ya registrada
+    // Consulta de salud en SQL estándar que aceptan PostgreSQL, HSQLDB y H2 ("select 1" no vale en HSQLDB)
+    private static final String VALIDATION_QUERY = "values (1)";
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final Map<String, DataSource> replicas = new HashMap<>();
+    private final Map<String, AtomicBoolean> healthy = new HashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private final long readYourWritesMillis;
+
+    /**
+     * @param primary Pool del primario.
+     * @param replicaPools Pools de las réplicas (puede estar vacía).
+     * @param readYourWritesMillis Ventana de lecturas en el primario tras una escritura; 0 la desactiva.
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicaPools, long readYourWritesMillis) {
+        this.readYourWritesMillis = readYourWritesMillis;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicaPools.size(); i++) {
+            String key = "replica-" + (i + 1);
+            replicaKeys.add(key);
+            replicas.put(key, replicaPools.get(i));
+            healthy.put(key, new AtomicBoolean(true));
+            targets.put(key, replicaPools.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            registerWrite();
+            return PRIMARY;
+        }
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        if ((name != null && name.startsWith(REPOSITORY_DEFAULT_TRANSACTION_PREFIX)) || ReadYourWrites.isSticky()) {
+            return PRIMARY;
+        }
+        return nextHealthyReplica();
+    }
+
+    private String nextHealthyReplica() {
+        int size = replicaKeys.size();
+        for (int attempt = 0; attempt < size; attempt++) {
+            String key = replicaKeys.get(Math.floorMod(next.getAndIncrement(), size));
+            if (healthy.get(key).get()) {
+                return key;
+            }
+        }
+        return PRIMARY;
+    }
+
+    // Al confirmar la transacción de escritura se abre la ventana de read-your-writes (una vez por transacción)
+    private void registerWrite() {
+        if (readYourWritesMillis <= 0 || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(WRITE_MARKER)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(WRITE_MARKER, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ReadYourWrites.markWrite(readYourWritesMillis);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(WRITE_MARKER);
+            }
+        });
+    }
+
+    /**
+     * Comprueba cada réplica ejecutando una consulta real; las que fallan dejan de recibir lecturas hasta que
+     * vuelvan a pasar la comprobación. Connection.isValid no basta: algunos drivers (HSQLDB) dan por buena una
+     * conexión del pool cuya BD ya no responde. Tras un fallo se retiran las conexiones del pool de esa réplica,
+     * para que la siguiente comprobación (y la primera lectura cuando vuelva) use conexiones nuevas.
+     */
+    public void checkReplicas() {
+        replicas.forEach((key, replica) -> {
+            boolean ok;
+            try (Connection connection = replica.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(VALIDATION_TIMEOUT_SECONDS);
+                statement.execute(VALIDATION_QUERY);
+                ok = true;
+            } catch (SQLException e) {
+                ok = false;
+                evictConnections(replica);
+            }
+            boolean previous = healthy.get(key).getAndSet(ok);
+            if (previous != ok) {
+                log.warn("Read replica {} is now {}", key, ok ? "healthy" : "unavailable");
+            }
+        });
+    }
+
+    private static void evictConnections(DataSource replica) {
+        try {
+            if (replica.isWrapperFor(HikariDataSource.class)) {
+                HikariPoolMXBean pool = replica.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+                if (pool != null) { // null si el pool aún no ha arrancado
+                    pool.softEvictConnections();
+                }
+            }
+        } catch (SQLException e) {
+            log.debug("Could not evict replica connections", e);
+        }
+    }
+
+    /** @return Número de réplicas sanas en este momento. */
+    public int getHealthyReplicas() {
+        return (int) healthy.values().stream().filter(AtomicBoolean::get).count();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.mi_web_backend.jdbc;
+// src/main/java/com/example/mi_web_backend/jdbc/ReadYourWrites.java
+
+/**
+ * Ventana de "leer lo propio escrito": tras confirmar una escritura, las transacciones de solo lectura
+ * del mismo cliente siguen yendo al primario durante unos milisegundos, para no leer de una réplica que
+ * aún no ha recibido el cambio. La ventana vive en el hilo actual; ReadYourWritesFilter la recupera y
+ * la devuelve en una cookie para que se mantenga entre peticiones del mismo cliente.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Long> PRIMARY_UNTIL = new ThreadLocal<>(); // Epoch millis
+    private static final ThreadLocal<Boolean> WRITTEN = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    /** @return true si las lecturas del hilo actual deben ir al primario. */
+    public static boolean isSticky() {
+        Long until = PRIMARY_UNTIL.get();
+        return until != null && System.currentTimeMillis() < until;
+    }
+
+    /**
+     * Abre (o alarga) la ventana tras una escritura confirmada.
+     * @param windowMillis Duración de la ventana; 0 la desactiva.
+     */
+    static void markWrite(long windowMillis) {
+        if (windowMillis > 0) {
+            PRIMARY_UNTIL.set(System.currentTimeMillis() + windowMillis);
+            WRITTEN.set(Boolean.TRUE);
+        }
+    }
+
+    /** Restaura la ventana recibida del cliente (cookie). */
+    static void restore(long primaryUntilMillis) {
+        PRIMARY_UNTIL.set(primaryUntilMillis);
+    }
+
+    /** @return Fin de la ventana si se ha escrito en esta petición, o null. */
+    static Long writtenUntil() {
+        return Boolean.TRUE.equals(WRITTEN.get()) ? PRIMARY_UNTIL.get() : null;
+    }
+
+    /** Olvida la ventana del hilo actual (fin de la petición, o entre tests). */
+    public static void clear() {
+        PRIMARY_UNTIL.remove();
+        WRITTEN.remove();
+    }
+}
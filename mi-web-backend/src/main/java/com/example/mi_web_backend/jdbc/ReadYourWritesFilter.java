@@ -0,0 +1,66 @@
+package com.example.mi_web_backend.jdbc;
+// src/main/java/com/example/mi_web_backend/jdbc/ReadYourWritesFilter.java
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Mantiene la ventana de ReadYourWrites entre peticiones de un mismo cliente con la cookie
+ * "primary-until" (epoch millis): la lee al empezar la petición y, si la petición ha escrito, la
+ * devuelve actualizada antes de enviar la respuesta.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE = "primary-until";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        restoreFromCookie(request);
+        BeforeCommitResponse target = new BeforeCommitResponse(response, () -> writeCookie(response));
+        try {
+            filterChain.doFilter(request, target);
+        } finally {
+            target.beforeCommit();
+            ReadYourWrites.clear();
+        }
+    }
+
+    private static void restoreFromCookie(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    ReadYourWrites.restore(Long.parseLong(cookie.getValue()));
+                } catch (NumberFormatException e) {
+                    // Cookie manipulada: se ignora
+                }
+            }
+        }
+    }
+
+    private static void writeCookie(HttpServletResponse response) {
+        Long until = ReadYourWrites.writtenUntil();
+        if (until == null) {
+            return;
+        }
+        long maxAgeSeconds = Math.max(1, (until - System.currentTimeMillis() + 999) / 1000);
+        ResponseCookie cookie = ResponseCookie.from(COOKIE, String.valueOf(until))
+                .path("/")
+                .httpOnly(true)
+                .maxAge(maxAgeSeconds)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.mi_web_backend.jdbc;
+// src/main/java/com/example/mi_web_backend/jdbc/SqlStats.java
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Contadores de SQL de la unidad de trabajo en curso (normalmente una petición HTTP): sentencias
+ * ejecutadas, filas leídas/modificadas, tiempo JDBC y cuántas veces se repite cada forma de sentencia.
+ * Se asocian al hilo actual con start()/stop(); fuera de ese intervalo no se registra nada.
+ * También sirve a los tests de integración: SqlStats.measure(...) devuelve lo que ejecutó una llamada.
+ */
+public final class SqlStats {
+
+    private static final ThreadLocal<SqlStats> CURRENT = new ThreadLocal<>();
+
+    // Listas IN de longitud variable: "(?, ?, ?)" cuenta como la misma forma que "(?)"
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private int statements;
+    private long rows;
+    private long jdbcTimeMillis;
+    private final Map<String, Integer> shapes = new HashMap<>();
+
+    /**
+     * Empieza a contar en el hilo actual (sustituye cualquier medición anterior del hilo).
+     * @return Los contadores nuevos.
+     */
+    public static SqlStats start() {
+        SqlStats stats = new SqlStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Deja de contar en el hilo actual.
+     * @return Los contadores de la medición, o null si no había ninguna activa.
+     */
+    public static SqlStats stop() {
+        SqlStats stats = CURRENT.get();
+        CURRENT.remove();
+        return stats;
+    }
+
+    /** @return Los contadores activos en el hilo actual, o null. */
+    static SqlStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Ejecuta una acción contando el SQL que lanza en este hilo (API de apoyo para tests).
+     * @param action Acción a medir.
+     * @return Los contadores de la acción.
+     */
+    public static SqlStats measure(Runnable action) {
+        return measureResult(() -> {
+            action.run();
+            return null;
+        }).getStats();
+    }
+
+    /**
+     * Igual que measure(Runnable), pero conservando el resultado de la acción.
+     */
+    public static <T> Measured<T> measureResult(Supplier<T> action) {
+        SqlStats previous = CURRENT.get();
+        SqlStats stats = start();
+        try {
+            return new Measured<>(action.get(), stats);
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous.merge(stats));
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    void recordStatement(String sql, long elapsedMillis) {
+        statements++;
+        jdbcTimeMillis += elapsedMillis;
+        shapes.merge(shapeOf(sql), 1, Integer::sum);
+    }
+
+    void recordRows(long count) {
+        rows += count;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getJdbcTimeMillis() {
+        return jdbcTimeMillis;
+    }
+
+    /** @return Número de ejecuciones por forma de sentencia. */
+    public Map<String, Integer> getShapes() {
+        return Collections.unmodifiableMap(shapes);
+    }
+
+    /**
+     * @param threshold Número máximo de repeticiones aceptable.
+     * @return Las formas que se han ejecutado más de threshold veces (la firma de un N+1).
+     */
+    public Map<String, Integer> repeatedShapes(int threshold) {
+        Map<String, Integer> repeated = new HashMap<>();
+        shapes.forEach((shape, count) -> {
+            if (count > threshold) {
+                repeated.put(shape, count);
+            }
+        });
+        return repeated;
+    }
+
+    private SqlStats merge(SqlStats other) {
+        statements += other.statements;
+        rows += other.rows;
+        jdbcTimeMillis += other.jdbcTimeMillis;
+        other.shapes.forEach((shape, count) -> shapes.merge(shape, count, Integer::sum));
+        return this;
+    }
+
+    static String shapeOf(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        return IN_LIST.matcher(shape).replaceAll("(?)");
+    }
+
+    @Override
+    public String toString() {
+        return "SqlStats{statements=" + statements + ", rows=" + rows + ", jdbcTimeMillis=" + jdbcTimeMillis + "}";
+    }
+
+    /** Resultado de una acción medida junto con sus contadores de SQL. */
+    public static final class Measured<T> {
+        private final T value;
+        private final SqlStats stats;
+
+        Measured(T value, SqlStats stats) {
+            this.value = value;
+            this.stats = stats;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public SqlStats getStats() {
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.mi_web_backend.jdbc;
+// src/main/java/com/example/mi_web_backend/jdbc/SqlStatsFilter.java
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el SQL de cada petición HTTP: publica app.sql.request.statements, app.sql.request.rows y
+ * app.sql.request.jdbc.time por endpoint (patrón de la ruta), avisa en el log cuando una misma
+ * sentencia se repite más de repeatedStatementThreshold veces (N+1) y, si está activado, añade las
+ * cabeceras X-Sql-Statements, X-Sql-Rows y X-Sql-Time-Ms.
+ * Las cabeceras reflejan el SQL ejecutado antes de empezar a escribir el cuerpo; lo que se ejecuta en
+ * hilos asíncronos (exportación en streaming) no se cuenta.
+ */
+public class SqlStatsFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_HEADER = "X-Sql-Statements";
+    public static final String ROWS_HEADER = "X-Sql-Rows";
+    public static final String TIME_HEADER = "X-Sql-Time-Ms";
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatsFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int repeatedStatementThreshold;
+    private final boolean responseHeaders;
+
+    public SqlStatsFilter(MeterRegistry meterRegistry, int repeatedStatementThreshold, boolean responseHeaders) {
+        this.meterRegistry = meterRegistry;
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+        this.responseHeaders = responseHeaders;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStats stats = SqlStats.start();
+        BeforeCommitResponse target = responseHeaders ? new BeforeCommitResponse(response, () -> writeHeaders(response, stats)) : null;
+        try {
+            filterChain.doFilter(request, target != null ? target : response);
+        } finally {
+            SqlStats.stop();
+            if (target != null) {
+                target.beforeCommit(); // Respuestas sin cuerpo (204, 304...)
+            }
+            record(request, stats);
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder("app.sql.request.statements").tag("uri", uri).register(meterRegistry).record(stats.getStatements());
+        DistributionSummary.builder("app.sql.request.rows").tag("uri", uri).register(meterRegistry).record(stats.getRows());
+        Timer.builder("app.sql.request.jdbc.time").tag("uri", uri).register(meterRegistry)
+                .record(stats.getJdbcTimeMillis(), TimeUnit.MILLISECONDS);
+
+        Map<String, Integer> repeated = stats.repeatedShapes(repeatedStatementThreshold);
+        if (!repeated.isEmpty()) {
+            repeated.forEach((sql, count) -> log.warn("Possible N+1 in {} {}: statement executed {} times: {}",
+                    request.getMethod(), uri, count, sql));
+        }
+    }
+
+    private static void writeHeaders(HttpServletResponse response, SqlStats stats) {
+        response.setHeader(STATEMENTS_HEADER, String.valueOf(stats.getStatements()));
+        response.setHeader(ROWS_HEADER, String.valueOf(stats.getRows()));
+        response.setHeader(TIME_HEADER, String.valueOf(stats.getJdbcTimeMillis()));
+    }
+}
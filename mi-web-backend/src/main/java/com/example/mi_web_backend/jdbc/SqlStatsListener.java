@@ -0,0 +1,58 @@
+package com.example.mi_web_backend.jdbc;
+// src/main/java/com/example/mi_web_backend/jdbc/SqlStatsListener.java
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Listener de datasource-proxy que alimenta los SqlStats del hilo actual: una sentencia por cada
+ * ejecución JDBC (un lote cuenta como una), filas leídas vía ResultSet.next() y filas modificadas
+ * según el recuento de actualización. Si el hilo no tiene medición activa no hace nada.
+ */
+public class SqlStatsListener implements QueryExecutionListener, MethodExecutionListener {
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        SqlStats stats = SqlStats.current();
+        if (stats == null) {
+            return;
+        }
+        for (QueryInfo query : queryInfoList) {
+            stats.recordStatement(query.getQuery(), execInfo.getElapsedTime());
+        }
+        Object result = execInfo.getResult();
+        if (result instanceof Integer) {
+            stats.recordRows(Math.max(0, (Integer) result));
+        } else if (result instanceof int[]) {
+            for (int count : (int[]) result) {
+                stats.recordRows(Math.max(0, count)); // SUCCESS_NO_INFO (-2) no suma
+            }
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (executionContext.getTarget() instanceof ResultSet
+                && "next".equals(executionContext.getMethod().getName())
+                && Boolean.TRUE.equals(executionContext.getResult())) {
+            SqlStats stats = SqlStats.current();
+            if (stats != null) {
+                stats.recordRows(1);
+            }
+        }
+    }
+}
@@ -17,7 +17,7 @@ public class CompanyMapper {
         if (company == null) {
             return null;
         }
-        return new CompanyDto(company.getId(), company.getName(), company.getAddress());
+        return new CompanyDto(company.getId(), company.getName(), company.getAddress(), company.getVersion());
     }
 
     public Company toEntity(CompanyDto companyDto) {
@@ -43,10 +43,28 @@ public class ProductMapper {
                 product.getStock(),
                 product.getPrize(), // Mapea el campo 'prize'
                 companyId,     // Esto es un Long para el ID de la compañía
-                companyName    // Esto es un String para el nombre de la compañía
+                companyName,   // Esto es un String para el nombre de la compañía
+                product.getVersion()
         );
     }
 
+    /**
+     * Convierte una entidad Product a un ProductDto cuando el nombre de la compañía ya se conoce
+     * (por ejemplo, desde la caché de compañías). Solo lee el ID de la Company, por lo que no
+     * inicializa el proxy LAZY ni lanza una consulta adicional.
+     * @param product La entidad Product a convertir.
+     * @param companyName Nombre de la compañía asociada.
+     * @return El ProductDto resultante, o null si la entidad de entrada es null.
+     */
+    public ProductDto toDto(Product product, String companyName) {
+        if (product == null) {
+            return null;
+        }
+        Long companyId = product.getCompany() != null ? product.getCompany().getId() : null; // getId() no inicializa el proxy
+        return new ProductDto(product.getId(), product.getName(), product.getStock(), product.getPrize(), companyId, companyName,
+                product.getVersion());
+    }
+
     /**
      * Convierte un ProductDto a una entidad Product.
      * Importante: Este método NO establece la relación con la entidad Company (el objeto Company completo).
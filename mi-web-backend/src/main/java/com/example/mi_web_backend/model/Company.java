@@ -10,7 +10,9 @@ import javax.persistence.*;
 public class Company {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Secuencia con optimizador pooled (no IDENTITY) para permitir inserts en lotes JDBC
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "company_seq")
+    @SequenceGenerator(name = "company_seq", sequenceName = "company_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "CIF", length = 9, nullable = false, unique = true)
@@ -33,6 +35,10 @@ public class Company {
 
     @Column(name = "password", length = 255, nullable = false)
     private String password;
+
+    @Version // Bloqueo optimista: Hibernate lo incrementa en cada UPDATE; también sirve para calcular los ETags
+    @Column(name = "version")
+    private Long version;
     // --- Construntores ---
 
     public Company() {
@@ -119,4 +125,12 @@ public class Company {
     public void setAddress(String address) {
         this.adress = adress;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
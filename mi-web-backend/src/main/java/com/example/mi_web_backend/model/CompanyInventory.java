@@ -0,0 +1,38 @@
+package com.example.mi_web_backend.model;
+
+// src/main/java/com/example/mi_web_backend/model/CompanyInventory.java
+
+import javax.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resumen de inventario de una Company: se actualiza con deltas en cada escritura de sus productos,
+ * así que leerlo es una búsqueda por clave primaria en lugar de un agregado sobre la tabla product.
+ * Los productos sin stock o sin precio cuentan como 0 unidades o 0 de valor.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "company_inventory")
+public class CompanyInventory {
+
+    @Id // Misma clave que la Company (la fila se borra en cascada con ella)
+    @Column(name = "company_id")
+    private Long companyId;
+
+    @Column(name = "product_count", nullable = false)
+    private Long productCount;
+
+    @Column(name = "total_units", nullable = false) // Suma de stock
+    private Long totalUnits;
+
+    @Column(name = "total_value", nullable = false) // Suma de stock * prize
+    private Double totalValue;
+
+    public static CompanyInventory empty(Long companyId) {
+        return new CompanyInventory(companyId, 0L, 0L, 0.0);
+    }
+}
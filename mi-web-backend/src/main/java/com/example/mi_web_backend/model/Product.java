@@ -3,6 +3,8 @@ package com.example.mi_web_backend.model;
 // src/main/java/com/example/mi_web_backend/model/Product.java
 
 import javax.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,7 +17,9 @@ import lombok.NoArgsConstructor;
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Secuencia con optimizador pooled (no IDENTITY): Hibernate conoce el ID antes del INSERT y puede agrupar inserts en lotes JDBC
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "name", length = 28) // Mapea a la columna 'name' con un límite de longitud
@@ -29,8 +33,17 @@ public class Product {
 
     @ManyToOne(fetch = FetchType.LAZY) // FetchType.LAZY es recomendable para relaciones, carga la Company solo cuando se accede a ella
     @JoinColumn(name = "company", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE) // fk_product_company: al borrar la Company, la BD borra sus productos
     private Company company;
 
+    // Secuencia global del último cambio (ProductChangeSequence): base de la sincronización incremental
+    @Column(name = "change_seq", nullable = false)
+    private Long changeSeq = 0L;
+
+    @Version // Bloqueo optimista: Hibernate lo incrementa en cada UPDATE; también sirve para calcular los ETags
+    @Column(name = "version")
+    private Long version;
+
     public Long getId() {
         return id;
     }
@@ -70,4 +83,20 @@ public class Product {
     public void setCompany(Company company) {
         this.company = company;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
 }
\ No newline at end of file
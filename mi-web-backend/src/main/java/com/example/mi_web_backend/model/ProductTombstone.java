@@ -0,0 +1,35 @@
+package com.example.mi_web_backend.model;
+
+// src/main/java/com/example/mi_web_backend/model/ProductTombstone.java
+
+import javax.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Lápida de un Producto que ha dejado de pertenecer a una Company (borrado o movido a otra), para que
+ * la sincronización incremental pueda decir a los clientes que lo eliminen. Se purga pasada la retención.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "product_tombstone")
+public class ProductTombstone {
+
+    @Id // Valor de ProductChangeSequence: ordena lápidas y cambios de producto en una sola secuencia
+    @Column(name = "change_seq")
+    private Long changeSeq;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "company_id", nullable = false) // Compañía de la que sale el producto
+    private Long companyId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private Instant deletedAt;
+}
@@ -0,0 +1,63 @@
+package com.example.mi_web_backend.pagination;
+// src/main/java/com/example/mi_web_backend/pagination/ChangeToken.java
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Token de la sincronización incremental (GET /api/products/changes).
+ * Lleva el último valor de la secuencia de cambios que el cliente ya tiene y el instante en que se
+ * emitió por primera vez, codificados en Base64 URL-safe como los cursores de PageCursor para que el
+ * cliente lo trate como opaco. El instante permite saber si el token es más antiguo que la retención
+ * de las lápidas y el delta ya no se puede calcular.
+ */
+public final class ChangeToken {
+
+    private final long seq;
+    private final long issuedAtMillis;
+
+    public ChangeToken(long seq, long issuedAtMillis) {
+        this.seq = seq;
+        this.issuedAtMillis = issuedAtMillis;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public long getIssuedAtMillis() {
+        return issuedAtMillis;
+    }
+
+    /**
+     * Codifica el token como texto opaco.
+     * @return El token para el cliente.
+     */
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((seq + "." + issuedAtMillis).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodifica un token recibido del cliente.
+     * @param token Texto devuelto por una sincronización anterior.
+     * @return El token decodificado.
+     * @throws IllegalArgumentException si el token no es válido.
+     */
+    public static ChangeToken decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII).split("\\.");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid change token: " + token);
+            }
+            long seq = Long.parseLong(parts[0]);
+            long issuedAtMillis = Long.parseLong(parts[1]);
+            if (seq < 0 || issuedAtMillis < 0) {
+                throw new IllegalArgumentException("Invalid change token: " + token);
+            }
+            return new ChangeToken(seq, issuedAtMillis);
+        } catch (IllegalArgumentException e) { // Incluye NumberFormatException y Base64 mal formado
+            throw new IllegalArgumentException("Invalid change token: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.mi_web_backend.pagination;
+// src/main/java/com/example/mi_web_backend/pagination/PageCursor.java
+
+import com.example.mi_web_backend.dto.CursorPageDto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Utilidades para la paginación por cursor (keyset).
+ * El cursor es el último ID devuelto codificado en Base64 URL-safe, de forma que el cliente
+ * lo trate como un token opaco. La siguiente página se pide con "id > lastId", sin OFFSET.
+ */
+public final class PageCursor {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500; // Ninguna petición puede traer más filas que esto
+
+    private PageCursor() {
+    }
+
+    /**
+     * Ajusta el tamaño de página pedido al rango [1, MAX_LIMIT].
+     * @param limit Tamaño de página pedido por el cliente.
+     * @return Tamaño de página efectivo.
+     */
+    public static int clampLimit(int limit) {
+        if (limit < 1) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    /**
+     * Codifica el último ID de una página como cursor opaco.
+     * @param lastId ID del último elemento devuelto.
+     * @return El token para la siguiente página.
+     */
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodifica un cursor. Un cursor nulo o vacío significa "desde el principio".
+     * @param cursor Token recibido del cliente.
+     * @return El último ID visto (0 si no hay cursor).
+     * @throws IllegalArgumentException si el cursor no es válido.
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            long lastId = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+            if (lastId < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return lastId;
+        } catch (IllegalArgumentException e) { // Incluye NumberFormatException y Base64 mal formado
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * Construye una página a partir de una consulta que pidió pageSize + 1 filas.
+     * La fila extra solo sirve para saber si existe una página siguiente y no se devuelve.
+     * @param rows Filas leídas (como máximo pageSize + 1).
+     * @param pageSize Tamaño de página efectivo.
+     * @param idExtractor Función que obtiene el ID de cada elemento.
+     * @return La página con su token "next", o next = null si es la última.
+     */
+    public static <T> CursorPageDto<T> page(List<T> rows, int pageSize, Function<T, Long> idExtractor) {
+        if (rows.size() <= pageSize) {
+            return new CursorPageDto<>(rows, null);
+        }
+        List<T> items = rows.subList(0, pageSize);
+        return new CursorPageDto<>(items, encode(idExtractor.apply(items.get(pageSize - 1))));
+    }
+}
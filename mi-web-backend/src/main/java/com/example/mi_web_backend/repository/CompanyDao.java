@@ -1,9 +1,35 @@
 package com.example.mi_web_backend.repository;
 
 import com.example.mi_web_backend.model.Company;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface CompanyDao extends JpaRepository<Company, Long> {
+
+    // Paginación por cursor: filtra por "id > lastId" y el Pageable solo aporta el LIMIT (sin OFFSET ni COUNT).
+    List<Company> findByIdGreaterThanOrderByIdAsc(Long lastId, Pageable pageable);
+
+    // Valida de una vez qué IDs de compañía existen (solo lee la columna id, sin cargar entidades).
+    @Query("select c.id from Company c where c.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Bloquea la fila hasta el final de la transacción: las altas de productos en la compañía (que comprueban la FK)
+    // esperan, así que la lista de sus productos no cambia mientras se borra. Vacío si no existe.
+    @Query(value = "select c.id from company c where c.id = :id for update", nativeQuery = true)
+    Optional<Long> lockById(@Param("id") Long id);
+
+    // Borrado con una sola sentencia (deleteById carga antes la entidad); devuelve las filas afectadas (0 = no existe).
+    // Sus productos y su resumen de inventario los borra la BD en cascada (fk_product_company, fk_company_inventory_company).
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Company c where c.id = :id")
+    int deleteRowById(@Param("id") Long id);
 }
@@ -0,0 +1,76 @@
+package com.example.mi_web_backend.repository;
+
+import com.example.mi_web_backend.dto.CompanyInventoryDto;
+import com.example.mi_web_backend.model.CompanyInventory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CompanyInventoryDao extends JpaRepository<CompanyInventory, Long> {
+
+    // --- Lecturas: una fila por clave primaria (o las N primeras del índice por valor) con el nombre de la compañía ---
+
+    @Query("select new com.example.mi_web_backend.dto.CompanyInventoryDto(c.id, c.name, i.productCount, i.totalUnits, i.totalValue) "
+            + "from CompanyInventory i, Company c where c.id = i.companyId and i.companyId = :companyId")
+    Optional<CompanyInventoryDto> findDtoByCompanyId(@Param("companyId") Long companyId);
+
+    // El Pageable solo aporta el LIMIT
+    @Query("select new com.example.mi_web_backend.dto.CompanyInventoryDto(c.id, c.name, i.productCount, i.totalUnits, i.totalValue) "
+            + "from CompanyInventory i, Company c where c.id = i.companyId order by i.totalValue desc, i.companyId desc")
+    List<CompanyInventoryDto> findTopByValue(Pageable pageable);
+
+    // Resumen calculado desde cero sobre los productos de la compañía (índice ix_product_company_id).
+    // Vacío si la compañía no existe.
+    @Query("select new com.example.mi_web_backend.dto.CompanyInventoryDto(c.id, c.name, count(p), coalesce(sum(p.stock), 0), "
+            + "coalesce(sum(p.stock * p.prize), 0.0)) "
+            + "from Company c left join Product p on p.company = c where c.id = :companyId group by c.id, c.name")
+    Optional<CompanyInventoryDto> computeDtoByCompanyId(@Param("companyId") Long companyId);
+
+    // --- Deltas: se unen a la transacción de la escritura que los provoca ---
+    // Devuelven el número de filas afectadas (0 = la compañía aún no tiene fila de resumen).
+
+    @Modifying
+    @Query("update CompanyInventory i set i.productCount = i.productCount + :products, i.totalUnits = i.totalUnits + :units, "
+            + "i.totalValue = i.totalValue + :value where i.companyId = :companyId")
+    int applyDelta(@Param("companyId") Long companyId, @Param("products") long products,
+                   @Param("units") long units, @Param("value") double value);
+
+    // Cambio de stock de un producto conociendo solo su ID: la compañía y el precio salen de la propia fila del producto.
+    @Modifying
+    @Query(value = "update company_inventory set total_units = total_units + :units, "
+            + "total_value = total_value + :units * (select coalesce(p.prize, 0) from product p where p.id = :productId) "
+            + "where company_id = (select p.company from product p where p.id = :productId)", nativeQuery = true)
+    int applyStockDelta(@Param("productId") Long productId, @Param("units") long units);
+
+    // Compañía y precio de varios productos, para agrupar sus cambios de stock por compañía: [id, companyId, prize].
+    @Query("select p.id, p.company.id, p.prize from Product p where p.id in :productIds")
+    List<Object[]> findCompanyAndPrizeByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    // --- Reconciliación ---
+
+    // Bloquea la fila de resumen: las escrituras que la ajustan esperan hasta que se haya recalculado.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from CompanyInventory i where i.companyId = :companyId")
+    Optional<CompanyInventory> lockByCompanyId(@Param("companyId") Long companyId);
+
+    // Recorrido por cursor de las compañías con resumen; el Pageable solo aporta el LIMIT.
+    @Query("select i.companyId from CompanyInventory i where i.companyId > :lastId order by i.companyId")
+    List<Long> findCompanyIdsAfter(@Param("lastId") Long lastId, Pageable pageable);
+
+    // Crea a cero las filas que falten (p. ej. compañías insertadas por fuera de la aplicación).
+    @Modifying
+    @Query(value = "insert into company_inventory (company_id, product_count, total_units, total_value) "
+            + "select c.id, 0, 0, 0 from company c "
+            + "where not exists (select 1 from company_inventory i where i.company_id = c.id)", nativeQuery = true)
+    int insertMissing();
+}
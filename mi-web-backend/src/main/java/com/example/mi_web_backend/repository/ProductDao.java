@@ -1,10 +1,21 @@
 package com.example.mi_web_backend.repository;
 
+import com.example.mi_web_backend.dto.ProductDto;
 import com.example.mi_web_backend.model.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductDao extends JpaRepository<Product, Long> {
@@ -21,4 +32,125 @@ public interface ProductDao extends JpaRepository<Product, Long> {
     // List<Product> findByNameContainingIgnoreCase(String name);
     // List<Product> findByStockLessThan(Integer stock);
     List<Product> findByCompanyId(Long companyId);
+
+    // --- Lecturas con proyección a DTO ---
+    // Devuelven ProductDto directamente desde un único SELECT con JOIN a company:
+    // no crean entidades gestionadas ni tocan el contexto de persistencia, y evitan el N+1
+    // que provoca acceder a product.getCompany().getName() con FetchType.LAZY.
+
+    @Query("select new com.example.mi_web_backend.dto.ProductDto(p.id, p.name, p.stock, p.prize, c.id, c.name, p.version) "
+            + "from Product p join p.company c where p.id = :id")
+    Optional<ProductDto> findDtoById(@Param("id") Long id);
+
+    @Query("select new com.example.mi_web_backend.dto.ProductDto(p.id, p.name, p.stock, p.prize, c.id, c.name, p.version) "
+            + "from Product p join p.company c where c.id = :companyId order by p.id")
+    List<ProductDto> findDtosByCompanyId(@Param("companyId") Long companyId);
+
+    // Resultados de búsqueda: el orden de relevancia lo decide el índice en memoria, no la consulta.
+    @Query("select new com.example.mi_web_backend.dto.ProductDto(p.id, p.name, p.stock, p.prize, c.id, c.name, p.version) "
+            + "from Product p join p.company c where p.id in :ids")
+    List<ProductDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Paginación por cursor: filtra por "id > lastId" y el Pageable solo aporta el LIMIT (sin OFFSET ni COUNT).
+    @Query("select new com.example.mi_web_backend.dto.ProductDto(p.id, p.name, p.stock, p.prize, c.id, c.name, p.version) "
+            + "from Product p join p.company c where p.id > :lastId order by p.id")
+    List<ProductDto> findDtoPage(@Param("lastId") Long lastId, Pageable pageable);
+
+    // La misma paginación dentro de una Company, para recorrer sus productos sin cargarlos todos a la vez.
+    @Query("select new com.example.mi_web_backend.dto.ProductDto(p.id, p.name, p.stock, p.prize, c.id, c.name, p.version) "
+            + "from Product p join p.company c where c.id = :companyId and p.id > :lastId order by p.id")
+    List<ProductDto> findDtoPageByCompanyId(@Param("companyId") Long companyId, @Param("lastId") Long lastId,
+                                            Pageable pageable);
+
+    // --- ETags ---
+    // Pares (id, versión) de los productos de una Company en orden de ID, para calcular el ETag de su lista
+    // sin cargarla. Las versiones solo crecen y cada escritura incrementa la de su fila.
+    // Debe consumirse dentro de una transacción de solo lectura y cerrarse al terminar (try-with-resources).
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+    })
+    @Query("select p.id, p.version from Product p where p.company.id = :companyId order by p.id")
+    Stream<Object[]> streamVersionsByCompanyId(@Param("companyId") Long companyId);
+
+    // --- Cambios de stock atómicos ---
+    // Un único UPDATE condicional: la BD decide si hay unidades suficientes, sin leer la fila antes.
+    // Devuelven el número de filas afectadas (0 = producto inexistente o sin stock suficiente).
+    // Son transaccionales por sí mismos y se unen a la transacción del llamante si existe.
+    // Un UPDATE JPQL no pasa por @Version, así que incrementan la versión explícitamente (invalida los ETags)
+    // y asignan el valor de la secuencia de cambios que les da el llamante (sincronización incremental).
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.stock = p.stock - :quantity, p.version = coalesce(p.version, 0) + 1, p.changeSeq = :changeSeq "
+            + "where p.id = :id and p.stock >= :quantity")
+    int reserveStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("changeSeq") long changeSeq);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.stock = coalesce(p.stock, 0) + :quantity, p.version = coalesce(p.version, 0) + 1, p.changeSeq = :changeSeq "
+            + "where p.id = :id")
+    int releaseStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("changeSeq") long changeSeq);
+
+    // --- Sincronización incremental ---
+    // Productos con change_seq en (since, until], en orden de cambio; el Pageable solo aporta el LIMIT.
+    // Proyección con el changeSeq para poder intercalarlos con las lápidas.
+
+    interface ChangedProduct {
+        Long getChangeSeq();
+        Long getId();
+        String getName();
+        Integer getStock();
+        Double getPrize();
+        Long getCompanyId();
+        String getCompanyName();
+        Long getVersion();
+    }
+
+    @Query("select p.changeSeq as changeSeq, p.id as id, p.name as name, p.stock as stock, p.prize as prize, "
+            + "c.id as companyId, c.name as companyName, p.version as version "
+            + "from Product p join p.company c where p.changeSeq > :since and p.changeSeq <= :until order by p.changeSeq")
+    List<ChangedProduct> findChangedBetween(@Param("since") long since, @Param("until") long until, Pageable pageable);
+
+    @Query("select p.changeSeq as changeSeq, p.id as id, p.name as name, p.stock as stock, p.prize as prize, "
+            + "c.id as companyId, c.name as companyName, p.version as version "
+            + "from Product p join p.company c where c.id = :companyId and p.changeSeq > :since and p.changeSeq <= :until "
+            + "order by p.changeSeq")
+    List<ChangedProduct> findChangedBetweenByCompany(@Param("companyId") Long companyId, @Param("since") long since,
+                                                     @Param("until") long until, Pageable pageable);
+
+    // --- Borrados ---
+    // Las filas a borrar se bloquean antes, en orden de ID (el mismo en todas las transacciones, sin interbloqueos):
+    // su compañía, stock y precio hacen falta para el inventario, las lápidas y los eventos, y no cambian hasta el DELETE.
+    // Después se borran todas con una única sentencia, sin cargar entidades.
+
+    interface RemovedProduct {
+        Long getId();
+        Long getCompanyId();
+        Integer getStock();
+        Double getPrize();
+    }
+
+    @Query(value = "select p.id as \"id\", p.company as \"companyId\", p.stock as \"stock\", p.prize as \"prize\" "
+            + "from product p where p.id in (:ids) order by p.id for update", nativeQuery = true)
+    List<RemovedProduct> lockForRemoval(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Product p where p.id in :ids")
+    int deleteRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // IDs de los productos de una Company, en orden; el Pageable solo aporta el LIMIT.
+    @Query("select p.id from Product p where p.company.id = :companyId order by p.id")
+    List<Long> findIdsByCompanyId(@Param("companyId") Long companyId, Pageable pageable);
+
+    // Recorrido forward-only de todo el catálogo para exportaciones: el driver trae las filas en bloques
+    // de fetchSize, así que la memoria no depende del tamaño de la tabla.
+    // Debe consumirse dentro de una transacción de solo lectura y cerrarse al terminar (try-with-resources).
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+    })
+    @Query("select new com.example.mi_web_backend.dto.ProductDto(p.id, p.name, p.stock, p.prize, c.id, c.name, p.version) "
+            + "from Product p join p.company c order by p.id")
+    Stream<ProductDto> streamAllDtos();
 }
@@ -0,0 +1,43 @@
+package com.example.mi_web_backend.repository;
+
+import com.example.mi_web_backend.model.ProductTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface ProductTombstoneDao extends JpaRepository<ProductTombstone, Long> {
+
+    // Lápidas con change_seq en (since, until], en orden; el Pageable solo aporta el LIMIT.
+    // Se omiten las de productos que vuelven a existir en el ámbito pedido (movidos y devueltos, o
+    // movidos entre compañías en una sincronización sin filtro): para esos basta con el cambio.
+
+    @Query("select t from ProductTombstone t where t.changeSeq > :since and t.changeSeq <= :until "
+            + "and not exists (select p.id from Product p where p.id = t.productId) order by t.changeSeq")
+    List<ProductTombstone> findBetween(@Param("since") long since, @Param("until") long until, Pageable pageable);
+
+    @Query("select t from ProductTombstone t where t.companyId = :companyId and t.changeSeq > :since and t.changeSeq <= :until "
+            + "and not exists (select p.id from Product p where p.id = t.productId and p.company.id = :companyId) "
+            + "order by t.changeSeq")
+    List<ProductTombstone> findBetweenByCompany(@Param("companyId") Long companyId, @Param("since") long since,
+                                                @Param("until") long until, Pageable pageable);
+
+    // Lápidas de productos borrados (que ya no existen) de una compañía con change_seq mayor que after, en orden:
+    // se recorren por keyset sobre ix_product_tombstone_company. El Pageable solo aporta el LIMIT.
+    @Query("select t from ProductTombstone t where t.companyId = :companyId and t.changeSeq > :after "
+            + "and not exists (select p.id from Product p where p.id = t.productId) order by t.changeSeq")
+    List<ProductTombstone> findRemovedAfter(@Param("companyId") Long companyId, @Param("after") long after, Pageable pageable);
+
+    // Retención: borra las lápidas que ya no puede necesitar ningún token válido.
+    @Transactional
+    @Modifying
+    @Query("delete from ProductTombstone t where t.deletedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,66 @@
+package com.example.mi_web_backend.repository;
+// src/main/java/com/example/mi_web_backend/repository/ReactiveProductDao.java
+
+import com.example.mi_web_backend.dto.ProductDto;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Lecturas de productos sobre R2DBC, sin bloquear hilos: cada fila se proyecta directamente a ProductDto
+ * (mismas columnas que las consultas DTO de ProductDao) y se entrega según la demanda del suscriptor.
+ * Solo lectura; las escrituras siguen pasando por JPA.
+ */
+@Repository
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true")
+public class ReactiveProductDao {
+
+    private static final String SELECT_DTO = "select p.id, p.name, p.stock, p.prize, c.id as company_id, c.name as company_name, p.version "
+            + "from product p join company c on c.id = p.company ";
+
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public ReactiveProductDao(ConnectionFactory connectionFactory) {
+        this.databaseClient = DatabaseClient.create(connectionFactory);
+    }
+
+    public Mono<ProductDto> findDtoById(Long id) {
+        return databaseClient.sql(SELECT_DTO + "where p.id = :id")
+                .bind("id", id)
+                .map(ReactiveProductDao::toDto)
+                .one();
+    }
+
+    public Flux<ProductDto> findDtosByCompanyId(Long companyId) {
+        return databaseClient.sql(SELECT_DTO + "where p.company = :companyId order by p.id")
+                .bind("companyId", companyId)
+                .map(ReactiveProductDao::toDto)
+                .all();
+    }
+
+    /**
+     * Productos con ID mayor que lastId en orden de ID (paginación por keyset, como ProductDao.findDtoPage).
+     * @param lastId Último ID ya entregado (0 para empezar).
+     * @param limit Número máximo de filas, o null para recorrer el resto del catálogo.
+     */
+    public Flux<ProductDto> findDtoPage(Long lastId, Integer limit) {
+        String sql = SELECT_DTO + "where p.id > :lastId order by p.id" + (limit != null ? " limit :limit" : "");
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql).bind("lastId", lastId);
+        if (limit != null) {
+            spec = spec.bind("limit", limit);
+        }
+        return spec.map(ReactiveProductDao::toDto).all();
+    }
+
+    private static ProductDto toDto(Row row) {
+        return new ProductDto(row.get("id", Long.class), row.get("name", String.class), row.get("stock", Integer.class),
+                row.get("prize", Double.class), row.get("company_id", Long.class), row.get("company_name", String.class),
+                row.get("version", Long.class));
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.mi_web_backend.search;
+// src/main/java/com/example/mi_web_backend/search/IntPostings.java
+
+import java.util.Arrays;
+
+/**
+ * Lista de documentos de un trigrama: un int[] que crece por duplicación, sin objetos por entrada.
+ * Los documentos se añaden siempre en orden creciente, así que la lista queda ordenada y se puede
+ * intersecar recorriéndola una sola vez.
+ */
+final class IntPostings {
+
+    private int[] docs = new int[4];
+    private int size;
+
+    void add(int doc) {
+        if (size > 0 && docs[size - 1] == doc) {
+            return; // El mismo trigrama repetido en un texto solo cuenta una vez
+        }
+        if (size == docs.length) {
+            docs = Arrays.copyOf(docs, size * 2);
+        }
+        docs[size++] = doc;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int index) {
+        return docs[index];
+    }
+
+    /**
+     * Interseca esta lista con los candidatos actuales (ambos ordenados).
+     * @param candidates Candidatos ordenados, o null para partir de esta lista completa.
+     * @param candidateCount Número de candidatos válidos en el array.
+     * @return Nuevo array con la intersección; su longitud es el número de resultados.
+     */
+    int[] intersect(int[] candidates, int candidateCount) {
+        if (candidates == null) {
+            return Arrays.copyOf(docs, size);
+        }
+        int[] result = new int[Math.min(candidateCount, size)];
+        int found = 0;
+        int i = 0;
+        int j = 0;
+        while (i < candidateCount && j < size) {
+            int a = candidates[i];
+            int b = docs[j];
+            if (a == b) {
+                result[found++] = a;
+                i++;
+                j++;
+            } else if (a < b) {
+                i++;
+            } else {
+                j = advance(j, a); // Salto exponencial: las listas pueden tener tamaños muy distintos
+            }
+        }
+        return found == result.length ? result : Arrays.copyOf(result, found);
+    }
+
+    // Primera posición >= from cuyo documento es >= target (búsqueda exponencial + binaria).
+    private int advance(int from, int target) {
+        int step = 1;
+        int high = from + 1;
+        while (high < size && docs[high] < target) {
+            from = high;
+            step <<= 1;
+            high = from + step;
+        }
+        int low = from + 1;
+        high = Math.min(high, size);
+        int position = Arrays.binarySearch(docs, low, high, target);
+        return position >= 0 ? position : -position - 1;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.mi_web_backend.search;
+// src/main/java/com/example/mi_web_backend/search/LongIntHashMap.java
+
+import java.util.Arrays;
+
+/**
+ * Mapa long -> int de direccionamiento abierto (sondeo lineal) sobre dos arrays primitivos.
+ * Con un millón de productos ocupa unos 24 MB frente a los ~80 MB de un HashMap<Long, Integer>.
+ * No admite borrado: para "quitar" una clave se le asigna MISSING, y el índice se reconstruye al compactar.
+ */
+final class LongIntHashMap {
+
+    static final int MISSING = -1;
+    private static final long FREE = Long.MIN_VALUE; // Ningún ID de producto es Long.MIN_VALUE
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    LongIntHashMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, FREE);
+    }
+
+    int get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            if (keys[slot] == FREE) {
+                return MISSING;
+            }
+        }
+    }
+
+    void put(long key, int value) {
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == FREE) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        Arrays.fill(keys, FREE);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L; // Dispersión de Fibonacci: los IDs consecutivos no se agrupan
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,502 @@
+package com.example.mi_web_backend.search;
+// src/main/java/com/example/mi_web_backend/search/ProductSearchIndex.java
+
+import com.example.mi_web_backend.dto.ProductDto;
+import com.example.mi_web_backend.repository.ProductDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Índice en memoria para buscar productos por subcadena del nombre del producto o de su compañía,
+ * sin el "LIKE '%x%'" que recorre toda la tabla product.
+ *
+ * Cada producto es un documento con un número interno (int); los nombres se indexan por trigramas
+ * (TrigramIndex) y las listas de documentos son arrays de int. Modificar un producto lo vuelve a
+ * añadir con un número nuevo y marca el anterior como borrado en un BitSet; cuando los borrados
+ * superan a los vivos, el índice se compacta en memoria.
+ *
+ * Se construye al arrancar recorriendo la tabla en streaming y ProductService/CompanyService lo
+ * mantienen al día tras cada escritura confirmada. Las búsquedas comparten un cerrojo de lectura;
+ * las escrituras (y la construcción inicial) toman el de escritura.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final int MIN_TRIGRAM_QUERY = 3; // Consultas más cortas se resuelven recorriendo los nombres
+    private static final int MIN_DELETED_TO_COMPACT = 10_000;
+
+    /** Campo sobre el que se busca. */
+    public enum Field {
+        NAME, // Nombre del producto
+        COMPANY // Nombre de la compañía del producto
+    }
+
+    private final ProductDao productDao;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // --- Productos (documentos) ---
+    private long[] productIds;
+    private long[] companyIds;
+    private String[] names; // Normalizados
+    private int docCount;
+    private BitSet deleted;
+    private int deletedCount;
+    private LongIntHashMap docByProductId;
+    private TrigramIndex nameIndex;
+    private Map<Long, IntPostings> docsByCompany; // companyId -> documentos de sus productos
+
+    // --- Compañías (pocas en comparación con los productos) ---
+    private long[] companyByDoc;
+    private String[] companyNameByDoc; // Normalizados
+    private int companyDocCount;
+    private Map<Long, Integer> companyDocById;
+    private TrigramIndex companyIndex;
+
+    private volatile boolean ready;
+
+    @Autowired
+    public ProductSearchIndex(ProductDao productDao, PlatformTransactionManager transactionManager) {
+        this.productDao = productDao;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        reset(1024);
+    }
+
+    /**
+     * Construye el índice recorriendo la tabla de productos en streaming. Mientras dura, las búsquedas
+     * y las escrituras esperan; las escrituras confirmadas entretanto se aplican después, así que no se pierden.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            reset(1024);
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<ProductDto> products = productDao.streamAllDtos()) {
+                    products.forEach(product -> {
+                        String companyName = product.getCompanyName();
+                        if (!companyDocById.containsKey(product.getCompanyId())) {
+                            addCompany(product.getCompanyId(), companyName);
+                        }
+                        addDoc(product.getId(), product.getName(), product.getCompanyId());
+                    });
+                }
+            });
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product search index built: {} products, {} companies in {} ms",
+                docCount, companyDocById.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Indica si la construcción inicial ha terminado.
+     * @return true si el índice refleja la tabla.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Busca productos cuyo nombre (o el de su compañía) contiene la consulta, sin distinguir
+     * mayúsculas ni tildes. Orden: coincidencia exacta, prefijo, inicio de palabra y resto; a igualdad,
+     * el nombre más corto y después el producto más antiguo.
+     * @param query Texto a buscar.
+     * @param field Campo sobre el que buscar.
+     * @param limit Número máximo de resultados.
+     * @return IDs de producto ordenados por relevancia.
+     */
+    public List<Long> search(String query, Field field, int limit) {
+        String normalized = TrigramIndex.normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        TopN top = new TopN(limit);
+        lock.readLock().lock();
+        try {
+            if (field == Field.COMPANY) {
+                searchCompanies(normalized, top);
+            } else {
+                searchNames(normalized, top);
+            }
+            long[] keys = top.sorted();
+            List<Long> result = new ArrayList<>(keys.length);
+            for (long key : keys) {
+                result.add(productIds[(int) key]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Añade o sustituye un producto.
+     * @param productId ID del producto.
+     * @param name Nombre del producto.
+     * @param companyId ID de su compañía.
+     * @param companyName Nombre de la compañía (si no es null y ha cambiado, se actualiza también).
+     */
+    public void put(Long productId, String name, Long companyId, String companyName) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(productId);
+            if (companyName != null || !companyDocById.containsKey(companyId)) {
+                putCompany(companyId, companyName);
+            }
+            addDoc(productId, name, companyId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Cambia solo el nombre de un producto ya indexado (por ejemplo, tras un PATCH).
+     * @param productId ID del producto.
+     * @param name Nuevo nombre.
+     */
+    public void updateName(Long productId, String name) {
+        lock.writeLock().lock();
+        try {
+            int doc = docByProductId.get(productId);
+            if (doc != LongIntHashMap.MISSING) {
+                long companyId = companyIds[doc];
+                removeDoc(productId);
+                addDoc(productId, name, companyId);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Cambia solo la compañía de un producto ya indexado (por ejemplo, tras un PATCH).
+     * @param productId ID del producto.
+     * @param companyId Nueva compañía.
+     * @param companyName Nombre de la nueva compañía.
+     */
+    public void updateCompany(Long productId, Long companyId, String companyName) {
+        lock.writeLock().lock();
+        try {
+            int doc = docByProductId.get(productId);
+            if (doc != LongIntHashMap.MISSING) {
+                String name = names[doc];
+                removeDoc(productId);
+                putCompany(companyId, companyName);
+                addDoc(productId, name, companyId);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita un producto del índice.
+     * @param productId ID del producto.
+     */
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(productId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita varios productos del índice con una sola toma del cerrojo y, como mucho, una compactación.
+     * @param productIds IDs de los productos.
+     */
+    public void removeAll(Collection<Long> productIds) {
+        lock.writeLock().lock();
+        try {
+            productIds.forEach(this::removeDoc);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Actualiza el nombre de una compañía (afecta a las búsquedas por compañía de todos sus productos).
+     * @param companyId ID de la compañía.
+     * @param companyName Nuevo nombre.
+     */
+    public void renameCompany(Long companyId, String companyName) {
+        lock.writeLock().lock();
+        try {
+            if (companyDocById.containsKey(companyId)) {
+                putCompany(companyId, companyName);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quita una compañía y todos sus productos (la BD los borra en cascada).
+     * @param companyId ID de la compañía.
+     */
+    public void removeCompany(Long companyId) {
+        lock.writeLock().lock();
+        try {
+            IntPostings docs = docsByCompany.remove(companyId);
+            if (docs != null) {
+                for (int i = 0; i < docs.size(); i++) {
+                    int doc = docs.get(i);
+                    if (!deleted.get(doc)) {
+                        removeDoc(productIds[doc]);
+                    }
+                }
+            }
+            companyDocById.remove(companyId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // --- Búsqueda (con el cerrojo de lectura) ---
+
+    private void searchNames(String query, TopN top) {
+        if (query.length() < MIN_TRIGRAM_QUERY) {
+            for (int doc = 0; doc < docCount; doc++) {
+                offerName(doc, query, top);
+            }
+            return;
+        }
+        for (int doc : nameIndex.candidates(query)) {
+            offerName(doc, query, top);
+        }
+    }
+
+    private void offerName(int doc, String query, TopN top) {
+        if (deleted.get(doc)) {
+            return;
+        }
+        String name = names[doc];
+        int position = name.indexOf(query); // Los trigramas dan candidatos; aquí se confirma la subcadena
+        if (position >= 0) {
+            top.offer(rankKey(score(name, query, position), name.length(), doc));
+        }
+    }
+
+    private void searchCompanies(String query, TopN top) {
+        int[] candidates;
+        if (query.length() < MIN_TRIGRAM_QUERY) {
+            candidates = new int[companyDocCount];
+            Arrays.setAll(candidates, companyDoc -> companyDoc);
+        } else {
+            candidates = companyIndex.candidates(query);
+        }
+        for (int companyDoc : candidates) {
+            long companyId = companyByDoc[companyDoc];
+            Integer current = companyDocById.get(companyId);
+            if (current == null || current != companyDoc) {
+                continue; // Nombre antiguo de una compañía renombrada o eliminada
+            }
+            String companyName = companyNameByDoc[companyDoc];
+            int position = companyName.indexOf(query);
+            IntPostings docs = docsByCompany.get(companyId);
+            if (position < 0 || docs == null) {
+                continue;
+            }
+            int score = score(companyName, query, position);
+            for (int i = 0; i < docs.size(); i++) {
+                int doc = docs.get(i);
+                if (!deleted.get(doc)) {
+                    top.offer(rankKey(score, companyName.length(), doc));
+                }
+            }
+        }
+    }
+
+    // 0 = exacta, 1 = prefijo, 2 = inicio de palabra, 3 = en medio de una palabra
+    private static int score(String text, String query, int position) {
+        if (position == 0) {
+            return text.length() == query.length() ? 0 : 1;
+        }
+        return Character.isLetterOrDigit(text.charAt(position - 1)) ? 3 : 2;
+    }
+
+    // Clave de ordenación en un long (menor = mejor): puntuación, longitud del texto y número de documento.
+    private static long rankKey(int score, int length, int doc) {
+        return ((long) score << 56) | ((long) Math.min(length, 0xFFFF) << 32) | doc;
+    }
+
+    // --- Escritura (con el cerrojo de escritura) ---
+
+    private void reset(int capacity) {
+        productIds = new long[capacity];
+        companyIds = new long[capacity];
+        names = new String[capacity];
+        docCount = 0;
+        deleted = new BitSet(capacity);
+        deletedCount = 0;
+        docByProductId = new LongIntHashMap(capacity);
+        nameIndex = new TrigramIndex();
+        docsByCompany = new HashMap<>();
+        companyByDoc = new long[64];
+        companyNameByDoc = new String[64];
+        companyDocCount = 0;
+        companyDocById = new HashMap<>();
+        companyIndex = new TrigramIndex();
+    }
+
+    private void addDoc(long productId, String name, long companyId) {
+        if (docCount == productIds.length) {
+            int capacity = docCount * 2;
+            productIds = Arrays.copyOf(productIds, capacity);
+            companyIds = Arrays.copyOf(companyIds, capacity);
+            names = Arrays.copyOf(names, capacity);
+        }
+        int doc = docCount++;
+        String normalized = TrigramIndex.normalize(name);
+        productIds[doc] = productId;
+        companyIds[doc] = companyId;
+        names[doc] = normalized;
+        nameIndex.add(doc, normalized);
+        docsByCompany.computeIfAbsent(companyId, id -> new IntPostings()).add(doc);
+        docByProductId.put(productId, doc);
+    }
+
+    private void removeDoc(long productId) {
+        int doc = docByProductId.get(productId);
+        if (doc != LongIntHashMap.MISSING) {
+            deleted.set(doc);
+            deletedCount++;
+            docByProductId.put(productId, LongIntHashMap.MISSING);
+        }
+    }
+
+    // Añade la compañía o, si su nombre ha cambiado, la vuelve a añadir con un documento nuevo.
+    private void putCompany(long companyId, String companyName) {
+        Integer current = companyDocById.get(companyId);
+        if (current == null || (companyName != null && !TrigramIndex.normalize(companyName).equals(companyNameByDoc[current]))) {
+            addCompany(companyId, companyName);
+        }
+    }
+
+    private void addCompany(long companyId, String companyName) {
+        if (companyDocCount == companyByDoc.length) {
+            companyByDoc = Arrays.copyOf(companyByDoc, companyDocCount * 2);
+            companyNameByDoc = Arrays.copyOf(companyNameByDoc, companyDocCount * 2);
+        }
+        int companyDoc = companyDocCount++;
+        String normalized = TrigramIndex.normalize(companyName);
+        companyByDoc[companyDoc] = companyId;
+        companyNameByDoc[companyDoc] = normalized;
+        companyIndex.add(companyDoc, normalized);
+        companyDocById.put(companyId, companyDoc);
+    }
+
+    // Cuando hay más documentos borrados que vivos, reconstruye las estructuras solo con los vivos.
+    private void compactIfNeeded() {
+        if (deletedCount < MIN_DELETED_TO_COMPACT || deletedCount * 2 < docCount) {
+            return;
+        }
+        long[] oldProductIds = productIds;
+        long[] oldCompanyIds = companyIds;
+        String[] oldNames = names;
+        BitSet oldDeleted = deleted;
+        int oldDocCount = docCount;
+        long[] oldCompanyByDoc = companyByDoc;
+        String[] oldCompanyNames = companyNameByDoc;
+        Map<Long, Integer> oldCompanyDocById = companyDocById;
+
+        reset(Math.max(1024, oldDocCount - oldDeleted.cardinality()));
+        oldCompanyDocById.values().forEach(companyDoc -> addCompany(oldCompanyByDoc[companyDoc], oldCompanyNames[companyDoc]));
+        for (int doc = 0; doc < oldDocCount; doc++) {
+            if (!oldDeleted.get(doc)) {
+                addDoc(oldProductIds[doc], oldNames[doc], oldCompanyIds[doc]);
+            }
+        }
+    }
+
+    // Los N mejores resultados (claves más pequeñas) en un montículo de máximos sobre un long[].
+    private static final class TopN {
+        private final long[] heap;
+        private int size;
+
+        TopN(int limit) {
+            heap = new long[limit];
+        }
+
+        void offer(long key) {
+            if (size < heap.length) {
+                heap[size] = key;
+                siftUp(size++);
+            } else if (key < heap[0]) {
+                heap[0] = key;
+                siftDown(0);
+            }
+        }
+
+        long[] sorted() {
+            long[] result = Arrays.copyOf(heap, size);
+            Arrays.sort(result);
+            return result;
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (heap[parent] >= heap[index]) {
+                    return;
+                }
+                swap(parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int largest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && heap[left] > heap[largest]) {
+                    largest = left;
+                }
+                if (right < size && heap[right] > heap[largest]) {
+                    largest = right;
+                }
+                if (largest == index) {
+                    return;
+                }
+                swap(index, largest);
+                index = largest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long tmp = heap[a];
+            heap[a] = heap[b];
+            heap[b] = tmp;
+        }
+    }
+}
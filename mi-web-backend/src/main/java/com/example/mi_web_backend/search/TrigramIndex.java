@@ -0,0 +1,87 @@
+package com.example.mi_web_backend.search;
+// src/main/java/com/example/mi_web_backend/search/TrigramIndex.java
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido de trigramas: para cada secuencia de tres caracteres guarda la lista ordenada de
+ * documentos (números internos) cuyo texto la contiene. Una consulta de N caracteres solo puede
+ * aparecer en los documentos que contienen todos sus trigramas, así que basta con intersecar sus
+ * listas (de la más corta a la más larga) y verificar los pocos candidatos que quedan.
+ * No es seguro para uso concurrente: ProductSearchIndex lo protege con su cerrojo.
+ */
+final class TrigramIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    // Trigrama empaquetado (3 chars de 16 bits) -> documentos que lo contienen
+    private final Map<Long, IntPostings> postings = new HashMap<>();
+
+    /**
+     * Normaliza un texto para indexarlo o buscarlo: minúsculas y sin tildes.
+     * @param text Texto original (puede ser null).
+     * @return Texto normalizado, vacío si era null.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String lower = text.toLowerCase(Locale.ROOT).trim();
+        boolean ascii = true;
+        for (int i = 0; i < lower.length() && ascii; i++) {
+            ascii = lower.charAt(i) < 128;
+        }
+        return ascii ? lower : DIACRITICS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    /**
+     * Añade un documento. Los números de documento deben llegar en orden creciente.
+     * @param doc Número interno del documento.
+     * @param normalized Texto ya normalizado.
+     */
+    void add(int doc, String normalized) {
+        for (int i = 0; i + 3 <= normalized.length(); i++) {
+            postings.computeIfAbsent(trigram(normalized, i), key -> new IntPostings()).add(doc);
+        }
+    }
+
+    /**
+     * Documentos que contienen todos los trigramas de la consulta (candidatos, sin verificar).
+     * @param normalized Consulta normalizada de al menos 3 caracteres.
+     * @return Array ordenado de documentos candidatos (vacío si algún trigrama no existe).
+     */
+    int[] candidates(String normalized) {
+        List<IntPostings> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= normalized.length(); i++) {
+            IntPostings list = postings.get(trigram(normalized, i));
+            if (list == null) {
+                return new int[0];
+            }
+            if (!lists.contains(list)) {
+                lists.add(list);
+            }
+        }
+        lists.sort(Comparator.comparingInt(IntPostings::size)); // La intersección nunca supera a la lista más corta
+        int[] result = null;
+        int count = 0;
+        for (IntPostings list : lists) {
+            result = list.intersect(result, count);
+            count = result.length;
+            if (count == 0) {
+                break;
+            }
+        }
+        return result == null ? new int[0] : result;
+    }
+
+    private static long trigram(String text, int from) {
+        return ((long) text.charAt(from) << 32) | ((long) text.charAt(from + 1) << 16) | text.charAt(from + 2);
+    }
+}
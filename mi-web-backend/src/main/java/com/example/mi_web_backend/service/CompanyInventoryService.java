@@ -0,0 +1,248 @@
+package com.example.mi_web_backend.service;
+// src/main/java/com/example/mi_web_backend/service/CompanyInventoryService.java
+
+import com.example.mi_web_backend.dto.CompanyInventoryDto;
+import com.example.mi_web_backend.model.CompanyInventory;
+import com.example.mi_web_backend.pagination.PageCursor;
+import com.example.mi_web_backend.repository.CompanyInventoryDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Resumen de inventario por Company (número de productos, unidades y valor del stock) mantenido de forma incremental.
+ * ProductService aplica un delta en la misma transacción que cada alta, cambio, borrado o cambio de stock, así que
+ * leer el resumen de una compañía es una búsqueda por clave primaria y no un agregado sobre sus productos.
+ * Un proceso programado lo recalcula desde la tabla product y corrige cualquier deriva (escrituras hechas por
+ * fuera de la aplicación, redondeo acumulado en el valor, etc.).
+ * El stock de los productos calientes entra en el resumen al volcarse a la BD (HotStockCounters).
+ * Cada ajuste bloquea la fila de resumen de la compañía hasta que confirma la transacción que lo hace: las reservas
+ * sueltas de productos de una misma compañía se serializan ahí, mientras que las reservas de varios productos y los
+ * volcados en lote hacen un único UPDATE por compañía (applyStockDeltas).
+ */
+@Service
+public class CompanyInventoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(CompanyInventoryService.class);
+
+    // Compañías por página en la reconciliación (cada una se recalcula en su propia transacción)
+    private static final int RECONCILE_PAGE_SIZE = 500;
+    // Diferencia de valor que se considera redondeo y no deriva
+    private static final double VALUE_TOLERANCE = 1e-6;
+
+    private final CompanyInventoryDao inventoryDao; // Inyección de dependencia del repositorio del resumen
+    private final TransactionTemplate transactionTemplate; // Una transacción corta por compañía al reconciliar
+
+    @PersistenceContext
+    private EntityManager entityManager; // Para insertar filas nuevas sin el SELECT previo de save()
+
+    // Constructor para inyección de dependencia
+    @Autowired
+    public CompanyInventoryService(CompanyInventoryDao inventoryDao, PlatformTransactionManager transactionManager) {
+        this.inventoryDao = inventoryDao;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Obtiene el resumen de inventario de una Company.
+     * Si la compañía aún no tiene fila (p. ej. se insertó por fuera de la aplicación y no ha pasado la
+     * reconciliación), se calcula en el momento sobre sus productos.
+     * @param companyId ID de la Company.
+     * @return Optional con el resumen, o vacío si la Company no existe.
+     */
+    @Transactional(readOnly = true)
+    public Optional<CompanyInventoryDto> getInventorySummary(Long companyId) {
+        Optional<CompanyInventoryDto> summary = inventoryDao.findDtoByCompanyId(companyId);
+        return summary.isPresent() ? summary : inventoryDao.computeDtoByCompanyId(companyId);
+    }
+
+    /**
+     * Obtiene las compañías con mayor valor de inventario, recorriendo el índice por valor.
+     * @param limit Número de compañías (se ajusta a PageCursor.MAX_LIMIT).
+     * @return Lista de resúmenes ordenada por valor descendente.
+     */
+    @Transactional(readOnly = true)
+    public List<CompanyInventoryDto> getTopCompaniesByValue(int limit) {
+        return inventoryDao.findTopByValue(PageRequest.of(0, PageCursor.clampLimit(limit)));
+    }
+
+    /**
+     * Crea a cero el resumen de una Company recién creada, en la transacción que la crea.
+     * @param companyId ID de la Company (ya asignado por la secuencia).
+     */
+    @Transactional
+    public void createEmpty(Long companyId) {
+        entityManager.persist(CompanyInventory.empty(companyId));
+    }
+
+    /**
+     * Aplica los deltas acumulados: una sentencia por compañía afectada, dentro de la transacción del llamante.
+     * @param deltas Cambios por compañía.
+     */
+    @Transactional
+    public void apply(Deltas deltas) {
+        deltas.byCompany.forEach((companyId, delta) -> {
+            if (delta.isZero()) {
+                return;
+            }
+            if (inventoryDao.applyDelta(companyId, delta.products, delta.units, delta.value) == 0) {
+                log.debug("No inventory summary for company {}: it will be created by the next reconciliation", companyId);
+            }
+        });
+    }
+
+    /**
+     * Aplica un cambio de stock de un producto (reserva, liberación o volcado de stock en memoria) al
+     * resumen de su compañía, dentro de la transacción del llamante.
+     * @param productId ID del Producto cuyo stock ha cambiado.
+     * @param units Unidades añadidas (positivo) o retiradas (negativo).
+     */
+    @Transactional
+    public void applyStockDelta(Long productId, long units) {
+        if (units != 0 && inventoryDao.applyStockDelta(productId, units) == 0) {
+            log.debug("No inventory summary for the company of product {}: it will be created by the next reconciliation", productId);
+        }
+    }
+
+    /**
+     * Aplica los cambios de stock de varios productos agrupados por compañía: una consulta para saber la
+     * compañía y el precio de los productos y un UPDATE por compañía, en orden ascendente de ID de compañía.
+     * Así dos transacciones que tocan las mismas compañías bloquean sus filas de resumen en el mismo orden
+     * y cada fila se bloquea una sola vez, en lugar de una vez por producto.
+     * @param unitsByProduct Unidades añadidas (positivo) o retiradas (negativo) por ID de Producto.
+     */
+    @Transactional
+    public void applyStockDeltas(Map<Long, Long> unitsByProduct) {
+        if (unitsByProduct.isEmpty()) {
+            return;
+        }
+        Deltas deltas = new Deltas();
+        for (Object[] row : inventoryDao.findCompanyAndPrizeByProductIds(unitsByProduct.keySet())) {
+            if (row[1] != null) {
+                deltas.addStock((Long) row[1], unitsByProduct.get((Long) row[0]), (Double) row[2]);
+            }
+        }
+        apply(deltas);
+    }
+
+    /**
+     * Recalcula todos los resúmenes desde la tabla product y corrige los que se hayan desviado.
+     * Recorre las compañías por cursor y usa una transacción corta por compañía.
+     */
+    @Scheduled(initialDelayString = "${app.inventory.reconcile-interval-ms:600000}",
+            fixedDelayString = "${app.inventory.reconcile-interval-ms:600000}")
+    public void reconcileAll() {
+        Integer created = transactionTemplate.execute(status -> inventoryDao.insertMissing());
+        int corrected = 0;
+        long lastId = 0;
+        List<Long> companyIds;
+        do {
+            companyIds = inventoryDao.findCompanyIdsAfter(lastId, PageRequest.of(0, RECONCILE_PAGE_SIZE));
+            for (Long companyId : companyIds) {
+                try {
+                    if (reconcile(companyId)) {
+                        corrected++;
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Inventory reconciliation failed for company {}, will retry", companyId, e);
+                }
+                lastId = companyId;
+            }
+        } while (companyIds.size() == RECONCILE_PAGE_SIZE);
+        if ((created != null && created > 0) || corrected > 0) {
+            log.warn("Inventory reconciliation: {} summaries created, {} corrected", created, corrected);
+        }
+    }
+
+    /**
+     * Recalcula el resumen de una Company desde sus productos y lo corrige si se había desviado.
+     * La fila de resumen se bloquea antes de agregar: las escrituras confirmadas antes ya están en el
+     * agregado, y las que lleguen después esperan y aplican su delta sobre el valor corregido.
+     * @param companyId ID de la Company.
+     * @return true si el resumen estaba desviado y se ha corregido.
+     */
+    public boolean reconcile(Long companyId) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            CompanyInventory summary = inventoryDao.lockByCompanyId(companyId).orElse(null);
+            CompanyInventoryDto actual = summary == null ? null : inventoryDao.computeDtoByCompanyId(companyId).orElse(null);
+            if (actual == null) {
+                return false; // La compañía se ha borrado entre medias
+            }
+            if (Objects.equals(summary.getProductCount(), actual.getProductCount())
+                    && Objects.equals(summary.getTotalUnits(), actual.getTotalUnits())
+                    && Math.abs(summary.getTotalValue() - actual.getTotalValue()) <= VALUE_TOLERANCE) {
+                return false;
+            }
+            log.info("Inventory summary drift for company {}: stored ({}, {}, {}), actual ({}, {}, {})", companyId,
+                    summary.getProductCount(), summary.getTotalUnits(), summary.getTotalValue(),
+                    actual.getProductCount(), actual.getTotalUnits(), actual.getTotalValue());
+            summary.setProductCount(actual.getProductCount());
+            summary.setTotalUnits(actual.getTotalUnits());
+            summary.setTotalValue(actual.getTotalValue());
+            return true; // La entidad está gestionada: el UPDATE sale al confirmar
+        }));
+    }
+
+    /**
+     * Cambios de inventario acumulados por compañía dentro de una escritura. Un cambio de producto se
+     * expresa como la baja de sus valores anteriores y el alta de los nuevos; si no afecta a stock,
+     * precio ni compañía, el delta neto es cero y no se escribe nada.
+     * Se aplican en orden de ID de compañía, para que las filas de resumen se bloqueen siempre en el mismo orden.
+     */
+    public static final class Deltas {
+
+        private final Map<Long, Delta> byCompany = new TreeMap<>();
+
+        /** Suma un producto (alta, o valores nuevos de un cambio). */
+        public Deltas addProduct(Long companyId, Integer stock, Double prize) {
+            return add(companyId, 1, stock, prize);
+        }
+
+        /** Resta un producto (borrado, o valores anteriores de un cambio). */
+        public Deltas removeProduct(Long companyId, Integer stock, Double prize) {
+            return add(companyId, -1, stock, prize);
+        }
+
+        /** Suma un cambio de stock de un producto (reserva, liberación o volcado) sin cambiar el número de productos. */
+        public Deltas addStock(Long companyId, long units, Double prize) {
+            Delta delta = byCompany.computeIfAbsent(companyId, id -> new Delta());
+            delta.units += units;
+            delta.value += prize == null ? 0 : units * prize;
+            return this;
+        }
+
+        private Deltas add(Long companyId, int sign, Integer stock, Double prize) {
+            long units = stock == null ? 0 : stock;
+            double value = prize == null ? 0 : units * prize;
+            Delta delta = byCompany.computeIfAbsent(companyId, id -> new Delta());
+            delta.products += sign;
+            delta.units += sign * units;
+            delta.value += sign * value;
+            return this;
+        }
+    }
+
+    private static final class Delta {
+        private long products;
+        private long units;
+        private double value;
+
+        private boolean isZero() {
+            return products == 0 && units == 0 && value == 0;
+        }
+    }
+}
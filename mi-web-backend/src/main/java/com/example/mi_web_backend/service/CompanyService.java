@@ -1,28 +1,94 @@
 package com.example.mi_web_backend.service;
 
 
+import com.example.mi_web_backend.config.CacheConfig;
+import com.example.mi_web_backend.config.MessageConverterConfig;
+import com.example.mi_web_backend.dto.BatchItemResultDto;
+import com.example.mi_web_backend.dto.BatchResultDto;
 import com.example.mi_web_backend.dto.CompanyDto;
+import com.example.mi_web_backend.dto.CursorPageDto;
 import com.example.mi_web_backend.model.Company;
+import com.example.mi_web_backend.model.ProductTombstone;
 import com.example.mi_web_backend.repository.CompanyDao;
+import com.example.mi_web_backend.repository.ProductTombstoneDao;
 import com.example.mi_web_backend.mapper.CompanyMapper;
+import com.example.mi_web_backend.pagination.PageCursor;
+import com.example.mi_web_backend.search.ProductSearchIndex;
+import com.example.mi_web_backend.stream.CompanyRenamedEvent;
+import com.example.mi_web_backend.stream.ProductChangedEvent;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
 @Service // Marca esta clase como un componente de servicio de Spring
 public class CompanyService {
 
     private final CompanyDao companyDao; // Inyección de dependencia del repositorio
     private final CompanyMapper companyMapper; // Inyección de dependencia del mapper
+    private final TransactionTemplate transactionTemplate; // Transacciones por bloque en las cargas masivas
+    private final Cache companyExistsCache; // companyId -> existe, para validar FKs sin ir a la BD
+    private final Cache companiesCache; // companyId -> CompanyDto
+    private final Cache productsCache; // Los ProductDto incluyen companyName: se invalidan si cambia una Company
+    private final ProductSearchIndex searchIndex; // Búsqueda de productos por nombre de compañía
+    private final CompanyInventoryService companyInventory; // Cada compañía nace con su resumen de inventario a cero
+    private final ProductTombstoneDao tombstoneDao; // Lápidas de los productos que la BD borra en cascada con la compañía
+    private final ProductChangeSequence changeSequence; // change_seq de las lápidas de esos productos y de los de una compañía renombrada
+    private final HotStockCounters hotStockCounters; // Stock en memoria de esos productos, que se descarta
+    private final ApplicationEventPublisher eventPublisher; // Borrado de esos productos y cambios de nombre para los clientes suscritos (SSE)
+    private final int batchChunkSize; // Elementos que se confirman en cada transacción de una carga masiva (app.batch.chunk-size)
+
+    @PersistenceContext
+    private EntityManager entityManager; // Para vaciar y limpiar el contexto de persistencia entre bloques
+
+    // Campos de CompanyDto que acepta un PATCH y los que solo se aceptan por venir en la representación
+    private static final Set<String> COMPANY_PATCH_FIELDS = Set.of("name", "address");
+    private static final Set<String> COMPANY_READ_ONLY_FIELDS = Set.of("id", "version");
+
+    // Productos borrados con una compañía que se invalidan y notifican en cada tanda tras el commit
+    private static final int REMOVED_PRODUCTS_CHUNK = 1000;
 
     // Constructor para inyección de dependencia
     @Autowired
-    public CompanyService(CompanyDao companyDao, CompanyMapper companyMapper) {
+    public CompanyService(CompanyDao companyDao, CompanyMapper companyMapper, PlatformTransactionManager transactionManager,
+                          CacheManager cacheManager, ProductSearchIndex searchIndex, CompanyInventoryService companyInventory,
+                          ProductTombstoneDao tombstoneDao, ProductChangeSequence changeSequence, HotStockCounters hotStockCounters,
+                          ApplicationEventPublisher eventPublisher, @Value("${app.batch.chunk-size:500}") int batchChunkSize) {
         this.companyDao = companyDao;
         this.companyMapper = companyMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.companyExistsCache = cacheManager.getCache(CacheConfig.COMPANY_EXISTS);
+        this.companiesCache = cacheManager.getCache(CacheConfig.COMPANIES);
+        this.productsCache = cacheManager.getCache(CacheConfig.PRODUCTS);
+        this.searchIndex = searchIndex;
+        this.companyInventory = companyInventory;
+        this.tombstoneDao = tombstoneDao;
+        this.changeSequence = changeSequence;
+        this.hotStockCounters = hotStockCounters;
+        this.eventPublisher = eventPublisher;
+        this.batchChunkSize = batchChunkSize;
     }
 
     /**
@@ -36,17 +102,118 @@ public class CompanyService {
         Company companyToSave = companyMapper.toEntity(companyDto);
         // Aquí podrías añadir lógica de negocio, por ejemplo, hashear la contraseña
         // companyToSave.setPassword(passwordEncoder.encode(companyToSave.getPassword()));
-        Company savedCompany = companyDao.save(companyToSave);
+        Company savedCompany = transactionTemplate.execute(status -> {
+            Company company = companyDao.save(companyToSave);
+            companyInventory.createEmpty(company.getId());
+            return company;
+        });
+        evict(savedCompany.getId()); // Por si había una entrada negativa cacheada para este ID
         return companyMapper.toDto(savedCompany);
     }
 
     /**
-     * Obtiene una lista de todas las Companies.
-     * @return Lista de CompanyDto.
+     * Crea o actualiza Companies en bloque.
+     * Los elementos sin ID se crean y los que traen ID se actualizan (solo los campos no nulos).
+     * Cada bloque de app.batch.chunk-size elementos se guarda en su propia transacción
+     * usando lotes JDBC; si un bloque falla, solo se rechazan los elementos de ese bloque.
+     * @param companyDtos Lista de DTOs a crear o actualizar.
+     * @return BatchResultDto con el resultado de cada elemento.
+     */
+    public BatchResultDto saveCompaniesBatch(List<CompanyDto> companyDtos) {
+        List<BatchItemResultDto> results = new ArrayList<>(Collections.nCopies(companyDtos.size(), null));
+        for (int from = 0; from < companyDtos.size(); from += batchChunkSize) {
+            saveCompanyChunk(companyDtos, from, Math.min(from + batchChunkSize, companyDtos.size()), results);
+        }
+        return BatchResultDto.of(results);
+    }
+
+    // Guarda en una única transacción los elementos [from, to) de la carga masiva.
+    private void saveCompanyChunk(List<CompanyDto> companyDtos, int from, int to, List<BatchItemResultDto> results) {
+        List<Company> saved = new ArrayList<>();
+        List<Integer> savedIndexes = new ArrayList<>();
+        List<Long> renamed = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                saved.clear();
+                savedIndexes.clear();
+                renamed.clear();
+                Map<Long, Company> existingCompanies = companyDao.findAllById(companyDtos.subList(from, to).stream()
+                                .filter(dto -> dto != null && dto.getId() != null)
+                                .map(CompanyDto::getId)
+                                .collect(Collectors.toList()))
+                        .stream()
+                        .collect(Collectors.toMap(Company::getId, company -> company));
+
+                for (int index = from; index < to; index++) {
+                    CompanyDto dto = companyDtos.get(index);
+                    if (dto == null) {
+                        results.set(index, BatchItemResultDto.rejected(index, null, "Empty item."));
+                        continue;
+                    }
+                    Company company;
+                    if (dto.getId() == null) {
+                        company = companyMapper.toEntity(dto);
+                        entityManager.persist(company);
+                        companyInventory.createEmpty(company.getId());
+                    } else {
+                        company = existingCompanies.get(dto.getId());
+                        if (company == null) {
+                            results.set(index, BatchItemResultDto.rejected(index, dto.getId(), "Company not found with id: " + dto.getId()));
+                            continue;
+                        }
+                        if (dto.getName() != null && !dto.getName().equals(company.getName())) {
+                            renamed.add(company.getId());
+                        }
+                        companyMapper.updateEntityFromDto(dto, company);
+                    }
+                    saved.add(company);
+                    savedIndexes.add(index);
+                }
+                entityManager.flush(); // Los INSERT/UPDATE salen agrupados en lotes JDBC
+                entityManager.clear();
+                renamed.forEach(this::markProductsChanged);
+            });
+            boolean anyUpdated = false;
+            for (int i = 0; i < saved.size(); i++) {
+                int index = savedIndexes.get(i);
+                BatchItemResultDto.Status status = companyDtos.get(index).getId() == null
+                        ? BatchItemResultDto.Status.CREATED : BatchItemResultDto.Status.UPDATED;
+                results.set(index, new BatchItemResultDto(index, saved.get(i).getId(), status, null));
+                evict(saved.get(i).getId());
+                if (status == BatchItemResultDto.Status.UPDATED) {
+                    searchIndex.renameCompany(saved.get(i).getId(), saved.get(i).getName());
+                    anyUpdated = true;
+                }
+            }
+            if (anyUpdated) {
+                productsCache.clear(); // Los nombres de compañía cacheados en los productos pueden haber cambiado
+            }
+            renamed.forEach(companyId -> eventPublisher.publishEvent(new CompanyRenamedEvent(companyId)));
+        } catch (RuntimeException e) {
+            // El bloque se ha deshecho: ninguno de sus elementos no rechazados quedó guardado.
+            for (int index = from; index < to; index++) {
+                if (results.get(index) == null) {
+                    CompanyDto dto = companyDtos.get(index);
+                    results.set(index, BatchItemResultDto.rejected(index, dto == null ? null : dto.getId(),
+                            "Chunk rolled back: " + e.getMessage()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Obtiene una página de Companies ordenadas por ID usando paginación por cursor (keyset).
+     * @param cursor Token opaco devuelto en la página anterior, o null para empezar desde el principio.
+     * @param limit Tamaño de página pedido (se ajusta a PageCursor.MAX_LIMIT).
+     * @return CursorPageDto con los CompanyDto de la página y el token de la siguiente.
+     * @throws IllegalArgumentException si el cursor no es válido.
      */
-    public List<CompanyDto> getAllCompanies() {
-        List<Company> companies = companyDao.findAll();
-        return companyMapper.toDtoList(companies);
+    @Transactional(readOnly = true)
+    public CursorPageDto<CompanyDto> getCompaniesPage(String cursor, int limit) {
+        int pageSize = PageCursor.clampLimit(limit);
+        long lastId = PageCursor.decode(cursor);
+        List<Company> companies = companyDao.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, pageSize + 1));
+        return PageCursor.page(companyMapper.toDtoList(companies), pageSize, CompanyDto::getId);
     }
 
     /**
@@ -54,9 +221,35 @@ public class CompanyService {
      * @param id ID de la Company a buscar.
      * @return Optional que contiene el CompanyDto si se encuentra, o vacío si no.
      */
+    // Sin readOnly: lo leído se guarda en la caché, así que sale del primario. Desde una réplica con retraso se
+    // cachearían datos antiguos (o un "no existe" justo después de crearlo) durante todo el TTL.
     public Optional<CompanyDto> getCompanyById(Long id) {
-        return companyDao.findById(id)
-                .map(companyMapper::toDto); // Mapea la entidad a DTO si la encuentra
+        // Se cachea también el "no existe" (null) para no repetir la consulta; create/update/delete lo invalidan.
+        CompanyDto cached = companiesCache.get(id, () -> companyDao.findById(id)
+                .map(companyMapper::toDto) // Mapea la entidad a DTO si la encuentra
+                .orElse(null));
+        return Optional.ofNullable(cached);
+    }
+
+    /**
+     * Calcula el ETag fuerte de una Company a partir de su versión, sin serializarla.
+     * @param companyDto Company tal y como se devolvería (por ejemplo, la de getCompanyById).
+     * @param format Formato de la respuesta (JSON, Smile o CBOR): cada uno tiene su ETag.
+     * @return ETag entre comillas.
+     */
+    public String getCompanyETag(CompanyDto companyDto, MediaType format) {
+        return "\"" + companyDto.getVersion() + MessageConverterConfig.eTagSuffix(format) + "\"";
+    }
+
+    /**
+     * Comprueba si existe una Company, consultando primero la caché.
+     * Pensado para validar claves foráneas (companyId) sin cargar la entidad.
+     * @param id ID de la Company.
+     * @return true si la Company existe.
+     */
+    public boolean companyExists(Long id) {
+        Boolean exists = companyExistsCache.get(id, () -> companyDao.existsById(id));
+        return Boolean.TRUE.equals(exists);
     }
 
     /**
@@ -67,7 +260,10 @@ public class CompanyService {
      * @throws RuntimeException si la Company no es encontrada.
      */
     public CompanyDto updateCompany(Long id, CompanyDto companyDto) {
-        return companyDao.findById(id).map(existingCompany -> {
+        // Guardado y cambio de los productos (si cambia el nombre) en una sola transacción
+        AtomicBoolean renamed = new AtomicBoolean();
+        CompanyDto updatedDto = transactionTemplate.execute(status -> companyDao.findById(id).map(existingCompany -> {
+            renamed.set(companyDto.getName() != null && !companyDto.getName().equals(existingCompany.getName()));
             // Usa el mapper para actualizar los campos de la entidad existente desde el DTO
             companyMapper.updateEntityFromDto(companyDto, existingCompany);
 
@@ -76,20 +272,135 @@ public class CompanyService {
             //     existingCompany.setPassword(passwordEncoder.encode(companyDto.getPassword()));
             // }
 
-            Company updatedCompany = companyDao.save(existingCompany);
+            Company updatedCompany = companyDao.saveAndFlush(existingCompany);
+            if (renamed.get()) {
+                markProductsChanged(id);
+            }
             return companyMapper.toDto(updatedCompany);
-        }).orElseThrow(() -> new RuntimeException("Company not found with id: " + id)); // Lanza excepción si no existe
+        }).orElseThrow(() -> new RuntimeException("Company not found with id: " + id))); // Lanza excepción si no existe
+        evict(id);
+        productsCache.clear(); // Los ProductDto cacheados llevan el nombre antiguo de la compañía
+        searchIndex.renameCompany(id, updatedDto.getName());
+        if (renamed.get()) {
+            eventPublisher.publishEvent(new CompanyRenamedEvent(id)); // Los suscriptores (SSE) ven el nombre nuevo
+        }
+        return updatedDto;
     }
 
     /**
-     * Elimina una Company por su ID.
+     * Aplica un JSON Merge Patch a una Company con un único UPDATE que solo toca las columnas presentes
+     * en el parche, sin cargar antes la entidad. La versión se comprueba en el mismo WHERE (bloqueo
+     * optimista) y se incrementa.
+     * @param id ID de la Company.
+     * @param patch Campos a modificar: name y/o address (id y version se ignoran).
+     * @param expectedVersion Versión esperada (de If-Match); si es null se usa el campo version del parche, si lo trae.
+     * @throws IllegalArgumentException si el parche trae campos desconocidos o valores no válidos.
+     * @throws VersionConflictException si la Company ya no está en la versión esperada.
+     * @throws RuntimeException si la Company no es encontrada.
+     */
+    public void patchCompany(Long id, Map<String, Object> patch, Long expectedVersion) {
+        MergePatch.requireKnownFields(patch, COMPANY_PATCH_FIELDS, COMPANY_READ_ONLY_FIELDS);
+        Long version = expectedVersion != null ? expectedVersion : MergePatch.toLong(patch.get("version"), "version");
+
+        MergePatch update = new MergePatch("c");
+        update.set(patch, "name", "c.name", MergePatch.toText(patch.get("name"), "name"), false);
+        update.set(patch, "address", "c.adress", MergePatch.toText(patch.get("address"), "address"), true);
+        if (update.isEmpty()) {
+            // Nada que cambiar: solo se comprueban la existencia y la versión.
+            CompanyDto current = getCompanyById(id)
+                    .orElseThrow(() -> new RuntimeException("Company not found with id: " + id));
+            if (version != null && !version.equals(current.getVersion())) {
+                throw new VersionConflictException(id, version);
+            }
+            return;
+        }
+
+        Integer updated = transactionTemplate.execute(status -> {
+            Query query = entityManager.createQuery(update.toJpql("Company", "c", version));
+            query.setParameter("id", id);
+            if (version != null) {
+                query.setParameter("expectedVersion", version);
+            }
+            update.getParameters().forEach(query::setParameter);
+            int rows = query.executeUpdate();
+            if (rows > 0 && update.changes("name")) {
+                markProductsChanged(id);
+            }
+            return rows;
+        });
+        if (updated == null || updated == 0) {
+            if (!companyDao.existsById(id)) {
+                throw new RuntimeException("Company not found with id: " + id);
+            }
+            throw new VersionConflictException(id, version);
+        }
+        evict(id);
+        if (update.changes("name")) {
+            productsCache.clear(); // Los ProductDto cacheados llevan el nombre antiguo de la compañía
+            searchIndex.renameCompany(id, (String) patch.get("name"));
+            eventPublisher.publishEvent(new CompanyRenamedEvent(id)); // Los suscriptores (SSE) ven el nombre nuevo
+        }
+    }
+
+    /**
+     * Elimina una Company por su ID con un único DELETE; la BD borra en cascada sus productos y su resumen de inventario.
+     * Primero bloquea la fila de la Company, para que ningún producto se añada mientras tanto sin lápida ni aviso.
+     * Las lápidas de todos sus productos se escriben con un único INSERT ... SELECT. Tras el commit esas lápidas
+     * se leen por tandas (keyset sobre change_seq) para invalidar la caché y avisar a los suscriptores, así que
+     * ni la transacción ni la memoria dependen del número de productos de la compañía.
      * @param id ID de la Company a eliminar.
      * @throws RuntimeException si la Company no es encontrada.
      */
     public void deleteCompany(Long id) {
-        if (!companyDao.existsById(id)) {
+        Long tombstonesAfter = transactionTemplate.execute(status -> {
+            if (companyDao.lockById(id).isEmpty()) {
+                return null;
+            }
+            long before = changeSequence.next(); // Las lápidas de esta sentencia toman valores mayores
+            changeSequence.executeWithValuePerRow(nextValue -> entityManager.createNativeQuery(
+                            "insert into product_tombstone (change_seq, product_id, company_id, deleted_at) "
+                                    + "select " + nextValue + ", p.id, p.company, :now from product p where p.company = :companyId")
+                    .setParameter("now", Timestamp.from(Instant.now()))
+                    .setParameter("companyId", id)
+                    .executeUpdate());
+            companyDao.deleteRowById(id);
+            return before;
+        });
+        if (tombstonesAfter == null) {
             throw new RuntimeException("Company not found with id: " + id);
         }
-        companyDao.deleteById(id);
+        evict(id);
+        searchIndex.removeCompany(id);
+        long after = tombstonesAfter;
+        List<ProductTombstone> tombstones;
+        do {
+            tombstones = tombstoneDao.findRemovedAfter(id, after, PageRequest.of(0, REMOVED_PRODUCTS_CHUNK));
+            if (tombstones.isEmpty()) {
+                break;
+            }
+            List<Long> productIds = tombstones.stream().map(ProductTombstone::getProductId).collect(Collectors.toList());
+            CacheConfig.evictAll(productsCache, productIds);
+            for (Long productId : productIds) {
+                hotStockCounters.discard(productId);
+                eventPublisher.publishEvent(ProductChangedEvent.deleted(productId, id));
+            }
+            after = tombstones.get(tombstones.size() - 1).getChangeSeq();
+        } while (tombstones.size() == REMOVED_PRODUCTS_CHUNK);
+    }
+
+    // Los productos llevan el nombre de su compañía: al renombrarla cuentan como cambiados para la sincronización
+    // incremental (un valor de change_seq por fila) y para sus ETag (versión), con un único UPDATE en la
+    // transacción en curso.
+    private void markProductsChanged(Long companyId) {
+        changeSequence.executeWithValuePerRow(nextValue -> entityManager.createNativeQuery(
+                        "update product set change_seq = " + nextValue + ", version = coalesce(version, 0) + 1 "
+                                + "where company = :companyId")
+                .setParameter("companyId", companyId)
+                .executeUpdate());
+    }
+
+    private void evict(Long id) {
+        companyExistsCache.evict(id);
+        companiesCache.evict(id);
     }
 }
\ No newline at end of file
@@ -0,0 +1,484 @@
+package com.example.mi_web_backend.service;
+// src/main/java/com/example/mi_web_backend/service/HotStockCounters.java
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Contadores de stock en memoria para productos "calientes" (p. ej. ventas flash).
+ * Mientras un producto está marcado, sus reservas y liberaciones no tocan la fila de la BD:
+ * se aplican sobre contadores repartidos en varias franjas (striping) para que los hilos no
+ * compitan por la misma variable, y un proceso programado vuelca el delta acumulado a la
+ * columna stock con UPDATEs agrupados en lote (junto con el inventario de sus compañías).
+ *
+ * Ninguna franja baja nunca de cero, así que el stock disponible en memoria tampoco;
+ * el UPDATE de volcado repite la comprobación en la BD como suelo de seguridad.
+ * Las escrituras que fijan un stock absoluto (PUT, PATCH, lotes) se hacen con
+ * {@link #withFlushPaused}: el volcado se salta esos productos mientras tanto, así que ningún
+ * delta anterior se suma en la BD al stock nuevo después de haberse descartado en memoria.
+ * Al marcar un producto su stock se lee con la fila bloqueada, así que incluye las escrituras por la BD
+ * ya en curso; las que deciden ir por la BD justo antes de marcarlo deben comprobar {@link #isHot} con la
+ * fila ya actualizada y, si lo está, deshacer su cambio y repetirlo en memoria (ver ProductService).
+ */
+@Component
+public class HotStockCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(HotStockCounters.class);
+
+    // Número de franjas por producto: potencia de dos >= número de procesadores
+    private static final int STRIPES = Math.max(2, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1);
+
+    private static final long WAIT_SLICE_MS = 50; // Las esperas se despiertan por aviso; esto solo es una red de seguridad
+
+    private static final String LOCK_STOCK_SQL = "select stock from product where id = ? for update";
+
+    private static final String FLUSH_SQL = "update product set stock = coalesce(stock, 0) + ?, version = coalesce(version, 0) + 1, change_seq = ? "
+            + "where id = ? and coalesce(stock, 0) + ? >= 0";
+
+    /** Resultado de aplicar un cambio de stock en memoria. */
+    public enum Outcome {
+        NOT_HOT, // El producto no está marcado: hay que usar la ruta normal contra la BD
+        APPLIED, // Cambio aplicado en memoria
+        INSUFFICIENT // No hay unidades suficientes
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate; // Volcado del stock e inventario en la misma transacción
+    private final CompanyInventoryService companyInventory;
+    private final ProductChangeSequence changeSequence; // El volcado cuenta como un cambio del producto para la sincronización
+    private final Map<Long, HotItem> items = new ConcurrentHashMap<>();
+
+    @Autowired
+    public HotStockCounters(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            CompanyInventoryService companyInventory, ProductChangeSequence changeSequence) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.companyInventory = companyInventory;
+        this.changeSequence = changeSequence;
+    }
+
+    /**
+     * Indica si un producto está en modo caliente.
+     * @param productId ID del producto.
+     * @return true si sus cambios de stock se aplican en memoria.
+     */
+    public boolean isHot(Long productId) {
+        return items.containsKey(productId);
+    }
+
+    /**
+     * Marca un producto como caliente partiendo de su stock actual en la BD. Los contadores se registran
+     * cerrados (las reservas que llegan esperan), el stock se lee con SELECT ... FOR UPDATE, que espera a
+     * las escrituras en curso sobre la fila, y se cargan con la fila aún bloqueada: ninguna escritura
+     * confirmada entre la lectura y la carga se pierde. Después se abren.
+     * @param productId ID del producto.
+     * @return false si el producto no existe.
+     */
+    public boolean enable(Long productId) {
+        HotItem item = new HotItem(0);
+        item.closed = true;
+        if (items.putIfAbsent(productId, item) != null) {
+            return true; // Ya estaba en modo caliente
+        }
+        boolean seeded = false;
+        try {
+            seeded = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                List<Integer> stock = jdbcTemplate.queryForList(LOCK_STOCK_SQL, Integer.class, productId);
+                if (stock.isEmpty()) {
+                    return false;
+                }
+                item.reset(Math.max(stock.get(0) == null ? 0 : stock.get(0), 0));
+                return true;
+            }));
+            return seeded;
+        } finally {
+            if (seeded) {
+                item.closed = false;
+            } else {
+                items.remove(productId, item); // No existe o falló la lectura: las reservas en espera van por la BD
+            }
+            item.signal();
+        }
+    }
+
+    /**
+     * Desmarca un producto: espera (bloqueado, sin girar) a que terminen las operaciones en curso sobre
+     * sus contadores, vuelca el delta pendiente y solo entonces lo retira, de modo que las siguientes
+     * reservas por la BD ya ven el stock correcto. Las reservas que llegan mientras tanto esperan.
+     * Si el volcado falla el producto sigue en modo caliente con su delta y se puede volver a intentar.
+     * @param productId ID del producto.
+     * @throws IllegalStateException si no se pudo volcar el delta pendiente.
+     */
+    public void disable(Long productId) {
+        HotItem item = items.get(productId);
+        if (item == null) {
+            return;
+        }
+        item.flushLock.lock();
+        try {
+            if (items.get(productId) != item) {
+                return; // Otro disable o un discard llegó antes
+            }
+            item.closed = true;
+            item.await(() -> item.inFlight.sum() != 0);
+            if (!flush(List.of(Map.entry(productId, item)))) {
+                item.closed = false;
+                item.signal();
+                throw new IllegalStateException("Could not flush the hot stock of product " + productId + "; it stays in hot mode.");
+            }
+            items.remove(productId, item);
+            item.signal();
+        } finally {
+            item.flushLock.unlock();
+        }
+    }
+
+    /**
+     * Descarta los contadores de un producto sin volcarlos (por ejemplo, al eliminarlo).
+     * @param productId ID del producto.
+     */
+    public void discard(Long productId) {
+        HotItem item = items.remove(productId);
+        if (item != null) {
+            item.closed = true;
+            item.signal();
+        }
+    }
+
+    /**
+     * Fija el stock de un producto caliente a un valor absoluto que ya se ha escrito en la BD
+     * (por ejemplo, tras un PUT), descartando el delta pendiente.
+     * @param productId ID del producto.
+     * @param stock Nuevo stock.
+     */
+    public void reset(Long productId, long stock) {
+        HotItem item = items.get(productId);
+        if (item == null) {
+            return;
+        }
+        item.flushLock.lock(); // Un volcado en curso termina antes: su delta no vuelve después a la memoria
+        try {
+            item.reset(Math.max(stock, 0));
+        } finally {
+            item.flushLock.unlock();
+        }
+    }
+
+    /**
+     * Ejecuta una escritura que fija el stock absoluto de productos sin que el volcado de los que están
+     * en modo caliente se intercale: un delta volcado entre la escritura y {@link #reset} se sumaría al
+     * stock nuevo en la BD, o haría fallar por versión el UPDATE de la escritura. La escritura debe
+     * confirmar su transacción y llamar a reset dentro de write. Los productos que no están en modo
+     * caliente no se bloquean.
+     * @param productIds Productos que escribe.
+     * @param write Escritura (con su transacción) y reset de los productos.
+     * @return Lo que devuelve write.
+     */
+    public <T> T withFlushPaused(Collection<Long> productIds, Supplier<T> write) {
+        List<HotItem> locked = new ArrayList<>();
+        try {
+            for (Long productId : new TreeSet<>(productIds)) { // Mismo orden en todas las escrituras: sin interbloqueos
+                HotItem item = items.get(productId);
+                if (item != null) {
+                    item.flushLock.lock();
+                    locked.add(item);
+                }
+            }
+            return write.get();
+        } finally {
+            locked.forEach(item -> item.flushLock.unlock());
+        }
+    }
+
+    /**
+     * Intenta reservar unidades en memoria.
+     * @param productId ID del producto.
+     * @param quantity Unidades a reservar.
+     * @return NOT_HOT si el producto no está marcado, APPLIED si se reservó o INSUFFICIENT si no hay stock.
+     */
+    public Outcome tryReserve(Long productId, int quantity) {
+        HotItem item = enter(productId);
+        if (item == null) {
+            return Outcome.NOT_HOT;
+        }
+        try {
+            return item.tryReserve(quantity) ? Outcome.APPLIED : Outcome.INSUFFICIENT;
+        } finally {
+            exit(item);
+        }
+    }
+
+    /**
+     * Libera unidades en memoria.
+     * @param productId ID del producto.
+     * @param quantity Unidades a devolver.
+     * @return NOT_HOT si el producto no está marcado o APPLIED si se liberaron.
+     */
+    public Outcome release(Long productId, int quantity) {
+        HotItem item = enter(productId);
+        if (item == null) {
+            return Outcome.NOT_HOT;
+        }
+        try {
+            item.release(quantity);
+            return Outcome.APPLIED;
+        } finally {
+            exit(item);
+        }
+    }
+
+    /**
+     * Stock disponible en memoria, incluidos los deltas aún no volcados.
+     * @param productId ID del producto.
+     * @return El stock, o null si el producto no está marcado.
+     */
+    public Long available(Long productId) {
+        HotItem item = items.get(productId);
+        return item == null ? null : item.available();
+    }
+
+    /**
+     * Vuelca a la BD los deltas acumulados de todos los productos calientes en un único lote de UPDATEs.
+     */
+    @Scheduled(fixedDelayString = "${app.hot-stock.flush-interval-ms:200}")
+    public void flushAll() {
+        if (!items.isEmpty()) {
+            flush(new ArrayList<>(items.entrySet()));
+        }
+    }
+
+    // Registra una operación en curso sobre el producto; devuelve null si hay que ir por la BD.
+    private HotItem enter(Long productId) {
+        while (true) {
+            HotItem item = items.get(productId);
+            if (item == null) {
+                return null;
+            }
+            item.inFlight.increment();
+            if (!item.closed) {
+                return item;
+            }
+            exit(item);
+            // Se está desmarcando: esperar a que el delta pendiente llegue a la BD (o a que siga caliente si el volcado falla).
+            item.await(() -> item.closed && items.get(productId) == item);
+        }
+    }
+
+    // Fin de una operación; si el producto se está desmarcando, avisa a disable().
+    private static void exit(HotItem item) {
+        item.inFlight.decrement();
+        if (item.closed) {
+            item.signal();
+        }
+    }
+
+    // Sincronizado para que un volcado programado y el de disable() no se solapen. Se salta los productos con una
+    // escritura de stock absoluto en curso (withFlushPaused): se vuelcan en la siguiente pasada.
+    // Devuelve false si el volcado no se pudo aplicar (los deltas vuelven a quedar pendientes).
+    private synchronized boolean flush(List<Map.Entry<Long, HotItem>> entries) {
+        List<Object[]> batch = new ArrayList<>();
+        List<HotItem> flushed = new ArrayList<>();
+        List<HotItem> locked = new ArrayList<>();
+        try {
+            for (Map.Entry<Long, HotItem> entry : entries) {
+                HotItem item = entry.getValue();
+                if (!item.flushLock.tryLock()) {
+                    continue;
+                }
+                locked.add(item);
+                long delta = item.pendingDelta.sumThenReset();
+                if (delta != 0) {
+                    batch.add(new Object[]{delta, entry.getKey(), delta});
+                    flushed.add(item);
+                }
+            }
+            return batch.isEmpty() || flushLocked(batch, flushed);
+        } finally {
+            locked.forEach(item -> item.flushLock.unlock());
+        }
+    }
+
+    // Vuelca el lote con los cerrojos de sus productos ya tomados.
+    private boolean flushLocked(List<Object[]> batch, List<HotItem> flushed) {
+        int[] updated;
+        try {
+            updated = transactionTemplate.execute(status -> {
+                List<Object[]> parameters = new ArrayList<>(batch.size());
+                for (Object[] row : batch) {
+                    parameters.add(new Object[]{row[0], changeSequence.next(), row[1], row[2]});
+                }
+                int[] rows = jdbcTemplate.batchUpdate(FLUSH_SQL, parameters);
+                Map<Long, Long> flushedUnits = new HashMap<>();
+                for (int i = 0; i < rows.length; i++) {
+                    if (rows[i] != 0) {
+                        flushedUnits.put((Long) batch.get(i)[1], (Long) batch.get(i)[0]);
+                    }
+                }
+                companyInventory.applyStockDeltas(flushedUnits); // Un UPDATE por compañía para todo el lote
+                return rows;
+            });
+        } catch (RuntimeException e) {
+            // El volcado no se aplicó: devolver los deltas para el siguiente intento.
+            for (int i = 0; i < flushed.size(); i++) {
+                flushed.get(i).pendingDelta.add((Long) batch.get(i)[0]);
+            }
+            log.error("Hot stock flush failed, will retry", e);
+            return false;
+        }
+        // Ya confirmado: a partir de aquí un fallo no puede devolver deltas que ya están en la BD.
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                settleRejected((Long) batch.get(i)[1], flushed.get(i), (Long) batch.get(i)[0]);
+            }
+        }
+        return true;
+    }
+
+    // El suelo de la BD rechazó el delta: alguien bajó el stock de la fila por fuera del modo caliente y las
+    // reservas ya confirmadas en memoria superan lo que queda. No se descartan: el stock de la BD queda en cero
+    // (vendido) y la memoria se vacía para no vender más. Las operaciones posteriores al volcado conservan su
+    // delta pendiente; un PUT de stock o desmarcar el producto vuelven a alinear ambos.
+    private void settleRejected(Long productId, HotItem item, long delta) {
+        item.drain();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Integer> stock = jdbcTemplate.queryForList(LOCK_STOCK_SQL, Integer.class, productId);
+                if (stock.isEmpty()) {
+                    return; // Borrado: su discard retira los contadores
+                }
+                long current = stock.get(0) == null ? 0 : stock.get(0);
+                long settled = Math.max(current + delta, 0);
+                jdbcTemplate.update("update product set stock = ?, version = coalesce(version, 0) + 1, change_seq = ? where id = ?",
+                        settled, changeSequence.next(), productId);
+                companyInventory.applyStockDeltas(Map.of(productId, settled - current));
+                log.error("Hot stock flush of product {} (delta {}) exceeded the database stock {}: {} units oversold, stock set to {}",
+                        productId, delta, current, settled - current - delta, settled);
+            });
+        } catch (RuntimeException e) {
+            item.pendingDelta.add(delta); // Se reintenta en el siguiente volcado
+            log.error("Could not settle the rejected hot stock flush of product {}", productId, e);
+        }
+    }
+
+    // Stock en memoria de un producto, repartido en franjas.
+    static final class HotItem {
+        private final AtomicLong[] stripes = new AtomicLong[STRIPES];
+        private final LongAdder pendingDelta = new LongAdder(); // Cambio acumulado desde el último volcado
+        private final LongAdder inFlight = new LongAdder(); // Operaciones en curso (para disable)
+        private final ReentrantLock flushLock = new ReentrantLock(); // Volcado o escritura de stock absoluto en curso
+        private final Object gate = new Object(); // Esperas de disable() y de las operaciones que llegan mientras
+        private volatile boolean closed;
+
+        HotItem(long stock) {
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new AtomicLong();
+            }
+            spread(stock);
+        }
+
+        // Camino rápido: CAS sobre la franja del hilo y, si no alcanza, sobre las demás; nunca por debajo de cero.
+        boolean tryReserve(int quantity) {
+            int start = (int) Thread.currentThread().getId();
+            for (int i = 0; i < STRIPES; i++) {
+                AtomicLong stripe = stripes[(start + i) & (STRIPES - 1)];
+                long value;
+                while ((value = stripe.get()) >= quantity) {
+                    if (stripe.compareAndSet(value, value - quantity)) {
+                        pendingDelta.add(-quantity);
+                        return true;
+                    }
+                }
+            }
+            return reserveAcrossStripes(quantity);
+        }
+
+        // Camino lento: ninguna franja tiene suficiente por sí sola, así que se reúnen todas y se reparten de nuevo.
+        private synchronized boolean reserveAcrossStripes(int quantity) {
+            long total = 0;
+            for (AtomicLong stripe : stripes) {
+                total += stripe.getAndSet(0);
+            }
+            boolean reserved = total >= quantity;
+            if (reserved) {
+                total -= quantity;
+                pendingDelta.add(-quantity);
+            }
+            spread(total);
+            return reserved;
+        }
+
+        void release(int quantity) {
+            stripes[(int) Thread.currentThread().getId() & (STRIPES - 1)].addAndGet(quantity);
+            pendingDelta.add(quantity);
+        }
+
+        long available() {
+            long total = 0;
+            for (AtomicLong stripe : stripes) {
+                total += stripe.get();
+            }
+            return total;
+        }
+
+        // Espera sin consumir CPU mientras se cumpla la condición; quien la cambia llama a signal().
+        void await(BooleanSupplier condition) {
+            synchronized (gate) {
+                while (condition.getAsBoolean()) {
+                    try {
+                        gate.wait(WAIT_SLICE_MS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while waiting for hot stock", e);
+                    }
+                }
+            }
+        }
+
+        void signal() {
+            synchronized (gate) {
+                gate.notifyAll();
+            }
+        }
+
+        // Deja el stock en memoria a cero sin tocar el delta pendiente (las reservas ya hechas siguen contando).
+        synchronized void drain() {
+            for (AtomicLong stripe : stripes) {
+                stripe.set(0);
+            }
+        }
+
+        synchronized void reset(long stock) {
+            for (AtomicLong stripe : stripes) {
+                stripe.set(0);
+            }
+            pendingDelta.reset();
+            spread(stock);
+        }
+
+        private void spread(long units) {
+            long share = units / STRIPES;
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i].addAndGet(i == 0 ? share + units % STRIPES : share);
+            }
+        }
+    }
+}
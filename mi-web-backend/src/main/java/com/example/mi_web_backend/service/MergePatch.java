@@ -0,0 +1,118 @@
+package com.example.mi_web_backend.service;
+// src/main/java/com/example/mi_web_backend/service/MergePatch.java
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Traduce un JSON Merge Patch (RFC 7396) a un UPDATE JPQL que solo asigna las columnas presentes.
+ * Un campo ausente no se toca y un campo con valor null se borra (si la columna lo admite).
+ * Siempre incrementa la versión y, si se conoce la esperada, la comprueba en el WHERE.
+ */
+final class MergePatch {
+
+    private final StringBuilder assignments;
+    private final Map<String, Object> parameters = new LinkedHashMap<>();
+    private final List<String> changedFields = new ArrayList<>();
+
+    MergePatch(String alias) {
+        this.assignments = new StringBuilder(alias + ".version = coalesce(" + alias + ".version, 0) + 1");
+    }
+
+    /**
+     * Comprueba que el parche solo trae campos conocidos.
+     * @param patch Cuerpo del PATCH.
+     * @param writable Campos que se pueden modificar.
+     * @param readOnly Campos de la representación que se aceptan pero se ignoran (id, version...).
+     * @throws IllegalArgumentException si hay algún campo desconocido.
+     */
+    static void requireKnownFields(Map<String, Object> patch, Set<String> writable, Set<String> readOnly) {
+        for (String field : patch.keySet()) {
+            if (!writable.contains(field) && !readOnly.contains(field)) {
+                throw new IllegalArgumentException("Unknown field: " + field);
+            }
+        }
+    }
+
+    // Añade "path = :param" (o "path = null") si el campo está en el parche.
+    void set(Map<String, Object> patch, String field, String path, Object value, boolean nullable) {
+        if (!patch.containsKey(field)) {
+            return;
+        }
+        if (value == null && !nullable) {
+            throw new IllegalArgumentException("Field " + field + " cannot be null.");
+        }
+        if (value == null) {
+            assignments.append(", ").append(path).append(" = null");
+        } else {
+            assignments.append(", ").append(path).append(" = :").append(field);
+            parameters.put(field, value);
+        }
+        changedFields.add(field);
+    }
+
+    // Añade siempre "path = :parameter" sin contarlo como campo del parche; el llamante pone el valor
+    // al ejecutar (p. ej. el valor de la secuencia de cambios, que se toma dentro de la transacción).
+    void assign(String path, String parameter) {
+        assignments.append(", ").append(path).append(" = :").append(parameter);
+    }
+
+    boolean isEmpty() {
+        return changedFields.isEmpty();
+    }
+
+    boolean changes(String field) {
+        return changedFields.contains(field);
+    }
+
+    String toJpql(String entity, String alias, Long expectedVersion) {
+        return "update " + entity + " " + alias + " set " + assignments + " where " + alias + ".id = :id"
+                + (expectedVersion != null ? " and " + alias + ".version = :expectedVersion" : "");
+    }
+
+    Map<String, Object> getParameters() {
+        return parameters;
+    }
+
+    // --- Conversión de los valores JSON (Jackson los entrega como String, Integer, Long, Double...) ---
+
+    static String toText(Object value, String field) {
+        if (value == null || value instanceof String) {
+            return (String) value;
+        }
+        throw new IllegalArgumentException("Field " + field + " must be a string.");
+    }
+
+    static Integer toInteger(Object value, String field) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Integer) {
+            return (Integer) value;
+        }
+        throw new IllegalArgumentException("Field " + field + " must be an integer.");
+    }
+
+    static Long toLong(Object value, String field) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Integer || value instanceof Long) {
+            return ((Number) value).longValue();
+        }
+        throw new IllegalArgumentException("Field " + field + " must be an integer.");
+    }
+
+    static Double toDouble(Object value, String field) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        throw new IllegalArgumentException("Field " + field + " must be a number.");
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.mi_web_backend.service;
+// src/main/java/com/example/mi_web_backend/service/OutOfStockException.java
+
+/**
+ * Se lanza cuando una reserva pide más unidades de las que quedan en stock.
+ * Es una RuntimeException para que la transacción de la reserva se deshaga.
+ */
+public class OutOfStockException extends RuntimeException {
+
+    private final Long productId;
+
+    public OutOfStockException(Long productId, int quantity) {
+        super("Not enough stock for product " + productId + " (requested " + quantity + ")");
+        this.productId = productId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+}
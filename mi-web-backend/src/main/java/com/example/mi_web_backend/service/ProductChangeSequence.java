@@ -0,0 +1,156 @@
+package com.example.mi_web_backend.service;
+// src/main/java/com/example/mi_web_backend/service/ProductChangeSequence.java
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.ToIntFunction;
+
+/**
+ * Reparte los valores de la secuencia de cambios de productos (columna product.change_seq y lápidas).
+ * Los valores se piden a la BD en bloques de BLOCK_SIZE (product_change_seq, incremento 50) y se
+ * entregan en memoria, así que marcar un cambio no cuesta una sentencia extra.
+ *
+ * El orden de asignación no es el de commit: una transacción que tomó el valor 10 puede confirmar
+ * después de otra que tomó el 11. Por eso se lleva la cuenta de los valores de transacciones aún
+ * abiertas y {@link #safeWatermark()} nunca pasa del menor de ellos: un cliente que sincroniza hasta
+ * la marca no puede saltarse un cambio que confirme más tarde. Esta cuenta es del proceso, así que
+ * supone que las escrituras de productos pasan por esta instancia.
+ *
+ * El cerrojo del objeto solo protege operaciones en memoria: los bloques se piden a la BD fuera de él y los
+ * valores se liberan al terminar la transacción sin tomarlo. Si no, un hilo con el cerrojo esperando conexión
+ * y las transacciones que confirman (con su conexión aún cogida) esperando el cerrojo agotarían el pool.
+ */
+@Component
+public class ProductChangeSequence {
+
+    static final int BLOCK_SIZE = 50; // Igual que el incremento de product_change_seq
+    private static final String SEQUENCE = "product_change_seq";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nextBlockSql;
+    private final String nextValueExpression;
+
+    private long next; // Siguiente valor a entregar
+    private long blockEnd = -1; // Último valor del bloque actual (-1: aún no se ha pedido ninguno)
+    private final NavigableSet<Long> inFlight = new ConcurrentSkipListSet<>(); // Valores de transacciones abiertas
+
+    @Autowired
+    public ProductChangeSequence(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        // SQL de siguiente valor según el dialecto (PostgreSQL en producción, HSQLDB en los tests)
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        this.nextBlockSql = dialect.getSequenceNextValString(SEQUENCE);
+        this.nextValueExpression = dialect.getSelectSequenceNextValString(SEQUENCE);
+    }
+
+    /**
+     * Entrega el siguiente valor para un cambio que se confirmará con la transacción en curso.
+     * @return Valor de la secuencia, mayor que cualquiera entregado antes por esta instancia.
+     * @throws IllegalStateException si no hay una transacción activa.
+     */
+    public long next() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Product change sequence values must be taken inside a transaction.");
+        }
+        long value;
+        while (true) {
+            synchronized (this) {
+                if (next <= blockEnd) {
+                    value = next++;
+                    inFlight.add(value); // Con el cerrojo: safeWatermark nunca ve el valor entregado sin registrar
+                    break;
+                }
+            }
+            installBlock(fetchBlock());
+        }
+        valuesOfCurrentTransaction().add(value);
+        return value;
+    }
+
+    /**
+     * Ejecuta una sentencia que toma un valor por fila directamente de la secuencia (un INSERT ... SELECT que
+     * escribe muchas filas sin pasarlas por memoria) en la transacción en curso. Cada fila gasta un bloque
+     * entero de la secuencia; los demás valores del bloque no se usan.
+     * Antes registra un valor como abierto: la secuencia solo devuelve después valores mayores que él, así que
+     * {@link #safeWatermark()} no alcanza las filas de la sentencia hasta que termine la transacción. Después
+     * salta a un bloque nuevo, posterior a todos los que tomó la sentencia, para que la marca llegue a cubrirlas.
+     * @param statement Recibe la expresión de siguiente valor en el dialecto de la BD y devuelve las filas escritas.
+     * @return Filas escritas por la sentencia.
+     * @throws IllegalStateException si no hay una transacción activa.
+     */
+    public int executeWithValuePerRow(ToIntFunction<String> statement) {
+        next();
+        int rows = statement.applyAsInt(nextValueExpression);
+        if (rows > 0) {
+            skipToBlock(fetchBlock());
+        }
+        return rows;
+    }
+
+    /**
+     * Marca hasta la que todos los cambios están confirmados (o deshechos): ningún cambio con un valor
+     * menor o igual puede aparecer después.
+     * @return Valor seguro para usarlo como límite superior de un delta.
+     */
+    public long safeWatermark() {
+        synchronized (this) {
+            if (blockEnd >= 0) {
+                return inFlight.isEmpty() ? next - 1 : inFlight.first() - 1;
+            }
+        }
+        // Todo lo anterior al primer bloque de este proceso es de ejecuciones ya terminadas
+        installBlock(fetchBlock());
+        return safeWatermark();
+    }
+
+    // Valores tomados en la transacción en curso; se liberan todos juntos al terminar (commit o rollback).
+    @SuppressWarnings("unchecked")
+    private List<Long> valuesOfCurrentTransaction() {
+        List<Long> values = (List<Long>) TransactionSynchronizationManager.getResource(this);
+        if (values == null) {
+            List<Long> taken = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, taken);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ProductChangeSequence.this);
+                    inFlight.removeAll(taken); // Sin cerrojo: solo puede adelantar la marca
+                }
+            });
+            values = taken;
+        }
+        return values;
+    }
+
+    // Pide un bloque nuevo a la BD (sin el cerrojo): la secuencia devuelve su primer valor.
+    private long fetchBlock() {
+        return jdbcTemplate.queryForObject(nextBlockSql, Long.class);
+    }
+
+    // Instala el bloque si hace falta. Si otro hilo ya instaló uno posterior, este se descarta: los valores
+    // entregados nunca retroceden (se pierden como mucho BLOCK_SIZE valores, igual que al reiniciar).
+    private synchronized void installBlock(long first) {
+        if (next > blockEnd) {
+            skipToBlock(first);
+        }
+    }
+
+    // Como installBlock, pero abandona lo que quede del bloque actual (esos valores simplemente no se usan).
+    private synchronized void skipToBlock(long first) {
+        if (first > blockEnd) {
+            next = first;
+            blockEnd = first + BLOCK_SIZE - 1;
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.example.mi_web_backend.service;
+// src/main/java/com/example/mi_web_backend/service/ProductImportService.java
+
+import com.example.mi_web_backend.dto.BatchItemResultDto;
+import com.example.mi_web_backend.dto.ImportStatusDto;
+import com.example.mi_web_backend.dto.ProductDto;
+import com.example.mi_web_backend.repository.CompanyDao;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Importación de Productos desde CSV en streaming.
+ * El fichero se lee línea a línea (nunca entero en memoria), las filas se agrupan en bloques de
+ * app.batch.chunk-size y cada bloque se confirma en su propia transacción:
+ * un bloque fallido no deshace lo ya importado.
+ *
+ * Formato: primera línea de cabecera con las columnas name, stock, prize, companyId
+ * (en cualquier orden, id opcional para actualizar) y una fila por producto.
+ */
+@Service
+public class ProductImportService {
+
+    private static final int MAX_REJECTIONS_REPORTED = 100; // Motivos de rechazo que se guardan por importación
+    private static final int MAX_FINISHED_IMPORTS = 100; // Importaciones terminadas que se conservan para consulta
+
+    private final ProductService productService;
+    private final CompanyDao companyDao;
+    private final int batchChunkSize; // Filas que se confirman en cada transacción (app.batch.chunk-size)
+
+    private final Map<String, ImportJob> imports = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ProductImportService(ProductService productService, CompanyDao companyDao,
+                                @Value("${app.batch.chunk-size:500}") int batchChunkSize) {
+        this.productService = productService;
+        this.companyDao = companyDao;
+        this.batchChunkSize = batchChunkSize;
+    }
+
+    /**
+     * Importa los productos del CSV leído de reader. Bloquea hasta terminar de consumir la entrada;
+     * mientras tanto el progreso puede consultarse con getImportStatus.
+     * @param importId ID elegido por el cliente para seguir la importación, o null para generar uno.
+     * @param reader Entrada CSV (el cuerpo de la petición).
+     * @return ImportStatusDto con el resultado final.
+     * @throws IllegalArgumentException si el importId ya está en uso o la cabecera no es válida.
+     */
+    public ImportStatusDto importCsv(String importId, Reader reader) {
+        String id = importId != null ? importId : UUID.randomUUID().toString();
+        ImportJob job = new ImportJob(id);
+        if (imports.putIfAbsent(id, job) != null) {
+            throw new IllegalArgumentException("Import already exists with id: " + id);
+        }
+        try (BufferedReader lines = new BufferedReader(reader)) {
+            runImport(job, lines);
+            job.finish(ImportStatusDto.State.COMPLETED);
+        } catch (IOException | RuntimeException e) {
+            job.reject(0, "Import aborted: " + e.getMessage(), 0);
+            job.finish(ImportStatusDto.State.FAILED);
+            if (e instanceof IllegalArgumentException) {
+                throw (IllegalArgumentException) e;
+            }
+        } finally {
+            evictFinishedImports();
+        }
+        return job.toDto();
+    }
+
+    /**
+     * Obtiene el estado de una importación en curso o terminada recientemente.
+     * @param importId ID de la importación.
+     * @return Optional con el ImportStatusDto, o vacío si no se conoce.
+     */
+    public Optional<ImportStatusDto> getImportStatus(String importId) {
+        return Optional.ofNullable(imports.get(importId)).map(ImportJob::toDto);
+    }
+
+    /**
+     * Lista las importaciones en curso y las terminadas recientemente.
+     * @return Lista de ImportStatusDto.
+     */
+    public List<ImportStatusDto> getImports() {
+        return imports.values().stream().map(ImportJob::toDto).collect(Collectors.toList());
+    }
+
+    private void runImport(ImportJob job, BufferedReader lines) throws IOException {
+        String headerLine = lines.readLine();
+        if (headerLine == null) {
+            return; // Fichero vacío: nada que importar
+        }
+        CsvHeader header = CsvHeader.parse(headerLine);
+
+        // Mapa de compañías de esta importación: cada companyId se valida contra la BD una sola vez.
+        Set<Long> checkedCompanyIds = new HashSet<>();
+        Set<Long> existingCompanyIds = new HashSet<>();
+
+        List<ProductDto> chunk = new ArrayList<>(batchChunkSize);
+        List<Long> chunkLines = new ArrayList<>(batchChunkSize);
+        long lineNumber = 1;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                chunk.add(header.toDto(line));
+                chunkLines.add(lineNumber);
+            } catch (IllegalArgumentException e) {
+                job.reject(lineNumber, e.getMessage(), 1);
+            }
+            if (chunk.size() == batchChunkSize) {
+                saveChunk(job, chunk, chunkLines, checkedCompanyIds, existingCompanyIds);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            saveChunk(job, chunk, chunkLines, checkedCompanyIds, existingCompanyIds);
+        }
+    }
+
+    private void saveChunk(ImportJob job, List<ProductDto> chunk, List<Long> chunkLines,
+                           Set<Long> checkedCompanyIds, Set<Long> existingCompanyIds) {
+        List<Long> unchecked = chunk.stream()
+                .map(ProductDto::getCompanyId)
+                .filter(companyId -> companyId != null && checkedCompanyIds.add(companyId))
+                .collect(Collectors.toList());
+        if (!unchecked.isEmpty()) {
+            existingCompanyIds.addAll(companyDao.findExistingIds(unchecked)); // Como máximo una consulta por bloque
+        }
+
+        List<BatchItemResultDto> results = productService.saveProductsChunk(chunk, existingCompanyIds);
+        for (int i = 0; i < results.size(); i++) {
+            BatchItemResultDto result = results.get(i);
+            if (result.getStatus() == BatchItemResultDto.Status.REJECTED) {
+                job.reject(chunkLines.get(i), result.getError(), 1);
+            } else {
+                job.rowsDone.incrementAndGet();
+            }
+        }
+        chunk.clear();
+        chunkLines.clear();
+    }
+
+    // Conserva como mucho MAX_FINISHED_IMPORTS importaciones terminadas (las más antiguas se descartan).
+    private void evictFinishedImports() {
+        List<ImportJob> finished = imports.values().stream()
+                .filter(job -> job.finishedAt != null)
+                .sorted((a, b) -> a.finishedAt.compareTo(b.finishedAt))
+                .collect(Collectors.toList());
+        Iterator<ImportJob> oldest = finished.iterator();
+        for (int excess = finished.size() - MAX_FINISHED_IMPORTS; excess > 0 && oldest.hasNext(); excess--) {
+            imports.remove(oldest.next().id);
+        }
+    }
+
+    // Progreso de una importación. Los contadores se leen desde otras peticiones mientras avanza.
+    private static final class ImportJob {
+        private final String id;
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong rowsDone = new AtomicLong();
+        private final AtomicLong rowsRejected = new AtomicLong();
+        private final List<String> rejections = Collections.synchronizedList(new ArrayList<>());
+        private volatile ImportStatusDto.State state = ImportStatusDto.State.RUNNING;
+        private volatile Instant finishedAt;
+
+        private ImportJob(String id) {
+            this.id = id;
+        }
+
+        private void reject(long lineNumber, String reason, long rows) {
+            rowsRejected.addAndGet(rows);
+            if (rejections.size() < MAX_REJECTIONS_REPORTED) {
+                rejections.add(lineNumber > 0 ? "line " + lineNumber + ": " + reason : reason);
+            }
+        }
+
+        private void finish(ImportStatusDto.State finalState) {
+            finishedAt = Instant.now();
+            state = finalState;
+        }
+
+        private ImportStatusDto toDto() {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            double seconds = Math.max(Duration.between(startedAt, end).toMillis(), 1) / 1000.0;
+            List<String> reported;
+            synchronized (rejections) {
+                reported = new ArrayList<>(rejections);
+            }
+            return new ImportStatusDto(id, state, rowsDone.get(), rowsRejected.get(), rowsDone.get() / seconds,
+                    startedAt, finishedAt, reported);
+        }
+    }
+
+    // Posición de cada columna según la cabecera del CSV.
+    private static final class CsvHeader {
+        private final int id;
+        private final int name;
+        private final int stock;
+        private final int prize;
+        private final int companyId;
+
+        private CsvHeader(int id, int name, int stock, int prize, int companyId) {
+            this.id = id;
+            this.name = name;
+            this.stock = stock;
+            this.prize = prize;
+            this.companyId = companyId;
+        }
+
+        private static CsvHeader parse(String line) {
+            List<String> columns = splitLine(line).stream()
+                    .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                    .collect(Collectors.toList());
+            if (!columns.contains("companyid") && !columns.contains("id")) {
+                throw new IllegalArgumentException("CSV header must contain a companyId or id column.");
+            }
+            return new CsvHeader(columns.indexOf("id"), columns.indexOf("name"), columns.indexOf("stock"),
+                    columns.indexOf("prize"), columns.indexOf("companyid"));
+        }
+
+        // Convierte una fila en DTO; los campos se mapean a entidad con ProductMapper.toEntity al guardar.
+        private ProductDto toDto(String line) {
+            List<String> fields = splitLine(line);
+            ProductDto dto = new ProductDto();
+            dto.setId(parseLong(field(fields, id), "id"));
+            dto.setName(field(fields, name));
+            dto.setStock(parseInteger(field(fields, stock)));
+            dto.setPrize(parseDouble(field(fields, prize)));
+            dto.setCompanyId(parseLong(field(fields, companyId), "companyId"));
+            return dto;
+        }
+
+        private static String field(List<String> fields, int index) {
+            if (index < 0 || index >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        private static Long parseLong(String value, String column) {
+            try {
+                return value == null ? null : Long.valueOf(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid " + column + ": " + value);
+            }
+        }
+
+        private static Integer parseInteger(String value) {
+            try {
+                return value == null ? null : Integer.valueOf(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid stock: " + value);
+            }
+        }
+
+        private static Double parseDouble(String value) {
+            try {
+                return value == null ? null : Double.valueOf(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid prize: " + value);
+            }
+        }
+
+        // Separa una línea CSV por comas respetando campos entre comillas ("" representa una comilla).
+        private static List<String> splitLine(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("Unterminated quoted field.");
+            }
+            fields.add(current.toString());
+            return fields;
+        }
+    }
+}
@@ -1,18 +1,63 @@
 package com.example.mi_web_backend.service;
 // src/main/java/com/example/mi_web_backend/service/ProductService.java
 
+import com.example.mi_web_backend.config.CacheConfig;
+import com.example.mi_web_backend.config.MessageConverterConfig;
+import com.example.mi_web_backend.dto.BatchItemResultDto;
+import com.example.mi_web_backend.dto.BatchResultDto;
+import com.example.mi_web_backend.dto.CompanyDto;
+import com.example.mi_web_backend.dto.CursorPageDto;
+import com.example.mi_web_backend.dto.DeleteResultDto;
 import com.example.mi_web_backend.dto.ProductDto;
-import com.example.mi_web_backend.model.Company;
+import com.example.mi_web_backend.dto.StockRequestDto;
 import com.example.mi_web_backend.model.Product;
 import com.example.mi_web_backend.repository.ProductDao;
 import com.example.mi_web_backend.repository.CompanyDao; // Necesario para la relación con Company
 import com.example.mi_web_backend.mapper.ProductMapper;
+import com.example.mi_web_backend.pagination.PageCursor;
+import com.example.mi_web_backend.search.ProductSearchIndex;
+import com.example.mi_web_backend.stream.ProductChangedEvent;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service // Marca esta clase como un componente de servicio de Spring
 public class ProductService {
@@ -20,13 +65,53 @@ public class ProductService {
     private final ProductDao productDao; // Inyección de dependencia del repositorio de productos
     private final CompanyDao companyDao; // Inyección de dependencia del repositorio de compañías (para FK)
     private final ProductMapper productMapper; // Inyección de dependencia del mapper de productos
+    private final TransactionTemplate transactionTemplate; // Transacciones por bloque en las cargas masivas
+    private final TransactionTemplate independentTransaction; // REQUIRES_NEW: trabajo tras terminar la del llamante
+    private final HotStockCounters hotStockCounters; // Stock en memoria de los productos en modo caliente
+    private final CompanyService companyService; // Validación de companyId y nombres de compañía a través de su caché
+    private final Cache productsCache; // productId -> ProductDto
+    private final ProductSearchIndex searchIndex; // Búsqueda por nombre; se actualiza tras cada escritura confirmada
+    private final CompanyInventoryService companyInventory; // Resumen de inventario por compañía, ajustado en cada escritura
+    private final ApplicationEventPublisher eventPublisher; // Cambios confirmados para los clientes suscritos (SSE)
+    private final ProductChangeSequence changeSequence; // Valor de change_seq de cada escritura (sincronización incremental)
+    private final ProductSyncService productSync; // Lápidas de los productos borrados o que cambian de compañía
+    private final int batchChunkSize; // Elementos que se confirman en cada transacción de una carga masiva (app.batch.chunk-size)
+
+    @PersistenceContext
+    private EntityManager entityManager; // Para vaciar y limpiar el contexto de persistencia entre bloques
+
+    // Máximo de parámetros por cláusula IN al validar IDs de compañía
+    private static final int MAX_IN_PARAMETERS = 1000;
+
+    // Resultado de changeProductStock cuando el producto pasó a modo caliente y el cambio se deshizo
+    private static final int BECAME_HOT = -1;
+    // Campos de ProductDto que acepta un PATCH y los que solo se aceptan por venir en la representación
+    private static final Set<String> PRODUCT_PATCH_FIELDS = Set.of("name", "stock", "prize", "companyId");
+    private static final Set<String> PRODUCT_READ_ONLY_FIELDS = Set.of("id", "version", "companyName");
 
     // Constructor para inyección de dependencia
     @Autowired
-    public ProductService(ProductDao productDao, CompanyDao companyDao, ProductMapper productMapper) {
+    public ProductService(ProductDao productDao, CompanyDao companyDao, ProductMapper productMapper,
+                          PlatformTransactionManager transactionManager, HotStockCounters hotStockCounters,
+                          CompanyService companyService, CacheManager cacheManager, ProductSearchIndex searchIndex,
+                          CompanyInventoryService companyInventory, ApplicationEventPublisher eventPublisher,
+                          ProductChangeSequence changeSequence, ProductSyncService productSync,
+                          @Value("${app.batch.chunk-size:500}") int batchChunkSize) {
         this.productDao = productDao;
         this.companyDao = companyDao;
         this.productMapper = productMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.independentTransaction = new TransactionTemplate(transactionManager);
+        this.independentTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.hotStockCounters = hotStockCounters;
+        this.companyService = companyService;
+        this.productsCache = cacheManager.getCache(CacheConfig.PRODUCTS);
+        this.searchIndex = searchIndex;
+        this.companyInventory = companyInventory;
+        this.eventPublisher = eventPublisher;
+        this.changeSequence = changeSequence;
+        this.productSync = productSync;
+        this.batchChunkSize = batchChunkSize;
     }
 
     /**
@@ -45,31 +130,221 @@ public class ProductService {
             throw new RuntimeException("Company ID is required to create a Product.");
         }
 
-        // Buscar la entidad Company por su ID. Si no existe, lanzar excepción.
-        Company company = companyDao.findById(productDto.getCompanyId())
+        // Validar la Company a través de la caché de compañías. Si no existe, lanzar excepción.
+        CompanyDto company = companyService.getCompanyById(productDto.getCompanyId())
                 .orElseThrow(() -> new RuntimeException("Company not found for ID: " + productDto.getCompanyId()));
 
         // Mapear el DTO a la entidad Product. El mapper no maneja la relación Company, solo los campos directos.
         Product productToSave = productMapper.toEntity(productDto);
 
-        // Establecer la relación de la entidad Product con la entidad Company encontrada.
-        productToSave.setCompany(company); // Este método espera un objeto Company
+        // Establecer la relación con una referencia a la Company: no hace falta cargarla para guardar la FK.
+        productToSave.setCompany(companyDao.getReferenceById(company.getId()));
 
-        // Guardar la nueva entidad Product en la base de datos.
-        Product savedProduct = productDao.save(productToSave);
+        // Guardar la nueva entidad Product en la base de datos y sumarla al inventario de su compañía en la misma transacción.
+        Product savedProduct = transactionTemplate.execute(status -> {
+            productToSave.setChangeSeq(changeSequence.next());
+            Product product = productDao.save(productToSave);
+            companyInventory.apply(new CompanyInventoryService.Deltas()
+                    .addProduct(company.getId(), product.getStock(), product.getPrize()));
+            return product;
+        });
+        searchIndex.put(savedProduct.getId(), savedProduct.getName(), company.getId(), company.getName());
+        // Por si había una entrada negativa cacheada para este ID (los IDs de la secuencia son predecibles)
+        productsCache.evict(savedProduct.getId());
 
-        // Mapear la entidad guardada de vuelta a un DTO para la respuesta.
-        return productMapper.toDto(savedProduct);
+        // Mapear la entidad guardada de vuelta a un DTO para la respuesta (el nombre viene de la caché).
+        ProductDto createdProduct = productMapper.toDto(savedProduct, company.getName());
+        eventPublisher.publishEvent(ProductChangedEvent.updated(createdProduct));
+        return createdProduct;
     }
 
     /**
-     * Obtiene una lista de todos los Productos.
-     * @return Lista de ProductDto.
+     * Crea o actualiza Productos en bloque.
+     * Los elementos sin ID se crean y los que traen ID se actualizan (solo los campos no nulos).
+     * Todos los companyId referenciados se validan con una sola consulta, y cada bloque de
+     * app.batch.chunk-size elementos se guarda en su propia transacción usando lotes JDBC.
+     * Si un bloque falla, solo se rechazan los elementos de ese bloque.
+     * @param productDtos Lista de DTOs a crear o actualizar.
+     * @return BatchResultDto con el resultado de cada elemento.
+     */
+    public BatchResultDto saveProductsBatch(List<ProductDto> productDtos) {
+        List<BatchItemResultDto> results = new ArrayList<>(Collections.nCopies(productDtos.size(), null));
+        Set<Long> existingCompanyIds = findExistingCompanyIds(productDtos);
+        for (int from = 0; from < productDtos.size(); from += batchChunkSize) {
+            int to = Math.min(from + batchChunkSize, productDtos.size());
+            saveProductChunk(productDtos, from, to, existingCompanyIds, results);
+        }
+        return BatchResultDto.of(results);
+    }
+
+    /**
+     * Devuelve cuáles de los companyId referenciados por los DTOs existen en la BD.
+     * Usa una consulta por cada MAX_IN_PARAMETERS IDs distintos en lugar de una por producto.
+     */
+    Set<Long> findExistingCompanyIds(List<ProductDto> productDtos) {
+        List<Long> companyIds = productDtos.stream()
+                .filter(dto -> dto != null && dto.getCompanyId() != null)
+                .map(ProductDto::getCompanyId)
+                .distinct()
+                .collect(Collectors.toList());
+        Set<Long> existing = new HashSet<>();
+        for (int from = 0; from < companyIds.size(); from += MAX_IN_PARAMETERS) {
+            existing.addAll(companyDao.findExistingIds(companyIds.subList(from, Math.min(from + MAX_IN_PARAMETERS, companyIds.size()))));
+        }
+        return existing;
+    }
+
+    /**
+     * Guarda un bloque de DTOs en una única transacción (usado por la importación CSV).
+     * @param chunk Elementos del bloque.
+     * @param existingCompanyIds IDs de compañía ya validados contra la BD.
+     * @return Resultado de cada elemento, con índices relativos al bloque.
      */
-    public List<ProductDto> getAllProducts() {
-        List<Product> products = productDao.findAll();
-        // El mapper ahora incluirá companyId y companyName en los DTOs si la relación está cargada.
-        return productMapper.toDtoList(products);
+    List<BatchItemResultDto> saveProductsChunk(List<ProductDto> chunk, Set<Long> existingCompanyIds) {
+        List<BatchItemResultDto> results = new ArrayList<>(Collections.nCopies(chunk.size(), null));
+        saveProductChunk(chunk, 0, chunk.size(), existingCompanyIds, results);
+        return results;
+    }
+
+    /**
+     * Guarda en una única transacción los elementos [from, to) de la carga masiva.
+     * Las compañías se asignan con referencias (getReferenceById), sin SELECT adicional,
+     * y el contexto de persistencia se vacía al final para que la memoria no crezca entre bloques.
+     */
+    private void saveProductChunk(List<ProductDto> productDtos, int from, int to,
+                                  Set<Long> existingCompanyIds, List<BatchItemResultDto> results) {
+        List<PendingItem> pending = new ArrayList<>();
+        // Productos que el bloque puede actualizar: si están en modo caliente, su volcado espera al bloque
+        List<Long> updatedIds = productDtos.subList(from, to).stream()
+                .filter(dto -> dto != null && dto.getId() != null)
+                .map(ProductDto::getId)
+                .collect(Collectors.toList());
+        try {
+            hotStockCounters.withFlushPaused(updatedIds, () -> {
+                transactionTemplate.executeWithoutResult(status -> {
+                    pending.clear(); // Por si la transacción se reintenta
+                    CompanyInventoryService.Deltas inventoryDeltas = new CompanyInventoryService.Deltas();
+                    Map<Long, Product> existingProducts = productDao.findAllById(updatedIds).stream()
+                            .collect(Collectors.toMap(Product::getId, product -> product));
+
+                    for (int index = from; index < to; index++) {
+                        ProductDto dto = productDtos.get(index);
+                        if (dto == null) {
+                            results.set(index, BatchItemResultDto.rejected(index, null, "Empty item."));
+                            continue;
+                        }
+                        if (dto.getCompanyId() != null && !existingCompanyIds.contains(dto.getCompanyId())) {
+                            results.set(index, BatchItemResultDto.rejected(index, dto.getId(), "Company not found for ID: " + dto.getCompanyId()));
+                            continue;
+                        }
+                        if (dto.getId() == null) {
+                            if (dto.getCompanyId() == null) {
+                                results.set(index, BatchItemResultDto.rejected(index, null, "Company ID is required to create a Product."));
+                                continue;
+                            }
+                            Product product = productMapper.toEntity(dto);
+                            product.setCompany(companyDao.getReferenceById(dto.getCompanyId()));
+                            product.setChangeSeq(changeSequence.next());
+                            entityManager.persist(product); // El ID sale de la secuencia pooled, sin ir a la BD en cada fila
+                            inventoryDeltas.addProduct(dto.getCompanyId(), product.getStock(), product.getPrize());
+                            pending.add(new PendingItem(index, product, BatchItemResultDto.Status.CREATED));
+                        } else {
+                            Product product = existingProducts.get(dto.getId());
+                            if (product == null) {
+                                results.set(index, BatchItemResultDto.rejected(index, dto.getId(), "Product not found with id: " + dto.getId()));
+                                continue;
+                            }
+                            inventoryDeltas.removeProduct(product.getCompany().getId(), product.getStock(), product.getPrize());
+                            productMapper.updateEntityFromDto(dto, product);
+                            if (dto.getCompanyId() != null && !dto.getCompanyId().equals(product.getCompany().getId())) {
+                                productSync.recordRemoval(product.getId(), product.getCompany().getId());
+                                product.setCompany(companyDao.getReferenceById(dto.getCompanyId()));
+                            }
+                            product.setChangeSeq(changeSequence.next());
+                            inventoryDeltas.addProduct(product.getCompany().getId(), product.getStock(), product.getPrize());
+                            pending.add(new PendingItem(index, product, BatchItemResultDto.Status.UPDATED));
+                        }
+                    }
+                    entityManager.flush(); // Los INSERT/UPDATE salen agrupados en lotes JDBC
+                    entityManager.clear();
+                    companyInventory.apply(inventoryDeltas); // Un UPDATE por compañía afectada, no por producto
+                });
+                for (PendingItem item : pending) {
+                    // Solo si el elemento trae stock: sin él, el delta pendiente en memoria sigue valiendo
+                    if (item.status == BatchItemResultDto.Status.UPDATED && productDtos.get(item.index).getStock() != null) {
+                        hotStockCounters.reset(item.product.getId(), item.product.getStock()); // El stock absoluto de la BD manda
+                    }
+                }
+                return null;
+            });
+            for (PendingItem item : pending) {
+                results.set(item.index, new BatchItemResultDto(item.index, item.product.getId(), item.status, null));
+                Long companyId = item.product.getCompany().getId(); // Referencia: getId() no inicializa el proxy
+                String companyName = companyService.getCompanyById(companyId).map(CompanyDto::getName).orElse(null);
+                searchIndex.put(item.product.getId(), item.product.getName(), companyId, companyName);
+                eventPublisher.publishEvent(ProductChangedEvent.updated(productMapper.toDto(item.product, companyName)));
+                productsCache.evict(item.product.getId()); // También los creados: puede haber un "no existe" cacheado
+            }
+        } catch (RuntimeException e) {
+            // El bloque se ha deshecho: ninguno de sus elementos no rechazados quedó guardado.
+            for (int index = from; index < to; index++) {
+                if (results.get(index) == null) {
+                    ProductDto dto = productDtos.get(index);
+                    results.set(index, BatchItemResultDto.rejected(index, dto == null ? null : dto.getId(),
+                            "Chunk rolled back: " + e.getMessage()));
+                }
+            }
+        }
+    }
+
+    // Elemento de un bloque que se confirmará junto con la transacción del bloque.
+    private static final class PendingItem {
+        private final int index;
+        private final Product product;
+        private final BatchItemResultDto.Status status;
+
+        private PendingItem(int index, Product product, BatchItemResultDto.Status status) {
+            this.index = index;
+            this.product = product;
+            this.status = status;
+        }
+    }
+
+    /**
+     * Obtiene una página de Productos ordenados por ID usando paginación por cursor (keyset).
+     * Nunca carga la tabla completa: como máximo se leen limit + 1 filas.
+     * @param cursor Token opaco devuelto en la página anterior, o null para empezar desde el principio.
+     * @param limit Tamaño de página pedido (se ajusta a PageCursor.MAX_LIMIT).
+     * @return CursorPageDto con los ProductDto de la página y el token de la siguiente.
+     * @throws IllegalArgumentException si el cursor no es válido.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<ProductDto> getProductsPage(String cursor, int limit) {
+        int pageSize = PageCursor.clampLimit(limit);
+        long lastId = PageCursor.decode(cursor);
+        // Se pide una fila extra para saber si hay página siguiente sin lanzar un COUNT.
+        // La proyección trae companyId y companyName en el mismo SELECT (sin N+1).
+        List<ProductDto> products = productDao.findDtoPage(lastId, PageRequest.of(0, pageSize + 1));
+        products.replaceAll(this::applyHotStock);
+        return PageCursor.page(products, pageSize, ProductDto::getId);
+    }
+
+    /**
+     * Recorre todo el catálogo en orden de ID y entrega cada Producto al consumidor según llega de la BD.
+     * Usa un cursor forward-only con fetchSize acotado, por lo que nunca se construye la lista completa.
+     * @param sink Consumidor que recibe cada ProductDto (por ejemplo, el escritor de la respuesta HTTP).
+     * @return Número de productos exportados.
+     */
+    @Transactional(readOnly = true) // El cursor necesita una transacción abierta mientras se consume
+    public long exportProducts(Consumer<ProductDto> sink) {
+        long exported = 0;
+        try (Stream<ProductDto> products = productDao.streamAllDtos()) {
+            for (ProductDto product : (Iterable<ProductDto>) products::iterator) {
+                sink.accept(product);
+                exported++;
+            }
+        }
+        return exported;
     }
 
     /**
@@ -77,9 +352,24 @@ public class ProductService {
      * @param id ID del Producto a buscar.
      * @return Optional que contiene el ProductDto si se encuentra, o vacío si no.
      */
+    // Sin readOnly: lo leído se guarda en la caché, así que sale del primario. Desde una réplica con retraso se
+    // cachearían datos antiguos (o un "no existe" justo después de crearlo) durante todo el TTL.
     public Optional<ProductDto> getProductById(Long id) {
-        return productDao.findById(id)
-                .map(productMapper::toDto); // Mapea la entidad a DTO si la encuentra
+        // Caché por ID (también del "no existe"); se invalida en cada escritura sobre el producto.
+        ProductDto cached = productsCache.get(id, () -> productDao.findDtoById(id) // Proyección directa a DTO con la compañía en el mismo SELECT
+                .orElse(null));
+        return Optional.ofNullable(cached).map(this::applyHotStock);
+    }
+
+    // Si el producto está en modo caliente, su stock real es el de memoria (incluye deltas aún no volcados).
+    // Devuelve una copia para no modificar el DTO que pueda estar en la caché.
+    private ProductDto applyHotStock(ProductDto productDto) {
+        Long hotStock = hotStockCounters.available(productDto.getId());
+        if (hotStock == null) {
+            return productDto;
+        }
+        return new ProductDto(productDto.getId(), productDto.getName(), hotStock.intValue(), productDto.getPrize(),
+                productDto.getCompanyId(), productDto.getCompanyName(), productDto.getVersion());
     }
 
     /**
@@ -88,16 +378,100 @@ public class ProductService {
      * @return Lista de ProductDto.
      * @throws RuntimeException si la Company no es encontrada.
      */
+    @Transactional(readOnly = true)
     public List<ProductDto> getProductsByCompanyId(Long companyId) {
-        // Primero, verifica si la compañía existe. Si no, lanza una excepción.
-        companyDao.findById(companyId)
-                .orElseThrow(() -> new RuntimeException("Company not found with id: " + companyId));
+        // Primero, verifica si la compañía existe (desde la caché). Si no, lanza una excepción.
+        if (!companyService.companyExists(companyId)) {
+            throw new RuntimeException("Company not found with id: " + companyId);
+        }
+
+        // Busca los productos de la compañía ya proyectados a DTO en un único SELECT con JOIN.
+        List<ProductDto> products = productDao.findDtosByCompanyId(companyId);
+        products.replaceAll(this::applyHotStock);
+        return products;
+    }
 
-        // Busca productos por el ID de la compañía.
-        List<Product> products = productDao.findByCompanyId(companyId);
+    /**
+     * Calcula el ETag fuerte de un Producto sin serializarlo: su versión, la de su Company (el DTO
+     * incluye companyName) y el stock, que en modo caliente cambia en memoria sin tocar la versión.
+     * @param productDto Producto tal y como se devolvería (por ejemplo, el de getProductById).
+     * @param format Formato de la respuesta (JSON, Smile o CBOR): cada uno tiene su ETag.
+     * @return ETag entre comillas.
+     */
+    @Transactional(readOnly = true)
+    public String getProductETag(ProductDto productDto, MediaType format) {
+        Long companyVersion = companyService.getCompanyById(productDto.getCompanyId())
+                .map(CompanyDto::getVersion)
+                .orElse(null);
+        return "\"" + productDto.getVersion() + "-" + companyVersion + "-" + productDto.getStock()
+                + MessageConverterConfig.eTagSuffix(format) + "\"";
+    }
 
-        // Mapea la lista de entidades a una lista de DTOs.
-        return productMapper.toDtoList(products);
+    /**
+     * Calcula el ETag débil de la lista de Productos de una Company sin cargarla: la versión de la Company,
+     * el número de productos y un resumen SHA-256 de los pares (id, versión) en orden de ID, leídos en un
+     * único SELECT de dos columnas. Cualquier alta, baja, cambio de compañía o UPDATE cambia algún par, así
+     * que (a diferencia de sumas o máximos) dos listas distintas no comparten ETag en la práctica.
+     * Es débil porque la lista se sirve comprimida o sin comprimir con los mismos datos (Tomcat no
+     * comprime respuestas con ETag fuerte) y solo se usa con If-None-Match, nunca con If-Match.
+     * Los productos en modo caliente cambian de versión al volcarse su stock, así que el ETag puede
+     * ir por detrás de la memoria como mucho un intervalo de volcado.
+     * @param companyId ID de la Company.
+     * @param format Formato de la respuesta (JSON, Smile o CBOR): cada uno tiene su ETag.
+     * @return Optional con el ETag débil (W/"..."), o vacío si la Company no existe.
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> getProductsByCompanyETag(Long companyId, MediaType format) {
+        return companyService.getCompanyById(companyId).map(company -> {
+            MessageDigest digest = newListDigest();
+            ByteBuffer pair = ByteBuffer.allocate(2 * Long.BYTES);
+            long count = 0;
+            try (Stream<Object[]> versions = productDao.streamVersionsByCompanyId(companyId)) {
+                for (Iterator<Object[]> rows = versions.iterator(); rows.hasNext(); count++) {
+                    Object[] row = rows.next();
+                    pair.clear();
+                    pair.putLong((Long) row[0]).putLong(row[1] == null ? 0L : (Long) row[1]);
+                    digest.update(pair.array());
+                }
+            }
+            // 128 de los 256 bits bastan para un ETag y lo mantienen corto
+            String hash = Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest.digest(), 16));
+            return "W/\"" + company.getVersion() + "-" + count + "-" + hash + MessageConverterConfig.eTagSuffix(format) + "\"";
+        });
+    }
+
+    private static MessageDigest newListDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e); // Obligatorio en toda JVM
+        }
+    }
+
+    /**
+     * Busca Productos por subcadena del nombre del producto o de su compañía usando el índice en memoria
+     * (sin "LIKE '%x%'" en la BD) y carga los resultados con una sola consulta.
+     * @param query Texto a buscar (sin distinguir mayúsculas ni tildes).
+     * @param field Campo sobre el que buscar.
+     * @param limit Número máximo de resultados (se ajusta a PageCursor.MAX_LIMIT).
+     * @return Lista de ProductDto ordenada por relevancia.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductDto> searchProducts(String query, ProductSearchIndex.Field field, int limit) {
+        List<Long> ids = searchIndex.search(query, field, PageCursor.clampLimit(limit));
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, ProductDto> byId = productDao.findDtosByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductDto::getId, productDto -> productDto));
+        List<ProductDto> products = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ProductDto productDto = byId.get(id); // Puede faltar si se borró justo después de buscar
+            if (productDto != null) {
+                products.add(applyHotStock(productDto));
+            }
+        }
+        return products;
     }
 
     /**
@@ -108,29 +482,371 @@ public class ProductService {
      * @throws RuntimeException si el Producto no es encontrado o la nueva Company no es válida.
      */
     public ProductDto updateProduct(Long id, ProductDto productDto) {
-        return productDao.findById(id).map(existingProduct -> {
-            // Usa el mapper para actualizar los campos simples (name, stock, prize) de la entidad existente desde el DTO
-            productMapper.updateEntityFromDto(productDto, existingProduct);
+        // Carga, guardado y ajuste del inventario de la(s) compañía(s) en una sola transacción;
+        // cachés e índice se actualizan después, con el cambio ya confirmado.
+        // En modo caliente el volcado del producto espera: no puede cambiar la fila entre la carga y el guardado.
+        AtomicReference<Long> previousCompanyId = new AtomicReference<>(); // Solo si cambia de compañía, para el feed
+        ProductDto updatedDto = hotStockCounters.withFlushPaused(List.of(id), () -> {
+            ProductDto saved = transactionTemplate.execute(status -> productDao.findById(id).map(existingProduct -> {
+                // Valores anteriores del producto: se restan del inventario y se suman los nuevos
+                CompanyInventoryService.Deltas inventoryDeltas = new CompanyInventoryService.Deltas().removeProduct(
+                        existingProduct.getCompany().getId(), existingProduct.getStock(), existingProduct.getPrize());
+
+                // Usa el mapper para actualizar los campos simples (name, stock, prize) de la entidad existente desde el DTO
+                productMapper.updateEntityFromDto(productDto, existingProduct);
+
+                // Compañía final del producto: la nueva si el DTO la cambia, o la actual (getId no inicializa el proxy).
+                Long companyId = productDto.getCompanyId() != null ? productDto.getCompanyId()
+                        : existingProduct.getCompany() != null ? existingProduct.getCompany().getId() : null;
+                CompanyDto company = companyId == null ? null : companyService.getCompanyById(companyId)
+                        .orElseThrow(() -> new RuntimeException("New Company not found for ID: " + companyId));
+
+                // Lógica para actualizar la relación con Company si el companyId en el DTO es diferente o se proporciona.
+                // Basta una referencia: la compañía ya se ha validado a través de la caché.
+                if (company != null && (existingProduct.getCompany() == null || !companyId.equals(existingProduct.getCompany().getId()))) {
+                    if (existingProduct.getCompany() != null) {
+                        productSync.recordRemoval(id, existingProduct.getCompany().getId());
+                        previousCompanyId.set(existingProduct.getCompany().getId());
+                    }
+                    existingProduct.setCompany(companyDao.getReferenceById(companyId));
+                }
+                existingProduct.setChangeSeq(changeSequence.next());
+
+                // Guarda la entidad Product actualizada en la base de datos.
+                Product updatedProduct = productDao.save(existingProduct);
+                companyInventory.apply(inventoryDeltas.addProduct(companyId, updatedProduct.getStock(), updatedProduct.getPrize()));
+
+                // Mapea la entidad actualizada de vuelta a un DTO para la respuesta.
+                return productMapper.toDto(updatedProduct, company != null ? company.getName() : null);
+            }).orElseThrow(() -> new RuntimeException("Product not found with id: " + id))); // Lanza excepción si el producto no existe
+            if (productDto.getStock() != null) {
+                hotStockCounters.reset(id, productDto.getStock()); // Un stock absoluto sustituye a los deltas en memoria
+            }
+            return applyHotStock(saved); // Sin stock en el PUT, el de memoria sigue mandando
+        });
+
+        productsCache.evict(id);
+        searchIndex.put(id, updatedDto.getName(), updatedDto.getCompanyId(), updatedDto.getCompanyName());
+        eventPublisher.publishEvent(ProductChangedEvent.updated(updatedDto, previousCompanyId.get()));
+        return updatedDto;
+    }
+
+    /**
+     * Aplica un JSON Merge Patch a un Producto con un único UPDATE que solo toca las columnas presentes
+     * en el parche, sin cargar antes la entidad. La versión se comprueba en el mismo WHERE (bloqueo
+     * optimista) y se incrementa; un campo con valor null borra la columna. Solo si el parche cambia stock,
+     * precio o compañía se lee antes la fila (bloqueada) para ajustar el inventario de la compañía.
+     * @param id ID del Producto.
+     * @param patch Campos a modificar: name, stock, prize y/o companyId (id, version y companyName se ignoran).
+     * @param expectedVersion Versión esperada (de If-Match); si es null se usa el campo version del parche, si lo trae.
+     * @throws IllegalArgumentException si el parche trae campos desconocidos o valores no válidos.
+     * @throws VersionConflictException si el Producto ya no está en la versión esperada.
+     * @throws RuntimeException si el Producto o la nueva Company no son encontrados.
+     */
+    public void patchProduct(Long id, Map<String, Object> patch, Long expectedVersion) {
+        MergePatch.requireKnownFields(patch, PRODUCT_PATCH_FIELDS, PRODUCT_READ_ONLY_FIELDS);
+        Long version = expectedVersion != null ? expectedVersion : MergePatch.toLong(patch.get("version"), "version");
+        Long companyId = MergePatch.toLong(patch.get("companyId"), "companyId");
+        if (companyId != null && !companyService.companyExists(companyId)) {
+            throw new RuntimeException("New Company not found for ID: " + companyId);
+        }
+
+        MergePatch update = new MergePatch("p");
+        update.set(patch, "name", "p.name", MergePatch.toText(patch.get("name"), "name"), true);
+        Integer stock = MergePatch.toInteger(patch.get("stock"), "stock");
+        update.set(patch, "stock", "p.stock", stock, true);
+        Double prize = MergePatch.toDouble(patch.get("prize"), "prize");
+        update.set(patch, "prize", "p.prize", prize, true);
+        update.set(patch, "companyId", "p.company", companyId == null ? null : companyDao.getReferenceById(companyId), false);
+        if (update.isEmpty()) {
+            // Nada que cambiar: solo se comprueban la existencia y la versión.
+            ProductDto current = getProductById(id)
+                    .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+            if (version != null && !version.equals(current.getVersion())) {
+                throw new VersionConflictException(id, version);
+            }
+            return;
+        }
+        update.assign("p.changeSeq", "changeSeq");
+
+        boolean affectsInventory = update.changes("stock") || update.changes("prize") || update.changes("companyId");
+        // Como en updateProduct: el volcado en modo caliente no puede cambiar la versión ni el stock entre medias
+        AtomicReference<Long> previousCompanyId = new AtomicReference<>();
+        Integer updated = hotStockCounters.withFlushPaused(List.of(id), () -> {
+            Integer patched = transactionTemplate.execute(status -> {
+                // Si el parche toca stock, precio o compañía, se bloquea la fila y se leen sus valores actuales
+                // para ajustar el inventario de la compañía con el delta exacto.
+                Product current = affectsInventory ? entityManager.find(Product.class, id, LockModeType.PESSIMISTIC_WRITE) : null;
+                Query query = entityManager.createQuery(update.toJpql("Product", "p", version));
+                query.setParameter("id", id);
+                if (version != null) {
+                    query.setParameter("expectedVersion", version);
+                }
+                update.getParameters().forEach(query::setParameter);
+                query.setParameter("changeSeq", changeSequence.next());
+                int rows = query.executeUpdate();
+                if (rows > 0 && current != null) {
+                    Long currentCompanyId = current.getCompany().getId();
+                    if (update.changes("companyId") && !companyId.equals(currentCompanyId)) {
+                        productSync.recordRemoval(id, currentCompanyId);
+                        previousCompanyId.set(currentCompanyId);
+                    }
+                    companyInventory.apply(new CompanyInventoryService.Deltas()
+                            .removeProduct(currentCompanyId, current.getStock(), current.getPrize())
+                            .addProduct(update.changes("companyId") ? companyId : currentCompanyId,
+                                    update.changes("stock") ? stock : current.getStock(),
+                                    update.changes("prize") ? prize : current.getPrize()));
+                }
+                return rows;
+            });
+            if (patched != null && patched > 0 && update.changes("stock")) {
+                hotStockCounters.reset(id, stock == null ? 0 : stock); // Igual que en updateProduct
+            }
+            return patched;
+        });
+        if (updated == null || updated == 0) {
+            if (!productDao.existsById(id)) {
+                throw new RuntimeException("Product not found with id: " + id);
+            }
+            throw new VersionConflictException(id, version);
+        }
+        productsCache.evict(id);
+        if (update.changes("name")) {
+            searchIndex.updateName(id, (String) patch.get("name"));
+        }
+        if (update.changes("companyId")) {
+            searchIndex.updateCompany(id, companyId, companyService.getCompanyById(companyId).map(CompanyDto::getName).orElse(null));
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.changed(id, previousCompanyId.get()));
+    }
 
-            // Lógica para actualizar la relación con Company si el companyId en el DTO es diferente o se proporciona.
-            // Esto evita una búsqueda de DB si el companyId no ha cambiado.
-            if (productDto.getCompanyId() != null &&
-                    (existingProduct.getCompany() == null || !productDto.getCompanyId().equals(existingProduct.getCompany().getId()))) {
+    /**
+     * Reserva (descuenta) unidades de stock de un Producto de forma atómica.
+     * Se ejecuta como un único UPDATE condicional "stock = stock - n WHERE stock >= n",
+     * por lo que dos reservas concurrentes nunca pueden vender las mismas unidades.
+     * @param id ID del Producto.
+     * @param quantity Unidades a reservar (mayor que cero).
+     * @throws IllegalArgumentException si la cantidad no es positiva.
+     * @throws OutOfStockException si no quedan unidades suficientes.
+     * @throws RuntimeException si el Producto no es encontrado.
+     */
+    // Sin @Transactional: en modo caliente no se toca la BD (ni se pide conexión); el UPDATE lleva su propia transacción.
+    public void reserveStock(Long id, int quantity) {
+        requirePositive(quantity);
+        while (true) {
+            HotStockCounters.Outcome hot = hotStockCounters.tryReserve(id, quantity);
+            if (hot == HotStockCounters.Outcome.INSUFFICIENT) {
+                throw new OutOfStockException(id, quantity);
+            }
+            if (hot == HotStockCounters.Outcome.NOT_HOT) {
+                int rows = changeStockInDatabase(id, -quantity);
+                if (rows == BECAME_HOT) {
+                    continue; // Se marcó caliente entre medias: la reserva se repite en memoria
+                }
+                if (rows == 0) {
+                    throw stockFailure(id, quantity);
+                }
+                productsCache.evict(id);
+            }
+            break;
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.changed(id));
+    }
 
-                // Busca la nueva entidad Company. Si no existe, lanza excepción.
-                Company newCompany = companyDao.findById(productDto.getCompanyId())
-                        .orElseThrow(() -> new RuntimeException("New Company not found for ID: " + productDto.getCompanyId()));
+    /**
+     * Libera (devuelve) unidades de stock de un Producto de forma atómica.
+     * @param id ID del Producto.
+     * @param quantity Unidades a devolver (mayor que cero).
+     * @throws IllegalArgumentException si la cantidad no es positiva.
+     * @throws RuntimeException si el Producto no es encontrado.
+     */
+    public void releaseStock(Long id, int quantity) {
+        requirePositive(quantity);
+        while (hotStockCounters.release(id, quantity) == HotStockCounters.Outcome.NOT_HOT) {
+            int rows = changeStockInDatabase(id, quantity);
+            if (rows == 0) {
+                throw new RuntimeException("Product not found with id: " + id);
+            }
+            if (rows != BECAME_HOT) { // Si se marcó caliente entre medias, la liberación se repite en memoria
+                productsCache.evict(id);
+                break;
+            }
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.changed(id));
+    }
 
-                // Establece la nueva relación de la entidad Product con la entidad Company.
-                existingProduct.setCompany(newCompany); // Este método espera un objeto Company
+    /**
+     * Reserva stock de varios Productos en una única transacción: o se reservan todos o ninguno.
+     * Las filas se actualizan siempre en orden ascendente de ID, de modo que dos pedidos con los
+     * mismos productos bloquean las filas en el mismo orden y no pueden provocar un deadlock.
+     * Los resúmenes de inventario se ajustan al final con un UPDATE por compañía en orden de ID de compañía,
+     * así que también se bloquean en un orden fijo y solo durante el tramo final de la transacción.
+     * @param items Productos y cantidades a reservar (un mismo producto puede repetirse).
+     * @throws IllegalArgumentException si alguna cantidad no es positiva o falta el productId.
+     * @throws OutOfStockException si algún Producto no tiene unidades suficientes (se deshace todo).
+     * @throws RuntimeException si algún Producto no es encontrado (se deshace todo).
+     */
+    @Transactional
+    public void reserveStock(List<StockRequestDto> items) {
+        SortedMap<Long, Integer> quantitiesById = new TreeMap<>();
+        for (StockRequestDto item : items) {
+            if (item.getProductId() == null) {
+                throw new IllegalArgumentException("Product ID is required to reserve stock.");
             }
+            requirePositive(item.getQuantity());
+            quantitiesById.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        // Primero las filas de la BD (en orden de ID); los productos calientes se reservan al final en memoria.
+        // La memoria no se deshace con la transacción: si esta no confirma (falta stock en otro producto, falla
+        // el commit o la deshace el llamante) las reservas calientes se devuelven al terminar.
+        // El resumen de inventario se ajusta al final, agrupado por compañía (ver CompanyInventoryService.applyStockDeltas).
+        SortedMap<Long, Integer> hotItems = new TreeMap<>();
+        Map<Long, Long> stockDeltas = new HashMap<>();
+        quantitiesById.forEach((id, quantity) -> {
+            int rows = hotStockCounters.isHot(id) ? BECAME_HOT : changeProductStock(id, -quantity);
+            if (rows == BECAME_HOT) {
+                hotItems.put(id, quantity);
+            } else if (rows == 0) {
+                throw stockFailure(id, quantity);
+            } else {
+                stockDeltas.put(id, (long) -quantity);
+                evictAfterCommit(id);
+            }
+        });
+        SortedMap<Long, Integer> reservedHot = new TreeMap<>();
+        if (!hotItems.isEmpty()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        reservedHot.forEach(ProductService.this::returnHotReservation);
+                    }
+                }
+            });
+        }
+        hotItems.forEach((id, quantity) -> {
+            HotStockCounters.Outcome outcome;
+            int rows = BECAME_HOT;
+            do {
+                outcome = hotStockCounters.tryReserve(id, quantity);
+                if (outcome == HotStockCounters.Outcome.NOT_HOT) {
+                    rows = changeProductStock(id, -quantity);
+                }
+            } while (outcome == HotStockCounters.Outcome.NOT_HOT && rows == BECAME_HOT);
+            if (outcome == HotStockCounters.Outcome.NOT_HOT) {
+                if (rows == 0) {
+                    outcome = HotStockCounters.Outcome.INSUFFICIENT; // Se desmarcó entre medias y tampoco hay stock en la BD
+                } else {
+                    stockDeltas.put(id, (long) -quantity);
+                    evictAfterCommit(id);
+                }
+            }
+            if (outcome == HotStockCounters.Outcome.INSUFFICIENT) {
+                throw stockFailure(id, quantity); // La transacción se deshace y afterCompletion devuelve las ya reservadas
+            }
+            if (outcome == HotStockCounters.Outcome.APPLIED) {
+                reservedHot.put(id, quantity);
+            }
+        });
+        companyInventory.applyStockDeltas(stockDeltas);
+        // Se entregan a los suscriptores solo si la transacción confirma
+        quantitiesById.keySet().forEach(id -> eventPublisher.publishEvent(ProductChangedEvent.changed(id)));
+    }
 
-            // Guarda la entidad Product actualizada en la base de datos.
-            Product updatedProduct = productDao.save(existingProduct);
+    /**
+     * Activa el modo caliente de un Producto: a partir de ahora sus reservas se aplican en memoria
+     * y se vuelcan a la BD periódicamente en lote.
+     * @param id ID del Producto.
+     * @throws RuntimeException si el Producto no es encontrado.
+     */
+    public void enableHotStock(Long id) {
+        if (!hotStockCounters.enable(id)) {
+            throw new RuntimeException("Product not found with id: " + id);
+        }
+    }
 
-            // Mapea la entidad actualizada de vuelta a un DTO para la respuesta.
-            return productMapper.toDto(updatedProduct);
-        }).orElseThrow(() -> new RuntimeException("Product not found with id: " + id)); // Lanza excepción si el producto no existe
+    /**
+     * Desactiva el modo caliente de un Producto, volcando antes a la BD el stock pendiente.
+     * @param id ID del Producto.
+     */
+    public void disableHotStock(Long id) {
+        hotStockCounters.disable(id);
+        productsCache.evict(id); // El stock ya volcado sustituye al que pudiera haber en la caché
+    }
+
+    // UPDATE atómico del stock (reserva si delta < 0, liberación si delta > 0) y ajuste del inventario de su
+    // compañía en la misma transacción; se une a la del llamante si existe. Devuelve las filas actualizadas.
+    // El ajuste bloquea la fila de resumen de la compañía hasta el commit, así que las reservas de productos
+    // de una misma compañía se serializan en ese punto; para los productos con mucha concurrencia está el
+    // modo caliente, que lleva al resumen un único delta por compañía en cada volcado.
+    private int changeStockInDatabase(Long id, int delta) {
+        Integer updated = transactionTemplate.execute(status -> {
+            int rows = changeProductStock(id, delta);
+            if (rows > 0) {
+                companyInventory.applyStockDelta(id, delta);
+            }
+            return rows;
+        });
+        return updated == null ? 0 : updated;
+    }
+
+    // Solo el UPDATE del stock del producto, en la transacción en curso; el inventario lo ajusta el llamante.
+    // Con la fila ya bloqueada por el UPDATE se comprueba si el producto acaba de pasar a modo caliente: en ese
+    // caso enable() pudo leer el stock antes de este cambio, así que se deshace (la lectura bloqueante de enable
+    // solo ve el resultado neto) y se devuelve BECAME_HOT para que el llamante lo repita en memoria.
+    private int changeProductStock(Long id, int delta) {
+        long changeSeq = changeSequence.next();
+        int rows = delta < 0 ? productDao.reserveStock(id, -delta, changeSeq) : productDao.releaseStock(id, delta, changeSeq);
+        if (rows == 0 || !hotStockCounters.isHot(id)) {
+            return rows;
+        }
+        if (delta < 0) {
+            productDao.releaseStock(id, -delta, changeSeq);
+        } else {
+            productDao.reserveStock(id, delta, changeSeq);
+        }
+        return BECAME_HOT;
+    }
+
+    // Devuelve una reserva caliente de una transacción deshecha. Si el producto se desmarcó entre medias, el
+    // volcado ya llevó la reserva a la BD y se devuelve allí, en una transacción propia (la del llamante ya terminó).
+    private void returnHotReservation(Long id, int quantity) {
+        while (hotStockCounters.release(id, quantity) == HotStockCounters.Outcome.NOT_HOT) {
+            Integer rows = independentTransaction.execute(status -> changeStockInDatabase(id, quantity));
+            if (rows == null || rows != BECAME_HOT) {
+                productsCache.evict(id);
+                return;
+            }
+        }
+    }
+
+    // Invalida la entrada en la caché cuando la transacción en curso confirma (antes, otro hilo podría
+    // volver a cachear el valor sin confirmar). Fuera de transacción se invalida en el momento.
+    private void evictAfterCommit(Long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            productsCache.evict(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                productsCache.evict(id);
+            }
+        });
+    }
+
+    private static void requirePositive(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than zero.");
+        }
+    }
+
+    // Una reserva que no actualiza ninguna fila puede deberse a que el producto no existe o a falta de stock.
+    private RuntimeException stockFailure(Long id, int quantity) {
+        if (!productDao.existsById(id)) {
+            return new RuntimeException("Product not found with id: " + id);
+        }
+        return new OutOfStockException(id, quantity);
     }
 
     /**
@@ -139,9 +855,82 @@ public class ProductService {
      * @throws RuntimeException si el Producto no es encontrado.
      */
     public void deleteProduct(Long id) {
-        if (!productDao.existsById(id)) {
+        if (removeProducts(List.of(id), null).isEmpty()) {
             throw new RuntimeException("Product not found with id: " + id);
         }
-        productDao.deleteById(id);
     }
-}
\ No newline at end of file
+
+    /**
+     * Elimina varios Productos por su ID en una sola transacción y con un único DELETE.
+     * @param ids IDs de los Productos a eliminar (como mucho MAX_IN_PARAMETERS distintos).
+     * @return DeleteResultDto con el número de eliminados y los IDs que no existían.
+     * @throws IllegalArgumentException si no hay IDs o hay más de MAX_IN_PARAMETERS.
+     */
+    public DeleteResultDto deleteProducts(List<Long> ids) {
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        if (distinct.isEmpty() || distinct.size() > MAX_IN_PARAMETERS) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_IN_PARAMETERS + " product IDs are required.");
+        }
+        Set<Long> removed = new HashSet<>(removeProducts(distinct, null));
+        List<Long> notFound = distinct.stream().filter(id -> !removed.contains(id)).collect(Collectors.toList());
+        return new DeleteResultDto(removed.size(), notFound);
+    }
+
+    /**
+     * Elimina todos los Productos de una Company, sin borrar la Company.
+     * Se borran en bloques de MAX_IN_PARAMETERS, cada uno en su propia transacción con un único DELETE;
+     * si falla a mitad, los bloques anteriores quedan borrados y basta con repetir la llamada.
+     * @param companyId ID de la Company.
+     * @return DeleteResultDto con el número de Productos eliminados.
+     * @throws RuntimeException si la Company no es encontrada.
+     */
+    public DeleteResultDto deleteProductsByCompanyId(Long companyId) {
+        if (!companyService.companyExists(companyId)) {
+            throw new RuntimeException("Company not found with id: " + companyId);
+        }
+        long deleted = 0;
+        List<Long> ids;
+        do {
+            ids = productDao.findIdsByCompanyId(companyId, PageRequest.of(0, MAX_IN_PARAMETERS));
+            deleted += removeProducts(ids, companyId).size();
+        } while (ids.size() == MAX_IN_PARAMETERS);
+        return new DeleteResultDto(deleted, Collections.emptyList());
+    }
+
+    // Borra hasta MAX_IN_PARAMETERS productos en una transacción: bloquea sus filas, las borra con un único DELETE
+    // y, en la misma transacción, resta del inventario y deja las lápidas. Tras confirmar invalida la caché y el
+    // índice en bloque, descarta el stock caliente y avisa a los suscriptores.
+    // Con companyId solo borra los que sigan en esa compañía (un producto movido entre la lectura de IDs y el bloqueo se respeta).
+    private List<Long> removeProducts(List<Long> ids, Long companyId) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<ProductDao.RemovedProduct> removed = transactionTemplate.execute(status -> {
+            List<ProductDao.RemovedProduct> rows = productDao.lockForRemoval(ids).stream()
+                    .filter(row -> companyId == null || companyId.equals(row.getCompanyId()))
+                    .collect(Collectors.toList());
+            if (rows.isEmpty()) {
+                return rows;
+            }
+            productDao.deleteRowsByIdIn(rows.stream().map(ProductDao.RemovedProduct::getId).collect(Collectors.toList()));
+            CompanyInventoryService.Deltas deltas = new CompanyInventoryService.Deltas();
+            for (ProductDao.RemovedProduct row : rows) {
+                productSync.recordRemoval(row.getId(), row.getCompanyId());
+                deltas.removeProduct(row.getCompanyId(), row.getStock(), row.getPrize());
+            }
+            companyInventory.apply(deltas);
+            return rows;
+        });
+        List<Long> removedIds = removed.stream().map(ProductDao.RemovedProduct::getId).collect(Collectors.toList());
+        if (removedIds.isEmpty()) {
+            return removedIds;
+        }
+        CacheConfig.evictAll(productsCache, removedIds);
+        searchIndex.removeAll(removedIds);
+        for (ProductDao.RemovedProduct row : removed) {
+            hotStockCounters.discard(row.getId());
+            eventPublisher.publishEvent(ProductChangedEvent.deleted(row.getId(), row.getCompanyId()));
+        }
+        return removedIds;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.mi_web_backend.service;
+// src/main/java/com/example/mi_web_backend/service/ProductSyncService.java
+
+import com.example.mi_web_backend.dto.ProductChangesDto;
+import com.example.mi_web_backend.dto.ProductDto;
+import com.example.mi_web_backend.model.ProductTombstone;
+import com.example.mi_web_backend.pagination.ChangeToken;
+import com.example.mi_web_backend.pagination.PageCursor;
+import com.example.mi_web_backend.repository.ProductDao;
+import com.example.mi_web_backend.repository.ProductTombstoneDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sincronización incremental del catálogo (GET /api/products/changes).
+ * Cada alta o cambio de un Producto guarda en product.change_seq un valor de ProductChangeSequence, y cada
+ * borrado (o salida de una compañía) deja una lápida en product_tombstone con otro valor de la misma
+ * secuencia. Un delta son las filas de ambas tablas entre el token del cliente y la marca segura de la
+ * secuencia, intercaladas por ese valor; las lápidas se purgan pasada la retención y un token más
+ * antiguo obliga a una carga completa.
+ */
+@Service
+public class ProductSyncService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSyncService.class);
+
+    // Margen entre la retención de los tokens y la purga: una lápida puede fecharse algo antes que el token
+    // que la precede (su valor se tomó en una transacción que seguía abierta al emitirlo).
+    private static final Duration PURGE_MARGIN = Duration.ofHours(1);
+
+    private final ProductDao productDao;
+    private final ProductTombstoneDao tombstoneDao;
+    private final ProductChangeSequence changeSequence;
+    private final HotStockCounters hotStockCounters; // El stock de un producto caliente es el de memoria, como en el resto de lecturas
+    private final CompanyService companyService; // Validación del filtro companyId a través de su caché
+    private final TransactionTemplate transactionTemplate; // Lecturas del delta en el primario, no en una réplica
+    private final Duration retention;
+
+    @PersistenceContext
+    private EntityManager entityManager; // Para insertar lápidas sin el SELECT previo de save()
+
+    // Constructor para inyección de dependencia
+    @Autowired
+    public ProductSyncService(ProductDao productDao, ProductTombstoneDao tombstoneDao, ProductChangeSequence changeSequence,
+                              HotStockCounters hotStockCounters, CompanyService companyService,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.sync.token-retention-hours:168}") long retentionHours) {
+        this.productDao = productDao;
+        this.tombstoneDao = tombstoneDao;
+        this.changeSequence = changeSequence;
+        this.hotStockCounters = hotStockCounters;
+        this.companyService = companyService;
+        // Sin readOnly: una réplica con retraso podría no tener aún cambios anteriores a la marca y el cliente se los saltaría
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    /**
+     * Obtiene los cambios de productos posteriores a un token.
+     * Sin token no hay delta que calcular: se devuelve solo el token actual, que el cliente debe pedir
+     * antes de su carga completa para no perderse los cambios que ocurran durante ella.
+     * @param token Token de la sincronización anterior, o null.
+     * @param companyId ID de la Company a la que se limita el delta, o null para todo el catálogo.
+     * @param limit Número máximo de cambios más lápidas (se ajusta a PageCursor.MAX_LIMIT).
+     * @return ProductChangesDto con los productos cambiados, los IDs borrados y el token siguiente.
+     * @throws IllegalArgumentException si el token no es válido.
+     * @throws StaleChangeTokenException si el token es más antiguo que la retención de las lápidas.
+     * @throws RuntimeException si la Company no es encontrada.
+     */
+    public ProductChangesDto getChanges(String token, Long companyId, int limit) {
+        ChangeToken since = token == null || token.isEmpty() ? null : ChangeToken.decode(token);
+        if (since != null && Instant.ofEpochMilli(since.getIssuedAtMillis()).isBefore(Instant.now().minus(retention))) {
+            throw new StaleChangeTokenException();
+        }
+        if (companyId != null && !companyService.companyExists(companyId)) {
+            throw new RuntimeException("Company not found with id: " + companyId);
+        }
+        // La marca se fija antes de leer: todo lo que quede por debajo ya está confirmado
+        long watermark = changeSequence.safeWatermark();
+        if (since == null) {
+            return new ProductChangesDto(new ArrayList<>(), new ArrayList<>(),
+                    new ChangeToken(watermark, System.currentTimeMillis()).encode(), false);
+        }
+        if (since.getSeq() >= watermark) {
+            return new ProductChangesDto(new ArrayList<>(), new ArrayList<>(),
+                    new ChangeToken(since.getSeq(), System.currentTimeMillis()).encode(), false);
+        }
+
+        int pageSize = PageCursor.clampLimit(limit);
+        PageRequest rows = PageRequest.of(0, pageSize + 1); // Una fila extra de cada tabla para saber si hay más
+        return transactionTemplate.execute(status -> {
+            List<ProductDao.ChangedProduct> changed = companyId == null
+                    ? productDao.findChangedBetween(since.getSeq(), watermark, rows)
+                    : productDao.findChangedBetweenByCompany(companyId, since.getSeq(), watermark, rows);
+            List<ProductTombstone> tombstones = companyId == null
+                    ? tombstoneDao.findBetween(since.getSeq(), watermark, rows)
+                    : tombstoneDao.findBetweenByCompany(companyId, since.getSeq(), watermark, rows);
+            return merge(changed, tombstones, pageSize, since, watermark);
+        });
+    }
+
+    // Intercala cambios y lápidas por valor de secuencia y corta en pageSize. Si sobra algo, el token apunta al
+    // último elemento devuelto y conserva el instante original, para que la retención cuente desde el primero.
+    private ProductChangesDto merge(List<ProductDao.ChangedProduct> changed, List<ProductTombstone> tombstones,
+                                    int pageSize, ChangeToken since, long watermark) {
+        List<ProductDto> products = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        int c = 0;
+        int t = 0;
+        long lastSeq = since.getSeq();
+        while (products.size() + deleted.size() < pageSize && (c < changed.size() || t < tombstones.size())) {
+            if (t >= tombstones.size() || (c < changed.size() && changed.get(c).getChangeSeq() < tombstones.get(t).getChangeSeq())) {
+                ProductDao.ChangedProduct product = changed.get(c++);
+                products.add(applyHotStock(product));
+                lastSeq = product.getChangeSeq();
+            } else {
+                ProductTombstone tombstone = tombstones.get(t++);
+                deleted.add(tombstone.getProductId());
+                lastSeq = tombstone.getChangeSeq();
+            }
+        }
+        boolean hasMore = c < changed.size() || t < tombstones.size();
+        ChangeToken next = hasMore
+                ? new ChangeToken(lastSeq, since.getIssuedAtMillis())
+                : new ChangeToken(watermark, System.currentTimeMillis());
+        return new ProductChangesDto(products, deleted, next.encode(), hasMore);
+    }
+
+    private ProductDto applyHotStock(ProductDao.ChangedProduct product) {
+        Long hotStock = hotStockCounters.available(product.getId());
+        return new ProductDto(product.getId(), product.getName(), hotStock != null ? hotStock.intValue() : product.getStock(),
+                product.getPrize(), product.getCompanyId(), product.getCompanyName(), product.getVersion());
+    }
+
+    /**
+     * Registra que un Producto ha dejado de pertenecer a una Company (borrado, o movido a otra),
+     * dentro de la transacción del llamante.
+     * @param productId ID del Producto.
+     * @param companyId ID de la Company de la que sale.
+     */
+    @Transactional
+    public void recordRemoval(Long productId, Long companyId) {
+        entityManager.persist(new ProductTombstone(changeSequence.next(), productId, companyId, Instant.now()));
+    }
+
+    /**
+     * Purga las lápidas que ya no puede necesitar ningún token aceptado.
+     */
+    @Scheduled(initialDelayString = "${app.sync.tombstone-purge-interval-ms:3600000}",
+            fixedDelayString = "${app.sync.tombstone-purge-interval-ms:3600000}")
+    public void purgeTombstones() {
+        int purged = tombstoneDao.deleteOlderThan(Instant.now().minus(retention).minus(PURGE_MARGIN));
+        if (purged > 0) {
+            log.info("Purged {} product tombstones older than the change token retention", purged);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.mi_web_backend.service;
+// src/main/java/com/example/mi_web_backend/service/StaleChangeTokenException.java
+
+/**
+ * El token de sincronización es anterior a la retención de las lápidas: ya no se puede calcular el
+ * delta con garantías y el cliente debe hacer una carga completa.
+ */
+public class StaleChangeTokenException extends RuntimeException {
+
+    public StaleChangeTokenException() {
+        super("Change token has expired: a full resync is required.");
+    }
+}
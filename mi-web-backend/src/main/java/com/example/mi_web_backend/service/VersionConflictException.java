@@ -0,0 +1,20 @@
+package com.example.mi_web_backend.service;
+// src/main/java/com/example/mi_web_backend/service/VersionConflictException.java
+
+/**
+ * Se lanza cuando una actualización condicionada a una versión (If-Match o campo version)
+ * no encuentra la fila con esa versión porque otro cliente la ha modificado antes.
+ */
+public class VersionConflictException extends RuntimeException {
+
+    private final Long id;
+
+    public VersionConflictException(Long id, Long expectedVersion) {
+        super("Version " + expectedVersion + " is no longer current for id " + id);
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
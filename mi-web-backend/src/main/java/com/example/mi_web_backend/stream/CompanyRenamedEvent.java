@@ -0,0 +1,26 @@
+package com.example.mi_web_backend.stream;
+// src/main/java/com/example/mi_web_backend/stream/CompanyRenamedEvent.java
+
+/**
+ * Cambio de nombre confirmado de una Company, publicado por CompanyService en el bus de eventos de Spring.
+ * Cada ProductDto lleva el nombre de su compañía, así que ProductChangeHub lo reparte como un cambio de
+ * todos sus productos, que lee por tandas al repartirlo y solo si hay alguien suscrito a ellos.
+ */
+public final class CompanyRenamedEvent {
+
+    private final Long companyId;
+    private final long publishedNanos; // Para medir la latencia hasta cada cliente
+
+    public CompanyRenamedEvent(Long companyId) {
+        this.companyId = companyId;
+        this.publishedNanos = System.nanoTime();
+    }
+
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    public long getPublishedNanos() {
+        return publishedNanos;
+    }
+}
@@ -0,0 +1,519 @@
+package com.example.mi_web_backend.stream;
+// src/main/java/com/example/mi_web_backend/stream/ProductChangeHub.java
+
+import com.example.mi_web_backend.dto.ProductDto;
+import com.example.mi_web_backend.repository.ProductDao;
+import com.example.mi_web_backend.service.HotStockCounters;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Reparte los cambios de productos a los clientes suscritos por Server-Sent Events.
+ * <ul>
+ *     <li>Los eventos llegan tras el commit y solo se encolan: la escritura nunca espera a los clientes.</li>
+ *     <li>Un hilo repartidor agrupa los pendientes por producto, lee una vez los que no traen estado
+ *     y los entrega a los suscriptores de su compañía (y a los que no filtran por compañía). Si el producto
+ *     ha cambiado de compañía, los suscriptores de la anterior reciben su borrado.</li>
+ *     <li>El cambio de nombre de una compañía se reparte como un cambio de cada uno de sus productos, que el
+ *     repartidor lee por tandas de RENAMED_COMPANY_CHUNK; si nadie sigue esa compañía ni todos los productos,
+ *     no se lee nada.</li>
+ *     <li>Cada suscriptor tiene un buffer acotado que agrupa los cambios del mismo producto: solo se
+ *     envía el último. Si se llena con productos distintos el cliente no da abasto y se desconecta
+ *     (EventSource reconecta y el cliente vuelve a leer lo que necesite).</li>
+ *     <li>Los envíos se hacen en un pool compartido de pocos hilos, nunca uno por conexión.</li>
+ *     <li>Una escritura que lleva más de app.stream.write-timeout-ms bloqueada (el cliente no lee y el
+ *     buffer del socket está lleno) desconecta al suscriptor y suma un hilo al pool mientras dure, para
+ *     que los clientes lentos no dejen sin hilos al resto. Tomcat corta esa escritura como muy tarde al
+ *     cumplirse server.tomcat.connection-timeout y el hilo extra desaparece.</li>
+ * </ul>
+ */
+@Component
+public class ProductChangeHub {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeHub.class);
+
+    static final String EVENT_UPDATED = "product";
+    static final String EVENT_DELETED = "product-deleted";
+    private static final int RENAMED_COMPANY_CHUNK = 500;
+
+    private final ProductDao productDao;
+    private final HotStockCounters hotStockCounters;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final long writeTimeoutNanos;
+    private final int maxStalledWrites; // Hilos extra como máximo: acota el coste de muchos clientes parados
+
+    private final Map<Long, ProductChangedEvent> pending = new ConcurrentHashMap<>(); // productId -> último cambio
+    private final Map<Long, Long> renamedCompanies = new ConcurrentHashMap<>(); // companyId -> publishedNanos del primero
+    private final AtomicBoolean dispatchScheduled = new AtomicBoolean();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(daemon("product-stream-dispatch"));
+    private final ThreadPoolExecutor senders;
+    private int stalledWrites; // Escrituras bloqueadas con hilo de reemplazo; protegido por senders
+
+    private final Set<Subscriber> allProducts = ConcurrentHashMap.newKeySet(); // Sin filtro de compañía
+    private final Map<Long, Set<Subscriber>> byCompany = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger(); // Suma de los conjuntos anteriores
+
+    private final Timer fanOutLatency;
+    private final Counter coalesced;
+    private final Counter droppedSlow;
+    private final Counter droppedError;
+    private final Counter droppedStalled;
+
+    @Autowired
+    public ProductChangeHub(ProductDao productDao, HotStockCounters hotStockCounters, MeterRegistry meterRegistry,
+                            @Value("${app.stream.buffer-size:256}") int bufferSize,
+                            @Value("${app.stream.sender-threads:8}") int senderThreads,
+                            @Value("${app.stream.timeout-ms:1800000}") long timeoutMillis,
+                            @Value("${app.stream.write-timeout-ms:5000}") long writeTimeoutMillis) {
+        this.productDao = productDao;
+        this.hotStockCounters = hotStockCounters;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeoutMillis;
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMillis);
+        this.maxStalledWrites = senderThreads * 4;
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), daemon("product-stream-send"));
+        this.fanOutLatency = Timer.builder("app.stream.fanout.latency")
+                .description("Tiempo desde el commit hasta el envío del cambio a cada cliente")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("app.stream.events.coalesced")
+                .description("Cambios sustituidos por otro posterior del mismo producto antes de enviarse")
+                .register(meterRegistry);
+        this.droppedSlow = Counter.builder("app.stream.subscribers.dropped").tag("reason", "slow").register(meterRegistry);
+        this.droppedError = Counter.builder("app.stream.subscribers.dropped").tag("reason", "error").register(meterRegistry);
+        this.droppedStalled = Counter.builder("app.stream.subscribers.dropped").tag("reason", "stalled").register(meterRegistry);
+        Gauge.builder("app.stream.subscribers", this, ProductChangeHub::subscriberCount)
+                .description("Conexiones SSE abiertas")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Abre una suscripción a los cambios de productos.
+     * @param companyId Solo los productos de esta compañía, o null para todos.
+     * @return Emisor SSE que el controlador devuelve como respuesta.
+     */
+    public SseEmitter subscribe(Long companyId) {
+        SseEmitter emitter = newEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, companyId);
+        add(subscriber);
+        emitter.onCompletion(subscriber::disconnected);
+        emitter.onTimeout(subscriber::disconnected);
+        emitter.onError(error -> subscriber.disconnected());
+        return emitter;
+    }
+
+    /**
+     * Recibe un cambio confirmado (o inmediato si no había transacción) y lo deja para el repartidor.
+     * Coste constante: no depende del número de suscriptores ni de compañías (se lleva la cuenta al suscribir
+     * y desconectar). Sin suscriptores no se encola nada, así ninguna escritura provoca una lectura extra de
+     * la BD cuando nadie está escuchando.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (subscriberCount.get() == 0) {
+            return;
+        }
+        pending.merge(event.getProductId(), event, (earlier, later) -> {
+            coalesced.increment();
+            return later.replacing(earlier);
+        });
+        scheduleDispatch();
+    }
+
+    /**
+     * Recibe un cambio de nombre confirmado de una compañía. Como onProductChanged, solo lo anota: el
+     * repartidor lee después sus productos con el nombre nuevo. Varios cambios seguidos se leen una vez.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCompanyRenamed(CompanyRenamedEvent event) {
+        if (subscriberCount.get() == 0) {
+            return;
+        }
+        if (renamedCompanies.putIfAbsent(event.getCompanyId(), event.getPublishedNanos()) != null) {
+            coalesced.increment();
+        }
+        scheduleDispatch();
+    }
+
+    /**
+     * Envía un comentario SSE a todas las conexiones: mantiene vivos los proxies intermedios y
+     * detecta los clientes que se han ido sin cerrar.
+     */
+    @Scheduled(fixedDelayString = "${app.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        allProducts.forEach(Subscriber::offerHeartbeat);
+        byCompany.values().forEach(subscribers -> subscribers.forEach(Subscriber::offerHeartbeat));
+    }
+
+    /**
+     * Busca escrituras bloqueadas más de app.stream.write-timeout-ms: desconecta a esos suscriptores y
+     * añade un hilo de envío por cada una hasta que termine, para que el resto siga recibiendo.
+     */
+    @Scheduled(fixedDelayString = "${app.stream.stall-check-ms:1000}")
+    public void checkStalledWrites() {
+        long now = System.nanoTime();
+        Stream.concat(allProducts.stream(), byCompany.values().stream().flatMap(Set::stream))
+                .forEach(subscriber -> subscriber.checkStalled(now));
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    private void scheduleDispatch() {
+        if (dispatchScheduled.compareAndSet(false, true)) {
+            dispatcher.execute(this::dispatch);
+        }
+    }
+
+    // Hilo repartidor: vacía los cambios pendientes (ya agrupados por producto) hacia los suscriptores.
+    // Los cambios de nombre van después: leen la BD, así que nunca envían un estado anterior al de un evento.
+    private void dispatch() {
+        dispatchScheduled.set(false);
+        for (Long productId : new ArrayList<>(pending.keySet())) {
+            ProductChangedEvent event = pending.remove(productId);
+            if (event == null) {
+                continue;
+            }
+            try {
+                ProductDto product = resolve(event);
+                if (product == null) {
+                    continue; // Borrado después del cambio: llegará (o ha llegado) su propio evento
+                }
+                String name = event.isDeleted() ? EVENT_DELETED : EVENT_UPDATED;
+                allProducts.forEach(subscriber -> subscriber.offer(name, product, event.getPublishedNanos()));
+                Set<Subscriber> companySubscribers = byCompany.get(product.getCompanyId());
+                if (companySubscribers != null) {
+                    companySubscribers.forEach(subscriber -> subscriber.offer(name, product, event.getPublishedNanos()));
+                }
+                Long previousCompanyId = event.getPreviousCompanyId();
+                if (previousCompanyId != null && !previousCompanyId.equals(product.getCompanyId())) {
+                    offerMovedOut(product.getId(), previousCompanyId, event.getPublishedNanos());
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not dispatch change of product {}", productId, e);
+            }
+        }
+        for (Long companyId : new ArrayList<>(renamedCompanies.keySet())) {
+            Long publishedNanos = renamedCompanies.remove(companyId);
+            if (publishedNanos == null) {
+                continue;
+            }
+            try {
+                dispatchRenamedCompany(companyId, publishedNanos);
+            } catch (RuntimeException e) {
+                log.warn("Could not dispatch rename of company {}", companyId, e);
+            }
+        }
+    }
+
+    // Envía de nuevo cada producto de la compañía, ya con su nombre nuevo, leyéndolos por tandas (keyset).
+    private void dispatchRenamedCompany(Long companyId, long publishedNanos) {
+        long lastId = 0L;
+        while (!allProducts.isEmpty() || byCompany.containsKey(companyId)) {
+            List<ProductDto> chunk = productDao.findDtoPageByCompanyId(companyId, lastId,
+                    PageRequest.of(0, RENAMED_COMPANY_CHUNK));
+            for (ProductDto read : chunk) {
+                ProductDto product = withHotStock(read);
+                allProducts.forEach(subscriber -> subscriber.offer(EVENT_UPDATED, product, publishedNanos));
+                Set<Subscriber> companySubscribers = byCompany.get(companyId);
+                if (companySubscribers != null) {
+                    companySubscribers.forEach(subscriber -> subscriber.offer(EVENT_UPDATED, product, publishedNanos));
+                }
+            }
+            if (chunk.size() < RENAMED_COMPANY_CHUNK) {
+                return;
+            }
+            lastId = chunk.get(chunk.size() - 1).getId();
+        }
+    }
+
+    // El producto ya no pertenece a esta compañía: para sus suscriptores es como si se hubiera borrado.
+    private void offerMovedOut(Long productId, Long previousCompanyId, long publishedNanos) {
+        Set<Subscriber> subscribers = byCompany.get(previousCompanyId);
+        if (subscribers != null) {
+            ProductDto tombstone = ProductChangedEvent.tombstone(productId, previousCompanyId);
+            subscribers.forEach(subscriber -> subscriber.offer(EVENT_DELETED, tombstone, publishedNanos));
+        }
+    }
+
+    // Estado que se envía: el del evento o, si no lo trae, una lectura directa de la BD (sin caché, que se
+    // invalida después del commit) con el stock en memoria si el producto está en modo caliente.
+    private ProductDto resolve(ProductChangedEvent event) {
+        ProductDto product = event.getProduct() != null ? event.getProduct()
+                : productDao.findDtoById(event.getProductId()).orElse(null);
+        if (product == null || event.isDeleted()) {
+            return product;
+        }
+        return withHotStock(product);
+    }
+
+    private ProductDto withHotStock(ProductDto product) {
+        Long hotStock = hotStockCounters.available(product.getId());
+        if (hotStock == null) {
+            return product;
+        }
+        return new ProductDto(product.getId(), product.getName(), hotStock.intValue(), product.getPrize(),
+                product.getCompanyId(), product.getCompanyName(), product.getVersion());
+    }
+
+    // Punto de extensión para los tests, que sustituyen el emisor por uno que se bloquea al enviar.
+    SseEmitter newEmitter(long timeout) {
+        return new SseEmitter(timeout);
+    }
+
+    // El pool crece en un hilo por escritura bloqueada (hasta maxStalledWrites) y vuelve a su tamaño al terminar.
+    // La marca del suscriptor se pone con el cerrojo tomado: quien la quite después siempre encoge el pool.
+    private boolean addStalledSender(AtomicBoolean stalled) {
+        synchronized (senders) {
+            if (stalledWrites >= maxStalledWrites || !stalled.compareAndSet(false, true)) {
+                return false;
+            }
+            stalledWrites++;
+            senders.setMaximumPoolSize(senders.getMaximumPoolSize() + 1);
+            senders.setCorePoolSize(senders.getCorePoolSize() + 1); // Arranca un hilo para las tareas en cola
+            return true;
+        }
+    }
+
+    private void removeStalledSender() {
+        synchronized (senders) {
+            stalledWrites--;
+            senders.setCorePoolSize(senders.getCorePoolSize() - 1);
+            senders.setMaximumPoolSize(senders.getMaximumPoolSize() - 1);
+        }
+    }
+
+    // Se añade dentro de compute: así no cae en un conjunto que remove acaba de quitar del mapa por vacío.
+    private void add(Subscriber subscriber) {
+        if (subscriber.companyId == null) {
+            allProducts.add(subscriber);
+        } else {
+            byCompany.compute(subscriber.companyId, (id, subscribers) -> {
+                Set<Subscriber> set = subscribers != null ? subscribers : ConcurrentHashMap.<Subscriber>newKeySet();
+                set.add(subscriber);
+                return set;
+            });
+        }
+        subscriberCount.incrementAndGet();
+    }
+
+    // Puede llamarse dos veces para el mismo suscriptor (descarte y cierre del emisor): solo cuenta la primera.
+    private void remove(Subscriber subscriber) {
+        AtomicBoolean removed = new AtomicBoolean();
+        if (subscriber.companyId == null) {
+            removed.set(allProducts.remove(subscriber));
+        } else {
+            byCompany.computeIfPresent(subscriber.companyId, (id, subscribers) -> {
+                removed.set(subscribers.remove(subscriber));
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+        }
+        if (removed.get()) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    // Una conexión SSE con su buffer de cambios pendientes agrupados por producto.
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Long companyId;
+        private final LinkedHashMap<Long, Pending> buffer = new LinkedHashMap<>(); // Protegido por sí mismo
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicBoolean stalled = new AtomicBoolean(); // Su escritura en curso tiene hilo de reemplazo
+        private volatile long writeStartedNanos; // 0 si no hay ninguna escritura en curso
+        private volatile boolean heartbeatDue;
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, Long companyId) {
+            this.emitter = emitter;
+            this.companyId = companyId;
+        }
+
+        // Llamado desde el repartidor: nunca bloquea.
+        private void offer(String name, ProductDto product, long publishedNanos) {
+            synchronized (buffer) {
+                if (closed) {
+                    return;
+                }
+                if (buffer.containsKey(product.getId())) {
+                    coalesced.increment();
+                } else if (buffer.size() >= bufferSize) {
+                    drop(droppedSlow);
+                    return;
+                }
+                buffer.put(product.getId(), new Pending(name, product, publishedNanos));
+            }
+            scheduleSend();
+        }
+
+        private void offerHeartbeat() {
+            heartbeatDue = true;
+            scheduleSend();
+        }
+
+        private void scheduleSend() {
+            if (!closed && sending.compareAndSet(false, true)) {
+                senders.execute(this::send);
+            }
+        }
+
+        // Hilo de envío: vacía el buffer por tandas hasta dejarlo vacío.
+        private void send() {
+            try {
+                while (!closed) {
+                    List<Pending> batch;
+                    synchronized (buffer) {
+                        batch = new ArrayList<>(buffer.values());
+                        buffer.clear();
+                    }
+                    boolean heartbeat = heartbeatDue;
+                    heartbeatDue = false;
+                    if (batch.isEmpty() && !heartbeat) {
+                        sending.set(false);
+                        // Algo pudo llegar entre el vaciado y el set(false): si es así, seguimos nosotros.
+                        synchronized (buffer) {
+                            if ((buffer.isEmpty() && !heartbeatDue) || !sending.compareAndSet(false, true)) {
+                                return;
+                            }
+                        }
+                        continue;
+                    }
+                    for (Pending item : batch) {
+                        if (closed) {
+                            break;
+                        }
+                        write(SseEmitter.event().name(item.name).data(item.product, MediaType.APPLICATION_JSON));
+                        fanOutLatency.record(System.nanoTime() - item.publishedNanos, TimeUnit.NANOSECONDS);
+                    }
+                    if (heartbeat && batch.isEmpty()) {
+                        write(SseEmitter.event().comment("heartbeat"));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Cliente desconectado o respuesta ya cerrada: el contenedor completa la petición
+                drop(droppedError);
+                return;
+            }
+            complete(); // Descartado por lento mientras se enviaba
+        }
+
+        private void write(SseEmitter.SseEventBuilder event) throws IOException {
+            writeStartedNanos = System.nanoTime();
+            try {
+                emitter.send(event);
+            } finally {
+                writeStartedNanos = 0;
+                if (stalled.compareAndSet(true, false)) {
+                    removeStalledSender();
+                }
+            }
+        }
+
+        // Llamado por la comprobación periódica: una escritura bloqueada demasiado tiempo descarta al cliente.
+        private void checkStalled(long now) {
+            long started = writeStartedNanos;
+            if (started == 0 || now - started < writeTimeoutNanos) {
+                return;
+            }
+            drop(droppedStalled);
+            // Si se alcanza el límite de hilos extra, los demás esperan a que Tomcat corte la escritura
+            if (addStalledSender(stalled) && writeStartedNanos != started && stalled.compareAndSet(true, false)) {
+                removeStalledSender(); // La escritura terminó mientras tanto y ya no quitará el hilo extra
+            }
+        }
+
+        // Desconecta al suscriptor. Complete() espera al envío en curso (el emisor está sincronizado), así que
+        // nunca se llama desde el repartidor: lo hace el hilo de envío activo o una tarea del pool de envío.
+        private void drop(Counter reason) {
+            synchronized (buffer) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                buffer.clear();
+            }
+            reason.increment();
+            remove(this);
+            if (reason == droppedSlow && sending.compareAndSet(false, true)) {
+                senders.execute(this::complete);
+            }
+        }
+
+        // Llamado por el emisor al terminar, caducar o fallar la conexión.
+        private void disconnected() {
+            synchronized (buffer) {
+                closed = true;
+                buffer.clear();
+            }
+            remove(this);
+        }
+
+        private void complete() {
+            try {
+                emitter.complete();
+            } catch (RuntimeException e) {
+                log.debug("Could not complete SSE emitter", e);
+            }
+        }
+    }
+
+    private static final class Pending {
+        private final String name;
+        private final ProductDto product;
+        private final long publishedNanos;
+
+        private Pending(String name, ProductDto product, long publishedNanos) {
+            this.name = name;
+            this.product = product;
+            this.publishedNanos = publishedNanos;
+        }
+    }
+}
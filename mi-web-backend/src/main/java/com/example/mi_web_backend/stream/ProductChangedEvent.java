@@ -0,0 +1,97 @@
+package com.example.mi_web_backend.stream;
+// src/main/java/com/example/mi_web_backend/stream/ProductChangedEvent.java
+
+import com.example.mi_web_backend.dto.ProductDto;
+
+/**
+ * Cambio confirmado de un Producto, publicado por ProductService en el bus de eventos de Spring.
+ * Si no trae el ProductDto (p. ej. tras un cambio de stock) ProductChangeHub lo lee una sola vez
+ * al repartirlo, no una vez por suscriptor.
+ */
+public final class ProductChangedEvent {
+
+    private final Long productId;
+    private final ProductDto product; // Estado nuevo, o null si hay que leerlo
+    private final boolean deleted;
+    private final Long previousCompanyId; // Compañía de la que sale el producto, o null si no cambia de compañía
+    private final long publishedNanos; // Para medir la latencia hasta cada cliente
+
+    private ProductChangedEvent(Long productId, ProductDto product, boolean deleted, Long previousCompanyId,
+                                long publishedNanos) {
+        this.productId = productId;
+        this.product = product;
+        this.deleted = deleted;
+        this.previousCompanyId = previousCompanyId;
+        this.publishedNanos = publishedNanos;
+    }
+
+    /** Producto creado o actualizado, con su estado nuevo. */
+    public static ProductChangedEvent updated(ProductDto product) {
+        return updated(product, null);
+    }
+
+    /**
+     * Producto actualizado, con su estado nuevo.
+     * @param previousCompanyId Compañía anterior si el cambio mueve el producto de compañía, o null.
+     */
+    public static ProductChangedEvent updated(ProductDto product, Long previousCompanyId) {
+        return new ProductChangedEvent(product.getId(), product, false, previousCompanyId, System.nanoTime());
+    }
+
+    /** Producto cambiado del que solo se conoce el ID (cambios de stock, parches). */
+    public static ProductChangedEvent changed(Long productId) {
+        return changed(productId, null);
+    }
+
+    /**
+     * Producto cambiado del que solo se conoce el ID.
+     * @param previousCompanyId Compañía anterior si el cambio mueve el producto de compañía, o null.
+     */
+    public static ProductChangedEvent changed(Long productId, Long previousCompanyId) {
+        return new ProductChangedEvent(productId, null, false, previousCompanyId, System.nanoTime());
+    }
+
+    /** Producto borrado: basta con el ID y la compañía para filtrar a los suscriptores. */
+    public static ProductChangedEvent deleted(Long productId, Long companyId) {
+        return new ProductChangedEvent(productId, tombstone(productId, companyId), true, null, System.nanoTime());
+    }
+
+    /**
+     * Este cambio sustituye a uno anterior del mismo producto aún sin repartir. Conserva la compañía de la
+     * que salió el producto en el anterior: sus suscriptores no han visto todavía que ya no les pertenece.
+     */
+    public ProductChangedEvent replacing(ProductChangedEvent earlier) {
+        if (earlier.previousCompanyId == null || previousCompanyId != null) {
+            return this;
+        }
+        return new ProductChangedEvent(productId, product, deleted, earlier.previousCompanyId, publishedNanos);
+    }
+
+    /** Producto con solo el ID y la compañía: lo que necesita un suscriptor para quitarlo de su vista. */
+    public static ProductDto tombstone(Long productId, Long companyId) {
+        ProductDto tombstone = new ProductDto();
+        tombstone.setId(productId);
+        tombstone.setCompanyId(companyId);
+        return tombstone;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public ProductDto getProduct() {
+        return product;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public Long getPreviousCompanyId() {
+        return previousCompanyId;
+    }
+
+    public long getPublishedNanos() {
+        return publishedNanos;
+    }
+}
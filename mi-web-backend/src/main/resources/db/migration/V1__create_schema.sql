@@ -0,0 +1,37 @@
+-- src/main/resources/db/migration/V1__create_schema.sql
+-- Esquema inicial. SQL común a PostgreSQL (producción) y HSQLDB (tests).
+
+-- Secuencias con incremento 50: coinciden con allocationSize de @SequenceGenerator (optimizador pooled)
+create sequence company_seq start with 1 increment by 50;
+create sequence product_seq start with 1 increment by 50;
+
+create table company (
+    id bigint not null,
+    cif varchar(9) not null,
+    name varchar(28) not null,
+    telephone varchar(9),
+    email varchar(50),
+    direction varchar(100),
+    login varchar(20) not null,
+    password varchar(255) not null,
+    version bigint default 0 not null,
+    constraint pk_company primary key (id),
+    -- Las restricciones únicas crean los índices de las búsquedas por login y por CIF
+    constraint uk_company_cif unique (cif),
+    constraint uk_company_login unique (login)
+);
+
+create table product (
+    id bigint not null,
+    name varchar(28),
+    stock integer,
+    prize double precision,
+    company bigint not null,
+    version bigint default 0 not null,
+    constraint pk_product primary key (id),
+    constraint fk_product_company foreign key (company) references company (id) on delete cascade
+);
+
+-- Productos de una compañía (findByCompanyId, findDtosByCompanyId, ETag por compañía) en orden de ID,
+-- y borrado en cascada sin recorrer la tabla
+create index ix_product_company_id on product (company, id);
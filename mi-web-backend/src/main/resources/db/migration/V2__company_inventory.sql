@@ -0,0 +1,22 @@
+-- src/main/resources/db/migration/V2__company_inventory.sql
+-- Resumen de inventario por compañía (número de productos, unidades y valor del stock).
+-- Lo mantiene ProductService con deltas en la misma transacción que cada escritura, y
+-- CompanyInventoryService lo reconcilia periódicamente con la tabla product.
+
+create table company_inventory (
+    company_id bigint not null,
+    product_count bigint default 0 not null,
+    total_units bigint default 0 not null,
+    total_value double precision default 0 not null,
+    constraint pk_company_inventory primary key (company_id),
+    constraint fk_company_inventory_company foreign key (company_id) references company (id) on delete cascade
+);
+
+-- Top-N de compañías por valor: se recorre el índice hacia atrás (order by total_value desc, company_id desc)
+create index ix_company_inventory_value on company_inventory (total_value, company_id);
+
+-- Carga inicial desde los productos existentes (las compañías sin productos quedan a cero)
+insert into company_inventory (company_id, product_count, total_units, total_value)
+select c.id, count(p.id), coalesce(sum(coalesce(p.stock, 0)), 0), coalesce(sum(coalesce(p.stock, 0) * coalesce(p.prize, 0)), 0)
+from company c left join product p on p.company = c.id
+group by c.id;
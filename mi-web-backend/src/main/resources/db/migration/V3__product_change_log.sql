@@ -0,0 +1,22 @@
+-- src/main/resources/db/migration/V3__product_change_log.sql
+-- Sincronización incremental (GET /api/products/changes): secuencia de cambios por producto y registro de borrados.
+
+-- Bloques de 50 valores que ProductChangeSequence reparte en memoria
+create sequence product_change_seq start with 1 increment by 50;
+
+-- Valor de la secuencia en el último alta o cambio del producto. Las filas anteriores quedan a 0:
+-- no aparecen en ningún delta y los clientes las obtienen en su carga completa inicial.
+alter table product add column change_seq bigint default 0 not null;
+create index ix_product_change_seq on product (change_seq);
+create index ix_product_company_change_seq on product (company, change_seq); -- Delta de una sola compañía
+
+-- Lápidas de los productos borrados (o movidos a otra compañía); se purgan pasada la retención de los tokens
+create table product_tombstone (
+    change_seq bigint not null,
+    product_id bigint not null,
+    company_id bigint not null,
+    deleted_at timestamp not null,
+    constraint pk_product_tombstone primary key (change_seq)
+);
+create index ix_product_tombstone_company on product_tombstone (company_id, change_seq);
+create index ix_product_tombstone_deleted_at on product_tombstone (deleted_at);
@@ -0,0 +1,43 @@
+-- src/main/resources/db/upgrade/upgrade_to_v1.sql
+-- Lleva una base de datos PostgreSQL anterior a Flyway (creada con Script-20.sql o con ddl-auto=update)
+-- a la forma exacta de db/migration/V1__create_schema.sql. No está en db/migration: Flyway no la ejecuta.
+--
+-- Por qué hace falta: con baseline-on-migrate Flyway marca V1 como aplicada SIN ejecutarla, así que las
+-- secuencias pooled (company_seq, product_seq), las columnas version y prize y el índice (company, id)
+-- no se crearían nunca y la validación de Hibernate (ddl-auto=validate) fallaría al arrancar.
+--
+-- Pasos, una sola vez y con la aplicación parada:
+--   1. psql -v ON_ERROR_STOP=1 -f upgrade_to_v1.sql
+--   2. Primer arranque con spring.flyway.baseline-on-migrate=true y spring.flyway.baseline-version=1
+--      (o "flyway baseline -baselineVersion=1"): registra V1 y aplica V2 en adelante.
+--   3. Quitar baseline-on-migrate de la configuración.
+-- Una base de datos vacía no necesita nada de esto: Flyway ejecuta V1 normalmente.
+
+begin;
+
+-- Compañías: ID bigint sin SERIAL, CIF y teléfono varchar, versión para el bloqueo optimista
+alter table company alter column id drop default;
+alter table company alter column id type bigint;
+alter table company alter column cif type varchar(9);
+alter table company alter column telephone type varchar(9);
+alter table company add column if not exists version bigint default 0 not null;
+drop sequence if exists company_id_seq;
+
+-- Productos: mismo cambio de ID y FK bigint, columnas prize y version
+alter table product alter column id drop default;
+alter table product alter column id type bigint;
+alter table product alter column company type bigint;
+alter table product add column if not exists prize double precision;
+alter table product add column if not exists version bigint default 0 not null;
+drop sequence if exists product_id_seq;
+
+-- El optimizador pooled reserva [valor - 49, valor] con cada nextval: el primer valor debe quedar
+-- al menos 50 por encima del mayor ID existente para no repetir ninguno
+create sequence if not exists company_seq increment by 50;
+select setval('company_seq', (select coalesce(max(id), 0) + 50 from company), false);
+create sequence if not exists product_seq increment by 50;
+select setval('product_seq', (select coalesce(max(id), 0) + 50 from product), false);
+
+create index if not exists ix_product_company_id on product (company, id);
+
+commit;
@@ -0,0 +1,89 @@
+package com.example.mi_web_backend.bulkhead;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkheadInterceptorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private BulkheadInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        Map<BulkheadInterceptor.Kind, BulkheadSettings> settings = new EnumMap<>(BulkheadInterceptor.Kind.class);
+        settings.put(BulkheadInterceptor.Kind.POINT, new BulkheadSettings(2, 1, 4, 0, 0, 50));
+        settings.put(BulkheadInterceptor.Kind.HEAVY, new BulkheadSettings(1, 1, 2, 0, 0, 1000));
+        settings.put(BulkheadInterceptor.Kind.WRITE, new BulkheadSettings(1, 1, 2, 0, 0, 100));
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new BulkheadInterceptor(settings, 3, meterRegistry);
+    }
+
+    @Test
+    void fullHeavyBulkheadRejectsWith503ButPointLookupsStillPass() throws Exception {
+        assertThat(interceptor.preHandle(get(), new MockHttpServletResponse(), handler("list"))).isTrue();
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(get(), rejected, handler("list"))).isFalse();
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("3");
+        assertThat(meterRegistry.counter("app.bulkhead.rejected", "bulkhead", "heavy").count()).isEqualTo(1);
+
+        assertThat(interceptor.preHandle(get(), new MockHttpServletResponse(), handler("lookup"))).isTrue();
+    }
+
+    @Test
+    void permitIsReleasedAfterCompletion() throws Exception {
+        MockHttpServletRequest first = get();
+        assertThat(interceptor.preHandle(first, new MockHttpServletResponse(), handler("list"))).isTrue();
+        interceptor.afterCompletion(first, new MockHttpServletResponse(), handler("list"), null);
+
+        assertThat(interceptor.bulkhead(BulkheadInterceptor.Kind.HEAVY).getInFlight()).isZero();
+        assertThat(interceptor.preHandle(get(), new MockHttpServletResponse(), handler("list"))).isTrue();
+    }
+
+    @Test
+    void slowCompletionsShrinkTheLimitAndFastOnesGrowItBack() throws Exception {
+        AdaptiveBulkhead bulkhead = new AdaptiveBulkhead("test", new BulkheadSettings(10, 2, 12, 0, 0, 10));
+        assertThat(bulkhead.tryAcquire()).isTrue();
+        bulkhead.release(TimeUnit.MILLISECONDS.toNanos(50));
+        assertThat(bulkhead.getLimit()).isEqualTo(9);
+
+        for (int round = 0; round < 20; round++) {
+            int limit = bulkhead.getLimit();
+            for (int i = 0; i < limit; i++) {
+                assertThat(bulkhead.tryAcquire()).isTrue();
+            }
+            for (int i = 0; i < limit; i++) {
+                bulkhead.release(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+        assertThat(bulkhead.getLimit()).isEqualTo(12);
+    }
+
+    private static MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", "/api/products");
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Endpoints(), Endpoints.class.getMethod(name));
+    }
+
+    static class Endpoints {
+        @HeavyOperation
+        public void list() {
+        }
+
+        public void lookup() {
+        }
+    }
+}
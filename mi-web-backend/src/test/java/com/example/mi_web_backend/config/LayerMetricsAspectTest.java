@@ -0,0 +1,43 @@
+package com.example.mi_web_backend.config;
+
+import com.example.mi_web_backend.dto.CompanyDto;
+import com.example.mi_web_backend.service.CompanyService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class LayerMetricsAspectTest {
+
+    @Autowired
+    private CompanyService companyService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void serviceAndRepositoryCallsAreTimedByOutcome() {
+        long missingId = -12345L;
+        assertThat(companyService.getCompanyById(missingId)).isEmpty();
+        assertThatThrownBy(() -> companyService.updateCompany(missingId, new CompanyDto(null, "X", null, null)))
+                .isInstanceOf(RuntimeException.class);
+
+        assertThat(count(LayerMetricsAspect.SERVICE_METRIC, "CompanyService", "getCompanyById", "success")).isGreaterThanOrEqualTo(1);
+        assertThat(count(LayerMetricsAspect.SERVICE_METRIC, "CompanyService", "updateCompany", "error")).isGreaterThanOrEqualTo(1);
+        assertThat(count(LayerMetricsAspect.REPOSITORY_METRIC, "CompanyDao", "findById", "success")).isGreaterThanOrEqualTo(2);
+    }
+
+    private long count(String metric, String className, String method, String outcome) {
+        Timer timer = meterRegistry.find(metric)
+                .tag("class", className)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
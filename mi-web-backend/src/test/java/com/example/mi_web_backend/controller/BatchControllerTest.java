@@ -0,0 +1,69 @@
+package com.example.mi_web_backend.controller;
+
+import com.example.mi_web_backend.dto.BatchItemResultDto;
+import com.example.mi_web_backend.dto.BatchResultDto;
+import com.example.mi_web_backend.dto.ProductDto;
+import com.example.mi_web_backend.model.Company;
+import com.example.mi_web_backend.repository.CompanyDao;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba POST /api/products/batch de extremo a extremo: la respuesta es 200 aunque haya rechazos,
+ * con un resultado por elemento en el orden de la petición, también entre varios bloques.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "app.batch.chunk-size=2")
+class BatchControllerTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private CompanyDao companyDao;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void batchReportsEveryItemAcrossChunks() throws Exception {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Long companyId = companyDao.save(new Company(null, suffix, "Batch " + suffix, null, null, null, suffix, "secret")).getId();
+        List<ProductDto> batch = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            batch.add(new ProductDto(null, "Item " + i, i, 1.0, companyId, null, null));
+        }
+        batch.set(3, new ProductDto(null, "Orphan", 1, 1.0, null, null, null));
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/products/batch"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(batch)))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        BatchResultDto result = objectMapper.readValue(response.body(), BatchResultDto.class);
+        assertThat(result.getCreated()).isEqualTo(4);
+        assertThat(result.getRejected()).isEqualTo(1);
+        assertThat(result.getItems()).extracting(BatchItemResultDto::getStatus).containsExactly(
+                BatchItemResultDto.Status.CREATED, BatchItemResultDto.Status.CREATED, BatchItemResultDto.Status.CREATED,
+                BatchItemResultDto.Status.REJECTED, BatchItemResultDto.Status.CREATED);
+        assertThat(result.getItems().get(3).getError()).isEqualTo("Company ID is required to create a Product.");
+        assertThat(result.getItems()).filteredOn(item -> item.getStatus() == BatchItemResultDto.Status.CREATED)
+                .allSatisfy(item -> assertThat(item.getId()).isNotNull());
+    }
+}
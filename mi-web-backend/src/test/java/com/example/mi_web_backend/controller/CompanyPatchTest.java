@@ -0,0 +1,81 @@
+package com.example.mi_web_backend.controller;
+
+import com.example.mi_web_backend.dto.CompanyDto;
+import com.example.mi_web_backend.model.Company;
+import com.example.mi_web_backend.repository.CompanyDao;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba PATCH /api/companies/{id} por HTTP: If-Match con el ETag de la compañía, Prefer
+ * return=representation y los códigos de error de cada caso.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class CompanyPatchTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private CompanyDao companyDao;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void patchHonoursIfMatchAndPrefer() throws Exception {
+        Long id = saveCompany();
+        String eTag = client.send(get(id), HttpResponse.BodyHandlers.discarding()).headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<String> patched = client.send(patch(id, "{\"name\":\"Merged\"}")
+                        .header("If-Match", eTag)
+                        .header(ProductController.PREFER, ProductController.RETURN_REPRESENTATION)
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertThat(patched.statusCode()).isEqualTo(200);
+        assertThat(patched.headers().firstValue(ProductController.PREFERENCE_APPLIED)).hasValue(ProductController.RETURN_REPRESENTATION);
+        CompanyDto company = objectMapper.readValue(patched.body(), CompanyDto.class);
+        assertThat(company.getName()).isEqualTo("Merged");
+        assertThat(patched.headers().firstValue("ETag")).hasValue("\"" + company.getVersion() + "\"").isNotEqualTo(eTag);
+
+        assertThat(status(patch(id, "{\"name\":\"Stale\"}").header("If-Match", eTag))).isEqualTo(412);
+        assertThat(status(patch(id, "{\"address\":null}"))).isEqualTo(204);
+        assertThat(status(patch(id, "{\"name\":null}"))).isEqualTo(400);
+        assertThat(status(patch(id, "{\"login\":\"other\"}"))).isEqualTo(400);
+        assertThat(status(patch(id, "{\"name\":\"Weak\"}").header("If-Match", "W/" + eTag))).isEqualTo(400);
+        assertThat(status(patch(Long.MAX_VALUE, "{\"name\":\"Nobody\"}"))).isEqualTo(404);
+    }
+
+    private int status(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private HttpRequest get(Long id) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/companies/" + id)).build();
+    }
+
+    private HttpRequest.Builder patch(Long id, String body) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/companies/" + id))
+                .header("Content-Type", ProductController.MERGE_PATCH_JSON)
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private Long saveCompany() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        return companyDao.save(new Company(null, suffix, "Patch " + suffix, null, null, null, suffix, "secret")).getId();
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.mi_web_backend.controller;
+
+import com.example.mi_web_backend.dto.ProductDto;
+import com.example.mi_web_backend.model.Company;
+import com.example.mi_web_backend.repository.CompanyDao;
+import com.example.mi_web_backend.service.ProductService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba que Smile y CBOR se negocian por Accept y Content-Type, que cada formato tiene su ETag
+ * y que solo se comprimen las respuestas por encima del umbral.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ContentNegotiationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CompanyDao companyDao;
+
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void binaryFormatsAreAcceptedAndReturned() throws Exception {
+        Long companyId = saveCompany();
+        ObjectMapper smile = smileConverter.getObjectMapper();
+        ObjectMapper cbor = cborConverter.getObjectMapper();
+
+        HttpResponse<byte[]> created = client.send(HttpRequest.newBuilder(uri("/api/products"))
+                        .header("Content-Type", ProductController.SMILE)
+                        .header("Accept", "application/cbor")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(
+                                smile.writeValueAsBytes(new ProductDto(null, "Binary", 3, 1.5, companyId, null, null))))
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        assertThat(created.statusCode()).isEqualTo(201);
+        assertThat(created.headers().firstValue("Content-Type")).hasValueSatisfying(type -> assertThat(type).startsWith("application/cbor"));
+        assertThat(cbor.readValue(created.body(), ProductDto.class).getName()).isEqualTo("Binary");
+
+        HttpResponse<byte[]> list = get("/api/products/by-company/" + companyId, ProductController.SMILE, "identity");
+        // Tomcat reescribe Vary en minúsculas al añadirle accept-encoding
+        assertThat(list.headers().allValues("Vary")).anyMatch(vary -> vary.toLowerCase().contains("accept"));
+        List<ProductDto> products = smile.readValue(list.body(), new TypeReference<List<ProductDto>>() { });
+        assertThat(products).extracting(ProductDto::getName).containsExactly("Binary");
+    }
+
+    @Test
+    void eachFormatHasItsOwnETag() throws Exception {
+        Long companyId = saveCompany();
+        ProductDto product = productService.createProduct(new ProductDto(null, "Tagged", 1, 1.0, companyId, null, null));
+
+        for (String path : List.of("/api/products/" + product.getId(), "/api/companies/" + companyId,
+                "/api/products/by-company/" + companyId)) {
+            String json = get(path, "application/json", "identity").headers().firstValue("ETag").orElseThrow();
+            String cbor = get(path, "application/cbor", "identity").headers().firstValue("ETag").orElseThrow();
+            String smile = get(path, ProductController.SMILE, "identity").headers().firstValue("ETag").orElseThrow();
+
+            assertThat(cbor).as(path).isNotEqualTo(json).isNotEqualTo(smile);
+            assertThat(smile).as(path).isNotEqualTo(json);
+            // El ETag de un formato no sirve para otro: If-None-Match con el de JSON no da 304 en CBOR
+            HttpResponse<byte[]> revalidated = client.send(HttpRequest.newBuilder(uri(path))
+                            .header("Accept", "application/cbor")
+                            .header("If-None-Match", json)
+                            .build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            assertThat(revalidated.statusCode()).as(path).isEqualTo(200);
+        }
+        // La versión sigue al principio: If-Match acepta el ETag de cualquier formato
+        String cbor = get("/api/companies/" + companyId, "application/cbor", "identity").headers().firstValue("ETag").orElseThrow();
+        HttpResponse<Void> patched = client.send(HttpRequest.newBuilder(uri("/api/companies/" + companyId))
+                        .header("Content-Type", ProductController.MERGE_PATCH_JSON)
+                        .header("If-Match", cbor)
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"address\":\"Tagged\"}"))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        assertThat(patched.statusCode()).isEqualTo(204);
+    }
+
+    @Test
+    void onlyResponsesAboveThresholdAreCompressed() throws Exception {
+        Long companyId = saveCompany();
+        List<ProductDto> batch = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            batch.add(new ProductDto(null, "Compressed " + i, i, 9.99, companyId, null, null));
+        }
+        productService.saveProductsBatch(batch);
+        Long productId = productService.getProductsByCompanyId(companyId).get(0).getId();
+
+        HttpResponse<byte[]> large = get("/api/products/by-company/" + companyId, "application/json", "gzip");
+        HttpResponse<byte[]> small = get("/api/products/" + productId, "application/json", "gzip");
+
+        assertThat(large.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        assertThat(large.headers().firstValue("ETag")).hasValueSatisfying(eTag -> assertThat(eTag).startsWith("W/"));
+        String json = new String(new GZIPInputStream(new ByteArrayInputStream(large.body())).readAllBytes());
+        assertThat(json).contains("Compressed 199");
+        assertThat(small.headers().firstValue("Content-Encoding")).isEmpty();
+    }
+
+    private HttpResponse<byte[]> get(String path, String accept, String encoding) throws Exception {
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(uri(path))
+                        .header("Accept", accept)
+                        .header("Accept-Encoding", encoding)
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(response.statusCode()).isEqualTo(200);
+        return response;
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private Long saveCompany() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Company company = companyDao.save(new Company(null, suffix, "Encoding " + suffix, null, null, null, suffix, "secret"));
+        return company.getId();
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.mi_web_backend.controller;
+
+import com.example.mi_web_backend.dto.CompanyDto;
+import com.example.mi_web_backend.dto.CursorPageDto;
+import com.example.mi_web_backend.dto.ProductDto;
+import com.example.mi_web_backend.model.Company;
+import com.example.mi_web_backend.pagination.PageCursor;
+import com.example.mi_web_backend.repository.CompanyDao;
+import com.example.mi_web_backend.service.ProductService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba por HTTP la paginación por cursor de GET /api/products y GET /api/companies: el recorrido
+ * página a página sin huecos ni repetidos hasta next = null, y 400 con un cursor no válido.
+ * Los contextos de otros tests comparten la BD y reservan sus propios bloques de IDs, así que puede haber
+ * filas por encima de las creadas aquí: lo esperado se lee de la tabla y el límite da justo dos páginas.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class CursorPaginationTest {
+
+    private static final TypeReference<CursorPageDto<ProductDto>> PRODUCT_PAGE = new TypeReference<>() { };
+    private static final TypeReference<CursorPageDto<CompanyDto>> COMPANY_PAGE = new TypeReference<>() { };
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CompanyDao companyDao;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void productPagesFollowEachOtherWithoutGapsOrDuplicates() throws Exception {
+        Long companyId = saveCompany();
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            created.add(productService.createProduct(new ProductDto(null, "Paged " + i, i, 1.0, companyId, null, null)).getId());
+        }
+        List<Long> expected = jdbcTemplate.queryForList(
+                "select p.id from product p join company c on c.id = p.company where p.id >= ? order by p.id",
+                Long.class, created.get(0));
+        String query = "/api/products?limit=" + (expected.size() + 1) / 2 + "&cursor=";
+
+        CursorPageDto<ProductDto> first = page(query + PageCursor.encode(created.get(0) - 1), PRODUCT_PAGE);
+        assertThat(first.getNext()).isNotNull();
+        CursorPageDto<ProductDto> second = page(query + first.getNext(), PRODUCT_PAGE);
+        assertThat(second.getNext()).isNull();
+
+        List<Long> walked = first.getItems().stream().map(ProductDto::getId).collect(Collectors.toList());
+        second.getItems().forEach(product -> walked.add(product.getId()));
+        assertThat(walked).containsExactlyElementsOf(expected).containsAll(created);
+    }
+
+    @Test
+    void companyPagesFollowEachOtherWithoutGapsOrDuplicates() throws Exception {
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            created.add(saveCompany());
+        }
+        List<Long> expected = jdbcTemplate.queryForList(
+                "select id from company where id >= ? order by id", Long.class, created.get(0));
+        String query = "/api/companies?limit=" + (expected.size() + 1) / 2 + "&cursor=";
+
+        CursorPageDto<CompanyDto> first = page(query + PageCursor.encode(created.get(0) - 1), COMPANY_PAGE);
+        assertThat(first.getNext()).isNotNull();
+        CursorPageDto<CompanyDto> second = page(query + first.getNext(), COMPANY_PAGE);
+        assertThat(second.getNext()).isNull();
+
+        List<Long> walked = first.getItems().stream().map(CompanyDto::getId).collect(Collectors.toList());
+        second.getItems().forEach(company -> walked.add(company.getId()));
+        assertThat(walked).containsExactlyElementsOf(expected).containsAll(created);
+    }
+
+    @Test
+    void invalidOrNegativeCursorIsBadRequest() throws Exception {
+        String negative = "LTE"; // Base64 URL-safe de "-1"
+        for (String path : List.of("/api/products", "/api/companies")) {
+            assertThat(status(path + "?cursor=" + negative)).as(path).isEqualTo(400);
+            assertThat(status(path + "?cursor=not-a-cursor")).as(path).isEqualTo(400);
+        }
+    }
+
+    private <T> CursorPageDto<T> page(String path, TypeReference<CursorPageDto<T>> type) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).as(path).isEqualTo(200);
+        return objectMapper.readValue(response.body(), type);
+    }
+
+    private int status(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private Long saveCompany() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        return companyDao.save(new Company(null, suffix, "Page " + suffix, null, null, null, suffix, "secret")).getId();
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.mi_web_backend.controller;
+
+import com.example.mi_web_backend.dto.ProductDto;
+import com.example.mi_web_backend.model.Company;
+import com.example.mi_web_backend.repository.CompanyDao;
+import com.example.mi_web_backend.service.ProductService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara, para una respuesta de 10.000 productos (GET /api/products/by-company/{id}), los bytes en la red
+ * y la CPU del servidor al codificarla en JSON, Smile y CBOR, con y sin gzip, y la CPU del cliente al leerla.
+ * Los bytes se miden sobre HTTP con la configuración real de compresión; la CPU, codificando en el propio
+ * hilo (ThreadMXBean) con los mismos ObjectMapper que usan los convertidores.
+ * Se ejecuta con: mvn test -Pperformance [-Dencoding.products=10000 -Dencoding.iterations=50]
+ */
+@Tag("performance")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class EncodingBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(EncodingBenchmarkTest.class);
+    private static final int PRODUCTS = Integer.getInteger("encoding.products", 10_000);
+    private static final int ITERATIONS = Integer.getInteger("encoding.iterations", 50);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CompanyDao companyDao;
+
+    @Autowired
+    private MappingJackson2HttpMessageConverter jsonConverter;
+
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Test
+    void binaryEncodingsAndGzipShrinkLargeResponses() throws Exception {
+        Company company = companyDao.save(new Company(null, "ENCB1", "Encoding benchmark company", null, null, null, "encbench", "secret"));
+        List<ProductDto> batch = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            batch.add(new ProductDto(null, "Product " + i, i % 1000, 1 + (i % 500) / 100.0, company.getId(), null, null));
+        }
+        productService.saveProductsBatch(batch);
+        List<ProductDto> products = productService.getProductsByCompanyId(company.getId());
+
+        Map<String, ObjectMapper> formats = new LinkedHashMap<>();
+        formats.put("application/json", jsonConverter.getObjectMapper());
+        formats.put(ProductController.SMILE, smileConverter.getObjectMapper());
+        formats.put("application/cbor", cborConverter.getObjectMapper());
+
+        Map<String, Long> identityBytes = new LinkedHashMap<>();
+        Map<String, Long> gzipBytes = new LinkedHashMap<>();
+        // La tabla se registra entera al final, en una sola entrada del log
+        StringBuilder report = new StringBuilder(String.format("%d products per response, %d iterations%n", PRODUCTS, ITERATIONS))
+                .append(String.format("%-28s %12s %12s %14s %14s %14s", "format", "bytes", "gzip bytes", "encode us", "encode+gz us", "decode us"));
+        for (Map.Entry<String, ObjectMapper> format : formats.entrySet()) {
+            ObjectMapper mapper = format.getValue();
+            byte[] identity = fetch(company.getId(), format.getKey(), "identity");
+            byte[] gzip = fetch(company.getId(), format.getKey(), "gzip");
+            List<ProductDto> decoded = mapper.readValue(identity, new TypeReference<List<ProductDto>>() { });
+            assertThat(decoded).hasSize(PRODUCTS);
+            identityBytes.put(format.getKey(), (long) identity.length);
+            gzipBytes.put(format.getKey(), (long) gzip.length);
+
+            double encodeMicros = cpuMicrosPerOp(() -> mapper.writeValue(OutputStream.nullOutputStream(), products));
+            double gzipMicros = cpuMicrosPerOp(() -> {
+                try (GZIPOutputStream out = new GZIPOutputStream(OutputStream.nullOutputStream(), 8192)) {
+                    mapper.writeValue(out, products);
+                }
+            });
+            double decodeMicros = cpuMicrosPerOp(() -> mapper.readValue(identity, new TypeReference<List<ProductDto>>() { }));
+            report.append(String.format("%n%-28s %12d %12d %14.0f %14.0f %14.0f", format.getKey(), identity.length, gzip.length,
+                    encodeMicros, gzipMicros, decodeMicros));
+        }
+        log.info("Encoding benchmark:\n{}", report);
+
+        assertThat(identityBytes.get(ProductController.SMILE)).isLessThan(identityBytes.get("application/json"));
+        assertThat(identityBytes.get("application/cbor")).isLessThan(identityBytes.get("application/json"));
+        formats.keySet().forEach(format -> assertThat(gzipBytes.get(format)).isLessThan(identityBytes.get(format)));
+    }
+
+    // Cuerpo tal y como viaja por la red: HttpClient no descomprime
+    private byte[] fetch(Long companyId, String accept, String encoding) throws Exception {
+        HttpResponse<byte[]> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/products/by-company/" + companyId))
+                        .header("Accept", accept)
+                        .header("Accept-Encoding", encoding)
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(response.statusCode()).isEqualTo(200);
+        return response.body();
+    }
+
+    // CPU del hilo por operación, tras un calentamiento igual de largo
+    private static double cpuMicrosPerOp(IoAction action) throws IOException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < ITERATIONS; i++) {
+            action.run();
+        }
+        long start = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            action.run();
+        }
+        return (threads.getCurrentThreadCpuTime() - start) / 1000.0 / ITERATIONS;
+    }
+
+    private interface IoAction {
+        void run() throws IOException;
+    }
+}
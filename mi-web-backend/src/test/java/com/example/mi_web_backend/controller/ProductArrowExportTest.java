@@ -0,0 +1,94 @@
+package com.example.mi_web_backend.controller;
+
+import com.example.mi_web_backend.arrow.ProductArrowExporter;
+import com.example.mi_web_backend.dto.ProductDto;
+import com.example.mi_web_backend.model.Company;
+import com.example.mi_web_backend.repository.CompanyDao;
+import com.example.mi_web_backend.service.ProductService;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.types.pojo.DictionaryEncoding;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba que GET /api/products/export.arrow se lee con un lector Arrow estándar: lotes del tamaño pedido
+ * y companyName resuelto a través del diccionario de cada lote.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ProductArrowExportTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CompanyDao companyDao;
+
+    @Test
+    void exportIsReadableArrowWithDictionaryEncodedCompanyName() throws Exception {
+        Long first = saveCompany("Arrow North");
+        Long second = saveCompany("Arrow South");
+        productService.saveProductsBatch(List.of(
+                new ProductDto(null, "Kettle", 3, 19.5, first, null, null),
+                new ProductDto(null, "Toaster", null, 25.0, second, null, null),
+                new ProductDto(null, "Mug", 40, null, first, null, null)));
+
+        HttpResponse<InputStream> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/products/export.arrow?batchSize=2")).build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValue(ProductArrowExporter.ARROW_STREAM);
+
+        List<String> rows = new ArrayList<>();
+        int maxBatchRows = 0;
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(response.body(), allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            DictionaryEncoding encoding = root.getSchema().findField("companyName").getDictionary();
+            assertThat(encoding).isNotNull();
+            while (reader.loadNextBatch()) {
+                maxBatchRows = Math.max(maxBatchRows, root.getRowCount());
+                BigIntVector companyIds = (BigIntVector) root.getVector("companyId");
+                IntVector companyNames = (IntVector) root.getVector("companyName");
+                VarCharVector dictionary = (VarCharVector) reader.getDictionaryVectors().get(encoding.getId()).getVector();
+                for (int i = 0; i < root.getRowCount(); i++) {
+                    long companyId = companyIds.get(i);
+                    if (companyId == first || companyId == second) {
+                        rows.add(root.getVector("name").getObject(i) + "|" + root.getVector("stock").getObject(i) + "|"
+                                + root.getVector("prize").getObject(i) + "|" + dictionary.getObject(companyNames.get(i)));
+                    }
+                }
+            }
+        }
+
+        assertThat(maxBatchRows).isEqualTo(2);
+        assertThat(rows).containsExactly("Kettle|3|19.5|Arrow North", "Toaster|null|25.0|Arrow South", "Mug|40|null|Arrow North");
+    }
+
+    private Long saveCompany(String name) {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Company company = companyDao.save(new Company(null, suffix, name, null, null, null, suffix, "secret"));
+        return company.getId();
+    }
+}
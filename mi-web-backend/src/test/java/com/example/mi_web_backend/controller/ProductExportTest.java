@@ -0,0 +1,118 @@
+package com.example.mi_web_backend.controller;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba que GET /api/products/export recorre millones de filas con un uso de heap plano.
+ * Usa una HSQLDB en fichero con tablas CACHED para que ni la tabla ni el resultado de la consulta
+ * vivan en el heap y solo se mida lo que retiene la aplicación.
+ * Se ejecuta con: mvn test -Pperformance [-Dexport.rows=2000000]
+ */
+@Tag("performance")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:hsqldb:file:target/export-test/catalog;hsqldb.default_table_type=cached;shutdown=true",
+        // La BD en fichero sobrevive entre ejecuciones: Hibernate la recrea vacía en cada una en lugar de migrarla
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class ProductExportTest {
+
+    private static final int ROWS = Integer.getInteger("export.rows", 2_000_000);
+    private static final int INSERT_BATCH = 10_000;
+    private static final long MAX_RETAINED_GROWTH = 64L * 1024 * 1024;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void exportStreamsWholeCatalogWithFlatHeap() throws Exception {
+        seedCatalog();
+        long baseline = retainedHeapAfterGc();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong peak = new AtomicLong(baseline);
+        Thread sampler = new Thread(() -> {
+            while (running.get()) {
+                peak.accumulateAndGet(retainedHeapAfterGc(), Math::max);
+                sleep(500);
+            }
+        }, "heap-sampler");
+        sampler.start();
+
+        long lines = 0;
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/api/products/export").openConnection();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                assertThat(line).startsWith("{\"id\":");
+                lines++;
+            }
+        } finally {
+            running.set(false);
+            sampler.join();
+        }
+
+        assertThat(connection.getResponseCode()).isEqualTo(200);
+        assertThat(connection.getContentType()).isEqualTo(ProductController.NDJSON);
+        assertThat(lines).isEqualTo(ROWS);
+        assertThat(peak.get() - baseline).isLessThan(MAX_RETAINED_GROWTH);
+    }
+
+    private void seedCatalog() {
+        jdbcTemplate.execute("SET DATABASE DEFAULT RESULT MEMORY ROWS 10000"); // Resultados grandes a disco
+        jdbcTemplate.update("insert into company (id, CIF, name, login, password) values (1, 'B00000001', 'Export Co', 'export', 'secret')");
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (long id = 1; id <= ROWS; id++) {
+            batch.add(new Object[]{id, "Product " + id, (int) (id % 1000), id * 0.01, 1L, 0L});
+            if (batch.size() == INSERT_BATCH || id == ROWS) {
+                jdbcTemplate.batchUpdate("insert into product (id, name, stock, prize, company, change_seq) values (?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+
+    // Suma del heap ocupado tras la última recolección en cada pool: lo que realmente queda retenido.
+    private static long retainedHeapAfterGc() {
+        System.gc();
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (pool.getType() == MemoryType.HEAP && usage != null) {
+                used += usage.getUsed();
+            }
+        }
+        return used;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.mi_web_backend.controller;
+
+import com.example.mi_web_backend.dto.ImportStatusDto;
+import com.example.mi_web_backend.dto.ProductDto;
+import com.example.mi_web_backend.model.Company;
+import com.example.mi_web_backend.repository.CompanyDao;
+import com.example.mi_web_backend.service.ProductImportService;
+import com.example.mi_web_backend.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.PipedReader;
+import java.io.PipedWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba la importación CSV con bloques de 2 filas: filas inválidas rechazadas con su número de línea,
+ * bloques confirmados mientras la importación sigue en curso y consulta del progreso por HTTP.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "app.batch.chunk-size=2")
+class ProductImportTest {
+
+    private static final String HEADER = "name,stock,prize,companyId\n";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductImportService importService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CompanyDao companyDao;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void badRowsAreRejectedWithTheirLineAndTheRestIsImported() throws Exception {
+        Long companyId = saveCompany();
+        String csv = HEADER
+                + "Lamp,10,2.5," + companyId + "\n"                                    // Línea 2
+                + "Broken,many,1.0," + companyId + "\n"                                // Línea 3: stock no numérico
+                + "\n"
+                + "\"Desk, oak\",1,50.0," + companyId + "\n"                           // Línea 5: coma entre comillas
+                + "A name longer than the column allows,1,1.0," + companyId + "\n"     // Línea 6: falla en la BD
+                + "Rolled back,1,1.0," + companyId + "\n"                              // Línea 7: mismo bloque que la 6
+                + "Orphan,1,1.0," + Long.MAX_VALUE + "\n"                              // Línea 8: compañía inexistente
+                + "\"Unterminated,1,1.0," + companyId + "\n"                           // Línea 9
+                + "Chair,4,5.0," + companyId + "\n";                                   // Línea 10: mismo bloque que la 8
+
+        HttpResponse<String> response = post("/api/products/import?importId=" + UUID.randomUUID(), csv);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        ImportStatusDto status = objectMapper.readValue(response.body(), ImportStatusDto.class);
+        assertThat(status.getState()).isEqualTo(ImportStatusDto.State.COMPLETED);
+        assertThat(status.getRowsDone()).isEqualTo(3);
+        assertThat(status.getRowsRejected()).isEqualTo(5);
+        assertThat(status.getRejections()).hasSize(5);
+        assertThat(status.getRejections().get(0)).isEqualTo("line 3: Invalid stock: many");
+        assertThat(status.getRejections().subList(1, 3)).allSatisfy(reason -> assertThat(reason).contains("Chunk rolled back"));
+        assertThat(status.getRejections().get(1)).startsWith("line 6: ");
+        assertThat(status.getRejections().get(2)).startsWith("line 7: ");
+        assertThat(status.getRejections().get(3)).isEqualTo("line 9: Unterminated quoted field.");
+        assertThat(status.getRejections().get(4)).isEqualTo("line 8: Company not found for ID: " + Long.MAX_VALUE);
+        assertThat(productService.getProductsByCompanyId(companyId)).extracting(ProductDto::getName)
+                .containsExactly("Lamp", "Desk, oak", "Chair");
+    }
+
+    @Test
+    void chunksAreCommittedWhileTheImportRunsAndProgressCanBePolled() throws Exception {
+        Long companyId = saveCompany();
+        String importId = UUID.randomUUID().toString();
+        PipedWriter writer = new PipedWriter();
+        PipedReader reader = new PipedReader(writer);
+        CompletableFuture<ImportStatusDto> running = CompletableFuture.supplyAsync(() -> importService.importCsv(importId, reader));
+
+        writer.write(HEADER + "First,1,1.0," + companyId + "\nSecond,1,1.0," + companyId + "\n");
+        writer.flush();
+        ImportStatusDto progress = pollUntilRowsDone(importId, 2);
+
+        assertThat(progress.getState()).isEqualTo(ImportStatusDto.State.RUNNING);
+        assertThat(progress.getFinishedAt()).isNull();
+        // El primer bloque ya está confirmado aunque el CSV no haya terminado
+        assertThat(productService.getProductsByCompanyId(companyId)).extracting(ProductDto::getName)
+                .containsExactly("First", "Second");
+
+        writer.write("Third,1,1.0," + companyId + "\n");
+        writer.close();
+        ImportStatusDto finished = running.get(10, TimeUnit.SECONDS);
+        assertThat(finished.getState()).isEqualTo(ImportStatusDto.State.COMPLETED);
+        assertThat(finished.getRowsDone()).isEqualTo(3);
+        assertThat(status(importId).getFinishedAt()).isNotNull();
+        assertThat(client.send(get("/api/products/imports"), HttpResponse.BodyHandlers.ofString()).body()).contains(importId);
+    }
+
+    @Test
+    void invalidHeaderDuplicateIdAndUnknownImportAreReported() throws Exception {
+        Long companyId = saveCompany();
+        String importId = UUID.randomUUID().toString();
+
+        assertThat(post("/api/products/import", "name,stock\nLamp,1\n").statusCode()).isEqualTo(400);
+        assertThat(post("/api/products/import?importId=" + importId, HEADER + "Lamp,1,1.0," + companyId + "\n").statusCode()).isEqualTo(200);
+        assertThat(post("/api/products/import?importId=" + importId, HEADER).statusCode()).isEqualTo(400);
+        assertThat(client.send(get("/api/products/imports/" + UUID.randomUUID()), HttpResponse.BodyHandlers.discarding())
+                .statusCode()).isEqualTo(404);
+    }
+
+    // Consulta GET /api/products/imports/{id} hasta que se han guardado al menos rows filas
+    private ImportStatusDto pollUntilRowsDone(String importId, long rows) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            HttpResponse<String> response = client.send(get("/api/products/imports/" + importId), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 200) {
+                ImportStatusDto status = objectMapper.readValue(response.body(), ImportStatusDto.class);
+                if (status.getRowsDone() >= rows) {
+                    return status;
+                }
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Import " + importId + " did not reach " + rows + " rows");
+    }
+
+    private ImportStatusDto status(String importId) throws Exception {
+        return objectMapper.readValue(client.send(get("/api/products/imports/" + importId), HttpResponse.BodyHandlers.ofString()).body(),
+                ImportStatusDto.class);
+    }
+
+    private HttpResponse<String> post(String path, String csv) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                        .header("Content-Type", "text/csv")
+                        .POST(HttpRequest.BodyPublishers.ofString(csv))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+    }
+
+    private Long saveCompany() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        return companyDao.save(new Company(null, suffix, "Import " + suffix, null, null, null, suffix, "secret")).getId();
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.mi_web_backend.controller;
+
+import com.example.mi_web_backend.dto.BatchItemResultDto;
+import com.example.mi_web_backend.dto.ProductDto;
+import com.example.mi_web_backend.model.Company;
+import com.example.mi_web_backend.repository.CompanyDao;
+import com.example.mi_web_backend.service.CompanyInventoryService;
+import com.example.mi_web_backend.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba el ETag débil de GET /api/products/by-company/{id}: 304 mientras la lista no cambia y 200
+ * tras cualquier cambio, también cuando el número de productos y las sumas de IDs y versiones coinciden.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ProductListETagTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CompanyDao companyDao;
+
+    @Autowired
+    private CompanyInventoryService inventoryService;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void unchangedListAnswersNotModified() throws Exception {
+        Long companyId = saveCompany();
+        Long id = productService.createProduct(new ProductDto(null, "Tagged", 1, 1.0, companyId, null, null)).getId();
+
+        HttpResponse<String> first = get(companyId, null);
+        String eTag = first.headers().firstValue("ETag").orElseThrow();
+        assertThat(first.statusCode()).isEqualTo(200);
+        assertThat(eTag).startsWith("W/\"");
+
+        HttpResponse<String> revalidated = get(companyId, eTag);
+        assertThat(revalidated.statusCode()).isEqualTo(304);
+        assertThat(revalidated.body()).isEmpty();
+
+        productService.patchProduct(id, Map.of("stock", 2), null);
+        assertThat(get(companyId, eTag).statusCode()).isEqualTo(200);
+        assertThat(get(Long.MAX_VALUE, eTag).statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    void swapWithEqualCountAndSumsChangesTheETag() throws Exception {
+        Long companyId = saveCompany();
+        Long otherId = saveCompany();
+        // IDs consecutivos a, a+1, a+2, a+3: a + (a+3) == (a+1) + (a+2)
+        List<Long> ids = productService.saveProductsBatch(List.of(
+                        new ProductDto(null, "Leaves 1", 1, 1.0, companyId, null, null),
+                        new ProductDto(null, "Joins 1", 1, 1.0, otherId, null, null),
+                        new ProductDto(null, "Joins 2", 1, 1.0, otherId, null, null),
+                        new ProductDto(null, "Leaves 2", 1, 1.0, companyId, null, null)))
+                .getItems().stream().map(BatchItemResultDto::getId).collect(Collectors.toList());
+        assertThat(ids.get(0) + ids.get(3)).isEqualTo(ids.get(1) + ids.get(2));
+        productService.patchProduct(ids.get(0), Map.of("name", "Left 1"), null); // Versión 1, como los que se moverán
+        productService.patchProduct(ids.get(3), Map.of("name", "Left 2"), null);
+        String eTag = get(companyId, null).headers().firstValue("ETag").orElseThrow();
+
+        productService.deleteProducts(List.of(ids.get(0), ids.get(3)));
+        productService.patchProduct(ids.get(1), Map.of("companyId", companyId), null);
+        productService.patchProduct(ids.get(2), Map.of("companyId", companyId), null);
+
+        HttpResponse<String> response = get(companyId, eTag);
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body()).contains("Joins 1", "Joins 2").doesNotContain("Left");
+        assertThat(response.headers().firstValue("ETag")).isPresent().get().isNotEqualTo(eTag);
+    }
+
+    private HttpResponse<String> get(Long companyId, String ifNoneMatch) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/products/by-company/" + companyId))
+                .header("Accept", "application/json");
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private Long saveCompany() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Company company = companyDao.save(new Company(null, suffix, "ETag " + suffix, null, null, null, suffix, "secret"));
+        inventoryService.createEmpty(company.getId());
+        return company.getId();
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.mi_web_backend.jdbc;
+
+import com.example.mi_web_backend.dto.CompanyDto;
+import com.example.mi_web_backend.model.Company;
+import com.example.mi_web_backend.pagination.PageCursor;
+import com.example.mi_web_backend.repository.CompanyDao;
+import com.example.mi_web_backend.service.CompanyService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Enrutado lectura/escritura con dos HSQLDB en memoria: "rw-primary" (migrada por Flyway al arrancar) y
+ * "rw-replica" (migrada aquí). Algunas compañías solo existen en la réplica, así que cada lectura dice de
+ * qué BD ha salido.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:hsqldb:mem:rw-primary",
+        "app.datasource.replicas[0].url=" + ReadWriteRoutingTest.REPLICA_URL + ";ifexists=true",
+        "app.datasource.replica-connection-timeout-ms=500",
+        "app.datasource.replica-health-check-ms=3600000",
+        "app.datasource.read-your-writes-ms=60000"
+})
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ReadWriteRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:hsqldb:mem:rw-replica";
+
+    @Autowired
+    private CompanyService companyService;
+
+    @Autowired
+    private CompanyDao companyDao;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeAll
+    static void createReplica() throws SQLException {
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").load().migrate();
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            for (long id = 900_001; id <= 900_004; id++) {
+                statement.executeUpdate("insert into company (id, cif, name, login, password) values ("
+                        + id + ", 'R" + id + "', 'Replica " + id + "', 'replica" + id + "', 'secret')");
+            }
+        }
+    }
+
+    @AfterEach
+    void clearStickiness() {
+        ReadYourWrites.clear();
+    }
+
+    @Test
+    @Order(1)
+    void readOnlyServiceReadsGoToTheReplica() {
+        assertThat(companyNames()).contains("Replica 900001");
+    }
+
+    @Test
+    @Order(2)
+    void repositoryDefaultsAndWritesStayOnThePrimary() {
+        assertThat(companyDao.findById(900_002L)).isEmpty();
+    }
+
+    @Test
+    @Order(2)
+    void cachedLookupsReadThePrimary() {
+        // Lo que se cachea no puede salir de una réplica con retraso
+        assertThat(companyService.getCompanyById(900_002L)).isEmpty();
+    }
+
+    @Test
+    @Order(3)
+    void readsAfterAWriteStickToThePrimary() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        companyDao.save(new Company(null, suffix, "Primary " + suffix, null, null, null, suffix, "secret"));
+
+        assertThat(ReadYourWrites.isSticky()).isTrue();
+        assertThat(companyNames()).doesNotContain("Replica 900003").contains("Primary " + suffix);
+    }
+
+    @Test
+    @Order(4)
+    void unhealthyReplicaFallsBackToThePrimary() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+        ReadWriteRoutingDataSource routing = dataSource.unwrap(ReadWriteRoutingDataSource.class);
+        routing.checkReplicas();
+
+        assertThat(routing.getHealthyReplicas()).isZero();
+        assertThat(companyNames()).doesNotContain("Replica 900004");
+    }
+
+    private List<String> companyNames() {
+        return companyService.getCompaniesPage(null, PageCursor.MAX_LIMIT).getItems().stream()
+                .map(CompanyDto::getName)
+                .collect(Collectors.toList());
+    }
+}
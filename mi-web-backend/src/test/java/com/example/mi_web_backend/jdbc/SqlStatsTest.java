@@ -0,0 +1,94 @@
+package com.example.mi_web_backend.jdbc;
+
+import com.example.mi_web_backend.model.Company;
+import com.example.mi_web_backend.model.Product;
+import com.example.mi_web_backend.repository.CompanyDao;
+import com.example.mi_web_backend.repository.ProductDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class SqlStatsTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private CompanyDao companyDao;
+
+    @Autowired
+    private ProductDao productDao;
+
+    private Company company;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        company = companyDao.save(new Company(null, suffix, "Sql " + suffix, null, null, null, suffix, "secret"));
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Product product = new Product();
+            product.setName("Counted " + i);
+            product.setStock(i);
+            product.setPrize(1.0);
+            product.setCompany(company);
+            products.add(product);
+        }
+        productId = productDao.saveAll(products).get(0).getId();
+    }
+
+    @Test
+    void endpointsStayWithinTheirStatementBudget() {
+        assertMaxStatements(restTemplate.getForEntity("/api/products/" + productId, String.class), 2);
+        assertMaxStatements(restTemplate.getForEntity("/api/products?limit=50", String.class), 2);
+        assertMaxStatements(restTemplate.getForEntity("/api/products/by-company/" + company.getId(), String.class), 4);
+        assertMaxStatements(restTemplate.getForEntity("/api/companies?limit=50", String.class), 2);
+    }
+
+    @Test
+    void byCompanyReadsEveryProductInOneStatement() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/products/by-company/" + company.getId(), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(Long.parseLong(response.getHeaders().getFirst(SqlStatsFilter.ROWS_HEADER))).isGreaterThanOrEqualTo(30);
+    }
+
+    @Test
+    void measureCountsRepeatedStatementShapes() {
+        SqlStats stats = SqlStats.measure(() -> {
+            for (int i = 0; i < 5; i++) {
+                companyDao.findExistingIds(List.of(company.getId(), (long) -i));
+            }
+        });
+
+        assertThat(stats.getStatements()).isEqualTo(5);
+        assertThat(stats.repeatedShapes(4)).hasSize(1);
+        assertThat(stats.repeatedShapes(5)).isEmpty();
+    }
+
+    @Test
+    void inListsOfAnyLengthShareTheSameShape() {
+        assertThat(SqlStats.shapeOf("select id from company where id in (?, ?, ?)"))
+                .isEqualTo(SqlStats.shapeOf("select id  from company\nwhere id in (?)"));
+    }
+
+    // Presupuesto de sentencias por endpoint (cabecera X-Sql-Statements, activada en los tests)
+    private static void assertMaxStatements(ResponseEntity<?> response, int maxStatements) {
+        assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
+        String statements = response.getHeaders().getFirst(SqlStatsFilter.STATEMENTS_HEADER);
+        assertThat(statements).isNotNull();
+        assertThat(Integer.parseInt(statements)).isLessThanOrEqualTo(maxStatements);
+    }
+}
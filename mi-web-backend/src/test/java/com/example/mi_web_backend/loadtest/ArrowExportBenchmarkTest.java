@@ -0,0 +1,179 @@
+package com.example.mi_web_backend.loadtest;
+
+import com.example.mi_web_backend.dto.CursorPageDto;
+import com.example.mi_web_backend.dto.ProductDto;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara el tiempo de carga completa del catálogo en el cliente (petición, transferencia y decodificación)
+ * con GET /api/products/export.arrow frente a recorrer la lista JSON paginada GET /api/products?limit=500.
+ * El cliente Arrow deja los datos en columnas listas para un dataframe; el JSON, en objetos ProductDto.
+ * Se ejecuta con: mvn test -Pperformance -Dtest=ArrowExportBenchmarkTest [-Darrow.products=500000
+ * -Darrow.batch-size=8192]
+ */
+@Tag("performance")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:hsqldb:mem:arrow-benchmark")
+class ArrowExportBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ArrowExportBenchmarkTest.class);
+    private static final int PRODUCTS = Integer.getInteger("arrow.products", 500_000);
+    private static final int COMPANIES = Integer.getInteger("arrow.companies", 1_000);
+    private static final int BATCH_SIZE = Integer.getInteger("arrow.batch-size", 8192);
+    private static final int JSON_PAGE = 500;
+    private static final int ROUNDS = 3;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    void arrowLoadsWholeCatalogFasterThanJsonList() throws Exception {
+        CatalogSeeder.seed(jdbcTemplate, PRODUCTS, COMPANIES);
+
+        Load arrow = null;
+        Load json = null;
+        for (int round = 0; round <= ROUNDS; round++) { // La ronda 0 es de calentamiento
+            Load arrowRound = loadArrow();
+            Load jsonRound = loadJsonList();
+            if (round > 0) {
+                arrow = arrow == null || arrowRound.millis < arrow.millis ? arrowRound : arrow;
+                json = json == null || jsonRound.millis < json.millis ? jsonRound : json;
+            }
+        }
+
+        log.info(String.format("Full catalog load, %d products (best of %d):%n"
+                        + "  Arrow IPC (batch %d): %6d ms %12d bytes%n"
+                        + "  JSON list (page %d):  %6d ms %12d bytes",
+                PRODUCTS, ROUNDS, BATCH_SIZE, arrow.millis, arrow.bytes, JSON_PAGE, json.millis, json.bytes));
+
+        assertThat(arrow.rows).isEqualTo(PRODUCTS);
+        assertThat(json.rows).isEqualTo(PRODUCTS);
+        assertThat(arrow.checksum).isEqualTo(json.checksum);
+        assertThat(arrow.millis).isLessThan(json.millis);
+    }
+
+    private Load loadArrow() throws Exception {
+        long start = System.nanoTime();
+        HttpResponse<InputStream> response = client.send(
+                HttpRequest.newBuilder(uri("/api/products/export.arrow?batchSize=" + BATCH_SIZE)).build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        assertThat(response.statusCode()).isEqualTo(200);
+        CountingInputStream body = new CountingInputStream(response.body());
+        long rows = 0;
+        double checksum = 0;
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(body, allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            while (reader.loadNextBatch()) {
+                BigIntVector ids = (BigIntVector) root.getVector("id");
+                Float8Vector prizes = (Float8Vector) root.getVector("prize");
+                for (int i = 0; i < root.getRowCount(); i++) {
+                    checksum += ids.get(i) + prizes.get(i);
+                }
+                rows += root.getRowCount();
+            }
+        }
+        return new Load(rows, body.count, (System.nanoTime() - start) / 1_000_000, checksum);
+    }
+
+    private Load loadJsonList() throws Exception {
+        long start = System.nanoTime();
+        long rows = 0;
+        long bytes = 0;
+        double checksum = 0;
+        String cursor = null;
+        do {
+            String path = "/api/products?limit=" + JSON_PAGE
+                    + (cursor == null ? "" : "&cursor=" + URLEncoder.encode(cursor, StandardCharsets.US_ASCII));
+            HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.ofByteArray());
+            assertThat(response.statusCode()).isEqualTo(200);
+            bytes += response.body().length;
+            CursorPageDto<ProductDto> page = objectMapper.readValue(response.body(), new TypeReference<CursorPageDto<ProductDto>>() { });
+            for (ProductDto product : page.getItems()) {
+                checksum += product.getId() + product.getPrize();
+            }
+            rows += page.getItems().size();
+            cursor = page.getNext();
+        } while (cursor != null);
+        return new Load(rows, bytes, (System.nanoTime() - start) / 1_000_000, checksum);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static final class Load {
+        private final long rows;
+        private final long bytes;
+        private final long millis;
+        private final double checksum;
+
+        private Load(long rows, long bytes, long millis, double checksum) {
+            this.rows = rows;
+            this.bytes = bytes;
+            this.millis = millis;
+            this.checksum = checksum;
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.mi_web_backend.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Siembra un catálogo sintético por JDBC en lotes: compañías 1..companies y productos 1..products
+ * repartidos entre ellas por turnos.
+ * Borra antes todo el catálogo y no avanza las secuencias, así que solo debe usarse sobre una BD propia del test.
+ */
+final class CatalogSeeder {
+
+    private static final int INSERT_BATCH = 10_000;
+
+    private CatalogSeeder() {
+    }
+
+    static void seed(JdbcTemplate jdbcTemplate, int products, int companies) {
+        jdbcTemplate.update("delete from product");
+        jdbcTemplate.update("delete from company");
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (long id = 1; id <= companies; id++) {
+            batch.add(new Object[]{id, String.format("B%08d", id), "Company " + id, "login" + id});
+        }
+        jdbcTemplate.batchUpdate("insert into company (id, cif, name, login, password) values (?, ?, ?, ?, 'secret')", batch);
+        batch.clear();
+        for (long id = 1; id <= products; id++) {
+            // Stock alto para que RESERVE_STOCK no se quede sin unidades durante la prueba
+            batch.add(new Object[]{id, "Product " + id, 1_000_000, id * 0.01, (id - 1) % companies + 1});
+            if (batch.size() == INSERT_BATCH || id == products) {
+                jdbcTemplate.batchUpdate("insert into product (id, name, stock, prize, company) values (?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+}
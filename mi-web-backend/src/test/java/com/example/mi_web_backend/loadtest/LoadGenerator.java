@@ -0,0 +1,298 @@
+package com.example.mi_web_backend.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generador de carga HTTP para /api/products y /api/companies con una mezcla ponderada de peticiones.
+ * <ul>
+ *     <li>Bucle cerrado: N clientes que lanzan la siguiente petición al recibir la respuesta anterior
+ *     (mide capacidad máxima).</li>
+ *     <li>Bucle abierto: llegadas a ritmo fijo independientes de las respuestas; la latencia se cuenta
+ *     desde el instante previsto de envío, así las colas del servidor no quedan ocultas
+ *     (coordinated omission).</li>
+ * </ul>
+ * Las latencias se guardan en microsegundos en un HdrHistogram por endpoint.
+ */
+class LoadGenerator {
+
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int FAILED = -1;
+    private static final int SERVICE_UNAVAILABLE = 503; // Rechazo del control de admisión: no es un error
+
+    /** Tipos de petición de la mezcla; los IDs se eligen al azar dentro del dataset sembrado. */
+    enum Endpoint {
+        PRODUCT_BY_ID, PRODUCTS_PAGE, PRODUCTS_BY_COMPANY, COMPANY_BY_ID, COMPANIES_PAGE, RESERVE_STOCK
+    }
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final String productsPath; // Ruta de las lecturas de productos (/api/products o /api/reactive/products)
+    private final long products;
+    private final long companies;
+    private final Endpoint[] wheel; // Cada endpoint aparece tantas veces como su peso
+
+    /**
+     * @param baseUrl URL del servidor, p. ej. http://localhost:8080
+     * @param products Productos sembrados (IDs 1..products).
+     * @param companies Compañías sembradas (IDs 1..companies).
+     * @param mix Pesos por endpoint con el formato "PRODUCT_BY_ID=50,COMPANIES_PAGE=10".
+     * @param concurrency Conexiones/hilos del cliente HTTP.
+     */
+    LoadGenerator(String baseUrl, long products, long companies, String mix, int concurrency) {
+        this(baseUrl, "/api/products", products, companies, mix, concurrency);
+    }
+
+    /**
+     * Igual que el anterior, pero leyendo los productos (PRODUCT_BY_ID, PRODUCTS_PAGE, PRODUCTS_BY_COMPANY)
+     * de otra ruta con la misma forma, p. ej. /api/reactive/products.
+     */
+    LoadGenerator(String baseUrl, String productsPath, long products, long companies, String mix, int concurrency) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newFixedThreadPool(concurrency))
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.baseUrl = baseUrl;
+        this.productsPath = productsPath;
+        this.products = products;
+        this.companies = companies;
+        this.wheel = parseMix(mix);
+    }
+
+    /**
+     * Bucle cerrado: cada cliente espera la respuesta antes de enviar la siguiente petición.
+     */
+    Report runClosedLoop(int concurrency, Duration duration) throws InterruptedException {
+        Report report = new Report("closed-loop");
+        long deadline = System.nanoTime() + duration.toNanos();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        Endpoint endpoint = nextEndpoint();
+                        long sent = System.nanoTime();
+                        int status = send(endpoint);
+                        report.record(endpoint, sent, System.nanoTime(), status);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        report.elapsedNanos = System.nanoTime() - start;
+        workers.shutdown();
+        return report;
+    }
+
+    /**
+     * Bucle abierto: una petición cada 1/rate segundos. Si el servidor no da abasto las peticiones
+     * se acumulan (hasta maxInFlight) y su espera cuenta como latencia.
+     */
+    Report runOpenLoop(int ratePerSecond, int maxInFlight, Duration duration) throws InterruptedException {
+        Report report = new Report("open-loop");
+        long interval = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long total = duration.toNanos() / interval;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long intended = start + i * interval;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            inFlight.acquire();
+            Endpoint endpoint = nextEndpoint();
+            client.sendAsync(request(endpoint), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        try {
+                            report.record(endpoint, intended, System.nanoTime(), error != null ? FAILED : response.statusCode());
+                        } finally {
+                            inFlight.release(); // Sin el permiso la espera final no terminaría nunca
+                        }
+                    });
+        }
+        inFlight.acquire(maxInFlight); // Espera a las respuestas pendientes
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    // Código de estado HTTP, o FAILED si la petición no llegó a completarse
+    private int send(Endpoint endpoint) {
+        try {
+            HttpResponse<Void> response = client.send(request(endpoint), HttpResponse.BodyHandlers.discarding());
+            return response.statusCode();
+        } catch (IOException e) {
+            return FAILED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return FAILED;
+        }
+    }
+
+    private HttpRequest request(Endpoint endpoint) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long productId = random.nextLong(products) + 1;
+        long companyId = random.nextLong(companies) + 1;
+        switch (endpoint) {
+            case PRODUCT_BY_ID:
+                return get(productsPath + "/" + productId);
+            case PRODUCTS_PAGE:
+                return get(productsPath + "?limit=50");
+            case PRODUCTS_BY_COMPANY:
+                return get(productsPath + "/by-company/" + companyId);
+            case COMPANY_BY_ID:
+                return get("/api/companies/" + companyId);
+            case COMPANIES_PAGE:
+                return get("/api/companies?limit=50");
+            case RESERVE_STOCK:
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/api/products/" + productId + "/stock/reserve"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"quantity\":1}"))
+                        .build();
+            default:
+                throw new IllegalArgumentException("Unknown endpoint: " + endpoint);
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private Endpoint nextEndpoint() {
+        return wheel[ThreadLocalRandom.current().nextInt(wheel.length)];
+    }
+
+    private static boolean isSuccess(int status) {
+        return (status >= 200 && status < 300) || status == 304;
+    }
+
+    private static Endpoint[] parseMix(String mix) {
+        List<Endpoint> wheel = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            Endpoint endpoint = Endpoint.valueOf(parts[0].trim().toUpperCase(Locale.ROOT));
+            int weight = Integer.parseInt(parts[1].trim());
+            for (int i = 0; i < weight; i++) {
+                wheel.add(endpoint);
+            }
+        }
+        if (wheel.isEmpty()) {
+            throw new IllegalArgumentException("Empty load mix: " + mix);
+        }
+        return wheel.toArray(new Endpoint[0]);
+    }
+
+    /** Resultado de una ejecución: histograma, errores y rechazos (503) por endpoint. */
+    static class Report {
+
+        private final String name;
+        private final Map<Endpoint, Histogram> histograms = new EnumMap<>(Endpoint.class);
+        private final Map<Endpoint, AtomicLong> errors = new EnumMap<>(Endpoint.class);
+        private final Map<Endpoint, AtomicLong> rejected = new EnumMap<>(Endpoint.class);
+        private long elapsedNanos;
+
+        Report(String name) {
+            this.name = name;
+            for (Endpoint endpoint : Endpoint.values()) {
+                histograms.put(endpoint, new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3));
+                errors.put(endpoint, new AtomicLong());
+                rejected.put(endpoint, new AtomicLong());
+            }
+        }
+
+        void record(Endpoint endpoint, long startNanos, long endNanos, int status) {
+            long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(endNanos - startNanos), HIGHEST_LATENCY_MICROS);
+            histograms.get(endpoint).recordValue(micros);
+            if (status == SERVICE_UNAVAILABLE) {
+                rejected.get(endpoint).incrementAndGet();
+            } else if (!isSuccess(status)) {
+                errors.get(endpoint).incrementAndGet();
+            }
+        }
+
+        long totalRequests() {
+            return histograms.values().stream().mapToLong(Histogram::getTotalCount).sum();
+        }
+
+        long totalErrors() {
+            return errors.values().stream().mapToLong(AtomicLong::get).sum();
+        }
+
+        long totalRejected() {
+            return rejected.values().stream().mapToLong(AtomicLong::get).sum();
+        }
+
+        /** La tabla de {@link #print(PrintStream)} como texto, para el log del test. */
+        String summary() {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            print(new PrintStream(buffer, true, StandardCharsets.UTF_8));
+            return buffer.toString(StandardCharsets.UTF_8);
+        }
+
+        /** Tabla resumen: peticiones/s y p50/p95/p99/p99.9 en milisegundos por endpoint. */
+        void print(PrintStream out) {
+            double seconds = elapsedNanos / 1e9;
+            out.printf(Locale.ROOT, "%n== %s (%.1f s, %d requests, %d errors, %d rejected) ==%n",
+                    name, seconds, totalRequests(), totalErrors(), totalRejected());
+            out.printf(Locale.ROOT, "%-20s %10s %8s %8s %9s %9s %9s %9s %9s%n",
+                    "endpoint", "count", "errors", "503", "req/s", "p50 ms", "p95 ms", "p99 ms", "p999 ms");
+            histograms.forEach((endpoint, histogram) -> {
+                if (histogram.getTotalCount() == 0) {
+                    return;
+                }
+                out.printf(Locale.ROOT, "%-20s %10d %8d %8d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                        endpoint, histogram.getTotalCount(), errors.get(endpoint).get(), rejected.get(endpoint).get(),
+                        histogram.getTotalCount() / seconds,
+                        millis(histogram, 50), millis(histogram, 95), millis(histogram, 99), millis(histogram, 99.9));
+            });
+        }
+
+        /** Escribe la distribución completa de cada endpoint (formato .hgrm, en ms) en el directorio indicado. */
+        void writeHistograms(Path directory) throws IOException {
+            Files.createDirectories(directory);
+            for (Map.Entry<Endpoint, Histogram> entry : histograms.entrySet()) {
+                if (entry.getValue().getTotalCount() == 0) {
+                    continue;
+                }
+                Path file = directory.resolve(name + "-" + entry.getKey().name().toLowerCase(Locale.ROOT) + ".hgrm");
+                try (PrintStream out = new PrintStream(Files.newOutputStream(file), true, "UTF-8")) {
+                    entry.getValue().outputPercentileDistribution(out, 1000.0);
+                }
+            }
+        }
+
+        private static double millis(Histogram histogram, double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.mi_web_backend.loadtest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Prueba de carga de la capa REST contra una HSQLDB en memoria sembrada con un catálogo sintético.
+ * Ejecuta primero un bucle cerrado y después uno abierto y deja en el log peticiones/s y percentiles por
+ * endpoint; las distribuciones completas quedan en target/loadtest/*.hgrm.
+ * Se ejecuta con: mvn test -Pperformance -Dtest=LoadTest [-Dloadtest.products=100000
+ * -Dloadtest.companies=1000 -Dloadtest.concurrency=32 -Dloadtest.duration=30 -Dloadtest.rate=2000
+ * -Dloadtest.mix=PRODUCT_BY_ID=50,PRODUCTS_PAGE=15,...]
+ */
+@Tag("performance")
+// BD propia: el catálogo sembrado usa IDs fijos que chocarían con los de la secuencia en los demás tests
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:hsqldb:mem:loadtest")
+class LoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTest.class);
+    private static final int PRODUCTS = Integer.getInteger("loadtest.products", 100_000);
+    private static final int COMPANIES = Integer.getInteger("loadtest.companies", 1_000);
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 32);
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("loadtest.duration", 30));
+    private static final int RATE = Integer.getInteger("loadtest.rate", 2_000);
+    private static final String MIX = System.getProperty("loadtest.mix",
+            "PRODUCT_BY_ID=50,PRODUCTS_PAGE=15,PRODUCTS_BY_COMPANY=10,COMPANY_BY_ID=15,COMPANIES_PAGE=5,RESERVE_STOCK=5");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        CatalogSeeder.seed(jdbcTemplate, PRODUCTS, COMPANIES);
+    }
+
+    @Test
+    void restEndpointsUnderLoad() throws Exception {
+        LoadGenerator generator = new LoadGenerator("http://localhost:" + port, PRODUCTS, COMPANIES, MIX, CONCURRENCY);
+
+        // Calentamiento (JIT, pool de conexiones, cachés) fuera de la medición
+        generator.runClosedLoop(CONCURRENCY, Duration.ofSeconds(Math.min(10, DURATION.getSeconds())));
+
+        LoadGenerator.Report closed = generator.runClosedLoop(CONCURRENCY, DURATION);
+        log.info(closed.summary());
+        closed.writeHistograms(Paths.get("target", "loadtest"));
+
+        LoadGenerator.Report open = generator.runOpenLoop(RATE, CONCURRENCY * 8, DURATION);
+        log.info(open.summary());
+        open.writeHistograms(Paths.get("target", "loadtest"));
+
+        assertThat(closed.totalRequests()).isPositive();
+        assertThat(closed.totalErrors()).isZero();
+        assertThat(open.totalRequests()).isPositive();
+        assertThat(open.totalErrors()).isZero();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.mi_web_backend.loadtest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comparativa con alta concurrencia de las lecturas de productos bloqueantes (/api/products, JPA sobre JDBC)
+ * frente a las reactivas (/api/reactive/products, R2DBC), con la misma BD y los mismos datos.
+ * H2 en memoria hace de BD local porque tiene driver JDBC y R2DBC sobre la misma base; el pool de hilos de
+ * Tomcat se limita para que se vea el efecto de bloquear un hilo por petición.
+ * Se ejecuta con: mvn test -Pperformance -Dtest=ReactiveLoadComparisonTest [-Dloadtest.concurrency=512
+ * -Dloadtest.tomcat-threads=32 -Dloadtest.duration=30 -Dloadtest.products=100000]
+ */
+@Tag("performance")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactive-compare;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive-compare;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "app.reactive.enabled=true",
+        "server.tomcat.threads.max=${loadtest.tomcat-threads:32}"
+})
+class ReactiveLoadComparisonTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveLoadComparisonTest.class);
+    private static final int PRODUCTS = Integer.getInteger("loadtest.products", 100_000);
+    private static final int COMPANIES = Integer.getInteger("loadtest.companies", 1_000);
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 512);
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("loadtest.duration", 30));
+    private static final String MIX = System.getProperty("loadtest.mix", "PRODUCT_BY_ID=40,PRODUCTS_PAGE=30,PRODUCTS_BY_COMPANY=30");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        CatalogSeeder.seed(jdbcTemplate, PRODUCTS, COMPANIES);
+    }
+
+    @Test
+    void blockingAndReactiveReadsSideBySide() throws Exception {
+        String baseUrl = "http://localhost:" + port;
+        LoadGenerator.Report blocking = run(new LoadGenerator(baseUrl, "/api/products", PRODUCTS, COMPANIES, MIX, CONCURRENCY));
+        LoadGenerator.Report reactive = run(new LoadGenerator(baseUrl, "/api/reactive/products", PRODUCTS, COMPANIES, MIX, CONCURRENCY));
+
+        log.info("Blocking (JPA/JDBC){}", blocking.summary());
+        blocking.writeHistograms(Paths.get("target", "loadtest", "blocking"));
+        log.info("Reactive (R2DBC){}", reactive.summary());
+        reactive.writeHistograms(Paths.get("target", "loadtest", "reactive"));
+
+        assertThat(blocking.totalErrors()).isZero();
+        assertThat(reactive.totalErrors()).isZero();
+        assertThat(reactive.totalRequests()).isPositive();
+    }
+
+    private static LoadGenerator.Report run(LoadGenerator generator) throws InterruptedException {
+        generator.runClosedLoop(CONCURRENCY, Duration.ofSeconds(Math.min(10, DURATION.getSeconds()))); // Calentamiento
+        return generator.runClosedLoop(CONCURRENCY, DURATION);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.mi_web_backend.pagination;
+
+import com.example.mi_web_backend.dto.CursorPageDto;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageCursorTest {
+
+    @Test
+    void cursorRoundTripsAndIsOpaque() {
+        for (long lastId : new long[]{0L, 1L, 42L, Long.MAX_VALUE}) {
+            String cursor = PageCursor.encode(lastId);
+            assertThat(cursor).doesNotContain("=", "+", "/"); // Base64 URL-safe sin relleno: va tal cual en la URL
+            assertThat(PageCursor.decode(cursor)).isEqualTo(lastId);
+        }
+        assertThat(PageCursor.decode(null)).isZero();
+        assertThat(PageCursor.decode("")).isZero();
+    }
+
+    @Test
+    void rejectsInvalidAndNegativeCursors() {
+        String negative = Base64.getUrlEncoder().withoutPadding().encodeToString("-5".getBytes(StandardCharsets.US_ASCII));
+        String notANumber = Base64.getUrlEncoder().withoutPadding().encodeToString("abc".getBytes(StandardCharsets.US_ASCII));
+
+        for (String cursor : List.of(negative, notANumber, "%%%", "12345678901234567890123")) {
+            assertThatThrownBy(() -> PageCursor.decode(cursor)).as(cursor).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void clampsLimit() {
+        assertThat(PageCursor.clampLimit(0)).isEqualTo(PageCursor.DEFAULT_LIMIT);
+        assertThat(PageCursor.clampLimit(-1)).isEqualTo(PageCursor.DEFAULT_LIMIT);
+        assertThat(PageCursor.clampLimit(1)).isEqualTo(1);
+        assertThat(PageCursor.clampLimit(PageCursor.MAX_LIMIT)).isEqualTo(PageCursor.MAX_LIMIT);
+        assertThat(PageCursor.clampLimit(PageCursor.MAX_LIMIT + 1)).isEqualTo(PageCursor.MAX_LIMIT);
+        assertThat(PageCursor.clampLimit(Integer.MAX_VALUE)).isEqualTo(PageCursor.MAX_LIMIT);
+    }
+
+    @Test
+    void extraRowOnlySignalsTheNextPage() {
+        CursorPageDto<Long> full = PageCursor.page(List.of(1L, 2L, 3L), 2, Function.identity());
+        assertThat(full.getItems()).containsExactly(1L, 2L);
+        assertThat(PageCursor.decode(full.getNext())).isEqualTo(2L);
+
+        CursorPageDto<Long> last = PageCursor.page(List.of(3L, 4L), 2, Function.identity());
+        assertThat(last.getItems()).containsExactly(3L, 4L);
+        assertThat(last.getNext()).isNull();
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.mi_web_backend.repository;
+
+import com.example.mi_web_backend.dto.ProductDto;
+import com.example.mi_web_backend.model.Company;
+import com.example.mi_web_backend.model.Product;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Con H2 también en el classpath (tests R2DBC) la BD embebida por defecto sería H2: se fija HSQLDB
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.HSQLDB)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ProductDaoTest {
+
+    @Autowired
+    private ProductDao productDao;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void dtoPageUsesOneStatementRegardlessOfRowCount() {
+        Company company = persistCompany("A");
+        persistProducts(company, 10);
+        assertThat(countStatements(() -> productDao.findDtoPage(0L, PageRequest.of(0, 1000)))).isEqualTo(1);
+
+        persistProducts(persistCompany("B"), 200);
+        assertThat(countStatements(() -> productDao.findDtoPage(0L, PageRequest.of(0, 1000)))).isEqualTo(1);
+    }
+
+    @Test
+    void dtosByCompanyUseOneStatementAndNoEntityLoads() {
+        Company company = persistCompany("A");
+        persistProducts(company, 50);
+
+        long statements = countStatements(() -> {
+            List<ProductDto> products = productDao.findDtosByCompanyId(company.getId());
+            assertThat(products).hasSize(50);
+            assertThat(products).allSatisfy(dto -> assertThat(dto.getCompanyName()).isEqualTo("Company A"));
+        });
+
+        assertThat(statements).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void versionsByCompanyAreStreamedInIdOrderAndFollowUpdates() {
+        Company company = persistCompany("A");
+        persistProducts(company, 3);
+        persistProducts(persistCompany("B"), 2);
+        List<Object[]> before = versionsOf(company);
+        assertThat(before).extracting(row -> (Long) row[0]).isSorted().hasSize(3);
+
+        Product product = productDao.findByCompanyId(company.getId()).get(1);
+        product.setStock(99);
+        entityManager.flush();
+
+        List<Object[]> after = versionsOf(company);
+        assertThat(after).extracting(row -> row[0]).isEqualTo(before.stream().map(row -> row[0]).collect(Collectors.toList()));
+        assertThat((Long) after.get(1)[1]).isEqualTo((Long) before.get(1)[1] + 1);
+        assertThat(after.get(0)[1]).isEqualTo(before.get(0)[1]);
+    }
+
+    private List<Object[]> versionsOf(Company company) {
+        try (Stream<Object[]> versions = productDao.streamVersionsByCompanyId(company.getId())) {
+            return versions.collect(Collectors.toList());
+        }
+    }
+
+    private long countStatements(Runnable query) {
+        entityManager.clear();
+        statistics.clear();
+        query.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Company persistCompany(String suffix) {
+        Company company = new Company(null, "CIF" + suffix, "Company " + suffix, null, null, null, "login" + suffix, "secret");
+        return entityManager.persist(company);
+    }
+
+    private void persistProducts(Company company, int count) {
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setName("Product " + i);
+            product.setStock(i);
+            product.setPrize(1.5 * i);
+            product.setCompany(company);
+            entityManager.persist(product);
+        }
+        entityManager.flush();
+    }
+}
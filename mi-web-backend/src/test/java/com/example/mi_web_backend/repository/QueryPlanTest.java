@@ -0,0 +1,196 @@
+package com.example.mi_web_backend.repository;
+
+import com.example.mi_web_backend.model.Company;
+import com.example.mi_web_backend.model.Product;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba sobre el esquema real (migraciones de Flyway en HSQLDB) que las consultas principales de
+ * ProductDao y CompanyDao usan índices: captura el SQL que genera Hibernate, pide su plan con
+ * EXPLAIN PLAN FOR y falla si algún acceso a una tabla real es un FULL SCAN. Las listas IN (?, ?) aparecen
+ * como una tabla interna SYSTEM_SUBQUERY que HSQLDB siempre recorre entera; esa no cuenta.
+ */
+// Con H2 también en el classpath (tests R2DBC) la BD embebida por defecto sería H2: se fija HSQLDB
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.HSQLDB)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.example.mi_web_backend.repository.QueryPlanTest$CapturingInspector")
+class QueryPlanTest {
+
+    @Autowired
+    private ProductDao productDao;
+
+    @Autowired
+    private CompanyDao companyDao;
+
+    @Autowired
+    private CompanyInventoryDao companyInventoryDao;
+
+    @Autowired
+    private ProductTombstoneDao productTombstoneDao;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static final String IN_LIST_TABLE = "SYSTEM_SUBQUERY"; // Valores de una lista IN con parámetros
+
+    private Long companyId;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        Company company = entityManager.persist(new Company(null, "B12345678", "Plan Co", null, null, null, "plan", "secret"));
+        Product product = new Product();
+        product.setName("Planned");
+        product.setStock(10);
+        product.setPrize(1.0);
+        product.setCompany(company);
+        entityManager.persist(product);
+        entityManager.flush();
+        entityManager.clear();
+        companyId = company.getId();
+        productId = product.getId();
+    }
+
+    @Test
+    void productQueriesUseIndexes() {
+        assertNoFullScan(() -> productDao.findById(productId));
+        assertNoFullScan(() -> productDao.existsById(productId));
+        assertNoFullScan(() -> productDao.findByCompanyId(companyId));
+        assertNoFullScan(() -> productDao.findDtoById(productId));
+        assertNoFullScan(() -> productDao.findDtosByCompanyId(companyId));
+        assertNoFullScan(() -> productDao.findDtoPage(productId, PageRequest.of(0, 50)));
+        assertNoFullScan(() -> productDao.findDtosByIdIn(List.of(productId, productId + 1)));
+        assertNoFullScan(() -> {
+            try (Stream<Object[]> versions = productDao.streamVersionsByCompanyId(companyId)) {
+                assertThat(versions.count()).isEqualTo(1);
+            }
+        });
+        assertNoFullScan(() -> productDao.reserveStock(productId, 1, 1L));
+        assertNoFullScan(() -> productDao.releaseStock(productId, 1, 2L));
+    }
+
+    @Test
+    void changeQueriesUseIndexes() {
+        assertNoFullScan(() -> productDao.findChangedBetween(0L, 100L, PageRequest.of(0, 51)));
+        assertNoFullScan(() -> productDao.findChangedBetweenByCompany(companyId, 0L, 100L, PageRequest.of(0, 51)));
+        assertNoFullScan(() -> productTombstoneDao.findBetween(0L, 100L, PageRequest.of(0, 51)));
+        assertNoFullScan(() -> productTombstoneDao.findBetweenByCompany(companyId, 0L, 100L, PageRequest.of(0, 51)));
+        assertNoFullScan(() -> productTombstoneDao.findRemovedAfter(companyId, 0L, PageRequest.of(0, 51)));
+        assertNoFullScan(() -> productTombstoneDao.deleteOlderThan(Instant.now()));
+    }
+
+    @Test
+    void companyQueriesUseIndexes() {
+        assertNoFullScan(() -> companyDao.findById(companyId));
+        assertNoFullScan(() -> companyDao.existsById(companyId));
+        assertNoFullScan(() -> companyDao.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 50)));
+        assertNoFullScan(() -> companyDao.findExistingIds(List.of(companyId, companyId + 1)));
+        // Búsquedas por login y CIF (restricciones únicas)
+        assertThat(fullScans(explain("select id from company where login = ?"))).isEmpty();
+        assertThat(fullScans(explain("select id from company where cif = ?"))).isEmpty();
+    }
+
+    @Test
+    void inventoryQueriesUseIndexes() {
+        assertNoFullScan(() -> companyInventoryDao.findDtoByCompanyId(companyId));
+        assertNoFullScan(() -> companyInventoryDao.computeDtoByCompanyId(companyId));
+        assertNoFullScan(() -> companyInventoryDao.lockByCompanyId(companyId));
+        assertNoFullScan(() -> companyInventoryDao.applyDelta(companyId, 1, 10, 10.0));
+        assertNoFullScan(() -> companyInventoryDao.applyStockDelta(productId, -1));
+    }
+
+    private void assertNoFullScan(Runnable query) {
+        CapturingInspector.clear();
+        query.run();
+        List<String> statements = CapturingInspector.statements();
+        assertThat(statements).isNotEmpty();
+        for (String sql : statements) {
+            String plan = explain(sql);
+            assertThat(fullScans(plan)).as(sql + "\n" + plan).isEmpty();
+        }
+    }
+
+    // Tablas reales recorridas enteras según el plan (cada "range variable" lleva table=... y después access=...).
+    private static List<String> fullScans(String plan) {
+        List<String> tables = new ArrayList<>();
+        String table = null;
+        for (String line : plan.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("table=")) {
+                table = trimmed.substring("table=".length());
+            } else if (trimmed.startsWith("access=FULL SCAN") && table != null && !table.equals(IN_LIST_TABLE)) {
+                tables.add(table);
+            }
+        }
+        return tables;
+    }
+
+    // Plan de HSQLDB para la sentencia; los parámetros se dejan a NULL porque EXPLAIN no la ejecuta.
+    private String explain(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN PLAN FOR " + sql)) {
+                ParameterMetaData parameters = statement.getParameterMetaData();
+                for (int i = 1; i <= parameters.getParameterCount(); i++) {
+                    statement.setNull(i, parameters.getParameterType(i));
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        plan.append(rows.getString(1)).append('\n');
+                    }
+                }
+                return plan.toString();
+            }
+        });
+    }
+
+    /** Guarda las SELECT/UPDATE/DELETE que Hibernate envía a la BD. */
+    public static class CapturingInspector implements StatementInspector {
+
+        private static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public String inspect(String sql) {
+            String verb = sql.trim().toLowerCase(Locale.ROOT);
+            if (verb.startsWith("select") || verb.startsWith("update") || verb.startsWith("delete")) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+
+        static void clear() {
+            STATEMENTS.clear();
+        }
+
+        static List<String> statements() {
+            synchronized (STATEMENTS) {
+                return new ArrayList<>(STATEMENTS);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.mi_web_backend.search;
+
+import com.example.mi_web_backend.repository.ProductDao;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Mide la latencia de búsqueda sobre un índice con un millón de productos de nombres sintéticos
+ * ("marca categoría modelo"): las marcas son selectivas (~500 productos cada una) y las categorías
+ * muy comunes (~40.000), que es el peor caso porque todos los candidatos se verifican y puntúan.
+ * Se ejecuta con: mvn test -Pperformance [-Dsearch.products=1000000 -Dsearch.queries=20000]
+ */
+@Tag("performance")
+class ProductSearchBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchBenchmarkTest.class);
+    private static final int PRODUCTS = Integer.getInteger("search.products", 1_000_000);
+    private static final int QUERIES = Integer.getInteger("search.queries", 20_000);
+    private static final int COMPANIES = 500;
+    private static final int BRANDS = 2_000;
+    private static final String[] SYLLABLES = {
+            "ba", "ce", "di", "fo", "gu", "la", "me", "ni", "po", "ru", "sa", "te", "vi", "zo", "mar", "tel",
+            "kron", "lux", "nor", "vex", "qua", "dor", "pil", "sin", "tra", "bel", "cor", "fin", "gal", "mon"
+    };
+    private static final String[] CATEGORIES = {
+            "cafetera", "tostadora", "batidora", "microondas", "nevera", "lavadora", "secadora", "plancha",
+            "aspiradora", "ventilador", "estufa", "horno", "freidora", "licuadora", "exprimidor", "hervidor",
+            "altavoz", "monitor", "teclado", "raton", "router", "camara", "tablet", "reloj", "auricular"
+    };
+
+    @Test
+    void searchesAMillionProductsInUnderAMillisecond() {
+        ProductSearchIndex index = new ProductSearchIndex(mock(ProductDao.class), mock(PlatformTransactionManager.class));
+        Random random = new Random(42);
+        String[] brands = new String[BRANDS];
+        for (int i = 0; i < BRANDS; i++) {
+            brands[i] = SYLLABLES[random.nextInt(SYLLABLES.length)] + SYLLABLES[random.nextInt(SYLLABLES.length)]
+                    + SYLLABLES[random.nextInt(SYLLABLES.length)] + i;
+        }
+        long buildStart = System.nanoTime();
+        for (long id = 1; id <= PRODUCTS; id++) {
+            long companyId = 1 + random.nextInt(COMPANIES);
+            String name = brands[random.nextInt(BRANDS)] + " " + CATEGORIES[random.nextInt(CATEGORIES.length)] + " " + (id % 1000);
+            index.put(id, name.length() > 28 ? name.substring(0, 28) : name, companyId, "Compañía " + companyId);
+        }
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+        long[] selective = measure(index, () -> brands[random.nextInt(BRANDS)]);
+        long[] common = measure(index, () -> CATEGORIES[random.nextInt(CATEGORIES.length)]);
+        log.info(String.format("Search index: %d products built in %d ms; top-20 latency selective p50 %.1f us p99 %.1f us,"
+                        + " common p50 %.1f us p99 %.1f us",
+                PRODUCTS, buildMillis, percentile(selective, 0.5) / 1000.0, percentile(selective, 0.99) / 1000.0,
+                percentile(common, 0.5) / 1000.0, percentile(common, 0.99) / 1000.0));
+
+        assertThat(index.search(brands[0], ProductSearchIndex.Field.NAME, 20)).isNotEmpty();
+        assertThat(percentile(selective, 0.5)).isLessThan(1_000_000L);
+    }
+
+    private static long[] measure(ProductSearchIndex index, Supplier<String> queries) {
+        for (int i = 0; i < 2_000; i++) { // Calentamiento
+            index.search(queries.get(), ProductSearchIndex.Field.NAME, 20);
+        }
+        long[] latencies = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String query = queries.get();
+            long start = System.nanoTime();
+            List<Long> result = index.search(query, ProductSearchIndex.Field.NAME, 20);
+            latencies[i] = System.nanoTime() - start;
+            assertThat(result).hasSizeLessThanOrEqualTo(20);
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * percentile))];
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.mi_web_backend.search;
+
+import com.example.mi_web_backend.repository.ProductDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(mock(ProductDao.class), mock(PlatformTransactionManager.class));
+        index.put(1L, "Cafetera italiana", 10L, "Cocinas Pérez");
+        index.put(2L, "Café molido", 10L, "Cocinas Pérez");
+        index.put(3L, "Taza de café", 20L, "Menaje Sur");
+        index.put(4L, "Café", 20L, "Menaje Sur");
+    }
+
+    @Test
+    void ranksExactThenPrefixThenWordStartAndIgnoresAccents() {
+        assertThat(index.search("CAFE", ProductSearchIndex.Field.NAME, 10)).containsExactly(4L, 2L, 1L, 3L);
+        assertThat(index.search("cafe", ProductSearchIndex.Field.NAME, 2)).containsExactly(4L, 2L);
+        assertThat(index.search("te", ProductSearchIndex.Field.NAME, 10)).containsExactly(1L); // Consulta corta: recorrido lineal
+        assertThat(index.search("xyz", ProductSearchIndex.Field.NAME, 10)).isEmpty();
+    }
+
+    @Test
+    void followsUpdatesAndDeletes() {
+        index.updateName(2L, "Té verde");
+        index.remove(4L);
+
+        assertThat(index.search("cafe", ProductSearchIndex.Field.NAME, 10)).containsExactly(1L, 3L);
+        assertThat(index.search("verde", ProductSearchIndex.Field.NAME, 10)).containsExactly(2L);
+    }
+
+    @Test
+    void searchesByCompanyNameAndFollowsRenames() {
+        assertThat(index.search("perez", ProductSearchIndex.Field.COMPANY, 10)).containsExactly(1L, 2L);
+
+        index.renameCompany(10L, "Hogar Norte");
+        index.updateCompany(3L, 10L, "Hogar Norte");
+
+        assertThat(index.search("perez", ProductSearchIndex.Field.COMPANY, 10)).isEmpty();
+        assertThat(index.search("norte", ProductSearchIndex.Field.COMPANY, 10)).containsExactlyInAnyOrder(1L, 2L, 3L);
+
+        index.removeCompany(20L);
+        assertThat(index.search("cafe", ProductSearchIndex.Field.NAME, 10)).containsExactly(2L, 1L, 3L);
+    }
+}
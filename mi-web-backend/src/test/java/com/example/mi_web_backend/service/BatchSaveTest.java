@@ -0,0 +1,102 @@
+package com.example.mi_web_backend.service;
+
+import com.example.mi_web_backend.dto.BatchItemResultDto;
+import com.example.mi_web_backend.dto.BatchResultDto;
+import com.example.mi_web_backend.dto.CompanyDto;
+import com.example.mi_web_backend.dto.ProductDto;
+import com.example.mi_web_backend.model.Company;
+import com.example.mi_web_backend.repository.CompanyDao;
+import com.example.mi_web_backend.repository.ProductDao;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba las cargas masivas con bloques de 2 elementos: los rechazos por elemento no afectan al resto
+ * y un bloque que falla en la BD solo deshace sus propios elementos.
+ */
+@SpringBootTest(properties = "app.batch.chunk-size=2")
+class BatchSaveTest {
+
+    private static final String TOO_LONG_NAME = "A name longer than the column allows";
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CompanyService companyService;
+
+    @Autowired
+    private ProductDao productDao;
+
+    @Autowired
+    private CompanyDao companyDao;
+
+    @Autowired
+    private CompanyInventoryService inventoryService;
+
+    @Test
+    void productBatchRejectsItemsAndRollsBackOnlyTheFailedChunk() {
+        Long companyId = saveCompany();
+        ProductDto existing = productService.createProduct(new ProductDto(null, "Existing", 1, 1.0, companyId, null, null));
+
+        BatchResultDto result = productService.saveProductsBatch(Arrays.asList(
+                new ProductDto(null, "Saved", 1, 1.0, companyId, null, null),          // Bloque 1
+                null,
+                new ProductDto(null, "Rolled back", 1, 1.0, companyId, null, null),    // Bloque 2: falla en la BD
+                new ProductDto(null, TOO_LONG_NAME, 1, 1.0, companyId, null, null),
+                new ProductDto(null, "No company", 1, 1.0, Long.MAX_VALUE, null, null), // Bloque 3
+                new ProductDto(existing.getId(), null, 7, null, null, null, null),
+                new ProductDto(Long.MAX_VALUE, "Missing", 1, 1.0, null, null, null))); // Bloque 4
+
+        assertThat(result.getCreated()).isEqualTo(1);
+        assertThat(result.getUpdated()).isEqualTo(1);
+        assertThat(result.getRejected()).isEqualTo(5);
+        List<BatchItemResultDto> items = result.getItems();
+        assertThat(items).extracting(BatchItemResultDto::getIndex).containsExactly(0, 1, 2, 3, 4, 5, 6);
+        assertThat(items.get(1).getError()).isEqualTo("Empty item.");
+        assertThat(items.get(2).getError()).startsWith("Chunk rolled back");
+        assertThat(items.get(3).getError()).startsWith("Chunk rolled back");
+        assertThat(items.get(4).getError()).isEqualTo("Company not found for ID: " + Long.MAX_VALUE);
+        assertThat(items.get(5).getStatus()).isEqualTo(BatchItemResultDto.Status.UPDATED);
+        assertThat(items.get(6).getError()).isEqualTo("Product not found with id: " + Long.MAX_VALUE);
+
+        assertThat(productService.getProductsByCompanyId(companyId)).extracting(ProductDto::getName)
+                .containsExactly("Existing", "Saved");
+        assertThat(productDao.findById(existing.getId()).orElseThrow().getStock()).isEqualTo(7);
+        assertThat(inventoryService.getInventorySummary(companyId).orElseThrow().getTotalUnits()).isEqualTo(8);
+    }
+
+    @Test
+    void companyBatchRollsBackOnlyTheFailedChunk() {
+        Long first = saveCompany();
+        Long second = saveCompany();
+        Long third = saveCompany();
+
+        BatchResultDto result = companyService.saveCompaniesBatch(List.of(
+                new CompanyDto(first, "Renamed first", null, null),   // Bloque 1
+                new CompanyDto(Long.MAX_VALUE, "Missing", null, null),
+                new CompanyDto(second, TOO_LONG_NAME, null, null),    // Bloque 2: falla en la BD
+                new CompanyDto(third, "Renamed third", null, null)));
+
+        assertThat(result.getUpdated()).isEqualTo(1);
+        assertThat(result.getRejected()).isEqualTo(3);
+        assertThat(result.getItems().get(1).getError()).isEqualTo("Company not found with id: " + Long.MAX_VALUE);
+        assertThat(result.getItems().get(3).getError()).startsWith("Chunk rolled back");
+        assertThat(companyService.getCompanyById(first).orElseThrow().getName()).isEqualTo("Renamed first");
+        assertThat(companyService.getCompanyById(third).orElseThrow().getName()).startsWith("Batch ");
+    }
+
+    private Long saveCompany() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Company company = companyDao.save(new Company(null, suffix, "Batch " + suffix, null, null, null, suffix, "secret"));
+        inventoryService.createEmpty(company.getId());
+        return company.getId();
+    }
+}
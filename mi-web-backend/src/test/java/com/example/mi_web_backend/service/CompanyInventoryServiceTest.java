@@ -0,0 +1,125 @@
+package com.example.mi_web_backend.service;
+
+import com.example.mi_web_backend.dto.CompanyInventoryDto;
+import com.example.mi_web_backend.dto.ProductDto;
+import com.example.mi_web_backend.dto.StockRequestDto;
+import com.example.mi_web_backend.model.Company;
+import com.example.mi_web_backend.repository.CompanyDao;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class CompanyInventoryServiceTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CompanyInventoryService inventoryService;
+
+    @Autowired
+    private HotStockCounters hotStockCounters;
+
+    @Autowired
+    private CompanyDao companyDao;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void summaryFollowsEveryProductWrite() {
+        Long companyId = saveCompany();
+        Long otherId = saveCompany();
+        ProductDto lamp = productService.createProduct(new ProductDto(null, "Lamp", 10, 2.5, companyId, null, null));
+        ProductDto desk = productService.createProduct(new ProductDto(null, "Desk", 3, 100.0, companyId, null, null));
+        assertSummary(companyId, 2, 13, 325.0);
+
+        productService.updateProduct(lamp.getId(), new ProductDto(null, null, 20, null, null, null, null));
+        productService.patchProduct(desk.getId(), Map.of("prize", 50.0), null);
+        productService.reserveStock(lamp.getId(), 5);
+        productService.releaseStock(lamp.getId(), 2);
+        productService.reserveStock(Arrays.asList(new StockRequestDto(lamp.getId(), 1), new StockRequestDto(desk.getId(), 1)));
+        assertSummary(companyId, 2, 18, 140.0);
+
+        productService.patchProduct(desk.getId(), Map.of("companyId", otherId), null);
+        assertSummary(companyId, 1, 16, 40.0);
+        assertSummary(otherId, 1, 2, 100.0);
+
+        // Reserva de productos de dos compañías: un ajuste por compañía, y ninguno si la reserva se deshace
+        productService.reserveStock(Arrays.asList(new StockRequestDto(desk.getId(), 1), new StockRequestDto(lamp.getId(), 2)));
+        assertSummary(companyId, 1, 14, 35.0);
+        assertSummary(otherId, 1, 1, 50.0);
+        assertThatThrownBy(() -> productService.reserveStock(Arrays.asList(
+                new StockRequestDto(lamp.getId(), 1), new StockRequestDto(desk.getId(), 2))))
+                .isInstanceOf(OutOfStockException.class);
+        assertSummary(companyId, 1, 14, 35.0);
+        assertSummary(otherId, 1, 1, 50.0);
+
+        productService.deleteProduct(lamp.getId());
+        assertSummary(companyId, 0, 0, 0.0);
+    }
+
+    @Test
+    void batchAndHotStockFlushAreIncluded() {
+        Long companyId = saveCompany();
+        productService.saveProductsBatch(List.of(
+                new ProductDto(null, "Pen", 100, 1.0, companyId, null, null),
+                new ProductDto(null, "Ink", 10, 3.0, companyId, null, null)));
+        assertSummary(companyId, 2, 110, 130.0);
+
+        Long penId = productService.getProductsByCompanyId(companyId).get(0).getId();
+        productService.enableHotStock(penId);
+        productService.reserveStock(penId, 40);
+        hotStockCounters.flushAll(); // Puede haberlo hecho ya el volcado programado
+        assertSummary(companyId, 2, 70, 90.0);
+        productService.disableHotStock(penId);
+    }
+
+    @Test
+    void reconciliationCorrectsDrift() {
+        Long companyId = saveCompany();
+        productService.createProduct(new ProductDto(null, "Chair", 4, 1.5, companyId, null, null));
+        jdbcTemplate.update("update product set stock = 7 where company = ?", companyId); // Por fuera de la aplicación
+        assertSummary(companyId, 1, 4, 6.0);
+
+        assertThat(inventoryService.reconcile(companyId)).isTrue();
+        assertSummary(companyId, 1, 7, 10.5);
+        assertThat(inventoryService.reconcile(companyId)).isFalse();
+    }
+
+    @Test
+    void topCompaniesAreOrderedByValue() {
+        Long richest = saveCompany();
+        Long second = saveCompany();
+        productService.createProduct(new ProductDto(null, "Gold", 1_000, 1_000_000.0, richest, null, null));
+        productService.createProduct(new ProductDto(null, "Silver", 1_000, 500_000.0, second, null, null));
+
+        List<CompanyInventoryDto> top = inventoryService.getTopCompaniesByValue(2);
+
+        assertThat(top).extracting(CompanyInventoryDto::getCompanyId).containsExactly(richest, second);
+    }
+
+    private void assertSummary(Long companyId, long products, long units, double value) {
+        CompanyInventoryDto summary = inventoryService.getInventorySummary(companyId).orElseThrow();
+        assertThat(summary.getProductCount()).isEqualTo(products);
+        assertThat(summary.getTotalUnits()).isEqualTo(units);
+        assertThat(summary.getTotalValue()).isEqualTo(value);
+    }
+
+    private Long saveCompany() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Company company = companyDao.save(new Company(null, suffix, "Inventory " + suffix, null, null, null, suffix, "secret"));
+        inventoryService.createEmpty(company.getId());
+        return company.getId();
+    }
+}
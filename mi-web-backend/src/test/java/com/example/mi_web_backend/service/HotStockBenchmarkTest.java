@@ -0,0 +1,101 @@
+package com.example.mi_web_backend.service;
+
+import com.example.mi_web_backend.model.Company;
+import com.example.mi_web_backend.model.Product;
+import com.example.mi_web_backend.repository.CompanyDao;
+import com.example.mi_web_backend.repository.ProductDao;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara operaciones/segundo de reservas sobre un mismo producto por la ruta normal (UPDATE por reserva)
+ * y en modo caliente (contadores en memoria con volcado en lote).
+ * Se ejecuta con: mvn test -Pperformance [-Dhotstock.threads=32 -Dhotstock.seconds=5]
+ */
+@Tag("performance")
+@SpringBootTest
+class HotStockBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(HotStockBenchmarkTest.class);
+
+    private static final int THREADS = Integer.getInteger("hotstock.threads", 32);
+    private static final int SECONDS = Integer.getInteger("hotstock.seconds", 5);
+    private static final int INITIAL_STOCK = 1_000_000_000;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductDao productDao;
+
+    @Autowired
+    private CompanyDao companyDao;
+
+    @Test
+    void hotModeOutperformsRowUpdatesAndFlushesExactStock() throws Exception {
+        Company company = companyDao.save(new Company(null, "HOTBENCH1", "Hot bench", null, null, null, "hotbench", "secret"));
+        Long rowProduct = saveProduct(company);
+        Long hotProduct = saveProduct(company);
+
+        long rowOps = run(() -> productService.reserveStock(rowProduct, 1));
+
+        productService.enableHotStock(hotProduct);
+        long hotOps = run(() -> productService.reserveStock(hotProduct, 1));
+        productService.disableHotStock(hotProduct); // Vuelca el delta pendiente
+
+        log.info("Stock reservations with {} threads over {}s: row updates {} ops/s, hot counters {} ops/s (x{})",
+                THREADS, SECONDS, rowOps / SECONDS, hotOps / SECONDS, String.format("%.1f", hotOps / (double) Math.max(rowOps, 1)));
+
+        assertThat(productDao.findById(rowProduct).orElseThrow().getStock()).isEqualTo(INITIAL_STOCK - rowOps);
+        assertThat(productDao.findById(hotProduct).orElseThrow().getStock()).isEqualTo(INITIAL_STOCK - hotOps);
+        assertThat(hotOps).isGreaterThan(rowOps);
+    }
+
+    // Ejecuta la operación en bucle desde THREADS hilos durante SECONDS segundos y devuelve cuántas se completaron.
+    private long run(Runnable operation) throws InterruptedException {
+        LongAdder completed = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch done = new CountDownLatch(THREADS);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    while (running.get()) {
+                        operation.run();
+                        completed.increment();
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        TimeUnit.SECONDS.sleep(SECONDS);
+        running.set(false);
+        done.await();
+        return completed.sum();
+    }
+
+    private Long saveProduct(Company company) {
+        Product product = new Product();
+        product.setName("Flash sale");
+        product.setStock(INITIAL_STOCK);
+        product.setPrize(1.0);
+        product.setCompany(company);
+        return productDao.save(product).getId();
+    }
+}
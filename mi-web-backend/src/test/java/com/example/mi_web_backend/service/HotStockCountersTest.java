@@ -0,0 +1,218 @@
+package com.example.mi_web_backend.service;
+
+import com.example.mi_web_backend.dto.ProductDto;
+import com.example.mi_web_backend.dto.StockRequestDto;
+import com.example.mi_web_backend.model.Company;
+import com.example.mi_web_backend.repository.CompanyDao;
+import com.example.mi_web_backend.repository.ProductDao;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Comprueba el modo caliente de extremo a extremo: volcado exacto, escrituras de stock absoluto
+ * sin deriva, marcado con reservas por la BD en curso, devolución de reservas de transacciones
+ * deshechas, volcado rechazado por el suelo de la BD y desmarcado con volcado fallido.
+ */
+@SpringBootTest
+class HotStockCountersTest {
+
+    private static final int THREADS = 8; // Reservas concurrentes por la BD mientras se marca el producto
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private HotStockCounters hotStockCounters;
+
+    @Autowired
+    private ProductDao productDao;
+
+    @Autowired
+    private CompanyDao companyDao;
+
+    @Autowired
+    private CompanyInventoryService inventoryService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void hotReservationsAreFlushedExactly() {
+        Long id = saveProduct(20);
+        productService.enableHotStock(id);
+
+        productService.reserveStock(id, 3);
+        productService.releaseStock(id, 1);
+        assertThat(productService.getProductById(id).orElseThrow().getStock()).isEqualTo(18);
+        hotStockCounters.flushAll();
+        assertThat(databaseStock(id)).isEqualTo(18);
+
+        productService.reserveStock(id, 5);
+        productService.disableHotStock(id);
+
+        assertThat(hotStockCounters.isHot(id)).isFalse();
+        assertThat(databaseStock(id)).isEqualTo(13);
+    }
+
+    @Test
+    void absoluteStockWritesReplacePendingDeltasWithoutDrift() {
+        Long id = saveProduct(20);
+        productService.enableHotStock(id);
+        productService.reserveStock(id, 2);
+
+        ProductDto updated = productService.updateProduct(id, new ProductDto(null, null, 50, null, null, null, null));
+        hotStockCounters.flushAll();
+        assertThat(updated.getStock()).isEqualTo(50);
+        assertThat(databaseStock(id)).isEqualTo(50);
+
+        productService.reserveStock(id, 5);
+        ProductDto renamed = productService.updateProduct(id, new ProductDto(null, "Renamed", null, null, null, null, null));
+        assertThat(renamed.getStock()).isEqualTo(45); // Sin stock en el PUT, la reserva pendiente sigue contando
+        productService.patchProduct(id, Map.of("stock", 30), null);
+        productService.reserveStock(id, 1);
+        productService.disableHotStock(id);
+
+        assertThat(databaseStock(id)).isEqualTo(29);
+    }
+
+    @Test
+    void enablingDuringDatabaseReservationsLosesNoUnits() throws Exception {
+        int initialStock = 20_000;
+        Long id = saveProduct(initialStock);
+        AtomicLong confirmed = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            workers.add(pool.submit(() -> {
+                try {
+                    while (true) {
+                        productService.reserveStock(id, 1);
+                        confirmed.incrementAndGet();
+                    }
+                } catch (OutOfStockException e) {
+                    // Agotado: termina este hilo
+                }
+            }));
+        }
+        pool.shutdown();
+        // Cada marcado cae en medio de reservas que iban por la BD, hasta que se agota el stock
+        while (!pool.awaitTermination(1, TimeUnit.MILLISECONDS)) {
+            productService.enableHotStock(id);
+            Thread.sleep(1);
+            productService.disableHotStock(id);
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+
+        assertThat(confirmed.get()).isEqualTo(initialStock); // Ni unidades vendidas dos veces ni perdidas
+        assertThat(databaseStock(id)).isZero();
+    }
+
+    @Test
+    void rejectedFlushKeepsConfirmedReservations() {
+        Long id = saveProduct(10);
+        productService.enableHotStock(id);
+        productService.reserveStock(id, 8);
+        jdbcTemplate.update("update product set stock = 5 where id = ?", id); // Cambio por fuera del modo caliente
+
+        hotStockCounters.flushAll();
+
+        assertThat(databaseStock(id)).isZero(); // Las 8 reservas confirmadas agotan las 5 unidades que quedaban
+        assertThat(hotStockCounters.available(id)).isZero();
+        assertThatThrownBy(() -> productService.reserveStock(id, 1)).isInstanceOf(OutOfStockException.class);
+        productService.disableHotStock(id);
+        assertThat(databaseStock(id)).isZero();
+    }
+
+    @Test
+    void rolledBackMultiItemReservationReturnsHotUnits() {
+        Long first = saveProduct(10);
+        Long second = saveProduct(1);
+        productService.enableHotStock(first);
+        productService.enableHotStock(second);
+
+        assertThatThrownBy(() -> productService.reserveStock(List.of(new StockRequestDto(first, 4), new StockRequestDto(second, 5))))
+                .isInstanceOf(OutOfStockException.class);
+        assertThat(hotStockCounters.available(first)).isEqualTo(10);
+
+        // La transacción del llamante se deshace después de reservar con éxito
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            productService.reserveStock(List.of(new StockRequestDto(first, 4), new StockRequestDto(second, 1)));
+            status.setRollbackOnly();
+        });
+        assertThat(hotStockCounters.available(first)).isEqualTo(10);
+        assertThat(hotStockCounters.available(second)).isEqualTo(1);
+
+        productService.disableHotStock(first);
+        productService.disableHotStock(second);
+        assertThat(databaseStock(first)).isEqualTo(10);
+        assertThat(databaseStock(second)).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedFlushKeepsTheProductHotWithItsDelta() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new QueryTimeoutException("Database unavailable"))
+                .thenReturn(new int[]{1});
+        HotStockCounters counters = new HotStockCounters(jdbcTemplate, mock(PlatformTransactionManager.class),
+                mock(CompanyInventoryService.class), mock(ProductChangeSequence.class));
+        when(jdbcTemplate.queryForList(anyString(), eq(Integer.class), ArgumentMatchers.<Object>any())).thenReturn(List.of(10));
+        counters.enable(1L);
+        counters.tryReserve(1L, 3);
+
+        assertThatThrownBy(() -> counters.disable(1L)).isInstanceOf(IllegalStateException.class);
+        assertThat(counters.isHot(1L)).isTrue();
+        assertThat(counters.tryReserve(1L, 2)).isEqualTo(HotStockCounters.Outcome.APPLIED);
+
+        counters.disable(1L);
+        ArgumentCaptor<List<Object[]>> flushed = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), flushed.capture());
+        assertThat(flushed.getValue().get(0)[0]).isEqualTo(-5L); // El delta del intento fallido no se pierde
+        assertThat(counters.isHot(1L)).isFalse();
+        assertThat(counters.tryReserve(1L, 1)).isEqualTo(HotStockCounters.Outcome.NOT_HOT);
+    }
+
+    private Integer databaseStock(Long id) {
+        return productDao.findById(id).orElseThrow().getStock();
+    }
+
+    private Long saveProduct(int stock) {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Company company = companyDao.save(new Company(null, suffix, "Hot " + suffix, null, null, null, suffix, "secret"));
+        inventoryService.createEmpty(company.getId());
+        return productService.createProduct(new ProductDto(null, "Hot " + suffix, stock, 1.0, company.getId(), null, null)).getId();
+    }
+}
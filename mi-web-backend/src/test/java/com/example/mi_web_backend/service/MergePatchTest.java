@@ -0,0 +1,105 @@
+package com.example.mi_web_backend.service;
+
+import com.example.mi_web_backend.dto.CompanyDto;
+import com.example.mi_web_backend.dto.ProductDto;
+import com.example.mi_web_backend.model.Company;
+import com.example.mi_web_backend.repository.CompanyDao;
+import com.example.mi_web_backend.repository.ProductDao;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Comprueba la semántica de JSON Merge Patch de productos y compañías: solo cambian los campos enviados,
+ * null borra el valor donde se permite, la versión se comprueba en el UPDATE y los errores se distinguen.
+ */
+@SpringBootTest
+class MergePatchTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CompanyService companyService;
+
+    @Autowired
+    private ProductDao productDao;
+
+    @Autowired
+    private CompanyDao companyDao;
+
+    @Autowired
+    private CompanyInventoryService inventoryService;
+
+    @Test
+    void productPatchWithStaleVersionIsRejected() {
+        Long companyId = saveCompany();
+        Long id = productService.createProduct(new ProductDto(null, "Patchable", 10, 1.0, companyId, null, null)).getId();
+        Long version = productDao.findById(id).orElseThrow().getVersion();
+
+        productService.patchProduct(id, Map.of("stock", 5), version);
+
+        assertThatThrownBy(() -> productService.patchProduct(id, Map.of("stock", 6), version))
+                .isInstanceOf(VersionConflictException.class);
+        assertThat(productDao.findById(id).orElseThrow().getStock()).isEqualTo(5);
+        assertThat(productDao.findById(id).orElseThrow().getVersion()).isEqualTo(version + 1);
+    }
+
+    @Test
+    void companyPatchChangesOnlySentFieldsAndBumpsVersion() {
+        Long id = saveCompany();
+        companyService.patchCompany(id, Map.of("address", "Main street 1"), null);
+        CompanyDto before = companyService.getCompanyById(id).orElseThrow();
+        Long productId = productService.createProduct(new ProductDto(null, "Owned", 1, 1.0, id, null, null)).getId();
+        productService.getProductById(productId); // Queda en caché con el nombre actual de la compañía
+
+        companyService.patchCompany(id, Map.of("name", "Patched name", "version", before.getVersion()), null);
+
+        CompanyDto after = companyService.getCompanyById(id).orElseThrow();
+        assertThat(after.getName()).isEqualTo("Patched name");
+        assertThat(after.getAddress()).isEqualTo("Main street 1");
+        assertThat(after.getVersion()).isEqualTo(before.getVersion() + 1);
+        assertThat(productService.getProductById(productId)).map(ProductDto::getCompanyName).hasValue("Patched name");
+
+        Map<String, Object> clearAddress = new HashMap<>();
+        clearAddress.put("address", null);
+        companyService.patchCompany(id, clearAddress, after.getVersion());
+        assertThat(companyService.getCompanyById(id).orElseThrow().getAddress()).isNull();
+    }
+
+    @Test
+    void companyPatchReportsConflictsAndInvalidPatches() {
+        Long id = saveCompany();
+        Long version = companyService.getCompanyById(id).orElseThrow().getVersion();
+        companyService.patchCompany(id, Map.of("name", "First"), version);
+
+        assertThatThrownBy(() -> companyService.patchCompany(id, Map.of("name", "Second"), version))
+                .isInstanceOf(VersionConflictException.class);
+        assertThatThrownBy(() -> companyService.patchCompany(id, Map.of(), version))
+                .isInstanceOf(VersionConflictException.class); // Parche vacío: solo se comprueba la versión
+        Map<String, Object> nullName = new HashMap<>();
+        nullName.put("name", null);
+        assertThatThrownBy(() -> companyService.patchCompany(id, nullName, null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> companyService.patchCompany(id, Map.of("cif", "X"), null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> companyService.patchCompany(id, Map.of("name", 5), null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> companyService.patchCompany(Long.MAX_VALUE, Map.of("name", "Nobody"), null))
+                .isInstanceOf(RuntimeException.class)
+                .isNotInstanceOf(VersionConflictException.class)
+                .hasMessage("Company not found with id: " + Long.MAX_VALUE);
+        assertThat(companyService.getCompanyById(id).orElseThrow().getName()).isEqualTo("First");
+    }
+
+    private Long saveCompany() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Company company = companyDao.save(new Company(null, suffix, "Patch " + suffix, null, null, null, suffix, "secret"));
+        inventoryService.createEmpty(company.getId());
+        return company.getId();
+    }
+}
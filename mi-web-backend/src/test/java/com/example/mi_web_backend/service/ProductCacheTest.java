@@ -0,0 +1,101 @@
+package com.example.mi_web_backend.service;
+
+import com.example.mi_web_backend.config.CacheConfig;
+import com.example.mi_web_backend.dto.CompanyDto;
+import com.example.mi_web_backend.dto.ProductDto;
+import com.example.mi_web_backend.model.Company;
+import com.example.mi_web_backend.repository.CompanyDao;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba la caché de productos por ID: el "no existe" cacheado no sobrevive a la creación del producto
+ * (uno a uno o en bloque) y las escrituras sobre el producto o su compañía invalidan lo cacheado.
+ */
+@SpringBootTest
+class ProductCacheTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CompanyService companyService;
+
+    @Autowired
+    private CompanyDao companyDao;
+
+    @Autowired
+    private CompanyInventoryService inventoryService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void createdProductReplacesCachedMiss() {
+        Long companyId = saveCompany();
+        Long nextId = productService.createProduct(new ProductDto(null, "Before", 1, 1.0, companyId, null, null)).getId() + 1;
+
+        assertThat(productService.getProductById(nextId)).isEmpty();
+        assertThat(productsCache().get(nextId)).isNotNull(); // El "no existe" queda cacheado
+
+        ProductDto created = productService.createProduct(new ProductDto(null, "Created", 1, 1.0, companyId, null, null));
+
+        assertThat(created.getId()).isEqualTo(nextId); // Secuencia pooled: IDs consecutivos en este hilo
+        assertThat(productService.getProductById(nextId)).map(ProductDto::getName).hasValue("Created");
+    }
+
+    @Test
+    void batchCreatedProductsReplaceCachedMisses() {
+        Long companyId = saveCompany();
+        Long nextId = productService.createProduct(new ProductDto(null, "Before", 1, 1.0, companyId, null, null)).getId() + 1;
+        assertThat(productService.getProductById(nextId)).isEmpty();
+        assertThat(productService.getProductById(nextId + 1)).isEmpty();
+
+        productService.saveProductsBatch(List.of(
+                new ProductDto(null, "First", 1, 1.0, companyId, null, null),
+                new ProductDto(null, "Second", 1, 1.0, companyId, null, null)));
+
+        assertThat(productService.getProductById(nextId)).map(ProductDto::getName).hasValue("First");
+        assertThat(productService.getProductById(nextId + 1)).map(ProductDto::getName).hasValue("Second");
+    }
+
+    @Test
+    void productAndCompanyWritesInvalidateCachedProduct() {
+        Long companyId = saveCompany();
+        Long id = productService.createProduct(new ProductDto(null, "Cached", 1, 1.0, companyId, null, null)).getId();
+        assertThat(productService.getProductById(id)).isPresent();
+        assertThat(productsCache().get(id)).isNotNull();
+
+        productService.patchProduct(id, Map.of("name", "Patched"), null);
+        assertThat(productService.getProductById(id)).map(ProductDto::getName).hasValue("Patched");
+
+        productService.updateProduct(id, new ProductDto(null, null, 9, null, null, null, null));
+        assertThat(productService.getProductById(id)).map(ProductDto::getStock).hasValue(9);
+
+        companyService.updateCompany(companyId, new CompanyDto(null, "Renamed company", null, null));
+        assertThat(productService.getProductById(id)).map(ProductDto::getCompanyName).hasValue("Renamed company");
+
+        productService.deleteProduct(id);
+        assertThat(productService.getProductById(id)).isEmpty();
+    }
+
+    private Cache productsCache() {
+        return cacheManager.getCache(CacheConfig.PRODUCTS);
+    }
+
+    private Long saveCompany() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Company company = companyDao.save(new Company(null, suffix, "Cache " + suffix, null, null, null, suffix, "secret"));
+        inventoryService.createEmpty(company.getId());
+        return company.getId();
+    }
+}
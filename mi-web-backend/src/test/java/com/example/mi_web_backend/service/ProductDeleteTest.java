@@ -0,0 +1,142 @@
+package com.example.mi_web_backend.service;
+
+import com.example.mi_web_backend.dto.CompanyInventoryDto;
+import com.example.mi_web_backend.dto.DeleteResultDto;
+import com.example.mi_web_backend.dto.ProductDto;
+import com.example.mi_web_backend.model.Company;
+import com.example.mi_web_backend.repository.CompanyDao;
+import com.example.mi_web_backend.repository.ProductDao;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ProductDeleteTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CompanyService companyService;
+
+    @Autowired
+    private ProductSyncService syncService;
+
+    @Autowired
+    private CompanyInventoryService inventoryService;
+
+    @Autowired
+    private ProductDao productDao;
+
+    @Autowired
+    private CompanyDao companyDao;
+
+    @Test
+    void bulkDeleteRemovesFoundIdsAndReportsMissing() {
+        Long companyId = saveCompany();
+        ProductDto lamp = productService.createProduct(new ProductDto(null, "Lamp", 10, 2.0, companyId, null, null));
+        ProductDto desk = productService.createProduct(new ProductDto(null, "Desk", 1, 50.0, companyId, null, null));
+        ProductDto chair = productService.createProduct(new ProductDto(null, "Chair", 4, 5.0, companyId, null, null));
+        productService.getProductById(lamp.getId()); // Queda en caché
+        String token = syncService.getChanges(null, companyId, 100).getToken();
+
+        DeleteResultDto result = productService.deleteProducts(List.of(lamp.getId(), desk.getId(), lamp.getId(), Long.MAX_VALUE));
+
+        assertThat(result.getDeleted()).isEqualTo(2);
+        assertThat(result.getNotFound()).containsExactly(Long.MAX_VALUE);
+        assertThat(productService.getProductById(lamp.getId())).isEmpty();
+        assertThat(productService.getProductsByCompanyId(companyId)).extracting(ProductDto::getId).containsExactly(chair.getId());
+        assertThat(syncService.getChanges(token, companyId, 100).getDeleted()).containsExactlyInAnyOrder(lamp.getId(), desk.getId());
+        assertSummary(companyId, 1, 4, 20.0);
+    }
+
+    @Test
+    void bulkDeleteRejectsEmptyOrOversizedRequests() {
+        List<Long> tooMany = new ArrayList<>();
+        for (long id = 1; id <= 1001; id++) {
+            tooMany.add(id);
+        }
+
+        assertThatThrownBy(() -> productService.deleteProducts(List.of())).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> productService.deleteProducts(tooMany)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void deleteByCompanyRemovesAllItsProductsInChunks() {
+        Long companyId = saveCompany();
+        Long otherId = saveCompany();
+        List<ProductDto> batch = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) { // Más de un bloque de borrado
+            batch.add(new ProductDto(null, "Bulk " + i, 1, 1.0, companyId, null, null));
+        }
+        productService.saveProductsBatch(batch);
+        ProductDto kept = productService.createProduct(new ProductDto(null, "Kept", 2, 3.0, otherId, null, null));
+
+        DeleteResultDto result = productService.deleteProductsByCompanyId(companyId);
+
+        assertThat(result.getDeleted()).isEqualTo(1500);
+        assertThat(productService.getProductsByCompanyId(companyId)).isEmpty();
+        assertThat(companyService.companyExists(companyId)).isTrue();
+        assertThat(productService.getProductById(kept.getId())).isPresent();
+        assertSummary(companyId, 0, 0, 0.0);
+        assertThatThrownBy(() -> productService.deleteProductsByCompanyId(Long.MAX_VALUE)).isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    void companyDeleteCascadesToItsProductsAndLeavesTombstones() {
+        Long companyId = saveCompany();
+        ProductDto pen = productService.createProduct(new ProductDto(null, "Pen", 5, 1.0, companyId, null, null));
+        ProductDto ink = productService.createProduct(new ProductDto(null, "Ink", 2, 3.0, companyId, null, null));
+        String token = syncService.getChanges(null, null, 100).getToken();
+
+        companyService.deleteCompany(companyId);
+
+        assertThat(productDao.existsById(pen.getId())).isFalse();
+        assertThat(companyService.companyExists(companyId)).isFalse();
+        assertThat(syncService.getChanges(token, null, 500).getDeleted()).contains(pen.getId(), ink.getId());
+        assertThatThrownBy(() -> companyService.deleteCompany(companyId)).isInstanceOf(RuntimeException.class);
+        assertThatThrownBy(() -> productService.deleteProduct(pen.getId())).isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    void companyDeleteEvictsProductsOfEveryChunk() {
+        Long companyId = saveCompany();
+        List<ProductDto> batch = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) { // Más de una tanda de productos borrados
+            batch.add(new ProductDto(null, "Cascade " + i, 1, 1.0, companyId, null, null));
+        }
+        productService.saveProductsBatch(batch);
+        List<Long> ids = productDao.findIdsByCompanyId(companyId, PageRequest.of(0, 2000));
+        Long first = ids.get(0);
+        Long last = ids.get(ids.size() - 1);
+        productService.getProductById(first); // Quedan en caché
+        productService.getProductById(last);
+
+        companyService.deleteCompany(companyId);
+
+        assertThat(productService.getProductById(first)).isEmpty();
+        assertThat(productService.getProductById(last)).isEmpty();
+    }
+
+    private void assertSummary(Long companyId, long products, long units, double value) {
+        CompanyInventoryDto summary = inventoryService.getInventorySummary(companyId).orElseThrow();
+        assertThat(summary.getProductCount()).isEqualTo(products);
+        assertThat(summary.getTotalUnits()).isEqualTo(units);
+        assertThat(summary.getTotalValue()).isEqualTo(value);
+    }
+
+    private Long saveCompany() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Company company = companyDao.save(new Company(null, suffix, "Delete " + suffix, null, null, null, suffix, "secret"));
+        inventoryService.createEmpty(company.getId());
+        return company.getId();
+    }
+}
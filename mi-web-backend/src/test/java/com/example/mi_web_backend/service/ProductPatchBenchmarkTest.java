@@ -0,0 +1,119 @@
+package com.example.mi_web_backend.service;
+
+import com.example.mi_web_backend.dto.ProductDto;
+import com.example.mi_web_backend.model.Company;
+import com.example.mi_web_backend.repository.CompanyDao;
+import com.example.mi_web_backend.repository.ProductDao;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara sentencias SQL y latencia de un cambio de un solo campo por PUT (findById + save)
+ * y por PATCH (un UPDATE de la columna enviada, con la versión en el WHERE).
+ * Se mide el precio, que ajusta el resumen de inventario de la compañía: ese PATCH bloquea la fila para leer
+ * los valores anteriores y actualiza company_inventory, así que usa tres sentencias, como el PUT: la ventaja que
+ * queda es de latencia. El nombre, fuera del resumen, se mide aparte como referencia de un PATCH de una sentencia.
+ * Se ejecuta con: mvn test -Pperformance [-Dpatch.iterations=2000]
+ */
+@Tag("performance")
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ProductPatchBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductPatchBenchmarkTest.class);
+    private static final int ITERATIONS = Integer.getInteger("patch.iterations", 2000);
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductDao productDao;
+
+    @Autowired
+    private CompanyDao companyDao;
+
+    @Autowired
+    private CompanyInventoryService inventoryService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @Test
+    void patchNeverUsesMoreStatementsThanPut() {
+        Company company = companyDao.save(new Company(null, "PATCHB1", "Patch bench", null, null, null, "patchbench", "secret"));
+        inventoryService.createEmpty(company.getId());
+        Long putProduct = productService.createProduct(new ProductDto(null, "Patchable", 10, 1.0, company.getId(), null, null)).getId();
+        Long patchProduct = productService.createProduct(new ProductDto(null, "Patchable", 10, 1.0, company.getId(), null, null)).getId();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Calentamiento (JIT y caché de compañías)
+        for (int i = 0; i < 100; i++) {
+            put(putProduct, i);
+            productService.patchProduct(patchProduct, Map.of("prize", (double) i), null);
+            productService.patchProduct(patchProduct, Map.of("name", "Patched " + i), null);
+        }
+
+        Run put = measure(i -> put(putProduct, i));
+        Run patch = measure(i -> productService.patchProduct(patchProduct, Map.of("prize", (double) i), null));
+        Run patchName = measure(i -> productService.patchProduct(patchProduct, Map.of("name", "Patched " + i), null));
+
+        log.info(String.format("Single-field update x%d: PUT prize %.1f statements/op %.1f us/op, "
+                        + "PATCH prize %.1f statements/op %.1f us/op, PATCH name %.1f statements/op %.1f us/op",
+                ITERATIONS, put.statementsPerOp(), put.microsPerOp(), patch.statementsPerOp(), patch.microsPerOp(),
+                patchName.statementsPerOp(), patchName.microsPerOp()));
+
+        assertThat(patch.statements).isEqualTo(3L * ITERATIONS); // SELECT ... FOR UPDATE, UPDATE product, UPDATE company_inventory
+        assertThat(patchName.statements).isEqualTo(ITERATIONS);
+        assertThat(put.statements).isGreaterThanOrEqualTo(patch.statements);
+        assertThat(productDao.findById(patchProduct).orElseThrow().getPrize()).isEqualTo(ITERATIONS - 1.0);
+        assertThat(inventoryService.getInventorySummary(company.getId()).orElseThrow().getTotalValue())
+                .isEqualTo(10 * (ITERATIONS - 1.0) * 2);
+    }
+
+    // Ejecuta la operación ITERATIONS veces y devuelve las sentencias preparadas y el tiempo total.
+    private Run measure(IntConsumer operation) {
+        statistics.clear();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            operation.accept(i);
+        }
+        return new Run(statistics.getPrepareStatementCount(), System.nanoTime() - start);
+    }
+
+    private void put(Long id, int i) {
+        ProductDto change = new ProductDto();
+        change.setPrize((double) i);
+        productService.updateProduct(id, change);
+    }
+
+    private static final class Run {
+        private final long statements;
+        private final long nanos;
+
+        private Run(long statements, long nanos) {
+            this.statements = statements;
+            this.nanos = nanos;
+        }
+
+        private double statementsPerOp() {
+            return statements / (double) ITERATIONS;
+        }
+
+        private double microsPerOp() {
+            return nanos / 1000.0 / ITERATIONS;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.mi_web_backend.service;
+
+import com.example.mi_web_backend.dto.StockRequestDto;
+import com.example.mi_web_backend.model.Company;
+import com.example.mi_web_backend.model.Product;
+import com.example.mi_web_backend.repository.CompanyDao;
+import com.example.mi_web_backend.repository.ProductDao;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ProductStockConcurrencyTest {
+
+    private static final int THREADS = 300;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductDao productDao;
+
+    @Autowired
+    private CompanyDao companyDao;
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        Company company = saveCompany();
+        Long productId = saveProduct(company, 100);
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger outOfStock = new AtomicInteger();
+
+        runConcurrently(THREADS, thread -> {
+            try {
+                productService.reserveStock(productId, 1);
+                reserved.incrementAndGet();
+            } catch (OutOfStockException e) {
+                outOfStock.incrementAndGet();
+            }
+        });
+
+        assertThat(reserved.get()).isEqualTo(100);
+        assertThat(outOfStock.get()).isEqualTo(THREADS - 100);
+        assertThat(productDao.findById(productId).orElseThrow().getStock()).isZero();
+    }
+
+    @Test
+    void multiItemReservationsInOppositeOrderNeitherDeadlockNorOversell() throws Exception {
+        Company company = saveCompany();
+        Long first = saveProduct(company, 150);
+        Long second = saveProduct(company, 150);
+        AtomicInteger reserved = new AtomicInteger();
+
+        runConcurrently(THREADS, thread -> {
+            // La mitad de los hilos pide los productos en orden inverso: el servicio los ordena igualmente.
+            List<StockRequestDto> order = thread % 2 == 0
+                    ? Arrays.asList(new StockRequestDto(first, 1), new StockRequestDto(second, 1))
+                    : Arrays.asList(new StockRequestDto(second, 1), new StockRequestDto(first, 1));
+            try {
+                productService.reserveStock(order);
+                reserved.incrementAndGet();
+            } catch (OutOfStockException e) {
+                // Esperado cuando se agota el stock
+            }
+        });
+
+        assertThat(reserved.get()).isEqualTo(150);
+        assertThat(productDao.findById(first).orElseThrow().getStock()).isZero();
+        assertThat(productDao.findById(second).orElseThrow().getStock()).isZero();
+    }
+
+    @Test
+    void failedMultiItemReservationRollsBackEveryItem() {
+        Company company = saveCompany();
+        Long plenty = saveProduct(company, 10);
+        Long scarce = saveProduct(company, 1);
+
+        assertThatThrownBy(() -> productService.reserveStock(
+                Arrays.asList(new StockRequestDto(plenty, 5), new StockRequestDto(scarce, 2))))
+                .isInstanceOf(OutOfStockException.class);
+
+        assertThat(productDao.findById(plenty).orElseThrow().getStock()).isEqualTo(10);
+        assertThat(productDao.findById(scarce).orElseThrow().getStock()).isEqualTo(1);
+    }
+
+    private void runConcurrently(int threads, ThreadTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int thread = i;
+            Callable<Void> call = () -> {
+                start.await();
+                task.run(thread);
+                return null;
+            };
+            futures.add(executor.submit(call));
+        }
+        start.countDown();
+        for (Future<Void> future : futures) {
+            future.get(60, TimeUnit.SECONDS); // Propaga cualquier excepción inesperada (p. ej. un deadlock)
+        }
+        executor.shutdown();
+    }
+
+    private Company saveCompany() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        return companyDao.save(new Company(null, suffix, "Stock " + suffix, null, null, null, suffix, "secret"));
+    }
+
+    private Long saveProduct(Company company, int stock) {
+        Product product = new Product();
+        product.setName("Reservable");
+        product.setStock(stock);
+        product.setPrize(9.99);
+        product.setCompany(company);
+        return productDao.save(product).getId();
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask {
+        void run(int thread) throws Exception;
+    }
+}
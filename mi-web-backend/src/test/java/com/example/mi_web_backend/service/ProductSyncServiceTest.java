@@ -0,0 +1,137 @@
+package com.example.mi_web_backend.service;
+
+import com.example.mi_web_backend.dto.CompanyDto;
+import com.example.mi_web_backend.dto.ProductChangesDto;
+import com.example.mi_web_backend.dto.ProductDto;
+import com.example.mi_web_backend.model.Company;
+import com.example.mi_web_backend.pagination.ChangeToken;
+import com.example.mi_web_backend.repository.CompanyDao;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class ProductSyncServiceTest {
+
+    @Autowired
+    private ProductSyncService syncService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CompanyService companyService;
+
+    @Autowired
+    private CompanyDao companyDao;
+
+    @Test
+    void deltaContainsOnlyChangesAndDeletionsSinceToken() {
+        Long companyId = saveCompany();
+        Long otherId = saveCompany();
+        ProductDto before = productService.createProduct(new ProductDto(null, "Before", 1, 1.0, companyId, null, null));
+        String token = syncService.getChanges(null, companyId, 100).getToken();
+
+        ProductDto lamp = productService.createProduct(new ProductDto(null, "Lamp", 5, 2.0, companyId, null, null));
+        productService.patchProduct(lamp.getId(), Map.of("name", "Desk lamp"), null);
+        productService.reserveStock(lamp.getId(), 2);
+        productService.deleteProduct(before.getId());
+        productService.createProduct(new ProductDto(null, "Elsewhere", 1, 1.0, otherId, null, null));
+
+        ProductChangesDto changes = syncService.getChanges(token, companyId, 100);
+
+        assertThat(changes.getChanged()).extracting(ProductDto::getId).containsExactly(lamp.getId());
+        assertThat(changes.getChanged().get(0).getName()).isEqualTo("Desk lamp");
+        assertThat(changes.getChanged().get(0).getStock()).isEqualTo(3);
+        assertThat(changes.getDeleted()).containsExactly(before.getId());
+        assertThat(changes.isHasMore()).isFalse();
+
+        ProductChangesDto nothingNew = syncService.getChanges(changes.getToken(), companyId, 100);
+        assertThat(nothingNew.getChanged()).isEmpty();
+        assertThat(nothingNew.getDeleted()).isEmpty();
+    }
+
+    @Test
+    void movedProductIsDeletedForItsOldCompanyOnly() {
+        Long companyId = saveCompany();
+        Long otherId = saveCompany();
+        ProductDto chair = productService.createProduct(new ProductDto(null, "Chair", 4, 1.5, companyId, null, null));
+        String token = syncService.getChanges(null, null, 100).getToken();
+
+        productService.patchProduct(chair.getId(), Map.of("companyId", otherId), null);
+
+        assertThat(syncService.getChanges(token, companyId, 100).getDeleted()).containsExactly(chair.getId());
+        assertThat(syncService.getChanges(token, otherId, 100).getChanged()).extracting(ProductDto::getId).containsExactly(chair.getId());
+        ProductChangesDto all = syncService.getChanges(token, null, 500);
+        assertThat(all.getDeleted()).doesNotContain(chair.getId());
+        assertThat(all.getChanged()).extracting(ProductDto::getId).contains(chair.getId());
+    }
+
+    @Test
+    void renamedCompanyBringsItsProductsIntoTheDelta() {
+        Long companyId = saveCompany();
+        Long otherId = saveCompany();
+        ProductDto pen = productService.createProduct(new ProductDto(null, "Pen", 1, 1.0, companyId, null, null));
+        ProductDto ink = productService.createProduct(new ProductDto(null, "Ink", 1, 1.0, companyId, null, null));
+        productService.createProduct(new ProductDto(null, "Untouched", 1, 1.0, otherId, null, null));
+        String token = syncService.getChanges(null, null, 100).getToken();
+
+        companyService.updateCompany(companyId, new CompanyDto(null, "Renamed", null, null));
+        ProductChangesDto renamed = syncService.getChanges(token, null, 500);
+        assertThat(renamed.getChanged()).extracting(ProductDto::getId).containsExactlyInAnyOrder(pen.getId(), ink.getId());
+        assertThat(renamed.getChanged()).extracting(ProductDto::getCompanyName).containsOnly("Renamed");
+
+        companyService.patchCompany(companyId, Map.of("name", "Patched"), null);
+        ProductChangesDto patched = syncService.getChanges(renamed.getToken(), companyId, 100);
+        assertThat(patched.getChanged()).extracting(ProductDto::getCompanyName).containsExactly("Patched", "Patched");
+
+        companyService.saveCompaniesBatch(List.of(new CompanyDto(companyId, "Batched", null, null)));
+        ProductChangesDto batched = syncService.getChanges(patched.getToken(), companyId, 100);
+        assertThat(batched.getChanged()).extracting(ProductDto::getCompanyName).containsExactly("Batched", "Batched");
+    }
+
+    @Test
+    void largeDeltasArePagedWithHasMore() {
+        Long companyId = saveCompany();
+        String token = syncService.getChanges(null, companyId, 100).getToken();
+        productService.saveProductsBatch(List.of(
+                new ProductDto(null, "One", 1, 1.0, companyId, null, null),
+                new ProductDto(null, "Two", 1, 1.0, companyId, null, null),
+                new ProductDto(null, "Three", 1, 1.0, companyId, null, null)));
+
+        List<String> names = new ArrayList<>();
+        ProductChangesDto page;
+        int calls = 0;
+        do {
+            page = syncService.getChanges(token, companyId, 2);
+            page.getChanged().forEach(product -> names.add(product.getName()));
+            token = page.getToken();
+            calls++;
+        } while (page.isHasMore());
+
+        assertThat(names).containsExactly("One", "Two", "Three");
+        assertThat(calls).isEqualTo(2);
+    }
+
+    @Test
+    void expiredTokenRequiresFullResync() {
+        String expired = new ChangeToken(0, 0).encode();
+
+        assertThatThrownBy(() -> syncService.getChanges(expired, null, 100)).isInstanceOf(StaleChangeTokenException.class);
+        assertThatThrownBy(() -> syncService.getChanges("not-a-token", null, 100)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Long saveCompany() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Company company = companyDao.save(new Company(null, suffix, "Sync " + suffix, null, null, null, suffix, "secret"));
+        return company.getId();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.mi_web_backend.stream;
+
+import com.example.mi_web_backend.dto.ProductDto;
+import com.example.mi_web_backend.repository.ProductDao;
+import com.example.mi_web_backend.service.HotStockCounters;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Comprueba que un cliente que deja de leer (su escritura se queda bloqueada) no deja sin hilos
+ * de envío al resto de suscriptores.
+ */
+class ProductChangeHubStallTest {
+
+    private static final long WRITE_TIMEOUT_MS = 100;
+
+    private final CountDownLatch slowWriting = new CountDownLatch(1);
+    private final CountDownLatch releaseSlow = new CountDownLatch(1);
+    private final BlockingQueue<Set<?>> fastReceived = new LinkedBlockingQueue<>();
+    private final Queue<SseEmitter> emitters = new ArrayDeque<>();
+
+    // Un solo hilo de envío: basta una escritura bloqueada para parar a todos si no se reemplaza
+    private final ProductChangeHub hub = new ProductChangeHub(mock(ProductDao.class), mock(HotStockCounters.class),
+            new SimpleMeterRegistry(), 256, 1, 60_000, WRITE_TIMEOUT_MS) {
+        @Override
+        SseEmitter newEmitter(long timeout) {
+            return emitters.remove();
+        }
+    };
+
+    @AfterEach
+    void shutdown() {
+        releaseSlow.countDown();
+        hub.shutdown();
+    }
+
+    @Test
+    void stalledWriteDropsTheClientAndKeepsOthersFlowing() throws Exception {
+        emitters.add(new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                slowWriting.countDown();
+                await(releaseSlow);
+                throw new IOException("Broken pipe");
+            }
+        });
+        emitters.add(new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                fastReceived.add(builder.build());
+            }
+        });
+        hub.subscribe(1L);
+        hub.onProductChanged(ProductChangedEvent.updated(product(1L)));
+        assertThat(slowWriting.await(5, TimeUnit.SECONDS)).isTrue();
+
+        hub.subscribe(1L);
+        hub.onProductChanged(ProductChangedEvent.updated(product(2L)));
+        assertThat(fastReceived.poll(2 * WRITE_TIMEOUT_MS, TimeUnit.MILLISECONDS)).as("queued behind the stalled write").isNull();
+
+        Thread.sleep(WRITE_TIMEOUT_MS);
+        hub.checkStalledWrites();
+
+        assertThat(fastReceived.poll(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(hub.subscriberCount()).isEqualTo(1);
+        hub.onProductChanged(ProductChangedEvent.updated(product(3L)));
+        assertThat(fastReceived.poll(5, TimeUnit.SECONDS)).isNotNull();
+    }
+
+    private static ProductDto product(Long id) {
+        return new ProductDto(id, "Product " + id, 1, 1.0, 1L, "Company", 0L);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.mi_web_backend.stream;
+
+import com.example.mi_web_backend.dto.CompanyDto;
+import com.example.mi_web_backend.dto.ProductDto;
+import com.example.mi_web_backend.model.Company;
+import com.example.mi_web_backend.repository.CompanyDao;
+import com.example.mi_web_backend.service.CompanyService;
+import com.example.mi_web_backend.service.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comprueba de extremo a extremo que GET /api/products/stream entrega los cambios confirmados
+ * de la compañía suscrita y no los de otras, el borrado a la anterior cuando un producto cambia de compañía
+ * y el nombre nuevo de sus productos cuando la compañía se renombra.
+ */
+// Latido corto: las cabeceras de la respuesta SSE no salen hasta el primer envío
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "app.stream.heartbeat-ms=500")
+class ProductChangeHubTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CompanyService companyService;
+
+    @Autowired
+    private CompanyDao companyDao;
+
+    // Un cliente por test y referenciado: si el GC recoge un HttpClient, cierra sus conexiones abiertas
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final List<Stream<String>> openStreams = new ArrayList<>();
+
+    @AfterEach
+    void closeStreams() {
+        openStreams.forEach(Stream::close);
+    }
+
+    @Test
+    void subscriberReceivesCommittedChangesOfItsCompany() throws Exception {
+        Long companyId = saveCompany();
+        Long otherId = saveCompany();
+        BlockingQueue<String> lines = subscribe("/api/products/stream?companyId=" + companyId);
+
+        productService.createProduct(new ProductDto(null, "Elsewhere", 1, 1.0, otherId, null, null));
+        ProductDto created = productService.createProduct(new ProductDto(null, "Streamed", 5, 2.0, companyId, null, null));
+        List<String> received = new ArrayList<>(readUntil(lines, line -> line.contains("\"stock\":5")));
+
+        productService.reserveStock(created.getId(), 2);
+        received.addAll(readUntil(lines, line -> line.contains("\"stock\":3")));
+
+        productService.deleteProduct(created.getId());
+        received.addAll(readUntil(lines, line -> line.equals("event:" + ProductChangeHub.EVENT_DELETED)));
+
+        assertThat(received).noneMatch(line -> line.contains("Elsewhere"));
+    }
+
+    @Test
+    void productMovedToAnotherCompanyIsDeletedForTheOldOne() throws Exception {
+        Long fromId = saveCompany();
+        Long toId = saveCompany();
+        BlockingQueue<String> fromLines = subscribe("/api/products/stream?companyId=" + fromId);
+        BlockingQueue<String> toLines = subscribe("/api/products/stream?companyId=" + toId);
+        ProductDto created = productService.createProduct(new ProductDto(null, "Mover", 4, 1.0, fromId, null, null));
+        readUntil(fromLines, line -> line.contains("\"name\":\"Mover\""));
+
+        productService.updateProduct(created.getId(), new ProductDto(null, "Mover", 4, 1.0, toId, null, null));
+        readUntil(fromLines, line -> line.equals("event:" + ProductChangeHub.EVENT_DELETED));
+        assertThat(readUntil(fromLines, line -> line.startsWith("data:")).get(0)).contains("\"id\":" + created.getId());
+        readUntil(toLines, line -> line.contains("\"name\":\"Mover\""));
+
+        // Y de vuelta con un merge-patch
+        productService.patchProduct(created.getId(), Map.of("companyId", fromId), null);
+        readUntil(toLines, line -> line.equals("event:" + ProductChangeHub.EVENT_DELETED));
+        assertThat(readUntil(toLines, line -> line.startsWith("data:")).get(0)).contains("\"id\":" + created.getId());
+        readUntil(fromLines, line -> line.contains("\"name\":\"Mover\""));
+    }
+
+    @Test
+    void renamedCompanyResendsItsProductsWithTheNewName() throws Exception {
+        Long companyId = saveCompany();
+        BlockingQueue<String> lines = subscribe("/api/products/stream?companyId=" + companyId);
+        BlockingQueue<String> allLines = subscribe("/api/products/stream");
+        productService.createProduct(new ProductDto(null, "First", 1, 1.0, companyId, null, null));
+        productService.createProduct(new ProductDto(null, "Second", 2, 1.0, companyId, null, null));
+        readUntil(lines, line -> line.contains("\"name\":\"Second\""));
+        String renamed = "Renamed " + companyId;
+
+        companyService.updateCompany(companyId, new CompanyDto(null, renamed, null, null));
+        List<String> received = readUntil(lines, line -> line.contains("\"name\":\"Second\"")
+                && line.contains("\"companyName\":\"" + renamed + "\""));
+        assertThat(received).anyMatch(line -> line.contains("\"name\":\"First\"")
+                && line.contains("\"companyName\":\"" + renamed + "\""));
+        readUntil(allLines, line -> line.contains("\"companyName\":\"" + renamed + "\""));
+
+        String patched = "Patched " + companyId;
+        companyService.patchCompany(companyId, Map.of("name", patched), null);
+        readUntil(lines, line -> line.contains("\"companyName\":\"" + patched + "\""));
+    }
+
+    @Test
+    void unknownCompanyIsNotFound() throws Exception {
+        HttpResponse<Void> response = client.send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/products/stream?companyId=-1")).build(),
+                HttpResponse.BodyHandlers.discarding());
+
+        assertThat(response.statusCode()).isEqualTo(404);
+    }
+
+    // Abre la conexión SSE y vuelca sus líneas en una cola; al volver ya está registrada la suscripción.
+    private BlockingQueue<String> subscribe(String path) throws Exception {
+        HttpResponse<Stream<String>> response = client.send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).header("Accept", "text/event-stream").build(),
+                HttpResponse.BodyHandlers.ofLines());
+        assertThat(response.statusCode()).isEqualTo(200);
+        openStreams.add(response.body());
+        BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+        Thread reader = new Thread(() -> {
+            try {
+                response.body().forEach(lines::add);
+            } catch (RuntimeException e) {
+                // Conexión cerrada al terminar el test
+            }
+        }, "sse-reader");
+        reader.setDaemon(true);
+        reader.start();
+        return lines;
+    }
+
+    private static List<String> readUntil(BlockingQueue<String> lines, Predicate<String> until) throws InterruptedException {
+        List<String> read = new ArrayList<>();
+        while (true) {
+            String line = lines.poll(10, TimeUnit.SECONDS);
+            assertThat(line).as("SSE event within 10 s, received so far: %s", read).isNotNull();
+            read.add(line);
+            if (until.test(line)) {
+                return read;
+            }
+        }
+    }
+
+    private Long saveCompany() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Company company = companyDao.save(new Company(null, suffix, "Stream " + suffix, null, null, null, suffix, "secret"));
+        return company.getId();
+    }
+}